@@ -0,0 +1,144 @@
+package com.melip.entitygenerator.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * ベンチマークを実行する簡易ハーネスです。<br>
+ * JMHと同様に、ウォームアップの後で一定時間ずつ計測を繰り返し、スループット（ops/s）と
+ * 1回あたりの割り当てメモリ量（B/op、JMHのgcプロファイラのgc.alloc.rate.normに相当）を出力します。<br>
+ * 回数・時間はシステムプロパティで変更できます。
+ * <ul>
+ * <li>bench.warmup：ウォームアップの回数（デフォルト3）</li>
+ * <li>bench.iterations：計測の回数（デフォルト5）</li>
+ * <li>bench.time：1回あたりの時間（ミリ秒、デフォルト1000）</li>
+ * <li>bench.filter：実行するベンチマーク名に含まれる文字列（デフォルトは全て）</li>
+ * </ul>
+ */
+public class BenchmarkRunner {
+
+  /** スレッドの情報 */
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+  /** ウォームアップの回数 */
+  private final int warmupIterations = Integer.getInteger("bench.warmup", 3);
+  /** 計測の回数 */
+  private final int measurementIterations = Integer.getInteger("bench.iterations", 5);
+  /** 1回あたりの時間（ナノ秒） */
+  private final long iterationNanos = Long.getLong("bench.time", 1000L) * 1000000L;
+  /** 実行するベンチマーク名に含まれる文字列 */
+  private final String filter = System.getProperty("bench.filter", "");
+
+  /** 結果の消費先（最適化で処理が消されないようにする） */
+  private int sink = 0;
+
+  /**
+   * ベンチマークの処理を表すインターフェースです。
+   */
+  public interface Benchmark {
+
+    /**
+     * 処理を1回実行します。
+     * 
+     * @return 処理結果（最適化で処理が消されないよう消費されます）
+     * @throws Exception
+     */
+    Object run() throws Exception;
+  }
+
+  /**
+   * 結果の見出しを出力します。
+   */
+  public void printHeader() {
+    System.out.println(String.format("%-40s %-24s %14s %12s %14s %12s", "Benchmark", "Params",
+        "ops/s", "error(±%)", "B/op", "MB/s"));
+  }
+
+  /**
+   * ベンチマークを実行し、結果を出力します。
+   * 
+   * @param name ベンチマーク名
+   * @param params パラメータ
+   * @param benchmark 処理
+   * @throws Exception
+   */
+  public void run(String name, String params, Benchmark benchmark) throws Exception {
+
+    if (!name.contains(filter)) {
+      return;
+    }
+
+    for (int i = 0; i < warmupIterations; i++) {
+      iterate(benchmark);
+    }
+
+    double[] throughputs = new double[measurementIterations];
+    double bytesPerOp = 0.0;
+    for (int i = 0; i < measurementIterations; i++) {
+      long startAllocated = allocatedBytes();
+      long[] result = iterate(benchmark);
+      long allocated = allocatedBytes() - startAllocated;
+      throughputs[i] = result[0] * 1e9 / result[1];
+      bytesPerOp += (double) allocated / result[0] / measurementIterations;
+    }
+
+    double mean = 0.0;
+    for (double throughput : throughputs) {
+      mean += throughput / throughputs.length;
+    }
+    double variance = 0.0;
+    for (double throughput : throughputs) {
+      variance += (throughput - mean) * (throughput - mean) / Math.max(1, throughputs.length - 1);
+    }
+    double errorPercent = 0.0 == mean ? 0.0 : Math.sqrt(variance) / mean * 100.0;
+
+    System.out.println(String.format("%-40s %-24s %14.1f %12.1f %14.0f %12.1f", name, params, mean,
+        errorPercent, bytesPerOp, bytesPerOp * mean / (1024.0 * 1024.0)));
+  }
+
+  /**
+   * 1回分の時間だけ処理を繰り返します。
+   * 
+   * @param benchmark 処理
+   * @return 実行回数と経過時間（ナノ秒）
+   * @throws Exception
+   */
+  private long[] iterate(Benchmark benchmark) throws Exception {
+
+    long ops = 0L;
+    long start = System.nanoTime();
+    long elapsed;
+    do {
+      Object result = benchmark.run();
+      sink += null == result ? 0 : result.hashCode();
+      ops++;
+      elapsed = System.nanoTime() - start;
+    } while (elapsed < iterationNanos);
+
+    return new long[] {ops, elapsed};
+  }
+
+  /**
+   * 現在のスレッドが割り当てたメモリ量の累計を取得します。
+   * 
+   * @return メモリ量（バイト）、計測できない場合は0
+   */
+  private static long allocatedBytes() {
+
+    if (!(THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean)) {
+      return 0L;
+    }
+    return ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).getThreadAllocatedBytes(Thread
+        .currentThread().getId());
+  }
+
+  /**
+   * 結果の消費先を取得します。
+   * 
+   * @return 結果の消費先
+   */
+  public int getSink() {
+    return sink;
+  }
+
+}
@@ -0,0 +1,316 @@
+package com.melip.entitygenerator.bench;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.lang.StringEscapeUtils;
+
+import com.google.common.base.Joiner;
+import com.google.common.io.Files;
+
+import com.melip.entitygenerator.EntityGeneratorUtils;
+import com.melip.entitygenerator.entity.Domain;
+import com.melip.entitygenerator.incremental.IncrementalGeneration;
+
+/**
+ * 差分生成（{@link IncrementalGeneration}）の判定を確認するチェックです。<br>
+ * Excelで保存したテーブル定義書と同じく、文字列をすべて共有文字列パートに出現順で格納し、
+ * 保存のたびに共有文字列のインデックスを振り直すxlsxを作成して、編集ごとに再生成されるシートが期待どおりか確認します。
+ * ドメイン定義シートの編集で共有文字列パートが変わっても全シートを再生成せず、
+ * 変更されたドメインを使用しているシートのみ再生成されることを確認します。
+ * 期待と異なるステップがある場合は終了コード1で終了します。
+ * <ul>
+ * <li>incremental.workdir：テーブル定義書と出力先を作成するディレクトリ（デフォルトは一時ディレクトリ）</li>
+ * </ul>
+ */
+public class IncrementalCheck {
+
+  /** ドメイン定義シート名 */
+  private static final String DOMAIN_SHEET = "ドメイン一覧";
+  /** ユーザー定義の表示形式のID */
+  private static final int CUSTOM_FORMAT_ID = 164;
+
+  /** 名前空間：SpreadsheetML */
+  private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+  /** 名前空間：パッケージのリレーションシップ */
+  private static final String NS_PACKAGE_RELS =
+      "http://schemas.openxmlformats.org/package/2006/relationships";
+  /** 名前空間：リレーションシップ */
+  private static final String NS_RELS =
+      "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+  /** 終了コード：すべてのステップが期待どおり */
+  private static final int EXIT_OK = 0;
+  /** 終了コード：期待と異なるステップがある */
+  private static final int EXIT_FAILED = 1;
+
+  /** ドメイン定義（ドメイン名、データ型） */
+  private final List<String[]> domainRows = new ArrayList<String[]>();
+  /** シートごとのフィールド（フィールド名、ドメイン名） */
+  private final Map<String, List<String[]>> sheetMap = new LinkedHashMap<String, List<String[]>>();
+  /** シートごとのセルのスタイル */
+  private final Map<String, Integer> styleMap = new HashMap<String, Integer>();
+  /** ユーザー定義の表示形式 */
+  private String customFormat = "yyyy/mm/dd";
+
+  /**
+   * メイン処理
+   * 
+   * @param args 引数
+   * @throws Exception
+   */
+  public static void main(String[] args) throws Exception {
+
+    File workDir =
+        new File(System.getProperty("incremental.workdir", System.getProperty("java.io.tmpdir")),
+            "entitygenerator-incremental");
+    File book = new File(workDir, "book.xlsx");
+    File outputDir = new File(workDir, "out");
+    File cacheDir = new File(workDir, "cache");
+    for (File file : new File[] {book, outputDir, cacheDir, workDir}) {
+      if (file.isDirectory()) {
+        for (File child : file.listFiles()) {
+          child.delete();
+        }
+      }
+      file.delete();
+    }
+    outputDir.mkdirs();
+
+    IncrementalCheck check = new IncrementalCheck();
+    check.domainRows.add(new String[] {"CODE", "CHAR(3)"});
+    check.domainRows.add(new String[] {"NAME", "VARCHAR(20)"});
+    check.domainRows.add(new String[] {"TEXT", "VARCHAR(200)"});
+    check.addSheet("T0", 0, "ID", "CODE");
+    check.addSheet("T1", 0, "NAME", "NAME", "CD", "CODE");
+    check.addSheet("T2", 1, "MEMO_TEXT", "TEXT");
+
+    boolean failed = false;
+    failed |= !check.step("初回", book, outputDir, cacheDir, "T0", "T1", "T2");
+    failed |= !check.step("変更なし", book, outputDir, cacheDir);
+
+    // 先頭にドメインを追加すると、共有文字列のインデックスがすべて振り直される
+    check.domainRows.add(0, new String[] {"MEMO", "VARCHAR(10)"});
+    failed |= !check.step("未使用のドメインを追加", book, outputDir, cacheDir);
+
+    check.domainRows.set(1, new String[] {"CODE", "CHAR(5)"});
+    failed |= !check.step("ドメインCODEを変更", book, outputDir, cacheDir, "T0", "T1");
+
+    check.customFormat = "yyyy-mm-dd";
+    failed |= !check.step("表示形式を変更", book, outputDir, cacheDir, "T2");
+
+    check.sheetMap.get("T1").set(1, new String[] {"CODE_CD", "CODE"});
+    failed |= !check.step("フィールド名を変更", book, outputDir, cacheDir, "T1");
+
+    System.exit(failed ? EXIT_FAILED : EXIT_OK);
+  }
+
+  /**
+   * エンティティシートを追加します。
+   * 
+   * @param sheetName シート名
+   * @param style セルのスタイル
+   * @param fields フィールド名とドメイン名の組
+   */
+  private void addSheet(String sheetName, int style, String... fields) {
+
+    List<String[]> rows = new ArrayList<String[]>();
+    for (int i = 0; i < fields.length; i += 2) {
+      rows.add(new String[] {fields[i], fields[i + 1]});
+    }
+    sheetMap.put(sheetName, rows);
+    styleMap.put(sheetName, style);
+  }
+
+  /**
+   * テーブル定義書を保存して差分生成を1回実行し、再生成されたシートが期待どおりか確認します。
+   * 
+   * @param name ステップ名
+   * @param book テーブル定義書
+   * @param outputDir 出力先
+   * @param cacheDir 生成結果のキャッシュディレクトリ
+   * @param expected 再生成されるシート名
+   * @return 期待どおりの場合true
+   * @throws IOException
+   */
+  private boolean step(String name, File book, File outputDir, File cacheDir,
+      String... expected) throws IOException {
+
+    write(book);
+
+    Domain domain = new Domain();
+    Map<String, String> domainMap = new HashMap<String, String>();
+    for (String[] row : domainRows) {
+      domainMap.put(row[0], row[1]);
+    }
+    domain.setDomainMap(domainMap);
+    domain.setJavaTypeMap(new HashMap<String, String>());
+
+    Set<String> generated = new TreeSet<String>();
+    IncrementalGeneration incremental =
+        new IncrementalGeneration(book, outputDir, cacheDir, DOMAIN_SHEET, "templates",
+            "properties");
+    try {
+      incremental.applyDomain(domain);
+      for (Map.Entry<String, List<String[]>> entry : sheetMap.entrySet()) {
+        String sheetName = entry.getKey();
+        if (incremental.isUpToDate(sheetName)) {
+          continue;
+        }
+        generated.add(sheetName);
+        String className = "C" + sheetName;
+        Files.touch(new File(outputDir, className + EntityGeneratorUtils.EXTENSION_JAVA));
+        Set<String> domainNames = new TreeSet<String>();
+        for (String[] row : entry.getValue()) {
+          domainNames.add(row[1]);
+        }
+        incremental.recordSheet(sheetName, className, domainNames);
+      }
+      incremental.store();
+    } finally {
+      incremental.close();
+    }
+
+    Set<String> expectedSet = new TreeSet<String>(Arrays.asList(expected));
+    boolean ok = expectedSet.equals(generated);
+    System.out.println(String.format("%-20s 期待%-16s 結果%-16s %s", name, expectedSet, generated,
+        ok ? "OK" : "NG"));
+    return ok;
+  }
+
+  /**
+   * テーブル定義書をxlsx形式で保存します。<br>
+   * Excelと同じく、文字列はすべて共有文字列パートにシートの順・出現順で格納します。
+   * 
+   * @param book テーブル定義書
+   * @throws IOException
+   */
+  private void write(File book) throws IOException {
+
+    Map<String, Integer> sharedStrings = new LinkedHashMap<String, Integer>();
+    List<String> sheetNames = new ArrayList<String>();
+    List<String> sheetXmls = new ArrayList<String>();
+    sheetNames.add(DOMAIN_SHEET);
+    sheetXmls.add(toSheetXml(domainRows, 0, sharedStrings));
+    for (Map.Entry<String, List<String[]>> entry : sheetMap.entrySet()) {
+      sheetNames.add(entry.getKey());
+      sheetXmls.add(toSheetXml(entry.getValue(), styleMap.get(entry.getKey()), sharedStrings));
+    }
+
+    StringBuilder workbook = new StringBuilder();
+    StringBuilder workbookRels = new StringBuilder();
+    workbook.append("<workbook xmlns=\"" + NS_MAIN + "\" xmlns:r=\"" + NS_RELS + "\"><sheets>");
+    workbookRels.append("<Relationships xmlns=\"" + NS_PACKAGE_RELS + "\">");
+    for (int i = 0; i < sheetNames.size(); i++) {
+      workbook.append("<sheet name=\"" + StringEscapeUtils.escapeXml(sheetNames.get(i))
+          + "\" sheetId=\"" + (i + 1) + "\" r:id=\"rId" + (i + 1) + "\"/>");
+      workbookRels.append(relationship("rId" + (i + 1), "worksheet", "worksheets/sheet" + (i + 1)
+          + ".xml"));
+    }
+    workbook.append("</sheets></workbook>");
+    workbookRels.append(relationship("rIdS", "sharedStrings", "sharedStrings.xml"));
+    workbookRels.append(relationship("rIdT", "styles", "styles.xml"));
+    workbookRels.append("</Relationships>");
+
+    StringBuilder sst = new StringBuilder();
+    sst.append("<sst xmlns=\"" + NS_MAIN + "\" uniqueCount=\"" + sharedStrings.size() + "\">");
+    for (String value : sharedStrings.keySet()) {
+      sst.append("<si><t>" + StringEscapeUtils.escapeXml(value) + "</t></si>");
+    }
+    sst.append("</sst>");
+
+    String styles =
+        "<styleSheet xmlns=\"" + NS_MAIN + "\"><numFmts count=\"1\"><numFmt numFmtId=\""
+            + CUSTOM_FORMAT_ID + "\" formatCode=\"" + StringEscapeUtils.escapeXml(customFormat)
+            + "\"/></numFmts><cellXfs count=\"2\"><xf numFmtId=\"0\"/><xf numFmtId=\""
+            + CUSTOM_FORMAT_ID + "\" applyNumberFormat=\"1\"/></cellXfs></styleSheet>";
+
+    ZipOutputStream out = new ZipOutputStream(new FileOutputStream(book));
+    try {
+      putEntry(out, "_rels/.rels", "<Relationships xmlns=\"" + NS_PACKAGE_RELS + "\">"
+          + relationship("rId1", "officeDocument", "xl/workbook.xml") + "</Relationships>");
+      putEntry(out, "xl/workbook.xml", workbook.toString());
+      putEntry(out, "xl/_rels/workbook.xml.rels", workbookRels.toString());
+      putEntry(out, "xl/sharedStrings.xml", sst.toString());
+      putEntry(out, "xl/styles.xml", styles);
+      for (int i = 0; i < sheetXmls.size(); i++) {
+        putEntry(out, "xl/worksheets/sheet" + (i + 1) + ".xml", sheetXmls.get(i));
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * シートのパートを作成します。
+   * 
+   * @param rows 行
+   * @param style セルのスタイル
+   * @param sharedStrings 共有文字列とインデックス
+   * @return シートのパート
+   */
+  private static String toSheetXml(List<String[]> rows, int style,
+      Map<String, Integer> sharedStrings) {
+
+    StringBuilder xml = new StringBuilder();
+    xml.append("<worksheet xmlns=\"" + NS_MAIN + "\"><sheetData>");
+    for (int r = 0; r < rows.size(); r++) {
+      List<String> cells = new ArrayList<String>();
+      String[] row = rows.get(r);
+      for (int c = 0; c < row.length; c++) {
+        Integer index = sharedStrings.get(row[c]);
+        if (null == index) {
+          index = sharedStrings.size();
+          sharedStrings.put(row[c], index);
+        }
+        cells.add("<c r=\"" + (char) ('A' + c) + (r + 1) + "\" s=\"" + style + "\" t=\"s\"><v>"
+            + index + "</v></c>");
+      }
+      xml.append("<row r=\"" + (r + 1) + "\">" + Joiner.on("").join(cells) + "</row>");
+    }
+    xml.append("</sheetData></worksheet>");
+    return xml.toString();
+  }
+
+  /**
+   * リレーションシップの要素を作成します。
+   * 
+   * @param id ID
+   * @param type 種類
+   * @param target ターゲット
+   * @return リレーションシップの要素
+   */
+  private static String relationship(String id, String type, String target) {
+    return "<Relationship Id=\"" + id + "\" Type=\"" + NS_RELS + "/" + type + "\" Target=\""
+        + target + "\"/>";
+  }
+
+  /**
+   * zipエントリを書き込みます。
+   * 
+   * @param out 出力先
+   * @param name エントリ名
+   * @param content 内容
+   * @throws IOException
+   */
+  private static void putEntry(ZipOutputStream out, String name, String content)
+      throws IOException {
+
+    out.putNextEntry(new ZipEntry(name));
+    out.write(content.getBytes(StandardCharsets.UTF_8));
+    out.closeEntry();
+  }
+
+}
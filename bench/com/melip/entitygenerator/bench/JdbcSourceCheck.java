@@ -0,0 +1,134 @@
+package com.melip.entitygenerator.bench;
+
+import java.io.IOException;
+import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.melip.entitygenerator.entity.Entity;
+import com.melip.entitygenerator.entity.Field;
+import com.melip.entitygenerator.entity.JdbcEntitySource;
+import com.melip.entitygenerator.entity.ParsedWorkbook;
+
+/**
+ * データベースのメタデータからのエンティティ読み込み（{@link JdbcEntitySource}）を確認するチェックです。<br>
+ * 外部のデータベースやドライバーを使用せず、{@link StubDriver}が返すメタデータで以下を確認します。
+ * 期待と異なる項目がある場合は終了コード1で終了します。
+ * <ul>
+ * <li>小文字のテーブル名（m_user）でも、プレフィックスを除いたクラス名（User）になること</li>
+ * <li>スキーマを指定した場合は、指定したスキーマのテーブルのみ読み込むこと（複数スキーマは並行して読み込む）</li>
+ * <li>スキーマのないデータベースでは、カタログで同名のテーブルを区別すること</li>
+ * <li>接続できない場合の例外に、JDBC URLの認証情報が含まれないこと</li>
+ * <li>読み込み後に接続がすべてクローズされていること</li>
+ * </ul>
+ */
+public class JdbcSourceCheck {
+
+  /** 認証情報を含むJDBC URLのパスワード */
+  private static final String SECRET = "s3cret";
+
+  /** 終了コード：すべての項目が期待どおり */
+  private static final int EXIT_OK = 0;
+  /** 終了コード：期待と異なる項目がある */
+  private static final int EXIT_FAILED = 1;
+
+  /** 期待と異なる項目があるか */
+  private static boolean failed = false;
+
+  /**
+   * メイン処理
+   * 
+   * @param args 引数（なし）
+   * @throws Exception
+   */
+  public static void main(String[] args) throws Exception {
+
+    DriverManager.registerDriver(new StubDriver());
+
+    Map<String, String> classNames =
+        load(StubDriver.URL_PREFIX + StubDriver.DATASET_SCHEMA, Collections.<String> emptyList());
+    check("全スキーマのテーブル", "{public.m_user=User, public.t_order=Order, sales.m_user=User}",
+        classNames.toString());
+
+    classNames =
+        load(StubDriver.URL_PREFIX + StubDriver.DATASET_SCHEMA, Arrays.asList("public", "sales"));
+    check("複数スキーマの並行読み込み", "{public.m_user=User, public.t_order=Order, sales.m_user=User}",
+        classNames.toString());
+
+    ParsedWorkbook parsedWorkbook =
+        new JdbcEntitySource(StubDriver.URL_PREFIX + StubDriver.DATASET_SCHEMA, null, null,
+            Arrays.asList("public"), null).load();
+    Entity user = parsedWorkbook.getEntityMap().get("public.m_user");
+    StringBuilder fields = new StringBuilder();
+    for (Field field : user.getFieldList()) {
+      fields.append(field.getPhysicalName()).append(':').append(field.getCamelCase()).append(':')
+          .append(field.getFieldType()).append(' ');
+    }
+    check("指定したスキーマのみ", "[public.m_user, public.t_order]",
+        parsedWorkbook.getEntityMap().keySet().toString());
+    check("小文字の列名", "user_id:userId:Long user_name:userName:String", fields.toString().trim());
+
+    classNames =
+        load(StubDriver.URL_PREFIX + StubDriver.DATASET_CATALOG, Collections.<String> emptyList());
+    check("カタログで区別", "{public.m_user=User, public.t_order=Order, sales.m_user=User}",
+        classNames.toString());
+
+    String message = null;
+    try {
+      load(StubDriver.URL_PREFIX + StubDriver.DATASET_FAIL + "://admin:" + SECRET + "@db/app",
+          Collections.<String> emptyList());
+    } catch (IOException e) {
+      StringBuilder sb = new StringBuilder();
+      for (Throwable t = e; null != t; t = t.getCause()) {
+        sb.append(t.getMessage()).append('\n');
+      }
+      message = sb.toString();
+    }
+    check("接続失敗時の例外", "true", String.valueOf(null != message));
+    check("認証情報を伏せる", "false", String.valueOf(null != message && message.contains(SECRET)));
+
+    check("接続のクローズ", "0", String.valueOf(StubDriver.getOpenConnections()));
+
+    System.exit(failed ? EXIT_FAILED : EXIT_OK);
+  }
+
+  /**
+   * エンティティを読み込み、シート名ごとのクラス名を取得します。
+   * 
+   * @param url JDBC URL
+   * @param schemaNames スキーマ名
+   * @return シート名ごとのクラス名（シート名の順）
+   * @throws IOException
+   */
+  private static Map<String, String> load(String url, List<String> schemaNames)
+      throws IOException {
+
+    ParsedWorkbook parsedWorkbook = new JdbcEntitySource(url, null, null, schemaNames, null).load();
+    Map<String, String> classNames = new TreeMap<String, String>();
+    for (Map.Entry<String, Entity> e : parsedWorkbook.getEntityMap().entrySet()) {
+      classNames.put(e.getKey(), e.getValue().getClassName());
+    }
+    return classNames;
+  }
+
+  /**
+   * 結果が期待どおりか確認して出力します。
+   * 
+   * @param name 項目名
+   * @param expected 期待する結果
+   * @param actual 結果
+   */
+  private static void check(String name, String expected, String actual) {
+
+    boolean ok = expected.equals(actual);
+    if (!ok) {
+      failed = true;
+    }
+    System.out.println(String.format("%-20s %s", name, ok ? "OK" : "NG 期待" + expected + " 結果"
+        + actual));
+  }
+
+}
@@ -0,0 +1,172 @@
+package com.melip.entitygenerator.bench;
+
+import java.io.File;
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+
+import com.melip.entitygenerator.entity.Domain;
+import com.melip.entitygenerator.entity.DomainCreator;
+import com.melip.entitygenerator.entity.Entity;
+import com.melip.entitygenerator.entity.EntityCreator;
+import com.melip.entitygenerator.reader.SheetRowHandler;
+import com.melip.entitygenerator.reader.SheetVisitor;
+import com.melip.entitygenerator.reader.WorkbookReader;
+import com.melip.entitygenerator.reader.WorkbookReaderFactory;
+
+/**
+ * テーブル定義書の解析とモデル作成のベンチマークです。<br>
+ * シート数・シートあたりの行数の異なる合成テーブル定義書（xls形式、xlsx形式）に対して、以下を計測します。
+ * <ul>
+ * <li>WorkbookFactory#create(File)</li>
+ * <li>DomainCreator#createDomain()</li>
+ * <li>EntityCreator#createEntity()（全エンティティシート）</li>
+ * <li>WorkbookReader（ストリーミング）によるドメイン・全エンティティの作成</li>
+ * </ul>
+ * 合成したテーブル定義書は一時ディレクトリに作成し、終了時に削除します。
+ */
+public class ParsingBenchmark {
+
+  /** エンティティシート数 */
+  private static final int[] SHEET_COUNTS = {10, 100};
+  /** シートあたりのフィールド数（行数） */
+  private static final int[] ROW_COUNTS = {20, 200};
+  /** 形式 */
+  private static final String[] FORMATS = {"xls", "xlsx"};
+
+  /**
+   * メイン処理
+   * 
+   * @param args 引数（なし）
+   * @throws Exception
+   */
+  public static void main(String[] args) throws Exception {
+
+    BenchmarkRunner runner = new BenchmarkRunner();
+    runner.printHeader();
+
+    for (String format : FORMATS) {
+      for (int sheets : SHEET_COUNTS) {
+        for (int rows : ROW_COUNTS) {
+          String params = format + ",sheets=" + sheets + ",rows=" + rows;
+          File file = File.createTempFile("entitygenerator-bench", "." + format);
+          file.deleteOnExit();
+          try {
+            WorkbookSynthesizer.write(file, sheets, rows);
+          } catch (Throwable e) {
+            // xlsx形式の作成にはpoi-ooxml-schemasが必要
+            System.out.println("テーブル定義書[" + params + "]を作成できないためスキップします。" + e);
+            continue;
+          }
+          run(runner, file, sheets, params);
+        }
+      }
+    }
+    System.out.println("sink=" + runner.getSink());
+  }
+
+  /**
+   * 1つのテーブル定義書に対してベンチマークを実行します。
+   * 
+   * @param runner ハーネス
+   * @param file テーブル定義書
+   * @param sheets エンティティシート数
+   * @param params パラメータ
+   * @throws Exception
+   */
+  private static void run(BenchmarkRunner runner, final File file, final int sheets,
+      String params) throws Exception {
+
+    runner.run("WorkbookFactory.create", params, new BenchmarkRunner.Benchmark() {
+      @Override
+      public Object run() throws Exception {
+        Workbook workbook = WorkbookFactory.create(file);
+        int count = workbook.getNumberOfSheets();
+        workbook.close();
+        return count;
+      }
+    });
+
+    final Workbook workbook = WorkbookFactory.create(file);
+    try {
+      final Domain domain =
+          new DomainCreator(workbook.getSheet(WorkbookSynthesizer.SHEET_DOMAIN)).createDomain();
+
+      runner.run("DomainCreator.createDomain", params, new BenchmarkRunner.Benchmark() {
+        @Override
+        public Object run() throws Exception {
+          return new DomainCreator(workbook.getSheet(WorkbookSynthesizer.SHEET_DOMAIN))
+              .createDomain();
+        }
+      });
+
+      runner.run("EntityCreator.createEntity", params, new BenchmarkRunner.Benchmark() {
+        @Override
+        public Object run() throws Exception {
+          int fields = 0;
+          for (int i = 0; i < sheets; i++) {
+            Entity entity =
+                new EntityCreator(workbook.getSheet(WorkbookSynthesizer.getEntitySheetName(i)),
+                    WorkbookSynthesizer.IGNORE_FIELD, domain).createEntity();
+            fields += entity.getFieldList().size();
+          }
+          return fields;
+        }
+      });
+    } finally {
+      workbook.close();
+    }
+
+    runner.run("WorkbookReader(streaming).read", params, new BenchmarkRunner.Benchmark() {
+      @Override
+      public Object run() throws Exception {
+        return readStreaming(file);
+      }
+    });
+  }
+
+  /**
+   * ストリーミングのリーダーでドメインと全エンティティを作成します。
+   * 
+   * @param file テーブル定義書
+   * @return フィールド数の合計
+   * @throws Exception
+   */
+  private static int readStreaming(File file) throws Exception {
+
+    WorkbookReader reader = WorkbookReaderFactory.create(file, true);
+    try {
+      final DomainCreator domainCreator = new DomainCreator();
+      reader.read(new SheetVisitor() {
+        @Override
+        public SheetRowHandler beforeSheet(String sheetName) {
+          return WorkbookSynthesizer.SHEET_DOMAIN.equals(sheetName) ? domainCreator : null;
+        }
+
+        @Override
+        public void afterSheet(String sheetName, SheetRowHandler handler) {}
+      });
+      final Domain domain = domainCreator.createDomain();
+
+      final int[] fields = {0};
+      reader.read(new SheetVisitor() {
+        @Override
+        public SheetRowHandler beforeSheet(String sheetName) {
+          if (!sheetName.startsWith(WorkbookSynthesizer.PREFIX_ENTITY_SHEET)) {
+            return null;
+          }
+          return new EntityCreator(WorkbookSynthesizer.IGNORE_FIELD, domain);
+        }
+
+        @Override
+        public void afterSheet(String sheetName, SheetRowHandler handler) {
+          fields[0] += ((EntityCreator) handler).createEntity().getFieldList().size();
+        }
+      });
+      return fields[0];
+    } finally {
+      reader.close();
+    }
+  }
+
+}
@@ -0,0 +1,340 @@
+package com.melip.entitygenerator.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.google.common.base.Joiner;
+import com.google.common.io.Files;
+
+import com.melip.entitygenerator.EntityGeneratorUtils;
+import com.melip.entitygenerator.MelipEntityGenerator;
+
+/**
+ * エンティティクラス生成処理全体のスケール・ソークテストのハーネスです。<br>
+ * シナリオごとに合成したテーブル定義書（{@link WorkbookSynthesizer}）を作成し、最大ヒープサイズを制限した子プロセスで
+ * {@link MelipEntityGenerator#generate()}を実行して、経過時間とヒープ使用量のピークが予算を超えないか確認します。
+ * 予算を超えた場合、子プロセスが異常終了した場合（OutOfMemoryErrorを含む）、テーブル定義書を作成できなかった場合は
+ * 終了コード1で終了します。それ以外で予算が記録されていないシナリオがある場合は、確認できていないため終了コード2で終了します。<br>
+ * シナリオと予算は予算ファイル（デフォルトはbench/scale-budgets.properties）に定義します。
+ * 引数に--recordを指定すると、計測値に余裕を持たせた値を予算として予算ファイルに記録します。
+ * <ul>
+ * <li>scale.budgets：予算ファイルのパス</li>
+ * <li>scale.scenarios：実行するシナリオ（カンマ区切り、デフォルトは予算ファイルのscenarios）</li>
+ * <li>scale.repeat：子プロセス内で生成処理を繰り返す回数（ソークテスト、デフォルト1）</li>
+ * <li>scale.workdir：テーブル定義書と出力先を作成するディレクトリ（デフォルトは一時ディレクトリ）</li>
+ * </ul>
+ */
+public class ScaleHarness {
+
+  /** 予算を記録する引数 */
+  private static final String ARG_RECORD = "--record";
+  /** 子プロセスとして実行する引数 */
+  private static final String ARG_CHILD = "--child";
+  /** 子プロセスの結果行のプレフィックス */
+  private static final String PREFIX_RESULT = "SCALE_RESULT ";
+
+  /** 予算ファイルのキー：シナリオ */
+  private static final String KEY_SCENARIOS = "scenarios";
+  /** 予算ファイルのキー：エンティティシート数 */
+  private static final String KEY_SHEETS = ".sheets";
+  /** 予算ファイルのキー：シートあたりのフィールド数 */
+  private static final String KEY_FIELDS = ".fields";
+  /** 予算ファイルのキー：形式 */
+  private static final String KEY_FORMAT = ".format";
+  /** 予算ファイルのキー：ストリーミングで読み込むか */
+  private static final String KEY_STREAMING = ".streaming";
+  /** 予算ファイルのキー：生成スレッド数 */
+  private static final String KEY_THREADS = ".threads";
+  /** 予算ファイルのキー：最大ヒープサイズ */
+  private static final String KEY_XMX = ".xmx";
+  /** 予算ファイルのキー：経過時間の予算（ミリ秒） */
+  private static final String KEY_WALL_MILLIS = ".budget.wall.millis";
+  /** 予算ファイルのキー：ヒープ使用量のピークの予算（MB） */
+  private static final String KEY_HEAP_MB = ".budget.heap.mb";
+
+  /** 予算を記録する際の余裕（計測値に対する倍率） */
+  private static final double RECORD_HEADROOM = 1.5;
+  /** 1MB */
+  private static final long MB = 1024L * 1024L;
+
+  /** 終了コード：すべてのシナリオが予算内 */
+  private static final int EXIT_OK = 0;
+  /** 終了コード：予算超過・異常終了したシナリオがある */
+  private static final int EXIT_FAILED = 1;
+  /** 終了コード：予算を確認できなかったシナリオがある */
+  private static final int EXIT_UNCHECKED = 2;
+
+  /**
+   * メイン処理
+   * 
+   * @param args 引数（--record：予算を記録する）
+   * @throws Exception
+   */
+  public static void main(String[] args) throws Exception {
+
+    if (0 < args.length && ARG_CHILD.equals(args[0])) {
+      runChild(args);
+      return;
+    }
+
+    boolean record = 0 < args.length && ARG_RECORD.equals(args[0]);
+    File budgetFile = new File(System.getProperty("scale.budgets", "bench/scale-budgets.properties"));
+    Properties budgets = load(budgetFile);
+    File workDir =
+        new File(System.getProperty("scale.workdir", System.getProperty("java.io.tmpdir")),
+            "entitygenerator-scale");
+    workDir.mkdirs();
+    int repeat = Integer.getInteger("scale.repeat", 1);
+
+    String scenarios = System.getProperty("scale.scenarios", budgets.getProperty(KEY_SCENARIOS));
+    boolean failed = false;
+    int unchecked = 0;
+    System.out.println(String.format("%-10s %6s %6s %-5s %6s %12s %12s %10s %10s  %s", "scenario",
+        "sheets", "fields", "fmt", "xmx", "wall(ms)", "budget", "heap(MB)", "budget", "result"));
+    for (String scenario : scenarios.split(EntityGeneratorUtils.SEPARATOR_ITEM)) {
+      scenario = scenario.trim();
+      int sheets = Integer.parseInt(budgets.getProperty(scenario + KEY_SHEETS));
+      int fields = Integer.parseInt(budgets.getProperty(scenario + KEY_FIELDS));
+      String format = budgets.getProperty(scenario + KEY_FORMAT, "xlsx");
+      String xmx = budgets.getProperty(scenario + KEY_XMX, "512m");
+
+      File book = new File(workDir, scenario + "-" + sheets + "x" + fields + "." + format);
+      if (!book.isFile()) {
+        System.out.println("テーブル定義書[" + book + "]を作成しています。");
+        try {
+          WorkbookSynthesizer.write(book, sheets, fields);
+        } catch (Throwable e) {
+          book.delete();
+          System.out.println(String.format("%-10s テーブル定義書を作成できませんでした。%s", scenario, e));
+          failed = true;
+          continue;
+        }
+      }
+      File outputDir = new File(workDir, scenario + "-out");
+      outputDir.mkdirs();
+
+      long[] result =
+          runScenario(book, outputDir, xmx, repeat,
+              Boolean.parseBoolean(budgets.getProperty(scenario + KEY_STREAMING, "true")),
+              budgets.getProperty(scenario + KEY_THREADS, "1"));
+      if (null == result) {
+        System.out.println(String.format("%-10s %6d %6d %-5s %6s  子プロセスが異常終了しました。", scenario,
+            sheets, fields, format, xmx));
+        failed = true;
+        continue;
+      }
+
+      long wallMillis = result[0];
+      long heapMb = result[1] / MB;
+      String wallBudget = budgets.getProperty(scenario + KEY_WALL_MILLIS);
+      String heapBudget = budgets.getProperty(scenario + KEY_HEAP_MB);
+      String verdict;
+      if (record) {
+        budgets.setProperty(scenario + KEY_WALL_MILLIS,
+            String.valueOf((long) (wallMillis * RECORD_HEADROOM)));
+        budgets.setProperty(scenario + KEY_HEAP_MB, String.valueOf((long) (heapMb * RECORD_HEADROOM)));
+        verdict = "RECORDED";
+      } else if (StringUtils.isEmpty(wallBudget) || StringUtils.isEmpty(heapBudget)) {
+        verdict = "NOT CHECKED";
+        unchecked++;
+      } else if (wallMillis > Long.parseLong(wallBudget) || heapMb > Long.parseLong(heapBudget)) {
+        verdict = "OVER BUDGET";
+        failed = true;
+      } else {
+        verdict = "OK";
+      }
+      System.out.println(String.format("%-10s %6d %6d %-5s %6s %12d %12s %10d %10s  %s", scenario,
+          sheets, fields, format, xmx, wallMillis, StringUtils.defaultString(wallBudget, "-"),
+          heapMb, StringUtils.defaultString(heapBudget, "-"), verdict));
+    }
+
+    if (record) {
+      store(budgets, budgetFile);
+      System.out.println("予算を[" + budgetFile + "]に記録しました。");
+    } else if (0 < unchecked) {
+      System.out.println("予算が記録されていないため、[" + unchecked + "]件のシナリオは確認していません。");
+    }
+
+    if (failed) {
+      System.exit(EXIT_FAILED);
+    }
+    System.exit(record || 0 == unchecked ? EXIT_OK : EXIT_UNCHECKED);
+  }
+
+  /**
+   * 最大ヒープサイズを制限した子プロセスでシナリオを実行します。
+   * 
+   * @param book テーブル定義書
+   * @param outputDir エンティティクラスの出力先
+   * @param xmx 最大ヒープサイズ
+   * @param repeat 繰り返す回数
+   * @param streaming ストリーミングで読み込むか
+   * @param threads 生成スレッド数
+   * @return 経過時間（ミリ秒）とヒープ使用量のピーク（バイト）、子プロセスが異常終了した場合はnull
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  private static long[] runScenario(File book, File outputDir, String xmx, int repeat,
+      boolean streaming, String threads) throws IOException, InterruptedException {
+
+    List<String> command = new ArrayList<String>();
+    command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+    command.add("-Xmx" + xmx);
+    command.add("-Dfile.encoding=UTF-8");
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(ScaleHarness.class.getName());
+    command.add(ARG_CHILD);
+    command.add(book.getAbsolutePath());
+    command.add(outputDir.getAbsolutePath());
+    command.add(String.valueOf(repeat));
+    command.add(String.valueOf(streaming));
+    command.add(threads);
+
+    Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+    long[] result = null;
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    try {
+      String line = reader.readLine();
+      while (null != line) {
+        if (line.startsWith(PREFIX_RESULT)) {
+          String[] values = line.substring(PREFIX_RESULT.length()).split(" ");
+          result = new long[] {Long.parseLong(values[0]), Long.parseLong(values[1])};
+        } else if (line.contains("ERROR") || line.contains("Exception") || line.contains("Error")) {
+          System.out.println("  " + line);
+        }
+        line = reader.readLine();
+      }
+    } finally {
+      reader.close();
+    }
+
+    return 0 == process.waitFor() ? result : null;
+  }
+
+  /**
+   * 子プロセスとしてエンティティクラス生成処理を実行し、経過時間とヒープ使用量のピークを出力します。
+   * 
+   * @param args 引数（--child テーブル定義書 出力先 繰り返す回数 ストリーミング 生成スレッド数）
+   * @throws Exception
+   */
+  private static void runChild(String[] args) throws Exception {
+
+    List<MemoryPoolMXBean> heapPools = new ArrayList<MemoryPoolMXBean>();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (MemoryType.HEAP == pool.getType()) {
+        pool.resetPeakUsage();
+        heapPools.add(pool);
+      }
+    }
+
+    long maxWallMillis = 0L;
+    for (int i = 0; i < Integer.parseInt(args[3]); i++) {
+      MelipEntityGenerator generator = new MelipEntityGenerator();
+      Properties overrides = new Properties();
+      overrides.setProperty("excel.path", args[1]);
+      overrides.setProperty("entity.output.path", args[2]);
+      overrides.setProperty("excel.streaming", args[4]);
+      overrides.setProperty("entity.generate.threads", args[5]);
+      overrides.setProperty("excel.domain.sheet", WorkbookSynthesizer.SHEET_DOMAIN);
+      overrides.setProperty("excel.ignore.sheets", WorkbookSynthesizer.SHEET_ENTITY_LIST + ","
+          + WorkbookSynthesizer.SHEET_DOMAIN);
+      overrides.setProperty("excel.ignore.fields", WorkbookSynthesizer.IGNORE_FIELD);
+      overrides.setProperty("entity.incremental", Boolean.FALSE.toString());
+      overrides.setProperty("metrics.report.path", "");
+      generator.setPropOverrides(overrides);
+
+      long start = System.currentTimeMillis();
+      if (!generator.generate()) {
+        System.exit(1);
+      }
+      maxWallMillis = Math.max(maxWallMillis, System.currentTimeMillis() - start);
+    }
+
+    // 各ヒープ領域のピークの合計（同時にピークになるとは限らないため、実際のピーク以上の値になる）
+    long peakHeap = 0L;
+    for (MemoryPoolMXBean pool : heapPools) {
+      peakHeap += pool.getPeakUsage().getUsed();
+    }
+    System.out.println(PREFIX_RESULT + maxWallMillis + " " + peakHeap);
+  }
+
+  /**
+   * 予算ファイルを読み込みます。
+   * 
+   * @param file 予算ファイル
+   * @return 予算
+   * @throws IOException
+   */
+  private static Properties load(File file) throws IOException {
+
+    Properties props = new Properties();
+    InputStream in = new FileInputStream(file);
+    try {
+      props.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+    } finally {
+      in.close();
+    }
+    return props;
+  }
+
+  /**
+   * 予算ファイルの予算を更新します。<br>
+   * コメントや行の順序を保つため、予算の行だけを置き換え、存在しない予算はシナリオの定義の後に追加します。
+   * 
+   * @param props 予算
+   * @param file 予算ファイル
+   * @throws IOException
+   */
+  private static void store(Properties props, File file) throws IOException {
+
+    List<String> lines = Files.readLines(file, StandardCharsets.UTF_8);
+    List<String> budgetKeys = new ArrayList<String>();
+    for (String key : props.stringPropertyNames()) {
+      if (key.endsWith(KEY_WALL_MILLIS) || key.endsWith(KEY_HEAP_MB)) {
+        budgetKeys.add(key);
+      }
+    }
+    Collections.sort(budgetKeys);
+
+    for (String key : budgetKeys) {
+      String line = key + "=" + props.getProperty(key);
+      String scenario = key.substring(0, key.indexOf('.'));
+      int insertAt = -1;
+      boolean replaced = false;
+      for (int i = 0; i < lines.size(); i++) {
+        String current = lines.get(i).trim();
+        if (current.startsWith(key + "=")) {
+          lines.set(i, line);
+          replaced = true;
+          break;
+        }
+        if (current.startsWith(scenario + ".")) {
+          insertAt = i + 1;
+        }
+      }
+      if (!replaced) {
+        lines.add(-1 == insertAt ? lines.size() : insertAt, line);
+      }
+    }
+
+    Files.write(Joiner.on(EntityGeneratorUtils.SEPARATOR_LINE).join(lines)
+        + EntityGeneratorUtils.SEPARATOR_LINE, file, StandardCharsets.UTF_8);
+  }
+
+}
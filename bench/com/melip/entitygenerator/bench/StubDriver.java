@@ -0,0 +1,239 @@
+package com.melip.entitygenerator.bench;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Driver;
+import java.sql.DriverPropertyInfo;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * {@link JdbcSourceCheck}で使用する、メタデータだけを返すJDBCドライバーです。<br>
+ * JDBC URL（jdbc:stub:データセット）で返すメタデータを切り替えます。
+ * <ul>
+ * <li>schema：スキーマのあるデータベース（PostgreSQL・H2など）で、名前は小文字</li>
+ * <li>catalog：スキーマのないデータベース（MySQLなど）で、テーブルはカタログで区別する</li>
+ * <li>fail：接続時にJDBC URLをメッセージに含む例外を投げる</li>
+ * </ul>
+ */
+public class StubDriver implements Driver {
+
+  /** JDBC URLのプレフィックス */
+  public static final String URL_PREFIX = "jdbc:stub:";
+  /** データセット：スキーマのあるデータベース */
+  public static final String DATASET_SCHEMA = "schema";
+  /** データセット：スキーマのないデータベース */
+  public static final String DATASET_CATALOG = "catalog";
+  /** データセット：接続に失敗する */
+  public static final String DATASET_FAIL = "fail";
+
+  /** テーブル（スキーマ・カタログ名、テーブル名、コメント） */
+  private static final String[][] TABLES = { {"public", "m_user", "ユーザー"},
+      {"public", "t_order", null}, {"sales", "m_user", "販売ユーザー"}};
+  /** 列（スキーマ・カタログ名、テーブル名、列名、データ型、コメント、デフォルト値） */
+  private static final String[][] COLUMNS = {
+      {"public", "m_user", "user_id", "BIGINT", "ユーザーID", null},
+      {"public", "m_user", "user_name", "VARCHAR", "ユーザー名", "'guest'"},
+      {"public", "t_order", "order_id", "INTEGER", null, null},
+      {"public", "t_order", "amount", "DECIMAL", "金額", null},
+      {"sales", "m_user", "sales_user_id", "BIGINT", null, null}};
+
+  /** 接続中の接続数 */
+  private static final AtomicInteger openConnections = new AtomicInteger();
+
+  /**
+   * @see java.sql.Driver#connect(java.lang.String, java.util.Properties)
+   */
+  @Override
+  public Connection connect(String url, Properties info) throws SQLException {
+
+    if (!acceptsURL(url)) {
+      return null;
+    }
+    final String dataset = url.substring(URL_PREFIX.length()).split("[:/;?]")[0];
+    if (DATASET_FAIL.equals(dataset)) {
+      // ドライバーによっては、接続時の例外のメッセージにJDBC URLをそのまま含める
+      throw new SQLException("Cannot connect to " + url, "08001");
+    }
+
+    openConnections.incrementAndGet();
+    return proxy(Connection.class, new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if ("getMetaData".equals(method.getName())) {
+          return createMetaData(DATASET_CATALOG.equals(dataset));
+        } else if ("close".equals(method.getName())) {
+          openConnections.decrementAndGet();
+          return null;
+        }
+        throw new SQLFeatureNotSupportedException(method.getName());
+      }
+    });
+  }
+
+  /**
+   * メタデータを作成します。
+   * 
+   * @param catalog スキーマのないデータベースの場合true
+   * @return メタデータ
+   */
+  private static DatabaseMetaData createMetaData(final boolean catalog) {
+
+    return proxy(DatabaseMetaData.class, new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if ("getSearchStringEscape".equals(method.getName())) {
+          return "\\";
+        }
+        String qualifierColumn = catalog ? "TABLE_CAT" : "TABLE_SCHEM";
+        List<Map<String, String>> rows = new ArrayList<Map<String, String>>();
+        if ("getTables".equals(method.getName())) {
+          for (String[] table : TABLES) {
+            if (matches((String) args[1], table[0])) {
+              Map<String, String> row = new HashMap<String, String>();
+              row.put(qualifierColumn, table[0]);
+              row.put("TABLE_NAME", table[1]);
+              row.put("REMARKS", table[2]);
+              rows.add(row);
+            }
+          }
+          return createResultSet(rows);
+        } else if ("getColumns".equals(method.getName())) {
+          for (String[] column : COLUMNS) {
+            if (matches((String) args[1], column[0])) {
+              Map<String, String> row = new HashMap<String, String>();
+              row.put(qualifierColumn, column[0]);
+              row.put("TABLE_NAME", column[1]);
+              row.put("COLUMN_NAME", column[2]);
+              row.put("TYPE_NAME", column[3]);
+              row.put("REMARKS", column[4]);
+              row.put("COLUMN_DEF", column[5]);
+              rows.add(row);
+            }
+          }
+          return createResultSet(rows);
+        }
+        throw new SQLFeatureNotSupportedException(method.getName());
+      }
+    });
+  }
+
+  /**
+   * スキーマ名がパターンに一致するか判定します。
+   * 
+   * @param pattern パターン（エスケープされたスキーマ名、すべての場合はnull）
+   * @param schemaName スキーマ名
+   * @return 一致する場合true
+   */
+  private static boolean matches(String pattern, String schemaName) {
+    return null == pattern || pattern.replace("\\", "").equals(schemaName);
+  }
+
+  /**
+   * 行の一覧を返す結果セットを作成します。
+   * 
+   * @param rows 行
+   * @return 結果セット
+   */
+  private static ResultSet createResultSet(final List<Map<String, String>> rows) {
+
+    return proxy(ResultSet.class, new InvocationHandler() {
+
+      /** 現在の行 */
+      private int index = -1;
+
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if ("next".equals(method.getName())) {
+          return ++index < rows.size();
+        } else if ("getString".equals(method.getName())) {
+          return rows.get(index).get(args[0]);
+        } else if ("close".equals(method.getName())) {
+          return null;
+        }
+        throw new SQLFeatureNotSupportedException(method.getName());
+      }
+    });
+  }
+
+  /**
+   * インターフェースのプロキシを作成します。
+   * 
+   * @param type インターフェース
+   * @param handler 呼び出しの処理
+   * @return プロキシ
+   */
+  private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+    return type.cast(Proxy.newProxyInstance(StubDriver.class.getClassLoader(),
+        new Class<?>[] {type}, handler));
+  }
+
+  /**
+   * 接続中の接続数を取得します。
+   * 
+   * @return 接続中の接続数
+   */
+  public static int getOpenConnections() {
+    return openConnections.get();
+  }
+
+  /**
+   * @see java.sql.Driver#acceptsURL(java.lang.String)
+   */
+  @Override
+  public boolean acceptsURL(String url) {
+    return null != url && url.startsWith(URL_PREFIX);
+  }
+
+  /**
+   * @see java.sql.Driver#getPropertyInfo(java.lang.String, java.util.Properties)
+   */
+  @Override
+  public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+    return new DriverPropertyInfo[0];
+  }
+
+  /**
+   * @see java.sql.Driver#getMajorVersion()
+   */
+  @Override
+  public int getMajorVersion() {
+    return 1;
+  }
+
+  /**
+   * @see java.sql.Driver#getMinorVersion()
+   */
+  @Override
+  public int getMinorVersion() {
+    return 0;
+  }
+
+  /**
+   * @see java.sql.Driver#jdbcCompliant()
+   */
+  @Override
+  public boolean jdbcCompliant() {
+    return false;
+  }
+
+  /**
+   * @see java.sql.Driver#getParentLogger()
+   */
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+}
@@ -0,0 +1,148 @@
+package com.melip.entitygenerator.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.melip.entitygenerator.entity.Entity;
+import com.melip.entitygenerator.entity.Field;
+import com.melip.entitygenerator.template.ConstantsTemplate;
+import com.melip.entitygenerator.template.EntityTemplate;
+import com.melip.entitygenerator.template.FieldTemplate;
+import com.melip.entitygenerator.template.GetterSetterTemplate;
+import com.melip.entitygenerator.template.CompiledTemplate;
+import com.melip.entitygenerator.template.VariableResolver;
+
+/**
+ * テンプレートによるエンティティクラス作成のベンチマークです。<br>
+ * フィールド数の異なる合成エンティティに対して、以下を計測します。
+ * <ul>
+ * <li>EntityTemplate#makeString()</li>
+ * <li>ConstantsTemplate、FieldTemplate、GetterSetterTemplateのフィールドごとの作成</li>
+ * <li>CompiledTemplate#render(Appendable, VariableResolver)（フィールド数分の変数を含むテンプレート）</li>
+ * </ul>
+ * テンプレートはクラスパス上のsetting/*.templateを使用するため、srcをクラスパスに含めて実行してください。
+ */
+public class TemplateBenchmark {
+
+  /** フィールド数 */
+  private static final int[] FIELD_COUNTS = {5, 50, 500, 2000};
+  /** フィールドのデータ型 */
+  private static final String[] FIELD_TYPES = {"Integer", "String", "BigDecimal", "Timestamp"};
+
+  /**
+   * メイン処理
+   * 
+   * @param args 引数（なし）
+   * @throws Exception
+   */
+  public static void main(String[] args) throws Exception {
+
+    BenchmarkRunner runner = new BenchmarkRunner();
+    runner.printHeader();
+
+    for (int fieldCount : FIELD_COUNTS) {
+      String params = "fields=" + fieldCount;
+      final Entity entity = createEntity(fieldCount);
+      final Field field = entity.getFieldList().get(0);
+
+      runner.run("EntityTemplate.makeString", params, new BenchmarkRunner.Benchmark() {
+        @Override
+        public Object run() throws Exception {
+          return new EntityTemplate(entity, "com.example.entity", "com.example.AbstractEntity")
+              .makeString();
+        }
+      });
+
+      final StringBuilder appendable = new StringBuilder();
+      runner.run("EntityTemplate.render", params, new BenchmarkRunner.Benchmark() {
+        @Override
+        public Object run() throws Exception {
+          appendable.setLength(0);
+          new EntityTemplate(entity, "com.example.entity", "com.example.AbstractEntity")
+              .render(appendable);
+          return appendable.length();
+        }
+      });
+
+      // フィールドごとのテンプレートはフィールド数によらないため、最初のフィールド数でのみ計測する
+      if (fieldCount == FIELD_COUNTS[0]) {
+        runner.run("ConstantsTemplate.makeString", "", new BenchmarkRunner.Benchmark() {
+          @Override
+          public Object run() throws Exception {
+            return new ConstantsTemplate(field).makeString();
+          }
+        });
+        runner.run("FieldTemplate.makeString", "", new BenchmarkRunner.Benchmark() {
+          @Override
+          public Object run() throws Exception {
+            return new FieldTemplate(field).makeString();
+          }
+        });
+        runner.run("GetterSetterTemplate.makeString", "", new BenchmarkRunner.Benchmark() {
+          @Override
+          public Object run() throws Exception {
+            return new GetterSetterTemplate(field).makeString();
+          }
+        });
+      }
+
+      // フィールド数分の変数を含むテンプレートの出力
+      String source = new GetterSetterTemplate(field).getCompiledTemplate().getSource();
+      StringBuilder repeated = new StringBuilder(source.length() * fieldCount);
+      for (int i = 0; i < fieldCount; i++) {
+        repeated.append(source);
+      }
+      final CompiledTemplate compiled = new CompiledTemplate(repeated.toString());
+      final VariableResolver resolver = new VariableResolver() {
+        @Override
+        public String resolve(String variable) {
+          if (GetterSetterTemplate.VAR_FIELD_LOGICAL_NAME.equals(variable)) {
+            return field.getLogicalName();
+          } else if (GetterSetterTemplate.VAR_FIELD_TYPE.equals(variable)) {
+            return field.getFieldType();
+          } else if (GetterSetterTemplate.VAR_FIELD_PASCAL_CASE.equals(variable)) {
+            return field.getPascalCase();
+          } else if (GetterSetterTemplate.VAR_FIELD_CAMEL_CASE.equals(variable)) {
+            return field.getCamelCase();
+          }
+          return null;
+        }
+      };
+      runner.run("CompiledTemplate.render", params, new BenchmarkRunner.Benchmark() {
+        @Override
+        public Object run() throws Exception {
+          appendable.setLength(0);
+          compiled.render(appendable, resolver);
+          return appendable.length();
+        }
+      });
+    }
+    System.out.println("sink=" + runner.getSink());
+  }
+
+  /**
+   * 合成エンティティを作成します。
+   * 
+   * @param fieldCount フィールド数
+   * @return エンティティ
+   */
+  static Entity createEntity(int fieldCount) {
+
+    List<Field> fieldList = new ArrayList<Field>();
+    for (int i = 0; i < fieldCount; i++) {
+      Field field = new Field();
+      field.setLogicalName("項目" + i);
+      field.setPhysicalName("COLUMN_NAME_" + i);
+      field.setDataType(FIELD_TYPES[i % FIELD_TYPES.length]);
+      field.setFieldType(FIELD_TYPES[i % FIELD_TYPES.length]);
+      fieldList.add(field);
+    }
+
+    Entity entity = new Entity();
+    entity.setLogicalName("ベンチマーク");
+    entity.setPhysicalName("BENCHMARK_TABLE");
+    entity.setFieldList(fieldList);
+    return entity;
+  }
+
+}
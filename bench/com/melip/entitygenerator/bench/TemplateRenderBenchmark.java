@@ -0,0 +1,179 @@
+package com.melip.entitygenerator.bench;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.melip.entitygenerator.template.CompiledTemplate;
+import com.melip.entitygenerator.template.VariableResolver;
+
+/**
+ * テンプレートの変数置き換えのベンチマークです。<br>
+ * テンプレートの大きさを倍にしながら、従来の置き換え（置き換えのたびに先頭から検索し直す）と、
+ * 解析済みのテンプレートから出力先に書き込む方式（{@link CompiledTemplate#render(Appendable, VariableResolver)}）、
+ * 解析せずに一度の走査で置き換える方式の処理時間を計測し、1文字あたりの処理時間を出力します。
+ * 一度の走査で置き換える方式は、テンプレートの大きさによらず1文字あたりの処理時間がほぼ一定になります。
+ */
+public class TemplateRenderBenchmark {
+
+  /** 繰り返す単位（getterSetter.templateと同程度の変数密度） */
+  private static final String UNIT = "  /**\n   * ${fieldLogicalName}を取得します。\n   */\n"
+      + "  public ${fieldType} get${fieldPascalCase}() {\n    return ${fieldCamelCase};\n  }\n\n";
+  /** 最小の繰り返し回数 */
+  private static final int MIN_REPEAT = 16;
+  /** 最大の繰り返し回数 */
+  private static final int MAX_REPEAT = 16384;
+  /** 従来の置き換えを計測する最大の繰り返し回数 */
+  private static final int MAX_REPEAT_LEGACY = 1024;
+  /** 1回の計測で最低限処理する文字数 */
+  private static final long MIN_CHARS_PER_MEASURE = 20000000L;
+
+  /** 変数ごとの値 */
+  private static final Map<String, String> VALUES = new HashMap<String, String>();
+  static {
+    VALUES.put("${fieldLogicalName}", "ユーザーID");
+    VALUES.put("${fieldType}", "Integer");
+    VALUES.put("${fieldPascalCase}", "UserId");
+    VALUES.put("${fieldCamelCase}", "userId");
+  }
+
+  /** 結果の消費先（最適化で処理が消されないようにする） */
+  private static long sink = 0L;
+
+  /**
+   * メイン処理
+   * 
+   * @param args 引数（なし）
+   */
+  public static void main(String[] args) {
+
+    VariableResolver resolver = new VariableResolver() {
+      @Override
+      public String resolve(String variable) {
+        return VALUES.get(variable);
+      }
+    };
+
+    System.out.println("repeat\tchars\tcompiled(ns/char)\tsinglePass(ns/char)\tlegacy(ns/char)");
+    for (int repeat = MIN_REPEAT; repeat <= MAX_REPEAT; repeat *= 2) {
+      StringBuilder sb = new StringBuilder(UNIT.length() * repeat);
+      for (int i = 0; i < repeat; i++) {
+        sb.append(UNIT);
+      }
+      final String source = sb.toString();
+      final CompiledTemplate compiled = new CompiledTemplate(source);
+      final VariableResolver r = resolver;
+      final StringBuilder out = new StringBuilder(source.length() * 2);
+
+      double compiledNs = measure(source.length(), new Runnable() {
+        @Override
+        public void run() {
+          out.setLength(0);
+          try {
+            compiled.render(out, r);
+          } catch (IOException e) {
+            throw new IllegalStateException(e);
+          }
+          sink += out.length();
+        }
+      });
+      double singlePassNs = measure(source.length(), new Runnable() {
+        @Override
+        public void run() {
+          sink += singlePassRender(source, r).length();
+        }
+      });
+      String legacy = "-";
+      if (repeat <= MAX_REPEAT_LEGACY) {
+        legacy = format(measure(source.length(), new Runnable() {
+          @Override
+          public void run() {
+            sink += legacyRender(source).length();
+          }
+        }));
+      }
+      System.out.println(repeat + "\t" + source.length() + "\t" + format(compiledNs) + "\t"
+          + format(singlePassNs) + "\t" + legacy);
+    }
+    System.out.println("sink=" + sink);
+  }
+
+  /**
+   * 1文字あたりの処理時間を計測します。<br>
+   * ウォームアップの後、一定の文字数を処理するまで繰り返し、最も速かった回の値を返します。
+   * 
+   * @param chars 1回の処理の文字数
+   * @param task 処理
+   * @return 1文字あたりの処理時間（ナノ秒）
+   */
+  private static double measure(int chars, Runnable task) {
+
+    int iterations = (int) Math.max(1L, MIN_CHARS_PER_MEASURE / chars / 10);
+    double best = Double.MAX_VALUE;
+    for (int round = 0; round < 5; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        task.run();
+      }
+      best = Math.min(best, (double) (System.nanoTime() - start) / iterations / chars);
+    }
+    return best;
+  }
+
+  /**
+   * テンプレート文字列を解析せずに、先頭から一度だけ走査して置き換えます。
+   * 
+   * @param source テンプレート文字列
+   * @param resolver 変数の値の解決
+   * @return 置き換え後の文字列
+   */
+  private static String singlePassRender(String source, VariableResolver resolver) {
+
+    StringBuilder sb = new StringBuilder(source.length() + source.length() / 2);
+    int pos = 0;
+    int start = source.indexOf("${");
+    while (start != -1) {
+      int end = source.indexOf("}", start + 2);
+      if (end == -1) {
+        break;
+      }
+      String variable = source.substring(start, end + 1);
+      String value = resolver.resolve(variable);
+      sb.append(source, pos, start).append(null != value ? value : variable);
+      pos = end + 1;
+      start = source.indexOf("${", pos);
+    }
+    sb.append(source, pos, source.length());
+    return sb.toString();
+  }
+
+  /**
+   * 従来の置き換えを行います。
+   * 
+   * @param source テンプレート文字列
+   * @return 置き換え後の文字列
+   */
+  private static String legacyRender(String source) {
+
+    StringBuilder sb = new StringBuilder(source);
+    for (Map.Entry<String, String> entry : VALUES.entrySet()) {
+      int index = sb.indexOf(entry.getKey());
+      while (index != -1) {
+        sb.replace(index, index + entry.getKey().length(), entry.getValue());
+        index = sb.indexOf(entry.getKey());
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * 処理時間を整形します。
+   * 
+   * @param ns 処理時間（ナノ秒）
+   * @return 整形した処理時間
+   */
+  private static String format(double ns) {
+    return String.format("%.3f", ns);
+  }
+
+}
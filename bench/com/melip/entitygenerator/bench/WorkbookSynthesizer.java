@@ -0,0 +1,148 @@
+package com.melip.entitygenerator.bench;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * ベンチマーク用のテーブル定義書を合成するクラスです。<br>
+ * A5:SQL Mk-2のエンティティ定義書と同じレイアウト（エンティティ名は5・6行目、フィールドは14行目から、
+ * ドメイン定義シートは3行目から）で作成するため、DomainCreator・EntityCreatorでそのまま読み込めます。
+ * xlsx形式はSXSSFで書き出すため、数千シートのテーブル定義書でもメモリ使用量は一定です。
+ */
+public class WorkbookSynthesizer {
+
+  /** エンティティ一覧シート名 */
+  public static final String SHEET_ENTITY_LIST = "エンティティ一覧";
+  /** ドメイン定義シート名 */
+  public static final String SHEET_DOMAIN = "ドメイン一覧";
+  /** エンティティシート名のプレフィックス */
+  public static final String PREFIX_ENTITY_SHEET = "T";
+  /** 除外フィールドとして最後のフィールドに設定する論理名 */
+  public static final String IGNORE_FIELD = "登録日時";
+
+  /** エンティティ論理名の行番号 */
+  private static final int ROW_ENTITY_LOGICAL_NAME = 4;
+  /** エンティティ物理名の行番号 */
+  private static final int ROW_ENTITY_PHYSICAL_NAME = 5;
+  /** フィールドの見出しの行番号 */
+  private static final int ROW_FIELD_HEADER = 12;
+  /** フィールドの開始行番号 */
+  private static final int ROW_FIELD_START = 13;
+  /** ドメインの開始行番号 */
+  private static final int ROW_DOMAIN_START = 2;
+  /** SXSSFでメモリに保持する行数 */
+  private static final int SXSSF_WINDOW_SIZE = 100;
+
+  /** ドメイン（ドメイン名、データ型） */
+  private static final String[][] DOMAINS = { {"CODE", "VARCHAR(20)"}, {"NAME", "VARCHAR(200)"},
+      {"AMOUNT", "DOUBLE"}, {"ID", "INT"}};
+  /** フィールドのデータ型（*はドメイン） */
+  private static final String[] DATA_TYPES = {"*CODE", "INT", "*NAME", "TIMESTAMP", "*AMOUNT",
+      "VARCHAR(50)"};
+
+  /**
+   * プライベートコンストラクタ
+   */
+  private WorkbookSynthesizer() {}
+
+  /**
+   * テーブル定義書を作成し、ファイルに出力します。<br>
+   * ファイル名の拡張子がxlsxの場合はxlsx形式、それ以外はxls形式で作成します。
+   * 
+   * @param file 出力先ファイル
+   * @param sheets エンティティシート数
+   * @param fields シートあたりのフィールド数
+   * @throws IOException
+   */
+  public static void write(File file, int sheets, int fields) throws IOException {
+
+    boolean xlsx = file.getName().endsWith(".xlsx");
+    Workbook workbook = xlsx ? new SXSSFWorkbook(SXSSF_WINDOW_SIZE) : new HSSFWorkbook();
+    try {
+      fill(workbook, sheets, fields);
+      OutputStream out = new FileOutputStream(file);
+      try {
+        workbook.write(out);
+      } finally {
+        out.close();
+      }
+    } finally {
+      if (xlsx) {
+        ((SXSSFWorkbook) workbook).dispose();
+      }
+      workbook.close();
+    }
+  }
+
+  /**
+   * ブックにシートを作成します。
+   * 
+   * @param workbook ブック
+   * @param sheets エンティティシート数
+   * @param fields シートあたりのフィールド数
+   */
+  private static void fill(Workbook workbook, int sheets, int fields) {
+
+    workbook.createSheet(SHEET_ENTITY_LIST).createRow(0).createCell(0).setCellValue("エンティティ一覧");
+
+    Sheet domainSheet = workbook.createSheet(SHEET_DOMAIN);
+    domainSheet.createRow(0).createCell(0).setCellValue("ドメイン");
+    for (int i = 0; i < DOMAINS.length; i++) {
+      Row row = domainSheet.createRow(ROW_DOMAIN_START + i);
+      row.createCell(0).setCellValue(i + 1);
+      row.createCell(1).setCellValue(DOMAINS[i][0]);
+      row.createCell(2).setCellValue(DOMAINS[i][1]);
+    }
+
+    for (int s = 0; s < sheets; s++) {
+      Sheet sheet = workbook.createSheet(getEntitySheetName(s));
+      sheet.createRow(0).createCell(0).setCellValue("エンティティ情報");
+      Row logicalRow = sheet.createRow(ROW_ENTITY_LOGICAL_NAME);
+      logicalRow.createCell(1).setCellValue("論理名");
+      logicalRow.createCell(2).setCellValue("テーブル" + s);
+      Row physicalRow = sheet.createRow(ROW_ENTITY_PHYSICAL_NAME);
+      physicalRow.createCell(1).setCellValue("物理名");
+      physicalRow.createCell(2).setCellValue("M_TABLE_" + s);
+      sheet.createRow(ROW_FIELD_HEADER).createCell(1).setCellValue("論理名");
+
+      for (int f = 0; f < fields; f++) {
+        Row row = sheet.createRow(ROW_FIELD_START + f);
+        row.createCell(0).setCellValue(f + 1);
+        row.createCell(1).setCellValue(f == fields - 1 ? IGNORE_FIELD : "項目" + f);
+        row.createCell(2).setCellValue("COLUMN_" + f);
+        row.createCell(3).setCellValue(DATA_TYPES[f % DATA_TYPES.length]);
+        row.createCell(5).setCellValue(0 == f % 2 ? "" : "0");
+      }
+      sheet.createRow(ROW_FIELD_START + fields + 2).createCell(0).setCellValue("インデックス情報");
+    }
+  }
+
+  /**
+   * エンティティシート名を取得します。
+   * 
+   * @param index エンティティシートの番号
+   * @return エンティティシート名
+   */
+  public static String getEntitySheetName(int index) {
+    return PREFIX_ENTITY_SHEET + index;
+  }
+
+  /**
+   * メイン処理
+   * 
+   * @param args 引数（出力先ファイル、エンティティシート数、シートあたりのフィールド数）
+   * @throws IOException
+   */
+  public static void main(String[] args) throws IOException {
+    write(new File(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+  }
+
+}
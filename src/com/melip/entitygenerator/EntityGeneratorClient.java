@@ -0,0 +1,81 @@
+package com.melip.entitygenerator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * {@link EntityGeneratorDaemon}にエンティティクラス生成を要求するクラスです。<br>
+ * 引数のkey=valueをプロパティの上書きとして送信し、生成が正常終了した場合は終了コード0、それ以外は1で終了します。
+ */
+public class EntityGeneratorClient {
+
+  /** プロパティの上書きの区切り文字 */
+  private static final String SEPARATOR_OVERRIDE = "=";
+
+  /** 終了コード（正常） */
+  private static final int EXIT_OK = 0;
+  /** 終了コード（異常） */
+  private static final int EXIT_NG = 1;
+
+  /**
+   * メイン処理
+   * 
+   * @param args 引数（--port=ポート番号、key=value形式のプロパティの上書き）
+   */
+  public static void main(String[] args) {
+
+    Properties overrides = new Properties();
+    for (String arg : args) {
+      if (arg.startsWith(EntityGeneratorDaemon.ARG_PREFIX_PORT)
+          || !arg.contains(SEPARATOR_OVERRIDE)) {
+        continue;
+      }
+      overrides.setProperty(StringUtils.substringBefore(arg, SEPARATOR_OVERRIDE),
+          StringUtils.substringAfter(arg, SEPARATOR_OVERRIDE));
+    }
+
+    try {
+      String response = request(EntityGeneratorDaemon.getPort(args), overrides);
+      System.out.println(response);
+      System.exit(response.startsWith(EntityGeneratorDaemon.RESPONSE_OK) ? EXIT_OK : EXIT_NG);
+    } catch (IOException e) {
+      e.printStackTrace();
+      System.exit(EXIT_NG);
+    }
+  }
+
+  /**
+   * エンティティクラス生成を要求します。
+   * 
+   * @param port 待ち受けポート
+   * @param overrides プロパティの上書き
+   * @return 応答
+   * @throws IOException
+   */
+  public static String request(int port, Properties overrides) throws IOException {
+
+    Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+    try {
+      Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+      overrides.store(writer, null);
+      writer.flush();
+      socket.shutdownOutput();
+
+      BufferedReader reader =
+          new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      return StringUtils.defaultString(reader.readLine());
+    } finally {
+      socket.close();
+    }
+  }
+
+}
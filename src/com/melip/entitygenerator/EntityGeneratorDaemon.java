@@ -0,0 +1,223 @@
+package com.melip.entitygenerator;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.melip.entitygenerator.template.TemplateCache;
+
+/**
+ * 常駐してエンティティクラス生成の要求を受け付けるクラスです。<br>
+ * ループバックアドレスのポートで待ち受け、{@link EntityGeneratorClient}から受け取ったプロパティの上書きでエンティティクラスを生成します。
+ * JVMの起動やPOIのクラスロードは初回のみで、解析済みのテーブル定義書は要求をまたいで再利用されます。<br>
+ * 要求ごとに{@link MelipEntityGenerator}を作成するため、同時に受け付けた要求どうしが設定やカウンタを共有することはありません。
+ * ただし出力先は共通のため、生成は受け付けた要求ごとに1つずつ行います。<br>
+ * ポートには同じマシンの任意のユーザーが接続できるため、上書きできるプロパティはシート・フィールドの指定などに限り、
+ * テーブル定義書や出力先などそれ以外のプロパティを含む要求は受け付けません。
+ * シートの指定を上書きした要求では、指定から外れたシートのエンティティクラスは削除しません。
+ */
+public class EntityGeneratorDaemon {
+
+  private static final Logger log = LoggerFactory.getLogger(EntityGeneratorDaemon.class);
+
+  /** デフォルトの待ち受けポート */
+  public static final int DEFAULT_PORT = 52790;
+  /** 待ち受けポートを指定する引数のプレフィックス */
+  public static final String ARG_PREFIX_PORT = "--port=";
+  /** 正常終了の応答 */
+  public static final String RESPONSE_OK = "OK";
+  /** 異常終了の応答 */
+  public static final String RESPONSE_NG = "NG";
+  /** 応答の区切り文字 */
+  public static final String SEPARATOR_RESPONSE = " ";
+
+  /** 保持する解析済みのテーブル定義書の最大数 */
+  private static final int WORKBOOK_CACHE_SIZE = 8;
+  /** 要求を処理するスレッド数 */
+  private static final int REQUEST_THREADS = 4;
+  /** 要求の受信のタイムアウト（ミリ秒） */
+  private static final int REQUEST_TIMEOUT_MILLIS = 10000;
+  /** 要求で上書きできるプロパティ */
+  private static final Set<String> REQUEST_PROP_KEYS = new HashSet<String>(
+      Arrays.asList(MelipEntityGenerator.REQUEST_PROP_KEYS));
+
+  /** 待ち受けポート */
+  private final int port;
+  /** 解析済みのテーブル定義書のキャッシュ */
+  private final ParsedWorkbookCache workbookCache = new ParsedWorkbookCache(WORKBOOK_CACHE_SIZE);
+  /** 生成処理のロック（出力先のファイルやマニフェストを同時に更新しないようにする） */
+  private final Object generateLock = new Object();
+
+  /**
+   * コンストラクタ
+   * 
+   * @param port 待ち受けポート
+   */
+  public EntityGeneratorDaemon(int port) {
+    this.port = port;
+  }
+
+  /**
+   * メイン処理
+   * 
+   * @param args 引数（--port=ポート番号）
+   */
+  public static void main(String[] args) {
+
+    try {
+      new EntityGeneratorDaemon(getPort(args)).serve();
+    } catch (Exception e) {
+      e.printStackTrace();
+      log.error("【☓】常駐モードが異常終了しました。");
+    }
+  }
+
+  /**
+   * 引数から待ち受けポートを取得します。
+   * 
+   * @param args 引数
+   * @return 待ち受けポート、指定がない場合はデフォルトのポート
+   */
+  public static int getPort(String[] args) {
+
+    for (String arg : args) {
+      if (arg.startsWith(ARG_PREFIX_PORT)) {
+        return Integer.parseInt(arg.substring(ARG_PREFIX_PORT.length()));
+      }
+    }
+    return DEFAULT_PORT;
+  }
+
+  /**
+   * 要求の受け付けを開始します。<br>
+   * スレッドが割り込まれるまで受け付けを続けます。
+   * 
+   * @throws IOException
+   */
+  public void serve() throws IOException {
+
+    TemplateCache.getInstance().setCheckModified(true);
+    ExecutorService executor = Executors.newFixedThreadPool(REQUEST_THREADS);
+    ServerSocket serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+    try {
+      log.info("ポート[" + port + "]で要求の受け付けを開始します。");
+      while (!Thread.currentThread().isInterrupted()) {
+        final Socket socket = serverSocket.accept();
+        executor.execute(new Runnable() {
+          @Override
+          public void run() {
+            handle(socket);
+          }
+        });
+      }
+    } finally {
+      serverSocket.close();
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * 要求を処理します。<br>
+   * プロパティの上書きを受け取ってエンティティクラスを生成し、結果を応答します。
+   * 
+   * @param socket ソケット
+   */
+  private void handle(Socket socket) {
+
+    try {
+      try {
+        // 送信が終わらない接続でスレッドを占有されないよう、受信にはタイムアウトを設定する
+        socket.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+        Properties overrides = new Properties();
+        overrides.load(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+        Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        writer.write(checkOverrides(overrides) ? generate(overrides) : RESPONSE_NG);
+        writer.flush();
+      } finally {
+        socket.close();
+      }
+    } catch (IOException e) {
+      log.error("要求の処理中にエラーが発生しました。", e);
+    }
+  }
+
+  /**
+   * 要求で上書きできないプロパティが含まれていないかチェックします。
+   * 
+   * @param overrides プロパティの上書き
+   * @return チェックOKの場合true、NGの場合false
+   */
+  private boolean checkOverrides(Properties overrides) {
+
+    boolean result = true;
+    for (String key : overrides.stringPropertyNames()) {
+      if (!REQUEST_PROP_KEYS.contains(key)) {
+        log.error("プロパティ[" + key + "]は要求で上書きできません。");
+        result = false;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * エンティティクラスを生成します。<br>
+   * 出力先は要求によらず共通のため、ほかの要求の生成が終わるまで待ちます。
+   * 
+   * @param overrides プロパティの上書き
+   * @return 応答
+   */
+  private String generate(Properties overrides) {
+
+    synchronized (generateLock) {
+      return doGenerate(overrides);
+    }
+  }
+
+  /**
+   * エンティティクラス生成処理の本体
+   * 
+   * @param overrides プロパティの上書き
+   * @return 応答
+   */
+  private String doGenerate(Properties overrides) {
+
+    long start = System.currentTimeMillis();
+    log.info("エンティティクラス生成処理を開始します。");
+    MelipEntityGenerator generator = new MelipEntityGenerator();
+    generator.setPropOverrides(overrides);
+    generator.setWorkbookCache(workbookCache);
+    for (String key : MelipEntityGenerator.SHEET_RULE_PROP_KEYS) {
+      if (overrides.containsKey(key)) {
+        // プロパティファイルと異なるシートの指定で、ほかのシートのエンティティクラスを削除しないようにする
+        generator.setDeleteOrphans(false);
+      }
+    }
+    try {
+      if (generator.generate()) {
+        log.info("【◎】エンティティクラス生成処理が正常終了しました。エンティティ数[" + generator.getCounter() + "]処理時間["
+            + (System.currentTimeMillis() - start) + "ms]");
+        return RESPONSE_OK + SEPARATOR_RESPONSE + generator.getCounter();
+      }
+      log.error("【☓】エンティティクラス生成処理が異常終了しました。");
+    } catch (Exception e) {
+      log.error("【☓】エンティティクラス生成処理が異常終了しました。", e);
+    }
+    return RESPONSE_NG;
+  }
+
+}
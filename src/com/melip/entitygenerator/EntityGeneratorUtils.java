@@ -18,4 +18,47 @@ public class EntityGeneratorUtils {
    * プライベートコンストラクタ
    */
   private EntityGeneratorUtils() {}
+
+  /**
+   * 文字列をJSON形式で追加します。
+   * 
+   * @param sb 追加先
+   * @param value 文字列
+   */
+  public static void appendJsonString(StringBuilder sb, String value) {
+
+    if (null == value) {
+      sb.append("null");
+      return;
+    }
+    sb.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            sb.append(String.format("\\u%04x", (int) c));
+          } else {
+            sb.append(c);
+          }
+      }
+    }
+    sb.append('"');
+  }
 }
+
@@ -0,0 +1,158 @@
+package com.melip.entitygenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.melip.entitygenerator.entity.DataTypeRegistry;
+import com.melip.entitygenerator.template.TemplateCache;
+
+/**
+ * テーブル定義書とテンプレートを監視し、保存されるたびにエンティティクラスを再生成するクラスです。<br>
+ * 同じ{@link MelipEntityGenerator}を使い続けるため、JVMの起動やPOIのクラスロードは初回のみで、
+ * ドメインなどの読み込み結果も再利用されます。再生成は差分生成で行い、変更のあったシートのみ処理します。
+ */
+public class EntityGeneratorWatcher {
+
+  private static final Logger log = LoggerFactory.getLogger(EntityGeneratorWatcher.class);
+
+  /** 保存が落ち着くまで待つ時間（ミリ秒） */
+  private static final long DEBOUNCE_MILLIS = 300L;
+  /** テンプレートファイルの拡張子 */
+  private static final String EXTENSION_TEMPLATE = ".template";
+
+  /** エンティティクラス生成処理 */
+  private final MelipEntityGenerator generator;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param generator エンティティクラス生成処理
+   */
+  public EntityGeneratorWatcher(MelipEntityGenerator generator) {
+    this.generator = generator;
+  }
+
+  /**
+   * 監視を開始します。<br>
+   * 最初に一度エンティティクラスを生成し、以降はスレッドが割り込まれるまで監視を続けます。
+   * 
+   * @throws IOException
+   */
+  public void watch() throws IOException {
+
+    generator.getPropOverrides().setProperty(MelipEntityGenerator.PROP_KEY_ENTITY_INCREMENTAL,
+        Boolean.TRUE.toString());
+    TemplateCache.getInstance().setCheckModified(true);
+    generate();
+    if (null == generator.getExcelFile()) {
+      log.error("テーブル定義書が特定できないため、監視を開始できません。");
+      return;
+    }
+
+    WatchService watchService = FileSystems.getDefault().newWatchService();
+    try {
+      Set<Path> dirs = new HashSet<Path>();
+      dirs.add(generator.getExcelFile().getAbsoluteFile().getParentFile().toPath());
+      dirs.add(generator.getPropFile().getAbsoluteFile().getParentFile().toPath());
+      for (Path dir : dirs) {
+        dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY);
+        log.info("ディレクトリ[" + dir + "]の監視を開始します。");
+      }
+
+      while (!Thread.currentThread().isInterrupted()) {
+        if (!pollChanges(watchService.take())) {
+          continue;
+        }
+        // 保存処理が続いている間は、最後の変更から一定時間経つまで待つ
+        long deadline = System.currentTimeMillis() + DEBOUNCE_MILLIS;
+        long wait = DEBOUNCE_MILLIS;
+        while (wait > 0) {
+          WatchKey key = watchService.poll(wait, TimeUnit.MILLISECONDS);
+          if (null != key && pollChanges(key)) {
+            deadline = System.currentTimeMillis() + DEBOUNCE_MILLIS;
+          }
+          wait = deadline - System.currentTimeMillis();
+        }
+        generate();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.info("監視を終了します。");
+    } finally {
+      watchService.close();
+    }
+  }
+
+  /**
+   * 監視キーのイベントを取り出し、生成に影響するファイルが変更されたか判定します。
+   * 
+   * @param key 監視キー
+   * @return 生成に影響するファイルが変更された場合true
+   */
+  private boolean pollChanges(WatchKey key) {
+
+    boolean changed = false;
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (StandardWatchEventKinds.OVERFLOW == event.kind()) {
+        changed = true;
+        continue;
+      }
+      String fileName = ((Path) event.context()).getFileName().toString();
+      if (isWatchTarget(fileName)) {
+        log.info("ファイル[" + fileName + "]の変更を検知しました。");
+        changed = true;
+      }
+    }
+    key.reset();
+
+    return changed;
+  }
+
+  /**
+   * 生成に影響するファイルか判定します。
+   * 
+   * @param fileName ファイル名
+   * @return テーブル定義書、テンプレート、プロパティファイル、データ型の設定ファイルの場合true
+   */
+  private boolean isWatchTarget(String fileName) {
+
+    File excelFile = generator.getExcelFile();
+    return (null != excelFile && fileName.equals(excelFile.getName()))
+        || fileName.endsWith(EXTENSION_TEMPLATE) || fileName.equals(generator.getPropFile().getName())
+        || fileName.equals(DataTypeRegistry.getSettingFileName());
+  }
+
+  /**
+   * エンティティクラスを生成します。<br>
+   * 生成に失敗しても監視は継続します。
+   */
+  private void generate() {
+
+    long start = System.currentTimeMillis();
+    log.info("エンティティクラス生成処理を開始します。");
+    try {
+      if (generator.generate()) {
+        log.info("【◎】エンティティクラス生成処理が正常終了しました。エンティティ数[" + generator.getCounter() + "]処理時間["
+            + (System.currentTimeMillis() - start) + "ms]");
+      } else {
+        log.error("【☓】エンティティクラス生成処理が異常終了しました。");
+      }
+    } catch (Exception e) {
+      log.error("【☓】エンティティクラス生成処理が異常終了しました。", e);
+    }
+  }
+
+}
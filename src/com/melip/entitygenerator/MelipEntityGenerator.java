@@ -1,32 +1,75 @@
 package com.melip.entitygenerator;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.regex.PatternSyntaxException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import com.melip.entitygenerator.entity.DataTypeRegistry;
+import com.melip.entitygenerator.entity.DdlEntitySource;
 import com.melip.entitygenerator.entity.Domain;
 import com.melip.entitygenerator.entity.DomainCreator;
 import com.melip.entitygenerator.entity.Entity;
 import com.melip.entitygenerator.entity.EntityCreator;
+import com.melip.entitygenerator.entity.EntitySource;
+import com.melip.entitygenerator.entity.JdbcEntitySource;
+import com.melip.entitygenerator.entity.ParsedWorkbook;
+import com.melip.entitygenerator.entity.StringPool;
+import com.melip.entitygenerator.entity.Violation;
+import com.melip.entitygenerator.incremental.GenerationManifest;
+import com.melip.entitygenerator.incremental.IncrementalGeneration;
+import com.melip.entitygenerator.jfr.EventSpan;
+import com.melip.entitygenerator.jfr.GeneratorEvents;
+import com.melip.entitygenerator.metrics.GeneratorMetrics;
+import com.melip.entitygenerator.metrics.MetricsReport;
+import com.melip.entitygenerator.metrics.PhaseTimer;
+import com.melip.entitygenerator.metrics.RunMetrics;
+import com.melip.entitygenerator.output.AsyncFileWriter;
+import com.melip.entitygenerator.output.OutputBuffer;
+import com.melip.entitygenerator.reader.SheetRowHandler;
+import com.melip.entitygenerator.reader.SheetVisitor;
+import com.melip.entitygenerator.reader.WorkbookReader;
+import com.melip.entitygenerator.reader.WorkbookReaderFactory;
+import com.melip.entitygenerator.rule.NameFilter;
+import com.melip.entitygenerator.rule.NameRule;
+import com.melip.entitygenerator.rule.NameRuleSet;
+import com.melip.entitygenerator.snapshot.ModelSnapshot;
+import com.melip.entitygenerator.template.ConstantsTemplate;
 import com.melip.entitygenerator.template.EntityTemplate;
+import com.melip.entitygenerator.template.FieldTemplate;
+import com.melip.entitygenerator.template.GetterSetterTemplate;
+import com.melip.entitygenerator.template.Template;
+import com.melip.entitygenerator.template.TemplateCache;
+import com.melip.entitygenerator.validation.ValidationReport;
+import com.melip.entitygenerator.validation.WorkbookValidator;
 
 /**
  * テーブル定義書からエンティティクラスを生成します。<br>
@@ -35,22 +78,86 @@ public class MelipEntityGenerator {
 
   private static final Logger log = LoggerFactory.getLogger(MelipEntityGenerator.class);
 
+  /** 引数：監視モード */
+  public static final String ARG_WATCH = "--watch";
+  /** 引数：検証モード */
+  public static final String ARG_VALIDATE = "--validate";
+  /** 引数：生成するシート（カンマ区切り、除外・対象のシートと同じ形式） */
+  public static final String ARG_PREFIX_SHEETS = "--sheets=";
+
   /** プロパティファイルのパス */
   private static final String PATH_PROP_FILE = "setting/entitygenerator.properties";
   /** プロパティファイルのキー：テーブル定義書のパス */
   private static final String PROP_KEY_EXCEL_PATH = "excel.path";
+  /** プロパティファイルのキー：テーブル定義書をストリーミングで読み込むか */
+  private static final String PROP_KEY_EXCEL_STREAMING = "excel.streaming";
   /** プロパティファイルのキー：ドメイン定義シート */
   private static final String PROP_KEY_EXCEL_DOMAIN_SHEET = "excel.domain.sheet";
   /** プロパティファイルのキー：エンティティクラス生成除外シート */
   private static final String PROP_KEY_EXCEL_IGNORE_SHEETS = "excel.ignore.sheets";
   /** プロパティファイルのキー：エンティティクラス生成除外フィールド */
   private static final String PROP_KEY_EXCEL_IGNORE_FIELDS = "excel.ignore.fields";
+  /** プロパティキー：エンティティクラス生成対象シート */
+  private static final String PROP_KEY_EXCEL_INCLUDE_SHEETS = "excel.include.sheets";
+  /** プロパティキー：エンティティクラス生成対象フィールド */
+  private static final String PROP_KEY_EXCEL_INCLUDE_FIELDS = "excel.include.fields";
+  /** プロパティキー：データベースのJDBC URL */
+  private static final String PROP_KEY_JDBC_URL = "jdbc.url";
+  /** プロパティキー：データベースのユーザー */
+  private static final String PROP_KEY_JDBC_USER = "jdbc.user";
+  /** プロパティキー：データベースのパスワード */
+  private static final String PROP_KEY_JDBC_PASSWORD = "jdbc.password";
+  /** プロパティキー：データベースのスキーマ名 */
+  private static final String PROP_KEY_JDBC_SCHEMAS = "jdbc.schemas";
+  /** プロパティキー：DDLファイル・ディレクトリのパス */
+  private static final String PROP_KEY_DDL_PATH = "ddl.path";
+  /** プロパティキー：DDLの方言 */
+  private static final String PROP_KEY_DDL_DIALECT = "ddl.dialect";
   /** プロパティファイルのキー：エンティティクラスのパッケージ名 */
   private static final String PROP_KEY_ENTITY_PACKAGE_NAME = "entity.package.name";
   /** プロパティファイルのキー：エンティティクラスの親クラス名 */
   private static final String PROP_KEY_ENTITY_PARENT_CLASS_NAME = "entity.parent.class.name";
   /** プロパティファイルのキー：エンティティクラスの出力先 */
   private static final String PROP_KEY_ENTITY_OUTPUT_PATH = "entity.output.path";
+  /** プロパティファイルのキー：変更のないシートをスキップするか */
+  static final String PROP_KEY_ENTITY_INCREMENTAL = "entity.incremental";
+  /** プロパティファイルのキー：解析済みのテーブル定義書のスナップショットを使用するか */
+  private static final String PROP_KEY_ENTITY_SNAPSHOT = "entity.snapshot";
+  /** プロパティファイルのキー：生成結果のキャッシュ（マニフェスト・スナップショット）の保存先 */
+  private static final String PROP_KEY_ENTITY_CACHE_PATH = "entity.cache.path";
+  /** プロパティファイルのキー：エンティティクラスの生成スレッド数 */
+  private static final String PROP_KEY_ENTITY_GENERATE_THREADS = "entity.generate.threads";
+  /** プロパティキー：計測結果のレポートの出力先 */
+  private static final String PROP_KEY_METRICS_REPORT_PATH = "metrics.report.path";
+  /** プロパティキー：検証結果のレポートの出力先 */
+  private static final String PROP_KEY_VALIDATION_REPORT_PATH = "validation.report.path";
+
+  /** 生成結果のキャッシュの保存先のデフォルト（エンティティクラスの出力先と同じ階層のディレクトリ名） */
+  private static final String DEFAULT_CACHE_DIR_NAME = ".entitygenerator";
+  /** 生成結果のキャッシュディレクトリ名に付ける出力先のパスのハッシュの桁数 */
+  private static final int CACHE_DIR_HASH_LENGTH = 8;
+  /** エンティティクラスの生成スレッド数のデフォルト（直列） */
+  private static final int DEFAULT_GENERATE_THREADS = 1;
+  /** 生成待ちキューのスレッドあたりの長さ */
+  private static final int QUEUE_SIZE_PER_THREAD = 4;
+  /** エンティティクラスファイル出力時のバッファサイズ */
+  private static final int OUTPUT_BUFFER_SIZE = 16 * 1024;
+  /** エンティティクラスファイルの書き込み待ちの上限 */
+  private static final int OUTPUT_QUEUE_SIZE = 32;
+  /** 生成されるエンティティクラスの内容に影響するプロパティ */
+  private static final String[] OUTPUT_PROP_KEYS = {PROP_KEY_EXCEL_DOMAIN_SHEET,
+      PROP_KEY_EXCEL_IGNORE_FIELDS, PROP_KEY_EXCEL_INCLUDE_FIELDS, PROP_KEY_ENTITY_PACKAGE_NAME,
+      PROP_KEY_ENTITY_PARENT_CLASS_NAME};
+  /**
+   * 常駐モードで要求ごとに上書きできるプロパティ<br>
+   * 出力先やテーブル定義書など、書き込む場所や生成する内容の出どころを変えるものは含めない
+   */
+  static final String[] REQUEST_PROP_KEYS = {PROP_KEY_EXCEL_STREAMING, PROP_KEY_EXCEL_DOMAIN_SHEET,
+      PROP_KEY_EXCEL_IGNORE_SHEETS, PROP_KEY_EXCEL_IGNORE_FIELDS, PROP_KEY_EXCEL_INCLUDE_SHEETS,
+      PROP_KEY_EXCEL_INCLUDE_FIELDS};
+  /** 生成するシートを変えるプロパティ */
+  static final String[] SHEET_RULE_PROP_KEYS = {PROP_KEY_EXCEL_IGNORE_SHEETS,
+      PROP_KEY_EXCEL_INCLUDE_SHEETS};
 
   /** プロパティ */
   private Properties props = null;
@@ -60,15 +167,71 @@ public class MelipEntityGenerator {
   private File outputDir = null;
   /** カウンタ */
   private int counter = 0;
+  /** プロパティファイルの設定を上書きするプロパティ */
+  private Properties propOverrides = new Properties();
+  /** 前回読み込んだドメイン */
+  private Domain domainCache = null;
+  /** 前回読み込んだドメインのキー */
+  private String domainCacheKey = null;
+  /** 解析済みのテーブル定義書のキャッシュ（使用しない場合はnull） */
+  private ParsedWorkbookCache workbookCache = null;
+  /** エンティティクラスファイルの書き込み */
+  private AsyncFileWriter entityClassWriter = null;
+  /** 計測結果 */
+  private RunMetrics runMetrics = null;
+  /** シート名のフィルター */
+  private NameFilter sheetFilter = null;
+  /** フィールド論理名のフィルター */
+  private NameFilter fieldFilter = null;
+  /** 実行中に読み込んだ文字列のプール（実行中以外はnull） */
+  private StringPool stringPool = null;
+  /** 生成するシート（指定しない場合はnull） */
+  private String selectedSheets = null;
+  /** 生成するシートのルール */
+  private NameRuleSet sheetSelection = null;
+  /** 差分生成で、前回生成したが今回は生成しなかったエンティティクラスを削除するか */
+  private boolean deleteOrphans = true;
 
   /**
    * メイン
    * 
-   * @param args 引数（不要）
+   * @param args 引数（{@value #ARG_WATCH}を指定した場合は監視モードで起動、
+   *        {@value #ARG_VALIDATE}を指定した場合はエンティティクラスを生成せずにテーブル定義書を検証、
+   *        {@value #ARG_PREFIX_SHEETS}シート名,...を指定した場合は指定したシートのみ生成）
    */
   public static void main(String[] args) {
 
     MelipEntityGenerator generator = new MelipEntityGenerator();
+    for (String arg : args) {
+      if (arg.startsWith(ARG_PREFIX_SHEETS)) {
+        generator.setSelectedSheets(arg.substring(ARG_PREFIX_SHEETS.length()));
+      }
+    }
+
+    if (Arrays.asList(args).contains(ARG_WATCH)) {
+      try {
+        new EntityGeneratorWatcher(generator).watch();
+      } catch (Exception e) {
+        e.printStackTrace();
+        log.error("【☓】監視モードが異常終了しました。");
+      }
+      return;
+    }
+
+    if (Arrays.asList(args).contains(ARG_VALIDATE)) {
+      log.info("テーブル定義書の検証を開始します。");
+      try {
+        if (generator.validate()) {
+          log.info("【◎】テーブル定義書の検証が正常終了しました。不備はありません。");
+        } else {
+          log.error("【☓】テーブル定義書に不備があるか、検証が異常終了しました。");
+        }
+      } catch (Exception e) {
+        e.printStackTrace();
+        log.error("【☓】テーブル定義書の検証が異常終了しました。");
+      }
+      return;
+    }
 
     log.info("エンティティクラス生成処理を開始します。");
     try {
@@ -84,30 +247,85 @@ public class MelipEntityGenerator {
   }
 
   /**
-   * エンティティクラス生成処理
+   * エンティティクラス生成処理<br>
+   * 処理の計測結果はJMXに公開し、レポートの出力先が設定されている場合はJSON形式で出力します。
    * 
    * @throws Exception
    */
   public boolean generate() throws Exception {
 
-    // プロパティファイルの読み込み
-    log.info("プロパティファイル[" + PATH_PROP_FILE + "]の読み込みを開始します。");
-    readProp();
-    log.info("プロパティファイルの読み込みが終了しました。");
+    setCounter(0);
+    setRunMetrics(new RunMetrics());
+    boolean result = false;
+    try {
+      result = doGenerate();
+      return result;
+    } finally {
+      finishRunMetrics(result);
+    }
+  }
 
-    // プロパティ必須チェック
-    log.info("プロパティの必須チェックを開始します。");
-    if (!checkPropRequired()) {
+  /**
+   * テーブル定義書の検証処理<br>
+   * エンティティクラスは生成せず、全シートを読み込んで不備をすべて出力します。
+   * 検証結果のレポートの出力先が設定されている場合は、検証結果をJSON形式で出力します。
+   * 
+   * @return 不備がない場合true、不備がある場合または設定が不正な場合false
+   * @throws Exception
+   */
+  public boolean validate() throws Exception {
+
+    setRunMetrics(new RunMetrics());
+    DataTypeRegistry.reload();
+    if (!loadSettings()) {
+      return false;
+    }
+    if (isEntitySource()) {
+      log.error("データベース・DDL[" + getEntitySourceName() + "]から読み込む設定のため、テーブル定義書は検証できません。");
       return false;
     }
-    log.info("プロパティの必須チェックが終了しました。");
 
-    // テーブル定義書のチェック
-    log.info("テーブル定義書[" + getExcelPath() + "]のチェックを開始します。");
-    if (!checkExcelFile()) {
+    WorkbookReader reader =
+        WorkbookReaderFactory.create(getExcelFile(), isExcelStreaming()
+            || !sheetSelection.isEmpty());
+    ValidationReport report;
+    try {
+      report =
+          new WorkbookValidator(getExcelDomainSheet(), getSheetFilter(), getFieldFilter(),
+              sheetSelection).validate(reader);
+    } finally {
+      reader.close();
+    }
+
+    for (Violation violation : report.getViolations()) {
+      log.error("シート[" + violation.getSheetName() + "]セル[" + violation.getCell() + "] "
+          + violation.getMessage());
+    }
+    log.info("テーブル定義書の検証が終了しました。シート[" + report.getSheetCount() + "]件 不備["
+        + report.getViolations().size() + "]件");
+
+    String reportPath = getProps().getProperty(PROP_KEY_VALIDATION_REPORT_PATH);
+    if (StringUtils.isNotEmpty(reportPath)) {
+      report.write(new File(reportPath));
+      log.info("検証結果を[" + reportPath + "]に出力しました。");
+    }
+
+    return report.isValid();
+  }
+
+  /**
+   * エンティティクラス生成処理の本体
+   * 
+   * @throws Exception
+   */
+  private boolean doGenerate() throws Exception {
+
+    TemplateCache.getInstance().invalidateModified();
+    DataTypeRegistry.reload();
+
+    if (!loadSettings()) {
       return false;
     }
-    log.info("テーブル定義書のチェックが終了しました。");
 
     // エンティティクラス出力先のチェック
     log.info("エンティティクラス出力先[" + getEntityOutputPath() + "]のチェックを開始します。");
@@ -126,6 +344,67 @@ public class MelipEntityGenerator {
     return true;
   }
 
+  /**
+   * プロパティファイルを読み込み、プロパティとテーブル定義書をチェックします。
+   * 
+   * @return チェックOKの場合true、NGの場合false
+   * @throws IOException
+   */
+  private boolean loadSettings() throws IOException {
+
+    // プロパティファイルの読み込み
+    log.info("プロパティファイル[" + PATH_PROP_FILE + "]の読み込みを開始します。");
+    PhaseTimer timer = getRunMetrics().start(RunMetrics.PHASE_PROPERTY_LOAD, PATH_PROP_FILE);
+    readProp();
+    timer.stop();
+    log.info("プロパティファイルの読み込みが終了しました。");
+
+    // プロパティ必須チェック
+    log.info("プロパティの必須チェックを開始します。");
+    if (!checkPropRequired()) {
+      return false;
+    }
+    log.info("プロパティの必須チェックが終了しました。");
+
+    // データベース・DDLから読み込む場合は、テーブル定義書を使用しない
+    if (isEntitySource()) {
+      log.info("データベース・DDL[" + getEntitySourceName() + "]からエンティティ情報を読み込みます。");
+      return true;
+    }
+
+    // テーブル定義書のチェック
+    log.info("テーブル定義書[" + getExcelPath() + "]のチェックを開始します。");
+    if (!checkExcelFile()) {
+      return false;
+    }
+    log.info("テーブル定義書のチェックが終了しました。");
+
+    return true;
+  }
+
+  /**
+   * 計測を終了し、結果を反映します。
+   * 
+   * @param result 正常終了した場合true
+   */
+  private void finishRunMetrics(boolean result) {
+
+    getRunMetrics().finish(result, getCounter());
+    GeneratorMetrics.getInstance().update(getRunMetrics());
+
+    String reportPath =
+        null == getProps() ? null : getProps().getProperty(PROP_KEY_METRICS_REPORT_PATH);
+    if (StringUtils.isEmpty(reportPath)) {
+      return;
+    }
+    try {
+      MetricsReport.write(getRunMetrics(), new File(reportPath));
+      log.info("計測結果を[" + reportPath + "]に出力しました。");
+    } catch (IOException e) {
+      log.error("計測結果[" + reportPath + "]の出力時にエラーが発生しました。", e);
+    }
+  }
+
   /**
    * プロパティファイルを読み込みます。
    * 
@@ -133,19 +412,34 @@ public class MelipEntityGenerator {
    */
   private void readProp() throws IOException {
 
-    File prop = new File(getClass().getClassLoader().getResource(PATH_PROP_FILE).getPath());
     props = new Properties();
+    InputStreamReader reader = null;
     try {
-      props.load(new InputStreamReader(new FileInputStream(prop), StandardCharsets.UTF_8));
+      reader = new InputStreamReader(new FileInputStream(getPropFile()), StandardCharsets.UTF_8);
+      props.load(reader);
+      props.putAll(getPropOverrides());
     } catch (FileNotFoundException e) {
       log.error("プロパティファイル[" + PATH_PROP_FILE + "]が存在しません。");
       throw e;
     } catch (IOException e) {
       log.error("プロパティファイル[" + PATH_PROP_FILE + "]読み込み時に入出力エラーが発生しました。");
       throw e;
+    } finally {
+      if (null != reader) {
+        reader.close();
+      }
     }
   }
 
+  /**
+   * プロパティファイルを取得します。
+   * 
+   * @return プロパティファイル
+   */
+  File getPropFile() {
+    return new File(getClass().getClassLoader().getResource(PATH_PROP_FILE).getPath());
+  }
+
   /**
    * プロパティの必須チェックを実施します。
    * 
@@ -155,12 +449,26 @@ public class MelipEntityGenerator {
 
     boolean result = true;
 
-    // テーブル定義書のパス
-    if (StringUtils.isEmpty(getExcelPath())) {
+    // テーブル定義書のパス（データベース・DDLから読み込む場合は不要）
+    if (StringUtils.isEmpty(getExcelPath()) && !isEntitySource()) {
       log.error("テーブル定義書のパス[" + PROP_KEY_EXCEL_PATH + "]が設定されていません。");
       result = false;
     }
 
+    // データベースとDDLはどちらか一方
+    if (StringUtils.isNotEmpty(getJdbcUrl()) && StringUtils.isNotEmpty(getDdlPath())) {
+      log.error("データベース[" + PROP_KEY_JDBC_URL + "]とDDL[" + PROP_KEY_DDL_PATH + "]は同時に設定できません。");
+      result = false;
+    }
+
+    // DDLの方言（省略時は標準SQL）
+    if (StringUtils.isNotEmpty(getDdlDialect())
+        && !DdlEntitySource.DIALECT_MYSQL.equalsIgnoreCase(getDdlDialect())) {
+      log.error("DDLの方言[" + PROP_KEY_DDL_DIALECT + "]は" + DdlEntitySource.DIALECT_MYSQL
+          + "を設定するか、省略してください。");
+      result = false;
+    }
+
     // エンティティクラスのパッケージ名
     if (StringUtils.isEmpty(getEntityPackageName())) {
       log.error("エンティティクラスのパッケージ名[" + PROP_KEY_ENTITY_PACKAGE_NAME + "]が設定されていません。");
@@ -173,9 +481,98 @@ public class MelipEntityGenerator {
       result = false;
     }
 
+    // エンティティクラスの生成スレッド数
+    if (getEntityGenerateThreads() < 1) {
+      log.error("エンティティクラスの生成スレッド数[" + PROP_KEY_ENTITY_GENERATE_THREADS + "]は1以上の整数で設定してください。");
+      result = false;
+    }
+
+    // エンティティクラス生成除外・対象のシート・フィールド
+    if (!compileNameFilters()) {
+      result = false;
+    }
+
     return result;
   }
 
+  /**
+   * エンティティクラス生成除外・対象のシート・フィールドのルールを解析します。<br>
+   * ルールは実行ごとに一度だけ解析し、シート・フィールドごとの判定では解析済みのルールを使用します。
+   * 
+   * @return 解析できた場合true、正規表現が不正な場合false
+   */
+  private boolean compileNameFilters() {
+
+    try {
+      sheetFilter =
+          new NameFilter(compileRules(PROP_KEY_EXCEL_IGNORE_SHEETS), compileRules(
+              PROP_KEY_EXCEL_INCLUDE_SHEETS));
+      fieldFilter =
+          new NameFilter(compileRules(PROP_KEY_EXCEL_IGNORE_FIELDS), compileRules(
+              PROP_KEY_EXCEL_INCLUDE_FIELDS));
+    } catch (PatternSyntaxException e) {
+      return false;
+    }
+    try {
+      sheetSelection = NameRuleSet.compile(getSelectedSheets());
+    } catch (PatternSyntaxException e) {
+      log.error("生成するシート[" + ARG_PREFIX_SHEETS + "]に不正な正規表現が指定されています。" + e.getMessage());
+      return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * プロパティに設定されたルールを解析します。
+   * 
+   * @param key プロパティキー
+   * @return 解析したルール
+   * @throws PatternSyntaxException 正規表現が不正な場合
+   */
+  private NameRuleSet compileRules(String key) {
+
+    try {
+      return NameRuleSet.compile(getProps().getProperty(key));
+    } catch (PatternSyntaxException e) {
+      log.error("[" + key + "]に不正な正規表現が設定されています。" + e.getMessage());
+      throw e;
+    }
+  }
+
+  /**
+   * エンティティクラス生成除外・対象のシート・フィールドのルールごとの一致数を出力します。
+   */
+  private void logRuleMatchCounts() {
+
+    logRuleMatchCounts(PROP_KEY_EXCEL_IGNORE_SHEETS, getSheetFilter().getIgnoreRules());
+    logRuleMatchCounts(PROP_KEY_EXCEL_INCLUDE_SHEETS, getSheetFilter().getIncludeRules());
+    logRuleMatchCounts(PROP_KEY_EXCEL_IGNORE_FIELDS, getFieldFilter().getIgnoreRules());
+    logRuleMatchCounts(PROP_KEY_EXCEL_INCLUDE_FIELDS, getFieldFilter().getIncludeRules());
+    logRuleMatchCounts(ARG_PREFIX_SHEETS, sheetSelection);
+  }
+
+  /**
+   * ルールごとの一致数を出力します。
+   * 
+   * @param key プロパティキー
+   * @param rules ルール
+   */
+  private void logRuleMatchCounts(String key, NameRuleSet rules) {
+
+    if (rules.isEmpty()) {
+      return;
+    }
+    StringBuilder sb = new StringBuilder();
+    for (NameRule rule : rules.getRules()) {
+      if (0 < sb.length()) {
+        sb.append(EntityGeneratorUtils.SEPARATOR_ITEM);
+      }
+      sb.append(rule.getRule()).append("[").append(rule.getMatchCount()).append("]");
+    }
+    log.info("ルールの一致数 " + key + " " + sb.toString());
+  }
+
   /**
    * テーブル定義書の存在チェック、読み込み可能チェックを行います。
    * 
@@ -230,39 +627,131 @@ public class MelipEntityGenerator {
    */
   private boolean makeEntityClass() throws InvalidFormatException, IOException {
 
+    WorkbookReader reader = null;
+    ExecutorService executor = null;
+    entityClassWriter = new AsyncFileWriter(OUTPUT_QUEUE_SIZE);
+    stringPool = new StringPool();
+    entityClassWriter.setRunMetrics(getRunMetrics());
+    IncrementalGeneration incremental = null;
     try {
-      Workbook book = WorkbookFactory.create(getExcelFile());
-
-      // ドメインの取得
-      Sheet domainSheet = book.getSheet(getExcelDomainSheet());
-      Domain domain = null;
-      if (null != domainSheet) {
-        log.info("ドメイン情報の読み込みを開始します。シート[" + domainSheet.getSheetName() + "]");
-        DomainCreator domainCreator = new DomainCreator(domainSheet);
-        domain = domainCreator.createDomain();
-        log.info("ドメイン情報の読み込みが終了しました。");
-      }
-
-      // エンティティシートの処理
-      log.info("エンティティ情報の読み込みを開始します。");
-      for (int i = 0; i < book.getNumberOfSheets(); i++) {
-        Sheet sheet = book.getSheetAt(i);
-        if (isIgnoreSheet(sheet)) {
-          log.info("シート[" + sheet.getSheetName() + "]は除外対象のためスキップします。");
-          continue;
+      deleteLegacyCacheFiles();
+      if (isEntityIncremental() && !isEntitySource()) {
+        incremental =
+            new IncrementalGeneration(getExcelFile(), getOutputDir(), getCacheDir(),
+                getExcelDomainSheet(), hashTemplates(), hashOutputProps());
+      }
+
+      // 差分生成しない場合は、解析済みのテーブル定義書を再利用できる
+      String workbookCacheKey = null;
+      ParsedWorkbook parsedWorkbook = null;
+      if (isEntitySource()) {
+        parsedWorkbook = loadEntitySource(createEntitySource());
+        if (null == parsedWorkbook) {
+          return false;
         }
+      } else if (null != getWorkbookCache() && null == incremental && sheetSelection.isEmpty()) {
+        workbookCacheKey = createWorkbookKey();
+        parsedWorkbook = getWorkbookCache().get(workbookCacheKey);
+      }
+      ModelSnapshot snapshot = null;
+      if (isEntitySnapshot() && null == incremental && !isEntitySource()) {
+        snapshot =
+            new ModelSnapshot(getCacheDir(), null != workbookCacheKey ? workbookCacheKey
+                : createWorkbookKey());
+        if (null == parsedWorkbook) {
+          parsedWorkbook = readSnapshot(snapshot);
+        }
+      }
 
-        log.info("シート[" + sheet.getSheetName() + "]の処理を開始します。");
-        EntityCreator entityCreator = new EntityCreator(sheet, getExcelIgnoreFields(), domain);
-        Entity entity = entityCreator.createEntity();
-        EntityTemplate entityTemplate =
-            new EntityTemplate(entity, getEntityPackageName(), getEntityParentClassName());
-        String contents = entityTemplate.makeString();
-        outputEntityClassFile(contents, entityTemplate.getEntity().getClassName());
-        log.info("シート[" + sheet.getSheetName() + "]の処理が終了しました。");
-        setCounter(getCounter() + 1);
+      executor = createExecutor();
+      EntitySheetVisitor entityVisitor;
+      if (null != parsedWorkbook) {
+        if (!isEntitySource()) {
+          log.info("解析済みのテーブル定義書を使用します。");
+        }
+        entityVisitor = new EntitySheetVisitor(parsedWorkbook.getDomain(), executor, incremental);
+        for (Map.Entry<String, Entity> entry : parsedWorkbook.getEntityMap().entrySet()) {
+          if (entityVisitor.isTargetSheet(entry.getKey())) {
+            EventSpan span = GeneratorEvents.beginSheet();
+            entityVisitor.processEntity(entry.getKey(), entry.getValue());
+            span.end(entry.getKey(), entry.getValue().getClassName(), entry.getValue()
+                .getFieldList().size(), 0L);
+          }
+        }
+      } else {
+        PhaseTimer timer =
+            getRunMetrics().start(RunMetrics.PHASE_WORKBOOK_OPEN, getExcelFile().getName());
+        // シートを指定した場合は、指定したシートのみ展開するイベントモデルで読み込む
+        boolean streaming = isExcelStreaming();
+        if (!streaming && !sheetSelection.isEmpty()) {
+          log.info("生成するシートが指定されているため、テーブル定義書をストリーミングで読み込みます。");
+          streaming = true;
+        }
+        reader = WorkbookReaderFactory.create(getExcelFile(), streaming);
+        timer.stop();
+
+        // ドメインの取得
+        Domain domain = null;
+        String domainKey = null == incremental ? null : incremental.getDomainKey();
+        if (null != domainKey) {
+          // ドメインのJavaの型はデータ型の設定で決まるため、設定もキーに含める
+          domainKey +=
+              EntityGeneratorUtils.SEPARATOR_ITEM + DataTypeRegistry.getInstance().getFingerprint();
+        }
+        if (null != domainKey && domainKey.equals(domainCacheKey)) {
+          log.info("ドメイン定義シートに変更がないため、前回読み込んだドメイン情報を使用します。");
+          domain = domainCache;
+        } else {
+          DomainSheetVisitor domainVisitor = new DomainSheetVisitor();
+          timer = getRunMetrics().start(RunMetrics.PHASE_DOMAIN_PARSE, getExcelDomainSheet());
+          reader.read(domainVisitor);
+          timer.stop();
+          domain = domainVisitor.getDomain();
+          domainCache = domain;
+          domainCacheKey = domainKey;
+        }
+        if (null != incremental) {
+          incremental.applyDomain(domain);
+        }
+
+        // エンティティシートの処理
+        log.info("エンティティ情報の読み込みを開始します。");
+        entityVisitor = new EntitySheetVisitor(domain, executor, incremental);
+        if (null != workbookCacheKey || (null != snapshot && sheetSelection.isEmpty())) {
+          entityVisitor.setParsedWorkbook(new ParsedWorkbook(domain));
+        }
+        reader.read(entityVisitor);
+      }
+      if (!entityVisitor.awaitCompletion()) {
+        return false;
+      }
+      if (null != workbookCacheKey && null == parsedWorkbook) {
+        getWorkbookCache().put(workbookCacheKey, entityVisitor.getParsedWorkbook());
+      }
+      if (null != snapshot && null == parsedWorkbook && null != entityVisitor.getParsedWorkbook()) {
+        writeSnapshot(snapshot, entityVisitor.getParsedWorkbook());
       }
       log.info("エンティティ情報の読み込みが終了しました。");
+      logRuleMatchCounts();
+
+      // 前回生成したが今回は生成しなかったエンティティクラスの削除
+      if (null != incremental && isDeleteOrphans()) {
+        for (String className : incremental.getOrphanClassNames()) {
+          entityClassWriter.delete(new File(getOutputDir(), className
+              + EntityGeneratorUtils.EXTENSION_JAVA));
+        }
+      }
+      entityClassWriter.close();
+      log.info("エンティティクラスファイル 書き込み[" + entityClassWriter.getWrittenCount() + "]件 変更なし["
+          + entityClassWriter.getUnchangedCount() + "]件 削除[" + entityClassWriter.getDeletedCount()
+          + "]件");
+      if (0 < entityClassWriter.getFailedCount()) {
+        return false;
+      }
+
+      if (null != incremental) {
+        incremental.store();
+      }
     } catch (IllegalStateException e) {
       // Excelの状態が不正だった場合は、DomainCreator、EntityCreatorからIllegalStateExceptionが投げられる
       return false;
@@ -270,66 +759,284 @@ public class MelipEntityGenerator {
       log.error("テーブル定義書[" + getExcelFile().getPath() + "]は無効なフォーマットです。");
       throw e;
     } catch (IOException e) {
-      log.error("テーブル定義書[" + getExcelFile().getPath() + "]の処理中に入出力エラーが発生しました。");
+      if (isEntitySource()) {
+        log.error("データベース・DDL[" + getEntitySourceName() + "]からのエンティティクラス生成中に入出力エラーが発生しました。");
+      } else {
+        log.error("テーブル定義書[" + getExcelFile().getPath() + "]の処理中に入出力エラーが発生しました。");
+      }
       throw e;
+    } finally {
+      if (null != executor) {
+        executor.shutdownNow();
+      }
+      stringPool = null;
+      entityClassWriter.close();
+      if (null != reader) {
+        reader.close();
+      }
+      if (null != incremental) {
+        incremental.close();
+      }
     }
 
     return true;
   }
 
   /**
-   * シートがエンティティクラス生成対象外か判定します。
+   * 設定からデータベース・DDLのエンティティのソースを作成します。
    * 
-   * @param sheet シート
-   * @return エンティティクラス生成対象外の場合true、対象の場合false
+   * @return エンティティのソース
    */
-  private boolean isIgnoreSheet(Sheet sheet) {
-    return getIgnoreSheetList().contains(sheet.getSheetName());
+  private EntitySource createEntitySource() {
+
+    if (StringUtils.isNotEmpty(getDdlPath())) {
+      List<File> paths = new ArrayList<File>();
+      for (String path : splitItems(getDdlPath())) {
+        paths.add(new File(path));
+      }
+      return new DdlEntitySource(paths, getFieldFilter(), getDdlDialect());
+    }
+    return new JdbcEntitySource(getJdbcUrl(), getProps().getProperty(PROP_KEY_JDBC_USER),
+        getProps().getProperty(PROP_KEY_JDBC_PASSWORD),
+        splitItems(getProps().getProperty(PROP_KEY_JDBC_SCHEMAS)), getFieldFilter());
   }
 
   /**
-   * エンティティクラス生成除外シートリストを取得します。
+   * カンマ区切りのプロパティを分割します。
    * 
-   * @return エンティティクラス生成除外シートリスト
+   * @param prop プロパティ
+   * @return 前後の空白を除いた各項目（空の項目は除く）
    */
-  private List<String> getIgnoreSheetList() {
+  private static List<String> splitItems(String prop) {
 
-    List<String> ignoreSheetList = new ArrayList<String>();
-    String ignoreSheetsProp = getExcelIgnoreSheets();
-    if (StringUtils.isNotEmpty(ignoreSheetsProp)) {
-      ignoreSheetList = Arrays.asList(ignoreSheetsProp.split(EntityGeneratorUtils.SEPARATOR_ITEM));
+    List<String> items = new ArrayList<String>();
+    for (String item : StringUtils.split(StringUtils.defaultString(prop),
+        EntityGeneratorUtils.SEPARATOR_ITEM)) {
+      if (StringUtils.isNotBlank(item)) {
+        items.add(item.trim());
+      }
     }
+    return items;
+  }
 
-    return ignoreSheetList;
+  /**
+   * エンティティのソースからエンティティ情報を読み込みます。
+   * 
+   * @param source エンティティのソース
+   * @return 読み込んだドメインとエンティティ、読み込めなかった場合はnull
+   */
+  private ParsedWorkbook loadEntitySource(EntitySource source) {
+
+    PhaseTimer timer = getRunMetrics().start(RunMetrics.PHASE_SOURCE_LOAD, getEntitySourceName());
+    try {
+      return source.load();
+    } catch (IOException e) {
+      log.error(e.getMessage(), e.getCause());
+      return null;
+    } finally {
+      timer.stop();
+    }
   }
 
   /**
-   * エンティティクラスファイルを出力します。
+   * 解析済みのテーブル定義書のキーを作成します。
    * 
-   * @param contents エンティティクラスの文字列
+   * @return 解析済みのテーブル定義書のキー
+   * @throws IOException
+   */
+  private String createWorkbookKey() throws IOException {
+
+    // フィールドの型は解析時に変換されるため、データ型の設定もキーに含める
+    return ParsedWorkbookCache.createKey(getExcelFile(), getExcelDomainSheet(),
+        getExcelIgnoreSheets(), getExcelIgnoreFields(),
+        getProps().getProperty(PROP_KEY_EXCEL_INCLUDE_SHEETS),
+        getProps().getProperty(PROP_KEY_EXCEL_INCLUDE_FIELDS))
+        + EntityGeneratorUtils.SEPARATOR_ITEM + DataTypeRegistry.getInstance().getFingerprint();
+  }
+
+  /**
+   * 生成結果のキャッシュ（マニフェスト・スナップショット）の保存先を取得します。<br>
+   * エンティティクラスの出力先はソースのパッケージのため、出力先の中には保存しません。
+   * 設定がない場合は出力先と同じ階層の{@value #DEFAULT_CACHE_DIR_NAME}ディレクトリとし、
+   * 出力先ごとに出力先の名前とパスのハッシュのディレクトリに分けます。
+   * 
+   * @return 生成結果のキャッシュディレクトリ
+   */
+  private File getCacheDir() {
+
+    File outputDir = getOutputDir().getAbsoluteFile();
+    String cachePath = getProps().getProperty(PROP_KEY_ENTITY_CACHE_PATH);
+    File baseDir =
+        StringUtils.isNotEmpty(cachePath) ? new File(cachePath) : new File(
+            outputDir.getParentFile(), DEFAULT_CACHE_DIR_NAME);
+    String hash =
+        Hashing.sha256().hashString(outputDir.getPath(), StandardCharsets.UTF_8).toString();
+    return new File(baseDir, outputDir.getName() + "-" + hash.substring(0, CACHE_DIR_HASH_LENGTH));
+  }
+
+  /**
+   * 以前のバージョンがエンティティクラスの出力先に保存したマニフェスト・スナップショットを削除します。
+   */
+  private void deleteLegacyCacheFiles() {
+
+    for (String fileName : new String[] {GenerationManifest.FILE_NAME, ModelSnapshot.FILE_NAME}) {
+      File file = new File(getOutputDir(), fileName);
+      if (file.isFile() && file.delete()) {
+        log.info("エンティティクラスの出力先にある[" + file.getPath() + "]を削除しました。");
+      }
+    }
+  }
+
+  /**
+   * 解析済みのテーブル定義書のスナップショットを読み込みます。<br>
+   * スナップショットが破損している場合は、テーブル定義書を解析し直すためnullを返します。
+   * 
+   * @param snapshot スナップショット
+   * @return 解析済みのテーブル定義書、スナップショットが存在しないか使用できない場合はnull
+   */
+  private ParsedWorkbook readSnapshot(ModelSnapshot snapshot) {
+
+    PhaseTimer timer =
+        getRunMetrics().start(RunMetrics.PHASE_SNAPSHOT_READ, snapshot.getFile().getName());
+    try {
+      ParsedWorkbook parsedWorkbook = snapshot.read();
+      if (null != parsedWorkbook) {
+        log.info("テーブル定義書に変更がないため、スナップショット[" + snapshot.getFile().getPath() + "]を使用します。");
+      }
+      return parsedWorkbook;
+    } catch (IOException e) {
+      log.warn("スナップショット[" + snapshot.getFile().getPath() + "]を読み込めないため、テーブル定義書を解析します。", e);
+      return null;
+    } finally {
+      timer.stop();
+    }
+  }
+
+  /**
+   * 解析済みのテーブル定義書のスナップショットを保存します。<br>
+   * 保存に失敗してもエンティティクラスの生成は正常終了とします。
+   * 
+   * @param snapshot スナップショット
+   * @param parsedWorkbook 解析済みのテーブル定義書
+   */
+  private void writeSnapshot(ModelSnapshot snapshot, ParsedWorkbook parsedWorkbook) {
+
+    try {
+      snapshot.write(parsedWorkbook);
+      log.info("スナップショット[" + snapshot.getFile().getPath() + "]を保存しました。");
+    } catch (IOException e) {
+      log.warn("スナップショット[" + snapshot.getFile().getPath() + "]を保存できませんでした。", e);
+    }
+  }
+
+  /**
+   * エンティティクラスを生成するスレッドプールを作成します。<br>
+   * 生成スレッド数が1の場合は、シートを読み込んだスレッドで直列に生成するためnullを返します。<br>
+   * 生成待ちが溜まりすぎないよう、キューが一杯の場合はシートを読み込んだスレッドで生成します。
+   * 
+   * @return スレッドプール、直列の場合はnull
+   */
+  private ExecutorService createExecutor() {
+
+    int threads = getEntityGenerateThreads();
+    if (threads <= 1) {
+      return null;
+    }
+
+    log.info("エンティティクラスを" + threads + "スレッドで並列に生成します。");
+    return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<Runnable>(threads * QUEUE_SIZE_PER_THREAD),
+        new ThreadPoolExecutor.CallerRunsPolicy());
+  }
+
+  /**
+   * テンプレートのハッシュを作成します。
+   * 
+   * @return テンプレートのハッシュ
+   * @throws IOException
+   */
+  private String hashTemplates() throws IOException {
+
+    Template[] templates =
+        {new EntityTemplate(), new ConstantsTemplate(), new FieldTemplate(),
+            new GetterSetterTemplate()};
+    Hasher hasher = Hashing.sha256().newHasher();
+    for (Template template : templates) {
+      hasher.putString(template.getCompiledTemplate().getSource(), StandardCharsets.UTF_8);
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * 生成されるエンティティクラスの内容に影響するプロパティのハッシュを作成します。
+   * 
+   * @return プロパティのハッシュ
+   */
+  private String hashOutputProps() {
+
+    Hasher hasher = Hashing.sha256().newHasher();
+    for (String key : OUTPUT_PROP_KEYS) {
+      hasher.putString(key + "=" + StringUtils.defaultString(getProps().getProperty(key)),
+          StandardCharsets.UTF_8).putChar('\n');
+    }
+    // フィールドの型はデータ型の設定で決まるため、設定が変更された場合は全シートを生成し直す
+    hasher.putString(DataTypeRegistry.getInstance().getFingerprint(), StandardCharsets.UTF_8);
+    return hasher.hash().toString();
+  }
+
+  /**
+   * エンティティからエンティティクラスを生成し、ファイルに出力します。
+   * 
+   * @param sheetName シート名
+   * @param entity エンティティ
+   * @throws IOException
+   */
+  private void generateEntityClass(String sheetName, Entity entity) throws IOException {
+
+    EntityTemplate entityTemplate =
+        new EntityTemplate(entity, getEntityPackageName(), getEntityParentClassName());
+    outputEntityClassFile(entityTemplate, entityTemplate.getEntity().getClassName(), sheetName);
+  }
+
+  /**
+   * シートがエンティティクラス生成対象外か判定します。
+   * 
+   * @param sheetName シート名
+   * @return エンティティクラス生成対象外の場合true、対象の場合false
+   */
+  private boolean isIgnoreSheet(String sheetName) {
+    return getSheetFilter().isIgnored(sheetName);
+  }
+
+  /**
+   * エンティティクラスファイルを出力します。<br>
+   * テンプレートから作成した文字列はUTF-8のバイト列に直接書き込み、書き込みは{@link AsyncFileWriter}に任せます。
+   * 既存のファイルと内容が同じ場合は書き込まれません。
+   * 
+   * @param template エンティティクラスのテンプレート
    * @param fileName ファイル名
-   * @throws FileNotFoundException
+   * @param sheetName シート名
+   * @throws IOException
    */
-  private void outputEntityClassFile(String contents, String fileName) throws FileNotFoundException {
+  private void outputEntityClassFile(EntityTemplate template, String fileName, String sheetName)
+      throws IOException {
 
     String filePath =
         getEntityOutputPath() + EntityGeneratorUtils.SEPARATOR_PATH + fileName
             + EntityGeneratorUtils.EXTENSION_JAVA;
 
-    PrintWriter writer = null;
-    try {
-      writer =
-          new PrintWriter(new OutputStreamWriter(new FileOutputStream(filePath),
-              StandardCharsets.UTF_8));
-      writer.print(contents);
-    } catch (FileNotFoundException e) {
-      log.error("出力先ファイル[" + filePath + "]に書き込めません。");
-      throw e;
-    } finally {
-      if (null != writer) {
-        writer.close();
-      }
-    }
+    int fieldCount = template.getEntity().getFieldList().size();
+    EventSpan span = GeneratorEvents.beginRender();
+    PhaseTimer timer = getRunMetrics().start(RunMetrics.PHASE_RENDER, sheetName);
+    OutputBuffer contents = new OutputBuffer(OUTPUT_BUFFER_SIZE);
+    Writer writer = new BufferedWriter(new OutputStreamWriter(contents, StandardCharsets.UTF_8));
+    template.render(writer);
+    writer.close();
+    timer.stop();
+    span.end(sheetName, fileName, fieldCount, contents.size());
+    // 内容はコピーせず、バッファの配列のまま渡す
+    entityClassWriter.write(new File(filePath), contents.getBuffer(), contents.size(), sheetName,
+        fileName, fieldCount);
   }
 
   /**
@@ -341,6 +1048,15 @@ public class MelipEntityGenerator {
     return getProps().getProperty(PROP_KEY_EXCEL_PATH);
   }
 
+  /**
+   * テーブル定義書をストリーミングで読み込むか判定します。
+   * 
+   * @return ストリーミングで読み込む場合true、ユーザーモデルで読み込む場合false
+   */
+  private boolean isExcelStreaming() {
+    return Boolean.parseBoolean(getProps().getProperty(PROP_KEY_EXCEL_STREAMING));
+  }
+
   /**
    * ドメイン定義シートを取得します。
    * 
@@ -368,6 +1084,52 @@ public class MelipEntityGenerator {
     return getProps().getProperty(PROP_KEY_EXCEL_IGNORE_FIELDS);
   }
 
+  /**
+   * データベースのJDBC URLを取得します。
+   * 
+   * @return データベースのJDBC URL
+   */
+  private String getJdbcUrl() {
+    return getProps().getProperty(PROP_KEY_JDBC_URL);
+  }
+
+  /**
+   * DDLファイル・ディレクトリのパスを取得します。
+   * 
+   * @return DDLファイル・ディレクトリのパス（カンマ区切り）
+   */
+  private String getDdlPath() {
+    return getProps().getProperty(PROP_KEY_DDL_PATH);
+  }
+
+  /**
+   * DDLの方言を取得します。
+   * 
+   * @return DDLの方言、標準SQLの場合は空
+   */
+  private String getDdlDialect() {
+    return StringUtils.trim(getProps().getProperty(PROP_KEY_DDL_DIALECT));
+  }
+
+  /**
+   * テーブル定義書ではなく、データベース・DDLからエンティティ情報を読み込むか判定します。
+   * 
+   * @return JDBC URLかDDLのパスが設定されている場合true
+   */
+  private boolean isEntitySource() {
+    return StringUtils.isNotEmpty(getJdbcUrl()) || StringUtils.isNotEmpty(getDdlPath());
+  }
+
+  /**
+   * データベース・DDLの名前を取得します。
+   * 
+   * @return DDLのパスが設定されている場合はDDLのパス、それ以外の場合は認証情報を伏せたJDBC URL
+   */
+  private String getEntitySourceName() {
+    return StringUtils.isNotEmpty(getDdlPath()) ? getDdlPath() : JdbcEntitySource
+        .redactUrl(getJdbcUrl());
+  }
+
   /**
    * エンティティクラスのパッケージ名を取得します。
    * 
@@ -395,6 +1157,42 @@ public class MelipEntityGenerator {
     return getProps().getProperty(PROP_KEY_ENTITY_OUTPUT_PATH);
   }
 
+  /**
+   * 変更のないシートをスキップするか判定します。
+   * 
+   * @return 変更のないシートをスキップする場合true
+   */
+  private boolean isEntityIncremental() {
+    return Boolean.parseBoolean(getProps().getProperty(PROP_KEY_ENTITY_INCREMENTAL));
+  }
+
+  /**
+   * 解析済みのテーブル定義書のスナップショットを使用するか取得します。
+   * 
+   * @return スナップショットを使用する場合true
+   */
+  private boolean isEntitySnapshot() {
+    return Boolean.parseBoolean(getProps().getProperty(PROP_KEY_ENTITY_SNAPSHOT));
+  }
+
+  /**
+   * エンティティクラスの生成スレッド数を取得します。
+   * 
+   * @return エンティティクラスの生成スレッド数、不正な値の場合は0
+   */
+  private int getEntityGenerateThreads() {
+
+    String threads = getProps().getProperty(PROP_KEY_ENTITY_GENERATE_THREADS);
+    if (StringUtils.isEmpty(threads)) {
+      return DEFAULT_GENERATE_THREADS;
+    }
+    try {
+      return Integer.parseInt(threads.trim());
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
   /**
    * プロパティを取得します。
    * 
@@ -449,6 +1247,115 @@ public class MelipEntityGenerator {
     this.outputDir = outputDir;
   }
 
+  /**
+   * プロパティファイルの設定を上書きするプロパティを取得します。
+   * 
+   * @return プロパティファイルの設定を上書きするプロパティ
+   */
+  public Properties getPropOverrides() {
+    return propOverrides;
+  }
+
+  /**
+   * プロパティファイルの設定を上書きするプロパティを設定します。
+   * 
+   * @param propOverrides プロパティファイルの設定を上書きするプロパティ
+   */
+  public void setPropOverrides(Properties propOverrides) {
+    this.propOverrides = propOverrides;
+  }
+
+  /**
+   * 計測結果を取得します。
+   * 
+   * @return 計測結果
+   */
+  public RunMetrics getRunMetrics() {
+    return runMetrics;
+  }
+
+  /**
+   * 計測結果を設定します。
+   * 
+   * @param runMetrics 計測結果
+   */
+  public void setRunMetrics(RunMetrics runMetrics) {
+    this.runMetrics = runMetrics;
+  }
+
+  /**
+   * 解析済みのテーブル定義書のキャッシュを取得します。
+   * 
+   * @return 解析済みのテーブル定義書のキャッシュ
+   */
+  public ParsedWorkbookCache getWorkbookCache() {
+    return workbookCache;
+  }
+
+  /**
+   * 解析済みのテーブル定義書のキャッシュを設定します。
+   * 
+   * @param workbookCache 解析済みのテーブル定義書のキャッシュ
+   */
+  public void setWorkbookCache(ParsedWorkbookCache workbookCache) {
+    this.workbookCache = workbookCache;
+  }
+
+  /**
+   * シート名のフィルターを取得します。
+   * 
+   * @return シート名のフィルター
+   */
+  public NameFilter getSheetFilter() {
+    return sheetFilter;
+  }
+
+  /**
+   * フィールド論理名のフィルターを取得します。
+   * 
+   * @return フィールド論理名のフィルター
+   */
+  public NameFilter getFieldFilter() {
+    return fieldFilter;
+  }
+
+  /**
+   * 生成するシートを取得します。
+   * 
+   * @return 生成するシート（カンマ区切り）、指定しない場合はnull
+   */
+  public String getSelectedSheets() {
+    return selectedSheets;
+  }
+
+  /**
+   * 生成するシートを設定します。<br>
+   * 除外・対象のシートと同じく、シート名・ワイルドカード・正規表現をカンマ区切りで指定します。
+   * 
+   * @param selectedSheets 生成するシート（カンマ区切り）、すべて生成する場合はnull
+   */
+  public void setSelectedSheets(String selectedSheets) {
+    this.selectedSheets = selectedSheets;
+  }
+
+  /**
+   * 差分生成で、前回生成したが今回は生成しなかったエンティティクラスを削除するか取得します。
+   * 
+   * @return 削除する場合true
+   */
+  public boolean isDeleteOrphans() {
+    return deleteOrphans;
+  }
+
+  /**
+   * 差分生成で、前回生成したが今回は生成しなかったエンティティクラスを削除するか設定します。
+   * 
+   * @param deleteOrphans 削除する場合true
+   */
+  public void setDeleteOrphans(boolean deleteOrphans) {
+    this.deleteOrphans = deleteOrphans;
+  }
+
   /**
    * カウンタを取得します。
    * 
@@ -466,4 +1373,288 @@ public class MelipEntityGenerator {
   public void setCounter(int counter) {
     this.counter = counter;
   }
+
+  /**
+   * ドメイン定義シートからドメインを読み込むビジターです。
+   */
+  private class DomainSheetVisitor implements SheetVisitor {
+
+    /** ドメイン */
+    private Domain domain = null;
+
+    /**
+     * @see com.melip.entitygenerator.reader.SheetVisitor#beforeSheet(java.lang.String)
+     */
+    @Override
+    public SheetRowHandler beforeSheet(String sheetName) {
+
+      if (!sheetName.equals(getExcelDomainSheet())) {
+        return null;
+      }
+      log.info("ドメイン情報の読み込みを開始します。シート[" + sheetName + "]");
+      DomainCreator creator = new DomainCreator();
+      creator.setStringPool(stringPool);
+      return creator;
+    }
+
+    /**
+     * @see com.melip.entitygenerator.reader.SheetVisitor#afterSheet(java.lang.String,
+     *      com.melip.entitygenerator.reader.SheetRowHandler)
+     */
+    @Override
+    public void afterSheet(String sheetName, SheetRowHandler handler) {
+
+      domain = ((DomainCreator) handler).createDomain();
+      log.info("ドメイン情報の読み込みが終了しました。");
+    }
+
+    /**
+     * ドメインを取得します。
+     * 
+     * @return ドメイン、ドメイン定義シートが存在しない場合はnull
+     */
+    public Domain getDomain() {
+      return domain;
+    }
+  }
+
+  /**
+   * エンティティシートからエンティティクラスを生成するビジターです。<br>
+   * スレッドプールが指定された場合は、シートの読み込みと並行してエンティティクラスを生成します。
+   * 処理結果のログとカウンタは、シートの順に{@link #awaitCompletion()}で反映します。
+   */
+  private class EntitySheetVisitor implements SheetVisitor {
+
+    /** ドメイン */
+    private final Domain domain;
+    /** スレッドプール（直列の場合はnull） */
+    private final ExecutorService executor;
+    /** 生成中のシート（シートの順） */
+    private final List<SheetTask> tasks = new ArrayList<SheetTask>();
+    /** クラス名ごとの最後に投入した生成処理 */
+    private final Map<String, Future<Void>> lastTaskMap = new HashMap<String, Future<Void>>();
+    /** 差分生成（差分生成しない場合はnull） */
+    private final IncrementalGeneration incremental;
+    /** 解析結果を記録する解析済みのテーブル定義書（記録しない場合はnull） */
+    private ParsedWorkbook parsedWorkbook = null;
+    /** 解析中のシートのタイマー */
+    private PhaseTimer sheetTimer = null;
+    /** 処理中のシートのJFRイベント */
+    private EventSpan sheetSpan = null;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param domain ドメイン
+     * @param executor スレッドプール（直列の場合はnull）
+     * @param incremental 差分生成（差分生成しない場合はnull）
+     */
+    public EntitySheetVisitor(Domain domain, ExecutorService executor,
+        IncrementalGeneration incremental) {
+      this.domain = domain;
+      this.executor = executor;
+      this.incremental = incremental;
+    }
+
+    /**
+     * @see com.melip.entitygenerator.reader.SheetVisitor#beforeSheet(java.lang.String)
+     */
+    @Override
+    public SheetRowHandler beforeSheet(String sheetName) {
+
+      if (!isTargetSheet(sheetName)) {
+        return null;
+      }
+      sheetSpan = GeneratorEvents.beginSheet();
+      sheetTimer = getRunMetrics().start(RunMetrics.PHASE_SHEET_PARSE, sheetName);
+      EntityCreator creator = new EntityCreator(getFieldFilter(), domain);
+      creator.setStringPool(stringPool);
+      return creator;
+    }
+
+    /**
+     * @see com.melip.entitygenerator.reader.SheetVisitor#afterSheet(java.lang.String,
+     *      com.melip.entitygenerator.reader.SheetRowHandler)
+     */
+    @Override
+    public void afterSheet(String sheetName, SheetRowHandler handler) throws IOException {
+
+      Entity entity = ((EntityCreator) handler).createEntity();
+      sheetTimer.stop();
+      if (null != parsedWorkbook) {
+        parsedWorkbook.addEntity(sheetName, entity);
+      }
+      processEntity(sheetName, entity);
+      sheetSpan.end(sheetName, entity.getClassName(), entity.getFieldList().size(), 0L);
+    }
+
+    /**
+     * シートがエンティティクラスの生成対象か判定します。
+     * 
+     * @param sheetName シート名
+     * @return 生成対象の場合true、除外対象または変更がないためスキップする場合false
+     */
+    public boolean isTargetSheet(String sheetName) {
+
+      if (isIgnoreSheet(sheetName)) {
+        log.info("シート[" + sheetName + "]は除外対象のためスキップします。");
+        return false;
+      }
+      if (!sheetSelection.isEmpty() && null == sheetSelection.match(sheetName)) {
+        log.debug("シート[" + sheetName + "]は指定されていないためスキップします。");
+        if (null != incremental) {
+          incremental.keepSheet(sheetName);
+        }
+        return false;
+      }
+      if (null != incremental && incremental.isUpToDate(sheetName)) {
+        log.info("シート[" + sheetName + "]は変更がないためスキップします。");
+        return false;
+      }
+      log.info("シート[" + sheetName + "]の処理を開始します。");
+      return true;
+    }
+
+    /**
+     * エンティティからエンティティクラスを生成します。
+     * 
+     * @param sheetName シート名
+     * @param entity エンティティ
+     * @throws IOException
+     */
+    public void processEntity(String sheetName, final Entity entity) throws IOException {
+
+      if (null == executor) {
+        generateEntityClass(sheetName, entity);
+        completeSheet(sheetName, entity);
+        return;
+      }
+
+      // 同じクラス名のシートは、直列の場合と同じく後のシートの内容で上書きされるよう順に生成する
+      final Future<Void> previous = lastTaskMap.get(entity.getClassName());
+      Future<Void> future = executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          if (null != previous) {
+            previous.get();
+          }
+          generateEntityClass(sheetName, entity);
+          return null;
+        }
+      });
+      lastTaskMap.put(entity.getClassName(), future);
+      tasks.add(new SheetTask(sheetName, entity, future));
+    }
+
+    /**
+     * 並列に生成しているエンティティクラスの完了を待ち、シートの順に結果を反映します。
+     * 
+     * @return 全シートが正常終了した場合true、失敗したシートがある場合false
+     * @throws InterruptedIOException
+     */
+    public boolean awaitCompletion() throws InterruptedIOException {
+
+      boolean result = true;
+      for (SheetTask task : tasks) {
+        try {
+          task.getFuture().get();
+          completeSheet(task.getSheetName(), task.getEntity());
+        } catch (ExecutionException e) {
+          log.error("シート[" + task.getSheetName() + "]のエンティティクラス生成に失敗しました。", e.getCause());
+          result = false;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("エンティティクラス生成の完了待ちが中断されました。");
+        }
+      }
+
+      return result;
+    }
+
+    /**
+     * 解析結果を記録する解析済みのテーブル定義書を取得します。
+     * 
+     * @return 解析済みのテーブル定義書
+     */
+    public ParsedWorkbook getParsedWorkbook() {
+      return parsedWorkbook;
+    }
+
+    /**
+     * 解析結果を記録する解析済みのテーブル定義書を設定します。
+     * 
+     * @param parsedWorkbook 解析済みのテーブル定義書
+     */
+    public void setParsedWorkbook(ParsedWorkbook parsedWorkbook) {
+      this.parsedWorkbook = parsedWorkbook;
+    }
+
+    /**
+     * シートの処理終了を反映します。
+     * 
+     * @param sheetName シート名
+     * @param entity エンティティ
+     */
+    private void completeSheet(String sheetName, Entity entity) {
+
+      if (null != incremental) {
+        incremental.recordSheet(sheetName, entity.getClassName(), entity.getDomainNames());
+      }
+      log.info("シート[" + sheetName + "]の処理が終了しました。");
+      setCounter(getCounter() + 1);
+    }
+  }
+
+  /**
+   * 生成中のシートを表すクラスです。
+   */
+  private static class SheetTask {
+
+    /** シート名 */
+    private final String sheetName;
+    /** エンティティ */
+    private final Entity entity;
+    /** 生成処理 */
+    private final Future<Void> future;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param sheetName シート名
+     * @param entity エンティティ
+     * @param future 生成処理
+     */
+    public SheetTask(String sheetName, Entity entity, Future<Void> future) {
+      this.sheetName = sheetName;
+      this.entity = entity;
+      this.future = future;
+    }
+
+    /**
+     * シート名を取得します。
+     * 
+     * @return シート名
+     */
+    public String getSheetName() {
+      return sheetName;
+    }
+
+    /**
+     * エンティティを取得します。
+     * 
+     * @return エンティティ
+     */
+    public Entity getEntity() {
+      return entity;
+    }
+
+    /**
+     * 生成処理を取得します。
+     * 
+     * @return 生成処理
+     */
+    public Future<Void> getFuture() {
+      return future;
+    }
+  }
 }
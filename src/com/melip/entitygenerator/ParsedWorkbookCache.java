@@ -0,0 +1,80 @@
+package com.melip.entitygenerator;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.melip.entitygenerator.entity.ParsedWorkbook;
+
+/**
+ * 解析済みのテーブル定義書を保持するLRUキャッシュです。<br>
+ * テーブル定義書の内容のハッシュと、解析結果に影響する設定をキーとするため、ファイルが保存し直されても内容が同じであれば再利用できます。
+ * 複数のスレッドから同時に使用できます。
+ */
+public class ParsedWorkbookCache {
+
+  /** キーの区切り文字 */
+  private static final String SEPARATOR_KEY = "|";
+
+  /** キャッシュ */
+  private final Cache<String, ParsedWorkbook> cache;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param maximumSize 保持するテーブル定義書の最大数
+   */
+  public ParsedWorkbookCache(int maximumSize) {
+    this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+  }
+
+  /**
+   * キャッシュのキーを作成します。<br>
+   * 解析済みのテーブル定義書のスナップショットのキーにも使用します。
+   * 
+   * @param excelFile テーブル定義書
+   * @param domainSheet ドメイン定義シート
+   * @param ignoreSheets エンティティクラス生成除外シート
+   * @param ignoreFields エンティティクラス生成除外フィールド
+   * @param includeSheets エンティティクラス生成対象シート
+   * @param includeFields エンティティクラス生成対象フィールド
+   * @return キャッシュのキー
+   * @throws IOException
+   */
+  public static String createKey(File excelFile, String domainSheet, String ignoreSheets,
+      String ignoreFields, String includeSheets, String includeFields) throws IOException {
+
+    return Files.hash(excelFile, Hashing.sha256()).toString() + SEPARATOR_KEY
+        + StringUtils.defaultString(domainSheet) + SEPARATOR_KEY
+        + StringUtils.defaultString(ignoreSheets) + SEPARATOR_KEY
+        + StringUtils.defaultString(ignoreFields) + SEPARATOR_KEY
+        + StringUtils.defaultString(includeSheets) + SEPARATOR_KEY
+        + StringUtils.defaultString(includeFields);
+  }
+
+  /**
+   * 解析済みのテーブル定義書を取得します。
+   * 
+   * @param key キャッシュのキー
+   * @return 解析済みのテーブル定義書、キャッシュにない場合はnull
+   */
+  public ParsedWorkbook get(String key) {
+    return cache.getIfPresent(key);
+  }
+
+  /**
+   * 解析済みのテーブル定義書を登録します。
+   * 
+   * @param key キャッシュのキー
+   * @param parsedWorkbook 解析済みのテーブル定義書
+   */
+  public void put(String key, ParsedWorkbook parsedWorkbook) {
+    cache.put(key, parsedWorkbook);
+  }
+
+}
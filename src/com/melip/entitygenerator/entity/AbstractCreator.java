@@ -1,15 +1,29 @@
 package com.melip.entitygenerator.entity;
 
-import org.apache.poi.ss.usermodel.Row;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Sheet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.melip.entitygenerator.reader.SheetRowHandler;
+import com.melip.entitygenerator.reader.UserModelWorkbookReader;
 
 /**
- * Excelのテーブル定義書からオブジェクトを生成する基底クラスです。
+ * Excelのテーブル定義書からオブジェクトを生成する基底クラスです。<br>
+ * シートの行は{@link SheetRowHandler}として1行ずつ受け取ります。
  */
-public abstract class AbstractCreator {
+public abstract class AbstractCreator implements SheetRowHandler {
+
+  private static final Logger log = LoggerFactory.getLogger(AbstractCreator.class);
 
   /** テーブル定義書のシート */
   private Sheet sheet = null;
+  /** シート名 */
+  private String sheetName = null;
+  /** テーブル定義書の不備の記録先（記録しない場合はnull） */
+  private List<Violation> violations = null;
 
   /**
    * コンストラクタ
@@ -26,16 +40,88 @@ public abstract class AbstractCreator {
   }
 
   /**
-   * 空行か判定します。
+   * @see com.melip.entitygenerator.reader.SheetRowHandler#startSheet(java.lang.String)
+   */
+  @Override
+  public void startSheet(String sheetName) {
+    this.sheetName = sheetName;
+  }
+
+  /**
+   * @see com.melip.entitygenerator.reader.SheetRowHandler#endSheet()
+   */
+  @Override
+  public void endSheet() {}
+
+  /**
+   * シートが設定されている場合は、シートを1行ずつ読み込みます。<br>
+   * シートが設定されていない場合は、リーダーから行を受け取り済みとして何もしません。
+   */
+  protected void readSheetIfNeeded() {
+
+    if (null != getSheet()) {
+      UserModelWorkbookReader.readSheet(getSheet(), this, new DataFormatter());
+    }
+  }
+
+  /**
+   * 見出し項目の不備を報告します。
    * 
-   * @param row 行
-   * @return 空行の場合true、空行でない場合false
+   * @param code 種類
+   * @param item 見出し項目
+   * @param value セルの値
+   * @param message メッセージ
+   * @see #reportViolation(String, int, int, String, String)
    */
-  protected boolean isEmptyRow(Row row) {
-    // 空行はnullとなる
-    return null == row;
+  protected void reportHeaderViolation(String code, int item, String value, String message) {
+    reportViolation(code, getLayout().getHeaderRow(item), getLayout().getHeaderColumn(item),
+        value, message);
   }
 
+  /**
+   * レコードの項目の不備を報告します。
+   * 
+   * @param code 種類
+   * @param rowNum 行番号
+   * @param item レコードの項目
+   * @param value セルの値
+   * @param message メッセージ
+   * @see #reportViolation(String, int, int, String, String)
+   */
+  protected void reportRecordViolation(String code, int rowNum, int item, String value,
+      String message) {
+    reportViolation(code, rowNum, getLayout().getRecordColumn(item), value, message);
+  }
+
+  /**
+   * テーブル定義書の不備を報告します。<br>
+   * 不備の記録先が設定されていない場合はエラーを出力して{@link IllegalStateException}を投げ、
+   * 設定されている場合は記録して読み込みを続けます。
+   * 
+   * @param code 種類
+   * @param rowNum 行番号（0から、対応しない場合は-1）
+   * @param colNum 列番号（0から、対応しない場合は-1）
+   * @param value セルの値
+   * @param message メッセージ
+   * @throws IllegalStateException 不備の記録先が設定されていない場合
+   */
+  protected void reportViolation(String code, int rowNum, int colNum, String value,
+      String message) {
+
+    if (null == violations) {
+      log.error(message);
+      throw new IllegalStateException();
+    }
+    violations.add(new Violation(code, getSheetName(), rowNum + 1, colNum + 1, value, message));
+  }
+
+  /**
+   * レイアウトを取得します。
+   * 
+   * @return レイアウト
+   */
+  public abstract SheetLayout getLayout();
+
   /**
    * テーブル定義書のシートを取得します。
    * 
@@ -54,4 +140,32 @@ public abstract class AbstractCreator {
     this.sheet = sheet;
   }
 
+  /**
+   * シート名を取得します。
+   * 
+   * @return シート名
+   */
+  public String getSheetName() {
+    return sheetName;
+  }
+
+  /**
+   * テーブル定義書の不備の記録先を取得します。
+   * 
+   * @return テーブル定義書の不備の記録先（記録しない場合はnull）
+   */
+  public List<Violation> getViolations() {
+    return violations;
+  }
+
+  /**
+   * テーブル定義書の不備の記録先を設定します。<br>
+   * 設定した場合、不備があっても例外を投げずに記録し、シートを最後まで読み込みます。
+   * 
+   * @param violations テーブル定義書の不備の記録先
+   */
+  public void setViolations(List<Violation> violations) {
+    this.violations = violations;
+  }
+
 }
@@ -0,0 +1,263 @@
+package com.melip.entitygenerator.entity;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * データ型をJavaの型に変換するクラスです。<br>
+ * データ型とJavaの型の対応は設定ファイル（setting/datatype.properties）から読み込み、データ型の先頭部分の木構造で保持します。
+ * データ型は先頭が一致するもののうち最も長いものに対応するJavaの型に変換され、変換結果はデータ型の文字列ごとに保持されます。
+ */
+public class DataTypeRegistry {
+
+  private static final Logger log = LoggerFactory.getLogger(DataTypeRegistry.class);
+
+  /** 設定ファイルパス */
+  private static final String PATH_SETTING_FILE = "setting/datatype.properties";
+  /** 設定ファイルの文字コード */
+  private static final String CHARSET_SETTING_FILE = "UTF-8";
+  /** 変換できないデータ型の変換結果 */
+  private static final String UNKNOWN_TYPE = StringUtils.EMPTY;
+
+  /** インスタンス */
+  private static volatile DataTypeRegistry instance = null;
+
+  /** データ型の先頭部分の木構造の根 */
+  private final Node root = new Node();
+  /** データ型ごとの変換結果 */
+  private final ConcurrentMap<String, String> resultMap = new ConcurrentHashMap<String, String>();
+  /** データ型とJavaの型の対応のハッシュ */
+  private final String fingerprint;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param typeMap データ型の先頭部分とJavaの型のマップ
+   */
+  DataTypeRegistry(Map<String, String> typeMap) {
+
+    Hasher hasher = Hashing.sha256().newHasher();
+    for (Map.Entry<String, String> e : new TreeMap<String, String>(typeMap).entrySet()) {
+      register(e.getKey(), e.getValue());
+      hasher.putString(e.getKey() + "=" + e.getValue(), StandardCharsets.UTF_8).putChar('\n');
+    }
+    this.fingerprint = hasher.hash().toString();
+  }
+
+  /**
+   * インスタンスを取得します。<br>
+   * 初回の呼び出し時に設定ファイルを読み込みます。
+   * 
+   * @return インスタンス
+   */
+  public static DataTypeRegistry getInstance() {
+
+    if (null == instance) {
+      synchronized (DataTypeRegistry.class) {
+        if (null == instance) {
+          instance = new DataTypeRegistry(loadSettingFile());
+        }
+      }
+    }
+
+    return instance;
+  }
+
+  /**
+   * 設定ファイルを読み込み直します。<br>
+   * データ型とJavaの型の対応が変更されている場合のみインスタンスを置き換え、変更がない場合は変換結果を引き続き使用します。
+   */
+  public static void reload() {
+
+    DataTypeRegistry registry = new DataTypeRegistry(loadSettingFile());
+    synchronized (DataTypeRegistry.class) {
+      if (null != instance && instance.getFingerprint().equals(registry.getFingerprint())) {
+        return;
+      }
+      if (null != instance) {
+        log.info("データ型の設定ファイル[" + PATH_SETTING_FILE + "]が変更されたため、読み込み直します。");
+      }
+      instance = registry;
+    }
+  }
+
+  /**
+   * 設定ファイルのファイル名を取得します。
+   * 
+   * @return 設定ファイルのファイル名
+   */
+  public static String getSettingFileName() {
+    return PATH_SETTING_FILE.substring(PATH_SETTING_FILE.lastIndexOf('/') + 1);
+  }
+
+  /**
+   * データ型をJavaの型に変換します。
+   * 
+   * @param dataType データ型
+   * @return Javaの型、変換できない場合はnull
+   */
+  public String convert(String dataType) {
+
+    if (null == dataType) {
+      return null;
+    }
+
+    String javaType = resultMap.get(dataType);
+    if (null == javaType) {
+      javaType = lookup(dataType.toUpperCase(Locale.ENGLISH));
+      resultMap.putIfAbsent(dataType, javaType);
+    }
+
+    return UNKNOWN_TYPE.equals(javaType) ? null : javaType;
+  }
+
+  /**
+   * データ型とJavaの型の対応のハッシュを取得します。<br>
+   * 変換結果を保存して再利用する場合に、設定ファイルが変更されていないことの確認に使用します。
+   * 
+   * @return データ型とJavaの型の対応のハッシュ
+   */
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
+  /**
+   * データ型の先頭部分とJavaの型の対応を登録します。
+   * 
+   * @param prefix データ型の先頭部分
+   * @param javaType Javaの型
+   */
+  private void register(String prefix, String javaType) {
+
+    Node node = root;
+    for (char c : prefix.trim().toUpperCase(Locale.ENGLISH).toCharArray()) {
+      Node child = node.getChildMap().get(c);
+      if (null == child) {
+        child = new Node();
+        node.getChildMap().put(c, child);
+      }
+      node = child;
+    }
+    node.setJavaType(javaType.trim());
+  }
+
+  /**
+   * 先頭が一致するもののうち最も長いものに対応するJavaの型を検索します。
+   * 
+   * @param upperDataType 大文字のデータ型
+   * @return Javaの型、一致するものがない場合は{@link #UNKNOWN_TYPE}
+   */
+  private String lookup(String upperDataType) {
+
+    String javaType = UNKNOWN_TYPE;
+    Node node = root;
+    for (int i = 0; i < upperDataType.length(); i++) {
+      node = node.getChildMap().get(upperDataType.charAt(i));
+      if (null == node) {
+        break;
+      }
+      if (null != node.getJavaType()) {
+        javaType = node.getJavaType();
+      }
+    }
+
+    return javaType;
+  }
+
+  /**
+   * 設定ファイルを読み込みます。
+   * 
+   * @return データ型の先頭部分とJavaの型のマップ
+   */
+  private static Map<String, String> loadSettingFile() {
+
+    InputStream in = DataTypeRegistry.class.getClassLoader().getResourceAsStream(PATH_SETTING_FILE);
+    if (null == in) {
+      log.error("データ型の設定ファイル[" + PATH_SETTING_FILE + "]が存在しません。");
+      throw new IllegalStateException();
+    }
+
+    Properties props = new Properties();
+    BufferedReader reader = null;
+    try {
+      reader = new BufferedReader(new InputStreamReader(in, CHARSET_SETTING_FILE));
+      props.load(reader);
+    } catch (IOException e) {
+      log.error("データ型の設定ファイル[" + PATH_SETTING_FILE + "]読み込み時に入出力エラーが発生しました。");
+      throw new IllegalStateException(e);
+    } finally {
+      try {
+        if (null != reader) {
+          reader.close();
+        } else {
+          in.close();
+        }
+      } catch (IOException e) {
+        log.warn("データ型の設定ファイル[" + PATH_SETTING_FILE + "]をクローズできませんでした。", e);
+      }
+    }
+
+    Map<String, String> typeMap = new HashMap<String, String>();
+    for (String key : props.stringPropertyNames()) {
+      typeMap.put(key, props.getProperty(key));
+    }
+
+    return typeMap;
+  }
+
+  /**
+   * データ型の先頭部分の木構造の節を表すクラスです。
+   */
+  private static class Node {
+
+    /** 次の文字ごとの子 */
+    private final Map<Character, Node> childMap = new HashMap<Character, Node>();
+    /** この節までの文字列に対応するJavaの型 */
+    private String javaType = null;
+
+    /**
+     * 次の文字ごとの子を取得します。
+     * 
+     * @return 次の文字ごとの子
+     */
+    public Map<Character, Node> getChildMap() {
+      return childMap;
+    }
+
+    /**
+     * この節までの文字列に対応するJavaの型を取得します。
+     * 
+     * @return Javaの型
+     */
+    public String getJavaType() {
+      return javaType;
+    }
+
+    /**
+     * この節までの文字列に対応するJavaの型を設定します。
+     * 
+     * @param javaType Javaの型
+     */
+    public void setJavaType(String javaType) {
+      this.javaType = javaType;
+    }
+  }
+
+}
@@ -0,0 +1,582 @@
+package com.melip.entitygenerator.entity;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.melip.entitygenerator.rule.NameFilter;
+
+/**
+ * DDLファイル（CREATE TABLE文）からエンティティを読み込むソースです。<br>
+ * DDLは{@link DdlTokenizer}で先頭から順に字句に分割し、CREATE TABLE・DROP TABLE・COMMENT ON文のみ解析します。
+ * その他の文（INSERTなど）は字句に分割せずに読み飛ばすため、大きなダンプファイルでも使用するメモリはテーブル数に比例する分のみです。<br>
+ * テーブルをエンティティ、列をフィールドとし、論理名には列・テーブルのCOMMENT句、またはCOMMENT ON文のコメントを使用します。
+ * コメントがない場合は物理名を使用します。データ型はテーブル定義書と同じくsetting/datatype.propertiesでJavaの型に変換します。<br>
+ * ディレクトリを指定した場合は、ディレクトリ内のDDLファイル（*.sql）をファイル名の順に読み込みます。
+ * 同じテーブルが複数回作成された場合は、後の定義で置き換えます。
+ * エンティティのシート名は「スキーマ名.テーブル名」（スキーマを指定していない場合はテーブル名）です。<br>
+ * 字句は標準SQLとして分割し、MySQL方言（{@link #DIALECT_MYSQL}）を指定した場合のみ「\」のエスケープと「#」のコメントを解釈します。
+ */
+public class DdlEntitySource implements EntitySource {
+
+  private static final Logger log = LoggerFactory.getLogger(DdlEntitySource.class);
+
+  /** DDLの方言：MySQL */
+  public static final String DIALECT_MYSQL = "mysql";
+
+  /** DDLファイルの拡張子 */
+  private static final String EXTENSION_SQL = ".sql";
+  /** スキーマ名とテーブル名の区切り文字 */
+  private static final String SEPARATOR_SCHEMA = ".";
+  /** CREATEとTABLEの間に指定できるキーワード */
+  private static final Set<String> CREATE_TABLE_MODIFIERS = keywords("OR", "REPLACE", "TEMPORARY",
+      "TEMP", "GLOBAL", "LOCAL", "UNLOGGED");
+  /** 列ではなく制約・索引の定義を始めるキーワード */
+  private static final Set<String> TABLE_CONSTRAINTS = keywords("CONSTRAINT", "PRIMARY", "UNIQUE",
+      "FOREIGN", "CHECK", "KEY", "INDEX", "FULLTEXT", "SPATIAL", "EXCLUDE", "LIKE", "PERIOD");
+  /** 列のデータ型の後に続く制約・属性のキーワード */
+  private static final Set<String> COLUMN_CONSTRAINTS = keywords("NOT", "NULL", "DEFAULT",
+      "PRIMARY", "UNIQUE", "REFERENCES", "CHECK", "COMMENT", "COLLATE", "CONSTRAINT",
+      "AUTO_INCREMENT", "AUTOINCREMENT", "GENERATED", "IDENTITY");
+
+  /** DDLファイル・ディレクトリ */
+  private final List<File> paths;
+  /** フィールド論理名のフィルター */
+  private final NameFilter fieldFilter;
+  /** MySQL方言を使用するか */
+  private final boolean mysql;
+
+  /** 読み込み中のシート名ごとのエンティティ */
+  private Map<String, Entity> entityMap = null;
+  /** 読み込み中のDDLファイル */
+  private File file = null;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param paths DDLファイル・ディレクトリ
+   * @param fieldFilter フィールド論理名のフィルター
+   * @param dialect DDLの方言（{@link #DIALECT_MYSQL}、標準SQLの場合はnull）
+   */
+  public DdlEntitySource(List<File> paths, NameFilter fieldFilter, String dialect) {
+    this.paths = paths;
+    this.fieldFilter = fieldFilter;
+    this.mysql = DIALECT_MYSQL.equalsIgnoreCase(dialect);
+  }
+
+  /**
+   * @see com.melip.entitygenerator.entity.EntitySource#load()
+   */
+  @Override
+  public ParsedWorkbook load() throws IOException {
+
+    entityMap = new LinkedHashMap<String, Entity>();
+    try {
+      for (File path : paths) {
+        for (File ddlFile : listFiles(path)) {
+          parseFile(ddlFile);
+        }
+      }
+
+      Domain domain = new Domain();
+      domain.setDomainMap(new HashMap<String, String>());
+      domain.setJavaTypeMap(new HashMap<String, String>());
+      ParsedWorkbook parsedWorkbook = new ParsedWorkbook(domain);
+      for (Map.Entry<String, Entity> e : entityMap.entrySet()) {
+        // コメントはCREATE TABLEの後のCOMMENT ON文で指定される場合があるため、除外は最後に判定する
+        removeIgnoredFields(e.getValue());
+        parsedWorkbook.addEntity(e.getKey(), e.getValue());
+      }
+      return parsedWorkbook;
+    } finally {
+      entityMap = null;
+      file = null;
+    }
+  }
+
+  /**
+   * DDLファイル・ディレクトリから読み込むDDLファイルを取得します。
+   * 
+   * @param path DDLファイル・ディレクトリ
+   * @return DDLファイル（ディレクトリの場合はファイル名の順）
+   * @throws FileNotFoundException DDLファイル・ディレクトリが存在しない場合
+   */
+  private static List<File> listFiles(File path) throws FileNotFoundException {
+
+    if (path.isFile()) {
+      return Arrays.asList(path);
+    }
+    File[] files = path.listFiles();
+    if (null == files) {
+      throw new FileNotFoundException("DDL[" + path.getPath() + "]が存在しません。");
+    }
+
+    List<File> ddlFiles = new ArrayList<File>();
+    Arrays.sort(files);
+    for (File f : files) {
+      if (f.isFile() && f.getName().toLowerCase(Locale.ENGLISH).endsWith(EXTENSION_SQL)) {
+        ddlFiles.add(f);
+      }
+    }
+    return ddlFiles;
+  }
+
+  /**
+   * DDLファイルを読み込みます。
+   * 
+   * @param ddlFile DDLファイル
+   * @throws IOException
+   */
+  private void parseFile(File ddlFile) throws IOException {
+
+    log.info("DDL[" + ddlFile.getPath() + "]の読み込みを開始します。");
+    file = ddlFile;
+    int tableCount = entityMap.size();
+    Reader reader = new InputStreamReader(new FileInputStream(ddlFile), StandardCharsets.UTF_8);
+    try {
+      DdlTokenizer tokenizer = new DdlTokenizer(reader, mysql);
+      while (DdlTokenizer.TYPE_EOF != tokenizer.next()) {
+        if (tokenizer.isWord("CREATE")) {
+          parseCreateTable(tokenizer);
+        } else if (tokenizer.isWord("DROP")) {
+          parseDropTable(tokenizer);
+        } else if (tokenizer.isWord("COMMENT")) {
+          parseComment(tokenizer);
+        }
+        tokenizer.skipStatement();
+      }
+    } finally {
+      reader.close();
+    }
+    log.info("DDL[" + ddlFile.getPath() + "]の読み込みが終了しました。テーブル[" + (entityMap.size() - tableCount)
+        + "]件");
+  }
+
+  /**
+   * CREATE TABLE文を解析します。CREATE TABLE文でない場合は何もしません。
+   * 
+   * @param tokenizer 現在の字句がCREATEの字句分割
+   * @throws IOException
+   */
+  private void parseCreateTable(DdlTokenizer tokenizer) throws IOException {
+
+    tokenizer.next();
+    while (DdlTokenizer.TYPE_WORD == tokenizer.getType()
+        && CREATE_TABLE_MODIFIERS.contains(tokenizer.getText().toUpperCase(Locale.ENGLISH))) {
+      tokenizer.next();
+    }
+    if (!tokenizer.isWord("TABLE")) {
+      return;
+    }
+    tokenizer.next();
+    skipIfExists(tokenizer);
+    List<String> names = readQualifiedName(tokenizer);
+    if (names.isEmpty() || !tokenizer.isSymbol('(')) {
+      // CREATE TABLE ... AS SELECTなど、列を定義しない文
+      return;
+    }
+
+    String tableName = names.get(names.size() - 1);
+    Entity entity = new Entity();
+    entity.setLogicalName(tableName);
+    entity.setPhysicalName(tableName);
+    entity.setFieldList(new ArrayList<Field>());
+    entity.setDomainNames(new TreeSet<String>());
+
+    tokenizer.next();
+    while (!tokenizer.isSymbol(')')) {
+      if (DdlTokenizer.TYPE_EOF == tokenizer.getType()) {
+        log.error("CREATE TABLE文が終了していません。DDL[" + file.getPath() + "]テーブル[" + tableName + "]");
+        throw new IllegalStateException();
+      }
+      parseTableElement(tokenizer, entity);
+      if (tokenizer.isSymbol(',')) {
+        tokenizer.next();
+      }
+    }
+
+    // テーブルオプション（COMMENT='...'）
+    tokenizer.next();
+    while (DdlTokenizer.TYPE_EOF != tokenizer.getType() && !tokenizer.isSymbol(';')) {
+      if (tokenizer.isWord("COMMENT")) {
+        tokenizer.next();
+        if (tokenizer.isSymbol('=')) {
+          tokenizer.next();
+        }
+        if (DdlTokenizer.TYPE_STRING == tokenizer.getType()
+            && StringUtils.isNotEmpty(tokenizer.getText())) {
+          entity.setLogicalName(tokenizer.getText());
+        }
+      }
+      tokenizer.next();
+    }
+
+    String sheetName = toSheetName(names);
+    entityMap.remove(sheetName);
+    entityMap.put(sheetName, entity);
+  }
+
+  /**
+   * CREATE TABLE文の列・制約の定義を1つ解析します。<br>
+   * 列の定義の場合はフィールドをエンティティに追加し、制約の定義の場合は読み飛ばします。
+   * 
+   * @param tokenizer 現在の字句が定義の先頭の字句分割、解析後は定義の後の「,」か「)」
+   * @param entity エンティティ
+   * @throws IOException
+   */
+  private void parseTableElement(DdlTokenizer tokenizer, Entity entity) throws IOException {
+
+    if (!tokenizer.isIdentifier()
+        || (DdlTokenizer.TYPE_WORD == tokenizer.getType() && TABLE_CONSTRAINTS.contains(tokenizer
+            .getText().toUpperCase(Locale.ENGLISH)))) {
+      skipTableElement(tokenizer);
+      return;
+    }
+
+    String columnName = tokenizer.getText();
+    int line = tokenizer.getLine();
+    tokenizer.next();
+
+    // データ型（複数の単語・引数を含む。例：DOUBLE PRECISION、VARCHAR(20)、DECIMAL(10,2)）
+    StringBuilder dataType = new StringBuilder();
+    while (DdlTokenizer.TYPE_WORD == tokenizer.getType()
+        && !COLUMN_CONSTRAINTS.contains(tokenizer.getText().toUpperCase(Locale.ENGLISH))) {
+      if (0 < dataType.length()) {
+        dataType.append(' ');
+      }
+      dataType.append(tokenizer.getText());
+      tokenizer.next();
+    }
+    if (0 < dataType.length() && tokenizer.isSymbol('(')) {
+      appendParenthesized(tokenizer, dataType);
+    }
+
+    // 制約・属性（DEFAULT、COMMENTのみ使用する）
+    String defaultValue = null;
+    String comment = null;
+    int depth = 0;
+    while (DdlTokenizer.TYPE_EOF != tokenizer.getType()
+        && !(0 == depth && (tokenizer.isSymbol(',') || tokenizer.isSymbol(')')))) {
+      if (0 == depth && tokenizer.isWord("DEFAULT")) {
+        tokenizer.next();
+        defaultValue = readDefaultValue(tokenizer);
+        continue;
+      }
+      if (0 == depth && tokenizer.isWord("COMMENT")) {
+        tokenizer.next();
+        if (DdlTokenizer.TYPE_STRING == tokenizer.getType()) {
+          comment = tokenizer.getText();
+        }
+      } else if (tokenizer.isSymbol('(')) {
+        depth++;
+      } else if (tokenizer.isSymbol(')')) {
+        depth--;
+      }
+      tokenizer.next();
+    }
+
+    String fieldType = DataTypeRegistry.getInstance().convert(dataType.toString());
+    if (StringUtils.isEmpty(fieldType)) {
+      log.error("データ型をJavaの型に変換できませんでした。DDL[" + file.getPath() + "]行[" + line + "]列["
+          + columnName + "]データ型[" + dataType + "]");
+      throw new IllegalStateException();
+    }
+
+    Field field = new Field();
+    field.setLogicalName(StringUtils.defaultIfEmpty(comment, columnName));
+    field.setPhysicalName(columnName);
+    field.setDataType(dataType.toString());
+    field.setDefaultValue(defaultValue);
+    field.setFieldType(fieldType);
+    entity.getFieldList().add(field);
+  }
+
+  /**
+   * 制約の定義を読み飛ばします。
+   * 
+   * @param tokenizer 字句分割、読み飛ばした後は定義の後の「,」か「)」
+   * @throws IOException
+   */
+  private static void skipTableElement(DdlTokenizer tokenizer) throws IOException {
+
+    int depth = 0;
+    while (DdlTokenizer.TYPE_EOF != tokenizer.getType()
+        && !(0 == depth && (tokenizer.isSymbol(',') || tokenizer.isSymbol(')')))) {
+      if (tokenizer.isSymbol('(')) {
+        depth++;
+      } else if (tokenizer.isSymbol(')')) {
+        depth--;
+      }
+      tokenizer.next();
+    }
+  }
+
+  /**
+   * 括弧で囲まれた字句を、括弧を含めて追加します。
+   * 
+   * @param tokenizer 現在の字句が「(」の字句分割、追加した後は「)」の次の字句
+   * @param sb 追加先
+   * @throws IOException
+   */
+  private static void appendParenthesized(DdlTokenizer tokenizer, StringBuilder sb)
+      throws IOException {
+
+    int depth = 0;
+    do {
+      if (tokenizer.isSymbol('(')) {
+        depth++;
+      } else if (tokenizer.isSymbol(')')) {
+        depth--;
+      }
+      if (DdlTokenizer.TYPE_STRING == tokenizer.getType()) {
+        sb.append('\'').append(tokenizer.getText().replace("'", "''")).append('\'');
+      } else {
+        sb.append(tokenizer.getText());
+      }
+      tokenizer.next();
+    } while (0 < depth && DdlTokenizer.TYPE_EOF != tokenizer.getType());
+  }
+
+  /**
+   * DEFAULTの値を読み込みます。
+   * 
+   * @param tokenizer 現在の字句が値の先頭の字句分割、読み込んだ後は値の次の字句
+   * @return デフォルト値（文字列リテラルは引用符で囲む）
+   * @throws IOException
+   */
+  private static String readDefaultValue(DdlTokenizer tokenizer) throws IOException {
+
+    StringBuilder sb = new StringBuilder();
+    if (tokenizer.isSymbol('-') || tokenizer.isSymbol('+')) {
+      sb.append(tokenizer.getText());
+      tokenizer.next();
+    }
+    if (tokenizer.isSymbol('(')) {
+      appendParenthesized(tokenizer, sb);
+      return sb.toString();
+    }
+    if (DdlTokenizer.TYPE_EOF == tokenizer.getType()) {
+      return null;
+    }
+    boolean function = DdlTokenizer.TYPE_WORD == tokenizer.getType();
+    if (DdlTokenizer.TYPE_STRING == tokenizer.getType()) {
+      sb.append('\'').append(tokenizer.getText().replace("'", "''")).append('\'');
+    } else {
+      sb.append(tokenizer.getText());
+    }
+    tokenizer.next();
+    // 関数の呼び出し（例：CURRENT_TIMESTAMP(3)、nextval('seq')）
+    if (function && tokenizer.isSymbol('(')) {
+      appendParenthesized(tokenizer, sb);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * DROP TABLE文を解析し、削除されたテーブルのエンティティを取り除きます。DROP TABLE文でない場合は何もしません。
+   * 
+   * @param tokenizer 現在の字句がDROPの字句分割
+   * @throws IOException
+   */
+  private void parseDropTable(DdlTokenizer tokenizer) throws IOException {
+
+    tokenizer.next();
+    if (!tokenizer.isWord("TABLE")) {
+      return;
+    }
+    tokenizer.next();
+    skipIfExists(tokenizer);
+    for (;;) {
+      List<String> names = readQualifiedName(tokenizer);
+      if (names.isEmpty()) {
+        return;
+      }
+      String sheetName = findSheetName(names);
+      if (null != sheetName) {
+        entityMap.remove(sheetName);
+      }
+      if (!tokenizer.isSymbol(',')) {
+        return;
+      }
+      tokenizer.next();
+    }
+  }
+
+  /**
+   * COMMENT ON TABLE・COMMENT ON COLUMN文を解析し、コメントを論理名に設定します。<br>
+   * 対象のテーブル・列が作成されていない場合は何もしません。
+   * 
+   * @param tokenizer 現在の字句がCOMMENTの字句分割
+   * @throws IOException
+   */
+  private void parseComment(DdlTokenizer tokenizer) throws IOException {
+
+    tokenizer.next();
+    if (!tokenizer.isWord("ON")) {
+      return;
+    }
+    tokenizer.next();
+    boolean column = tokenizer.isWord("COLUMN");
+    if (!column && !tokenizer.isWord("TABLE")) {
+      return;
+    }
+    tokenizer.next();
+    List<String> names = readQualifiedName(tokenizer);
+    if (names.size() < (column ? 2 : 1) || !tokenizer.isWord("IS")) {
+      return;
+    }
+    tokenizer.next();
+    String comment =
+        DdlTokenizer.TYPE_STRING == tokenizer.getType() ? tokenizer.getText() : null;
+
+    String physicalName = names.get(names.size() - 1);
+    String sheetName = findSheetName(column ? names.subList(0, names.size() - 1) : names);
+    if (null == sheetName) {
+      return;
+    }
+    Entity entity = entityMap.get(sheetName);
+    if (!column) {
+      entity.setLogicalName(StringUtils.defaultIfEmpty(comment, entity.getPhysicalName()));
+      return;
+    }
+    for (Field field : entity.getFieldList()) {
+      if (field.getPhysicalName().equalsIgnoreCase(physicalName)) {
+        field.setLogicalName(StringUtils.defaultIfEmpty(comment, field.getPhysicalName()));
+      }
+    }
+  }
+
+  /**
+   * IF EXISTS・IF NOT EXISTSを読み飛ばします。
+   * 
+   * @param tokenizer 字句分割
+   * @throws IOException
+   */
+  private static void skipIfExists(DdlTokenizer tokenizer) throws IOException {
+
+    if (!tokenizer.isWord("IF")) {
+      return;
+    }
+    tokenizer.next();
+    if (tokenizer.isWord("NOT")) {
+      tokenizer.next();
+    }
+    if (tokenizer.isWord("EXISTS")) {
+      tokenizer.next();
+    }
+  }
+
+  /**
+   * 「.」で区切られた名前（スキーマ名.テーブル名など）を読み込みます。
+   * 
+   * @param tokenizer 現在の字句が名前の先頭の字句分割、読み込んだ後は名前の次の字句
+   * @return 名前の各部分、名前でない場合は空のリスト
+   * @throws IOException
+   */
+  private static List<String> readQualifiedName(DdlTokenizer tokenizer) throws IOException {
+
+    List<String> names = new ArrayList<String>();
+    while (tokenizer.isIdentifier()) {
+      names.add(tokenizer.getText());
+      tokenizer.next();
+      if (!tokenizer.isSymbol('.')) {
+        break;
+      }
+      tokenizer.next();
+    }
+    return names;
+  }
+
+  /**
+   * 名前から読み込み済みのエンティティのシート名を検索します。<br>
+   * 一致するものがない場合は大文字・小文字を区別せずに検索し、スキーマ名の有無が異なるものはテーブル名で一致させます。
+   * 
+   * @param names 名前の各部分（最後がテーブル名）
+   * @return シート名、見つからない場合はnull
+   */
+  private String findSheetName(List<String> names) {
+
+    String sheetName = toSheetName(names);
+    if (entityMap.containsKey(sheetName)) {
+      return sheetName;
+    }
+    String tableName = names.get(names.size() - 1);
+    for (String key : entityMap.keySet()) {
+      if (key.equalsIgnoreCase(sheetName) || key.equalsIgnoreCase(tableName)
+          || (1 == names.size() && StringUtils.endsWithIgnoreCase(key, SEPARATOR_SCHEMA
+              + tableName))) {
+        return key;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * 除外対象のフィールドを取り除きます。
+   * 
+   * @param entity エンティティ
+   */
+  private void removeIgnoredFields(Entity entity) {
+
+    if (null == fieldFilter) {
+      return;
+    }
+    for (Iterator<Field> it = entity.getFieldList().iterator(); it.hasNext();) {
+      if (fieldFilter.isIgnored(it.next().getLogicalName())) {
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * テーブルのシート名を作成します。
+   * 
+   * @param names 名前の各部分（最後がテーブル名、その前がスキーマ名）
+   * @return シート名（スキーマを指定していない場合はテーブル名）
+   */
+  private static String toSheetName(List<String> names) {
+
+    String tableName = names.get(names.size() - 1);
+    return names.size() < 2 ? tableName : names.get(names.size() - 2) + SEPARATOR_SCHEMA
+        + tableName;
+  }
+
+  /**
+   * 大文字のキーワードの集合を作成します。
+   * 
+   * @param keywords キーワード
+   * @return キーワードの集合
+   */
+  private static Set<String> keywords(String... keywords) {
+    return new HashSet<String>(Arrays.asList(keywords));
+  }
+
+  /**
+   * DDLファイル・ディレクトリを取得します。
+   * 
+   * @return DDLファイル・ディレクトリ
+   */
+  public List<File> getPaths() {
+    return paths;
+  }
+
+}
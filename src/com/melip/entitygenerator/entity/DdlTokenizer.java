@@ -0,0 +1,465 @@
+package com.melip.entitygenerator.entity;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * DDLを字句に分割するクラスです。<br>
+ * 入力は固定長のバッファで1文字ずつ読み込み、字句を1つずつ返します。
+ * 解析しない文（INSERTなど）は{@link #skipStatement()}で字句に分割せずに読み飛ばすため、
+ * 大きなダンプファイルでも使用するメモリは文の長さによらず一定です。<br>
+ * コメント（「--」から行末まで、「/*」から「*&#47;」まで）と空白は読み飛ばします。<br>
+ * 標準SQLでは「\」は通常の文字です。MySQL方言を指定した場合のみ、文字列リテラルの「\」をエスケープ、
+ * 「#」から行末までをコメントとして扱います。
+ */
+public class DdlTokenizer {
+
+  /** 字句の種類：入力の終わり */
+  public static final int TYPE_EOF = 0;
+  /** 字句の種類：識別子・キーワード */
+  public static final int TYPE_WORD = 1;
+  /** 字句の種類：引用符で囲まれた識別子（「"」「`」「[]」） */
+  public static final int TYPE_QUOTED = 2;
+  /** 字句の種類：文字列リテラル（「'」） */
+  public static final int TYPE_STRING = 3;
+  /** 字句の種類：数値 */
+  public static final int TYPE_NUMBER = 4;
+  /** 字句の種類：記号（1文字） */
+  public static final int TYPE_SYMBOL = 5;
+
+  /** 読み込みバッファのサイズ */
+  private static final int BUFFER_SIZE = 8 * 1024;
+  /** 入力の終わりを表す文字 */
+  private static final int EOF = -1;
+  /** 先読みした文字がないことを表す値 */
+  private static final int NONE = -2;
+  /** 文の終わりの記号 */
+  private static final char END_OF_STATEMENT = ';';
+
+  /** 入力 */
+  private final Reader reader;
+  /** MySQL方言（「\」のエスケープ・「#」のコメント）を使用するか */
+  private final boolean mysql;
+  /** 読み込みバッファ */
+  private final char[] buffer = new char[BUFFER_SIZE];
+  /** 読み込みバッファの次に読む位置 */
+  private int position = 0;
+  /** 読み込みバッファの有効な文字数 */
+  private int limit = 0;
+  /** 先読みした文字 */
+  private int peeked = NONE;
+  /** 現在の行番号（1から） */
+  private int line = 1;
+
+  /** 現在の字句の種類 */
+  private int type = TYPE_EOF;
+  /** 現在の字句の文字列（引用符は除く） */
+  private String text = null;
+  /** 現在の字句の行番号 */
+  private int tokenLine = 0;
+  /** 字句を組み立てるバッファ */
+  private final StringBuilder sb = new StringBuilder();
+
+  /**
+   * コンストラクタ<br>
+   * 標準SQLとして字句に分割します。
+   * 
+   * @param reader 入力
+   */
+  public DdlTokenizer(Reader reader) {
+    this(reader, false);
+  }
+
+  /**
+   * コンストラクタ
+   * 
+   * @param reader 入力
+   * @param mysql MySQL方言（「\」のエスケープ・「#」のコメント）を使用する場合true
+   */
+  public DdlTokenizer(Reader reader, boolean mysql) {
+    this.reader = reader;
+    this.mysql = mysql;
+  }
+
+  /**
+   * 次の字句を読み込みます。
+   * 
+   * @return 字句の種類
+   * @throws IOException
+   */
+  public int next() throws IOException {
+
+    for (;;) {
+      int c = read();
+      if (EOF == c) {
+        return setToken(TYPE_EOF, null);
+      }
+      if (Character.isWhitespace(c)) {
+        continue;
+      }
+      if (isLineComment(c)) {
+        skipLine();
+        continue;
+      }
+      if ('/' == c && '*' == peek()) {
+        read();
+        skipBlockComment();
+        continue;
+      }
+
+      tokenLine = line;
+      sb.setLength(0);
+      if ('\'' == c) {
+        readQuoted('\'');
+        return setToken(TYPE_STRING, sb.toString());
+      }
+      if ('"' == c || '`' == c) {
+        readQuoted((char) c);
+        return setToken(TYPE_QUOTED, sb.toString());
+      }
+      if ('[' == c) {
+        readQuoted(']');
+        return setToken(TYPE_QUOTED, sb.toString());
+      }
+      if (isWordStart(c)) {
+        sb.append((char) c);
+        while (isWordPart(peek())) {
+          sb.append((char) read());
+        }
+        return setToken(TYPE_WORD, sb.toString());
+      }
+      if (Character.isDigit(c)) {
+        sb.append((char) c);
+        while (Character.isDigit(peek()) || '.' == peek()) {
+          sb.append((char) read());
+        }
+        return setToken(TYPE_NUMBER, sb.toString());
+      }
+      return setToken(TYPE_SYMBOL, String.valueOf((char) c));
+    }
+  }
+
+  /**
+   * 現在の文の終わり（「;」）まで読み飛ばします。<br>
+   * 字句には分割せず、文字列リテラル・引用符で囲まれた識別子・コメント・ドル記号で囲まれた文字列（$$...$$）の中の「;」は無視します。
+   * 現在の字句が「;」か入力の終わりの場合は何もしません。
+   * 
+   * @throws IOException
+   */
+  public void skipStatement() throws IOException {
+
+    if (TYPE_EOF == type || isSymbol(END_OF_STATEMENT)) {
+      return;
+    }
+
+    sb.setLength(0);
+    for (;;) {
+      int c = read();
+      if (EOF == c) {
+        setToken(TYPE_EOF, null);
+        return;
+      }
+      if (END_OF_STATEMENT == c) {
+        tokenLine = line;
+        setToken(TYPE_SYMBOL, String.valueOf(END_OF_STATEMENT));
+        return;
+      }
+      if (isLineComment(c)) {
+        skipLine();
+      } else if ('/' == c && '*' == peek()) {
+        read();
+        skipBlockComment();
+      } else if ('\'' == c || '"' == c || '`' == c) {
+        skipQuoted((char) c);
+      } else if ('$' == c) {
+        skipDollarQuoted();
+      }
+    }
+  }
+
+  /**
+   * 現在の字句がキーワードか判定します（大文字・小文字は区別しない）。
+   * 
+   * @param keyword キーワード
+   * @return キーワードの場合true
+   */
+  public boolean isWord(String keyword) {
+    return TYPE_WORD == type && keyword.equalsIgnoreCase(text);
+  }
+
+  /**
+   * 現在の字句が記号か判定します。
+   * 
+   * @param symbol 記号
+   * @return 記号の場合true
+   */
+  public boolean isSymbol(char symbol) {
+    return TYPE_SYMBOL == type && symbol == text.charAt(0);
+  }
+
+  /**
+   * 現在の字句が識別子（引用符で囲まれたものを含む）か判定します。
+   * 
+   * @return 識別子の場合true
+   */
+  public boolean isIdentifier() {
+    return TYPE_WORD == type || TYPE_QUOTED == type;
+  }
+
+  /**
+   * 現在の字句を設定します。
+   * 
+   * @param type 字句の種類
+   * @param text 字句の文字列
+   * @return 字句の種類
+   */
+  private int setToken(int type, String text) {
+
+    this.type = type;
+    this.text = text;
+    return type;
+  }
+
+  /**
+   * 引用符で囲まれた文字列を読み込みます。<br>
+   * 引用符を2つ重ねたものは引用符1つとし、MySQL方言の文字列リテラルでは「\」の次の文字をそのまま読み込みます。
+   * 
+   * @param quote 閉じる引用符
+   * @throws IOException
+   */
+  private void readQuoted(char quote) throws IOException {
+
+    for (;;) {
+      int c = read();
+      if (EOF == c) {
+        return;
+      }
+      if (quote == c) {
+        if (quote != peek()) {
+          return;
+        }
+        read();
+      } else if (isEscape(c, quote) && EOF != peek()) {
+        c = read();
+      }
+      sb.append((char) c);
+    }
+  }
+
+  /**
+   * 引用符で囲まれた文字列を読み飛ばします。<br>
+   * 引用符を2つ重ねたものは、閉じた直後に同じ引用符で開き直したものとして扱います。
+   * MySQL方言の文字列リテラルでは「\」の次の文字を読み飛ばします。
+   * 
+   * @param quote 引用符
+   * @throws IOException
+   */
+  private void skipQuoted(char quote) throws IOException {
+
+    for (;;) {
+      int c = read();
+      if (EOF == c || quote == c) {
+        return;
+      }
+      if (isEscape(c, quote)) {
+        read();
+      }
+    }
+  }
+
+  /**
+   * ドル記号で囲まれた文字列（$タグ$...$タグ$）を読み飛ばします。<br>
+   * 「$」の後がタグでない場合は、「$」の直後から読み込みを続けます。
+   * 
+   * @throws IOException
+   */
+  private void skipDollarQuoted() throws IOException {
+
+    sb.setLength(0);
+    while (isWordPart(peek()) && '$' != peek()) {
+      sb.append((char) read());
+    }
+    if ('$' != peek()) {
+      return;
+    }
+    read();
+
+    String tag = sb.toString();
+    for (;;) {
+      int c = read();
+      if (EOF == c) {
+        return;
+      }
+      if ('$' != c) {
+        continue;
+      }
+      int i = 0;
+      while (i < tag.length() && tag.charAt(i) == peek()) {
+        read();
+        i++;
+      }
+      if (i == tag.length() && '$' == peek()) {
+        read();
+        return;
+      }
+    }
+  }
+
+  /**
+   * 行コメントの始まりか判定します。<br>
+   * 「--」のほか、MySQL方言では「#」を行コメントの始まりとします。
+   * 
+   * @param c 読み込んだ文字
+   * @return 行コメントの始まりの場合true
+   * @throws IOException
+   */
+  private boolean isLineComment(int c) throws IOException {
+    return ('-' == c && '-' == peek()) || (mysql && '#' == c);
+  }
+
+  /**
+   * 引用符で囲まれた文字列の中のエスケープ文字か判定します。<br>
+   * MySQL方言の文字列リテラル（「'」）の「\」のみエスケープ文字とします。
+   * 
+   * @param c 読み込んだ文字
+   * @param quote 閉じる引用符
+   * @return エスケープ文字の場合true
+   */
+  private boolean isEscape(int c, char quote) {
+    return mysql && '\\' == c && '\'' == quote;
+  }
+
+  /**
+   * 行末まで読み飛ばします。
+   * 
+   * @throws IOException
+   */
+  private void skipLine() throws IOException {
+
+    for (;;) {
+      int c = peek();
+      if (EOF == c || '\n' == c) {
+        return;
+      }
+      read();
+    }
+  }
+
+  /**
+   * ブロックコメントの終わりまで読み飛ばします。
+   * 
+   * @throws IOException
+   */
+  private void skipBlockComment() throws IOException {
+
+    for (;;) {
+      int c = read();
+      if (EOF == c || ('*' == c && '/' == peek())) {
+        read();
+        return;
+      }
+    }
+  }
+
+  /**
+   * 次の文字を読み込まずに取得します。
+   * 
+   * @return 次の文字、入力の終わりの場合は{@link #EOF}
+   * @throws IOException
+   */
+  private int peek() throws IOException {
+
+    if (NONE == peeked) {
+      peeked = readBuffer();
+    }
+    return peeked;
+  }
+
+  /**
+   * 次の文字を読み込みます。
+   * 
+   * @return 次の文字、入力の終わりの場合は{@link #EOF}
+   * @throws IOException
+   */
+  private int read() throws IOException {
+
+    int c;
+    if (NONE != peeked) {
+      c = peeked;
+      peeked = NONE;
+    } else {
+      c = readBuffer();
+    }
+    if ('\n' == c) {
+      line++;
+    }
+    return c;
+  }
+
+  /**
+   * 読み込みバッファから次の文字を読み込みます。
+   * 
+   * @return 次の文字、入力の終わりの場合は{@link #EOF}
+   * @throws IOException
+   */
+  private int readBuffer() throws IOException {
+
+    if (position == limit) {
+      limit = reader.read(buffer, 0, buffer.length);
+      position = 0;
+      if (limit <= 0) {
+        limit = 0;
+        return EOF;
+      }
+    }
+    return buffer[position++];
+  }
+
+  /**
+   * 識別子の先頭の文字か判定します。
+   * 
+   * @param c 文字
+   * @return 識別子の先頭の文字の場合true
+   */
+  private static boolean isWordStart(int c) {
+    return EOF != c && (Character.isLetter(c) || '_' == c);
+  }
+
+  /**
+   * 識別子の2文字目以降の文字か判定します。
+   * 
+   * @param c 文字
+   * @return 識別子の2文字目以降の文字の場合true
+   */
+  private static boolean isWordPart(int c) {
+    return EOF != c && (Character.isLetterOrDigit(c) || '_' == c || '$' == c);
+  }
+
+  /**
+   * 現在の字句の種類を取得します。
+   * 
+   * @return 字句の種類
+   */
+  public int getType() {
+    return type;
+  }
+
+  /**
+   * 現在の字句の文字列を取得します。
+   * 
+   * @return 字句の文字列（引用符は除く）、入力の終わりの場合はnull
+   */
+  public String getText() {
+    return text;
+  }
+
+  /**
+   * 現在の字句の行番号を取得します。
+   * 
+   * @return 字句の行番号（1から）
+   */
+  public int getLine() {
+    return tokenLine;
+  }
+
+}
@@ -9,6 +9,8 @@ public class Domain {
 
   /** ドメインマップ */
   private Map<String, String> domainMap = null;
+  /** ドメインごとのJavaの型のマップ */
+  private Map<String, String> javaTypeMap = null;
 
   /**
    * ドメインからデータ型を取得します。
@@ -20,6 +22,17 @@ public class Domain {
     return getDomainMap().get(domain);
   }
 
+  /**
+   * ドメインからJavaの型を取得します。<br>
+   * Javaの型はドメインの読み込み時に変換済みです。
+   * 
+   * @param domain ドメイン
+   * @return Javaの型、ドメインが存在しないかデータ型を変換できない場合はnull
+   */
+  public String getJavaType(String domain) {
+    return getJavaTypeMap().get(domain);
+  }
+
   /**
    * ドメインマップを取得します。
    * 
@@ -38,4 +51,22 @@ public class Domain {
     this.domainMap = domainMap;
   }
 
+  /**
+   * ドメインごとのJavaの型のマップを取得します。
+   * 
+   * @return ドメインごとのJavaの型のマップ
+   */
+  public Map<String, String> getJavaTypeMap() {
+    return javaTypeMap;
+  }
+
+  /**
+   * ドメインごとのJavaの型のマップを設定します。
+   * 
+   * @param javaTypeMap ドメインごとのJavaの型のマップ
+   */
+  public void setJavaTypeMap(Map<String, String> javaTypeMap) {
+    this.javaTypeMap = javaTypeMap;
+  }
+
 }
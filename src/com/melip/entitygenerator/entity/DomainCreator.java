@@ -4,18 +4,13 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
-import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * Excelのテーブル定義書からドメインを生成するクラスです。
  */
 public class DomainCreator extends AbstractCreator {
 
-  private Logger log = LoggerFactory.getLogger(DomainCreator.class);
-
   /** ドメインの開始行番号 */
   private static final int ROW_DOMAIN_START = 2;
   /** ドメイン名の列番号 */
@@ -23,6 +18,26 @@ public class DomainCreator extends AbstractCreator {
   /** データ型の列番号 */
   private static final int COL_DATA_TYPE = 2;
 
+  /** レコードの項目：ドメイン名 */
+  public static final int ITEM_DOMAIN_NAME = 0;
+  /** レコードの項目：データ型 */
+  public static final int ITEM_DATA_TYPE = 1;
+
+  /** ドメイン定義シートのレイアウト */
+  public static final SheetLayout DEFAULT_LAYOUT = new SheetLayout(new int[0], new int[0],
+      ROW_DOMAIN_START, new int[] {COL_DOMAIN_NAME, COL_DATA_TYPE});
+
+  /** ドメインマップ */
+  private Map<String, String> domainMap = new HashMap<String, String>();
+  /** ドメインごとのJavaの型のマップ */
+  private Map<String, String> javaTypeMap = new HashMap<String, String>();
+  /** レイアウト */
+  private SheetLayout layout = DEFAULT_LAYOUT;
+  /** 文字列のプール */
+  private StringPool stringPool = new StringPool();
+  /** 行の変換 */
+  private RowDecoder decoder = new RowDecoder(layout, stringPool);
+
   /**
    * コンストラクタ
    */
@@ -38,47 +53,71 @@ public class DomainCreator extends AbstractCreator {
   }
 
   /**
-   * エンティティを生成します。
+   * エンティティを生成します。<br>
+   * シートが設定されていない場合は、リーダーから受け取った行からドメインを生成します。
    * 
    * @return エンティティ
    */
   public Domain createDomain() {
 
-    Map<String, String> domainMap = new HashMap<String, String>();
-
-    int rowNum = ROW_DOMAIN_START;
-    while (true) {
-      Row row = getSheet().getRow(rowNum);
-      // 行末
-      if (isEmptyRow(row)) {
-        break;
-      }
-
-      String domainName = getDomainName(row);
-      String dataType = getDataType(row);
-      domainMap.put(domainName, dataType);
-
-      rowNum++;
-    }
+    readSheetIfNeeded();
 
     Domain domain = new Domain();
     domain.setDomainMap(domainMap);
+    domain.setJavaTypeMap(javaTypeMap);
 
     return domain;
   }
 
+  /**
+   * @see com.melip.entitygenerator.entity.AbstractCreator#startSheet(java.lang.String)
+   */
+  @Override
+  public void startSheet(String sheetName) {
+
+    super.startSheet(sheetName);
+    domainMap = new HashMap<String, String>();
+    javaTypeMap = new HashMap<String, String>();
+    decoder = new RowDecoder(getLayout(), getStringPool());
+  }
+
+  /**
+   * @see com.melip.entitygenerator.reader.SheetRowHandler#row(int, java.lang.String[])
+   */
+  @Override
+  public void row(int rowNum, String[] cells) {
+
+    String[] record = decoder.decode(rowNum, cells);
+    if (null == record) {
+      return;
+    }
+
+    String domainName = getDomainName(rowNum, record);
+    String dataType = getDataType(rowNum, record);
+    if (StringUtils.isEmpty(domainName) || StringUtils.isEmpty(dataType)) {
+      return;
+    }
+    domainMap.put(domainName, dataType);
+    // 変換できないデータ型は、フィールドで使用された時点でエラーとする
+    String javaType = DataTypeRegistry.getInstance().convert(dataType);
+    if (null != javaType) {
+      javaTypeMap.put(domainName, javaType);
+    }
+  }
+
   /**
    * ドメイン名を取得します。
    * 
-   * @param row 行
+   * @param rowNum 行番号
+   * @param record レコードの項目の値
    * @return ドメイン名
    */
-  private String getDomainName(Row row) {
+  private String getDomainName(int rowNum, String[] record) {
 
-    String domainName = row.getCell(COL_DOMAIN_NAME).getStringCellValue();
+    String domainName = record[ITEM_DOMAIN_NAME];
     if (StringUtils.isEmpty(domainName)) {
-      log.error("エンティティ論理名は必須です。行[" + (row.getRowNum() + 1) + "]");
-      throw new IllegalStateException();
+      reportRecordViolation(Violation.DOMAIN_NAME_REQUIRED, rowNum, ITEM_DOMAIN_NAME, domainName,
+          "ドメイン名は必須です。行[" + (rowNum + 1) + "]");
     }
 
     return domainName;
@@ -87,18 +126,57 @@ public class DomainCreator extends AbstractCreator {
   /**
    * データ型を取得します。
    * 
-   * @param row 行
+   * @param rowNum 行番号
+   * @param record レコードの項目の値
    * @return データ型
    */
-  private String getDataType(Row row) {
+  private String getDataType(int rowNum, String[] record) {
 
-    String dataType = row.getCell(COL_DATA_TYPE).getStringCellValue();
+    String dataType = record[ITEM_DATA_TYPE];
     if (StringUtils.isEmpty(dataType)) {
-      log.error("データ型は必須です。行[" + (row.getRowNum() + 1) + "]");
-      throw new IllegalStateException();
+      reportRecordViolation(Violation.DOMAIN_DATA_TYPE_REQUIRED, rowNum, ITEM_DATA_TYPE, dataType,
+          "データ型は必須です。行[" + (rowNum + 1) + "]");
     }
 
     return dataType;
   }
 
+  /**
+   * レイアウトを取得します。
+   * 
+   * @return レイアウト
+   */
+  @Override
+  public SheetLayout getLayout() {
+    return layout;
+  }
+
+  /**
+   * レイアウトを設定します。シートの読み込み開始時から反映されます。
+   * 
+   * @param layout レイアウト
+   */
+  public void setLayout(SheetLayout layout) {
+    this.layout = layout;
+  }
+
+  /**
+   * 文字列のプールを取得します。
+   * 
+   * @return 文字列のプール
+   */
+  public StringPool getStringPool() {
+    return stringPool;
+  }
+
+  /**
+   * 文字列のプールを設定します。シートの読み込み開始時から反映されます。<br>
+   * 生成処理の実行中は、すべてのシートで同じプールを使用すると重複を最も多く取り除けます。
+   * 
+   * @param stringPool 文字列のプール
+   */
+  public void setStringPool(StringPool stringPool) {
+    this.stringPool = stringPool;
+  }
+
 }
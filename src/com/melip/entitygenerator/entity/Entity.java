@@ -1,27 +1,23 @@
 package com.melip.entitygenerator.entity;
 
 import java.util.List;
-
-import org.apache.commons.lang.StringUtils;
-
-import com.google.common.base.CaseFormat;
+import java.util.Set;
 
 /**
  * エンティティを表すクラスです。
  */
 public class Entity {
 
-  /** テーブル名サフィックス（マスタ） */
-  private static final String PREFIX_MASTER = "M";
-  /** テーブル名サフィックス（トランザクション） */
-  private static final String PREFIX_TRANSACTION = "T";
-
   /** 論理名 */
   private String logicalName = null;
   /** 物理名 */
   private String physicalName = null;
   /** フィールドリスト */
   private List<Field> fieldList = null;
+  /** クラス名 */
+  private String className = null;
+  /** フィールドのデータ型に指定されたドメイン名 */
+  private Set<String> domainNames = null;
 
   /**
    * クラス名を取得します。
@@ -29,15 +25,7 @@ public class Entity {
    * @return クラス名
    */
   public String getClassName() {
-
-    String tmpPhysicalName = getPhysicalName();
-    if (getPhysicalName().startsWith(PREFIX_MASTER)) {
-      tmpPhysicalName = getPhysicalName().replaceFirst(PREFIX_MASTER, StringUtils.EMPTY);
-    } else if (getPhysicalName().startsWith(PREFIX_TRANSACTION)) {
-      tmpPhysicalName = getPhysicalName().replaceFirst(PREFIX_TRANSACTION, StringUtils.EMPTY);
-    }
-
-    return CaseFormat.UPPER_UNDERSCORE.to(CaseFormat.UPPER_CAMEL, tmpPhysicalName);
+    return className;
   }
 
   /**
@@ -68,12 +56,14 @@ public class Entity {
   }
 
   /**
-   * 物理名を設定します。
+   * 物理名を設定します。<br>
+   * クラス名も合わせて設定します。
    * 
    * @param physicalName 物理名
    */
   public void setPhysicalName(String physicalName) {
     this.physicalName = physicalName;
+    this.className = NamingService.getInstance().toClassName(physicalName);
   }
 
   /**
@@ -94,4 +84,22 @@ public class Entity {
     this.fieldList = fieldList;
   }
 
+  /**
+   * フィールドのデータ型に指定されたドメイン名を取得します。
+   * 
+   * @return ドメイン名、不明な場合はnull
+   */
+  public Set<String> getDomainNames() {
+    return domainNames;
+  }
+
+  /**
+   * フィールドのデータ型に指定されたドメイン名を設定します。
+   * 
+   * @param domainNames ドメイン名
+   */
+  public void setDomainNames(Set<String> domainNames) {
+    this.domainNames = domainNames;
+  }
+
 }
@@ -1,24 +1,20 @@
 package com.melip.entitygenerator.entity;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.lang.StringUtils;
-import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import com.melip.entitygenerator.EntityGeneratorUtils;
+import com.melip.entitygenerator.rule.NameFilter;
 
 /**
  * Excelのテーブル定義書からエンティティを生成するクラスです。
  */
 public class EntityCreator extends AbstractCreator {
 
-  private Logger log = LoggerFactory.getLogger(EntityCreator.class);
-
   /** エンティティ論理名の行番号 */
   private static final int ROW_ENTITY_LOGICAL_NAME = 4;
   /** エンティティ論理名の列番号 */
@@ -38,16 +34,44 @@ public class EntityCreator extends AbstractCreator {
   /** デフォルト値の列番号 */
   private static final int COL_FIELD_DEFAULT_VALUE = 5;
 
+  /** 見出し項目：エンティティ論理名 */
+  public static final int HEADER_ENTITY_LOGICAL_NAME = 0;
+  /** 見出し項目：エンティティ物理名 */
+  public static final int HEADER_ENTITY_PHYSICAL_NAME = 1;
+  /** レコードの項目：フィールド論理名 */
+  public static final int ITEM_FIELD_LOGICAL_NAME = 0;
+  /** レコードの項目：フィールド物理名 */
+  public static final int ITEM_FIELD_PHYSICAL_NAME = 1;
+  /** レコードの項目：データ型 */
+  public static final int ITEM_FIELD_DATA_TYPE = 2;
+  /** レコードの項目：デフォルト値 */
+  public static final int ITEM_FIELD_DEFAULT_VALUE = 3;
+
+  /** テーブル定義書（A5:SQL Mk-2のエンティティ定義書）のレイアウト */
+  public static final SheetLayout DEFAULT_LAYOUT = new SheetLayout(new int[] {
+      ROW_ENTITY_LOGICAL_NAME, ROW_ENTITY_PHYSICAL_NAME}, new int[] {COL_ENTITY_LOGICAL_NAME,
+      COL_ENTITY_PHYSICAL_NAME}, ROW_FIELD_START, new int[] {COL_FIELD_LOGICAL_NAME,
+      COL_FIELD_PHYSICAL_NAME, COL_FIELD_DATA_TYPE, COL_FIELD_DEFAULT_VALUE});
+
   /** ドメインのプレフィックス */
   private static final String PREFIX_DOMAIN = "*";
-  /** ドメインのプレフィックス（正規表現） */
-  private static final String PREFIX_DOMAIN_REGEX = "\\*";
 
-  /** エンティティクラス生成対象外フィールド */
-  private String ignoreField = null;
+  /** フィールド論理名のフィルター */
+  private NameFilter fieldFilter = null;
   /** ドメイン */
   private Domain domain = null;
 
+  /** レイアウト */
+  private SheetLayout layout = DEFAULT_LAYOUT;
+  /** 文字列のプール */
+  private StringPool stringPool = new StringPool();
+  /** 行の変換 */
+  private RowDecoder decoder = new RowDecoder(layout, stringPool);
+  /** フィールドリスト */
+  private List<Field> fieldList = new ArrayList<Field>();
+  /** フィールドのデータ型に指定されたドメイン名 */
+  private Set<String> domainNames = new TreeSet<String>();
+
   /**
    * コンストラクタ
    */
@@ -62,6 +86,29 @@ public class EntityCreator extends AbstractCreator {
     this(sheet, null, null);
   }
 
+  /**
+   * コンストラクタ<br>
+   * シートを持たず、{@link com.melip.entitygenerator.reader.WorkbookReader}から行を受け取る場合に使用します。
+   * 
+   * @param ignoreField エンティティクラス生成対象外フィールド
+   * @param domain ドメイン
+   */
+  public EntityCreator(String ignoreField, Domain domain) {
+    this(null, ignoreField, domain);
+  }
+
+  /**
+   * コンストラクタ<br>
+   * シートを持たず、{@link com.melip.entitygenerator.reader.WorkbookReader}から行を受け取る場合に使用します。
+   * 
+   * @param fieldFilter フィールド論理名のフィルター
+   * @param domain ドメイン
+   */
+  public EntityCreator(NameFilter fieldFilter, Domain domain) {
+    this.fieldFilter = fieldFilter;
+    this.domain = domain;
+  }
+
   /**
    * コンストラクタ
    * 
@@ -72,25 +119,53 @@ public class EntityCreator extends AbstractCreator {
   public EntityCreator(Sheet sheet, String ignoreField, Domain domain) {
 
     super(sheet);
-    this.ignoreField = ignoreField;
+    this.fieldFilter = NameFilter.compile(ignoreField, null);
     this.domain = domain;
   }
 
   /**
-   * エンティティを生成します。
+   * エンティティを生成します。<br>
+   * シートが設定されていない場合は、リーダーから受け取った行からエンティティを生成します。
    * 
    * @return エンティティ
    */
   public Entity createEntity() {
 
+    readSheetIfNeeded();
+
     Entity entity = new Entity();
     entity.setLogicalName(getEntityLogicalName());
     entity.setPhysicalName(getEntityPhysicalName());
-    entity.setFieldList(getFieldList());
+    entity.setFieldList(fieldList);
+    entity.setDomainNames(domainNames);
 
     return entity;
   }
 
+  /**
+   * @see com.melip.entitygenerator.entity.AbstractCreator#startSheet(java.lang.String)
+   */
+  @Override
+  public void startSheet(String sheetName) {
+
+    super.startSheet(sheetName);
+    decoder = new RowDecoder(getLayout(), getStringPool());
+    fieldList = new ArrayList<Field>();
+    domainNames = new TreeSet<String>();
+  }
+
+  /**
+   * @see com.melip.entitygenerator.reader.SheetRowHandler#row(int, java.lang.String[])
+   */
+  @Override
+  public void row(int rowNum, String[] cells) {
+
+    String[] record = decoder.decode(rowNum, cells);
+    if (null != record) {
+      addField(rowNum, record);
+    }
+  }
+
   /**
    * エンティティ論理名を取得します。
    * 
@@ -98,12 +173,10 @@ public class EntityCreator extends AbstractCreator {
    */
   private String getEntityLogicalName() {
 
-    String entityLogicalName =
-        getSheet().getRow(ROW_ENTITY_LOGICAL_NAME).getCell(COL_ENTITY_LOGICAL_NAME)
-            .getStringCellValue();
+    String entityLogicalName = decoder.getHeader(HEADER_ENTITY_LOGICAL_NAME);
     if (StringUtils.isEmpty(entityLogicalName)) {
-      log.error("エンティティ論理名は必須です。");
-      throw new IllegalStateException();
+      reportHeaderViolation(Violation.ENTITY_LOGICAL_NAME_REQUIRED, HEADER_ENTITY_LOGICAL_NAME,
+          entityLogicalName, "エンティティ論理名は必須です。");
     }
 
     return entityLogicalName;
@@ -116,52 +189,37 @@ public class EntityCreator extends AbstractCreator {
    */
   private String getEntityPhysicalName() {
 
-    String entityPhysicalName =
-        getSheet().getRow(ROW_ENTITY_PHYSICAL_NAME).getCell(COL_ENTITY_PHYSICAL_NAME)
-            .getStringCellValue();
+    String entityPhysicalName = decoder.getHeader(HEADER_ENTITY_PHYSICAL_NAME);
     if (StringUtils.isEmpty(entityPhysicalName)) {
-      log.error("エンティティ物理名は必須です。");
-      throw new IllegalStateException();
+      reportHeaderViolation(Violation.ENTITY_PHYSICAL_NAME_REQUIRED, HEADER_ENTITY_PHYSICAL_NAME,
+          entityPhysicalName, "エンティティ物理名は必須です。");
     }
 
     return entityPhysicalName;
   }
 
   /**
-   * フィールドリストを取得します。
+   * フィールドをフィールドリストに追加します。
    * 
-   * @param ignoreFields 除外フィールド論理名
-   * @return フィールドリスト
+   * @param rowNum 行番号
+   * @param record レコードの項目の値
    */
-  private List<Field> getFieldList() {
-
-    List<Field> fieldList = new ArrayList<Field>();
+  private void addField(int rowNum, String[] record) {
 
-    int rowNum = ROW_FIELD_START;
-    while (true) {
-      Row row = getSheet().getRow(rowNum);
-      // 行末
-      if (isEmptyRow(row)) {
-        break;
-      }
-      // 除外対象
-      if (isIgnoreField(getFieldLogicalName(row))) {
-        rowNum++;
-        continue;
-      }
-
-      Field field = new Field();
-      field.setLogicalName(getFieldLogicalName(row));
-      field.setPhysicalName(getFieldPhysicalName(row));
-      field.setDataType(getDataType(row));
-      field.setDefaultValue(getFieldDefaultValue(row));
-      field.setFieldType(getFieldType(row));
-      fieldList.add(field);
-
-      rowNum++;
+    // 除外対象
+    String fieldLogicalName = getFieldLogicalName(rowNum, record);
+    if (isIgnoreField(fieldLogicalName)) {
+      return;
     }
 
-    return fieldList;
+    String dataType = getDataType(rowNum, record);
+    Field field = new Field();
+    field.setLogicalName(fieldLogicalName);
+    field.setPhysicalName(getFieldPhysicalName(rowNum, record));
+    field.setDataType(dataType);
+    field.setDefaultValue(record[ITEM_FIELD_DEFAULT_VALUE]);
+    field.setFieldType(StringUtils.isEmpty(dataType) ? null : getFieldType(rowNum, dataType));
+    fieldList.add(field);
   }
 
   /**
@@ -171,37 +229,22 @@ public class EntityCreator extends AbstractCreator {
    * @return エンティティクラス生成対象外の場合true、対象の場合false
    */
   private boolean isIgnoreField(String fieldLogicalName) {
-    return getIgnoreFieldList().contains(fieldLogicalName);
-  }
-
-  /**
-   * エンティティクラス生成除外フィールドリストを取得します。
-   * 
-   * @return エンティティクラス生成除外フィールドリスト
-   */
-  private List<String> getIgnoreFieldList() {
-
-    List<String> ignoreFields = new ArrayList<String>();
-    String ignoreFieldProp = getIgnoreField();
-    if (StringUtils.isNotEmpty(ignoreFieldProp)) {
-      ignoreFields = Arrays.asList(ignoreFieldProp.split(EntityGeneratorUtils.SEPARATOR_ITEM));
-    }
-
-    return ignoreFields;
+    return null != getFieldFilter() && getFieldFilter().isIgnored(fieldLogicalName);
   }
 
   /**
    * フィールド論理名を取得します。
    * 
-   * @param row 行
+   * @param rowNum 行番号
+   * @param record レコードの項目の値
    * @return フィールド論理名
    */
-  private String getFieldLogicalName(Row row) {
+  private String getFieldLogicalName(int rowNum, String[] record) {
 
-    String fieldLogicalName = row.getCell(COL_FIELD_LOGICAL_NAME).getStringCellValue();
+    String fieldLogicalName = record[ITEM_FIELD_LOGICAL_NAME];
     if (StringUtils.isEmpty(fieldLogicalName)) {
-      log.error("フィールド論理名は必須です。行[" + (row.getRowNum() + 1) + "]");
-      throw new IllegalStateException();
+      reportRecordViolation(Violation.FIELD_LOGICAL_NAME_REQUIRED, rowNum,
+          ITEM_FIELD_LOGICAL_NAME, fieldLogicalName, "フィールド論理名は必須です。行[" + (rowNum + 1) + "]");
     }
 
     return fieldLogicalName;
@@ -210,15 +253,16 @@ public class EntityCreator extends AbstractCreator {
   /**
    * フィールド物理名を取得します。
    * 
-   * @param row 行
+   * @param rowNum 行番号
+   * @param record レコードの項目の値
    * @return フィールド物理名
    */
-  private String getFieldPhysicalName(Row row) {
+  private String getFieldPhysicalName(int rowNum, String[] record) {
 
-    String fieldPhysicalName = row.getCell(COL_FIELD_PHYSICAL_NAME).getStringCellValue();
+    String fieldPhysicalName = record[ITEM_FIELD_PHYSICAL_NAME];
     if (StringUtils.isEmpty(fieldPhysicalName)) {
-      log.error("フィールド物理名は必須です。行[" + (row.getRowNum() + 1) + "]");
-      throw new IllegalStateException();
+      reportRecordViolation(Violation.FIELD_PHYSICAL_NAME_REQUIRED, rowNum,
+          ITEM_FIELD_PHYSICAL_NAME, fieldPhysicalName, "フィールド物理名は必須です。行[" + (rowNum + 1) + "]");
     }
 
     return fieldPhysicalName;
@@ -227,79 +271,113 @@ public class EntityCreator extends AbstractCreator {
   /**
    * フィールドデータ型を取得します。
    * 
-   * @param row 行
+   * @param rowNum 行番号
+   * @param record レコードの項目の値
    * @return フィールドデータ型
    */
-  private String getDataType(Row row) {
+  private String getDataType(int rowNum, String[] record) {
 
-    String fieldPhysicalName = row.getCell(COL_FIELD_DATA_TYPE).getStringCellValue();
-    if (StringUtils.isEmpty(fieldPhysicalName)) {
-      log.error("フィールドデータ型は必須です。行[" + (row.getRowNum() + 1) + "]");
-      throw new IllegalStateException();
+    String dataType = record[ITEM_FIELD_DATA_TYPE];
+    if (StringUtils.isEmpty(dataType)) {
+      reportRecordViolation(Violation.FIELD_DATA_TYPE_REQUIRED, rowNum, ITEM_FIELD_DATA_TYPE,
+          dataType, "フィールドデータ型は必須です。行[" + (rowNum + 1) + "]");
     }
 
-    return fieldPhysicalName;
-  }
-
-  /**
-   * フィールドデフォルト値を取得します。
-   * 
-   * @param row 行
-   * @return フィールドデフォルト値
-   */
-  private String getFieldDefaultValue(Row row) {
-    return row.getCell(COL_FIELD_DEFAULT_VALUE).getStringCellValue();
+    return dataType;
   }
 
   /**
-   * フィールドデータ型を取得します。
+   * フィールドのJavaの型を取得します。
    * 
-   * @param row 行
-   * @return フィールドデータ型
+   * @param rowNum 行番号
+   * @param dataType フィールドデータ型
+   * @return フィールドのJavaの型、不備を記録した場合はnull
    */
-  private String getFieldType(Row row) {
+  private String getFieldType(int rowNum, String dataType) {
 
-    String dataType = getDataType(row);
+    String fieldType = null;
     if (dataType.startsWith(PREFIX_DOMAIN)) {
       if (null == getDomain()) {
-        log.error("ドメイン定義が存在しません。");
-        throw new IllegalStateException();
+        reportRecordViolation(Violation.DOMAIN_NOT_DEFINED, rowNum, ITEM_FIELD_DATA_TYPE,
+            dataType, "ドメイン定義が存在しません。");
+        return null;
       }
-      String domainDataType =
-          getDomain().getDataType(dataType.replaceFirst(PREFIX_DOMAIN_REGEX, StringUtils.EMPTY));
+      String domainName = dataType.substring(PREFIX_DOMAIN.length());
+      String domainDataType = getDomain().getDataType(domainName);
       if (StringUtils.isEmpty(domainDataType)) {
-        log.error("ドメインに存在しないデータ型が指定されています。行[" + (row.getRowNum() + 1) + "]データ型[" + dataType + "]");
-        throw new IllegalStateException();
-      } else {
-        dataType = domainDataType;
+        reportRecordViolation(Violation.UNKNOWN_DOMAIN, rowNum, ITEM_FIELD_DATA_TYPE, dataType,
+            "ドメインに存在しないデータ型が指定されています。行[" + (rowNum + 1) + "]データ型[" + dataType + "]");
+        return null;
       }
+      dataType = domainDataType;
+      fieldType = getDomain().getJavaType(domainName);
+      domainNames.add(domainName);
+    } else {
+      fieldType = DataTypeRegistry.getInstance().convert(dataType);
     }
 
-    String fieldType = DataTypeConverter.convert(dataType);
     if (StringUtils.isEmpty(fieldType)) {
-      log.error("データ型をJavaの型に変換できませんでした。行[" + (row.getRowNum() + 1) + "]データ型[" + dataType + "]");
-      throw new IllegalStateException();
+      reportRecordViolation(Violation.UNKNOWN_DATA_TYPE, rowNum, ITEM_FIELD_DATA_TYPE, dataType,
+          "データ型をJavaの型に変換できませんでした。行[" + (rowNum + 1) + "]データ型[" + dataType + "]");
     }
 
     return fieldType;
   }
 
   /**
-   * エンティティクラス生成対象外フィールドを取得します。
+   * フィールド論理名のフィルターを取得します。
    * 
-   * @return エンティティクラス生成対象外フィールド
+   * @return フィールド論理名のフィルター
    */
-  public String getIgnoreField() {
-    return ignoreField;
+  public NameFilter getFieldFilter() {
+    return fieldFilter;
   }
 
   /**
-   * エンティティクラス生成対象外フィールドを設定します。
+   * フィールド論理名のフィルターを設定します。
    * 
-   * @param ignoreField エンティティクラス生成対象外フィールド
+   * @param fieldFilter フィールド論理名のフィルター
+   */
+  public void setFieldFilter(NameFilter fieldFilter) {
+    this.fieldFilter = fieldFilter;
+  }
+
+  /**
+   * レイアウトを取得します。
+   * 
+   * @return レイアウト
+   */
+  @Override
+  public SheetLayout getLayout() {
+    return layout;
+  }
+
+  /**
+   * レイアウトを設定します。シートの読み込み開始時から反映されます。
+   * 
+   * @param layout レイアウト
+   */
+  public void setLayout(SheetLayout layout) {
+    this.layout = layout;
+  }
+
+  /**
+   * 文字列のプールを取得します。
+   * 
+   * @return 文字列のプール
+   */
+  public StringPool getStringPool() {
+    return stringPool;
+  }
+
+  /**
+   * 文字列のプールを設定します。シートの読み込み開始時から反映されます。<br>
+   * 生成処理の実行中は、すべてのシートで同じプールを使用すると重複を最も多く取り除けます。
+   * 
+   * @param stringPool 文字列のプール
    */
-  public void setIgnoreField(String ignoreField) {
-    this.ignoreField = ignoreField;
+  public void setStringPool(StringPool stringPool) {
+    this.stringPool = stringPool;
   }
 
   /**
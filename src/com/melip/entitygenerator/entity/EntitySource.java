@@ -0,0 +1,19 @@
+package com.melip.entitygenerator.entity;
+
+import java.io.IOException;
+
+/**
+ * テーブル定義書以外からエンティティを読み込むソースです。<br>
+ * テーブル定義書から読み込む場合と同じく、ドメインとエンティティを{@link ParsedWorkbook}にまとめて返します。
+ */
+public interface EntitySource {
+
+  /**
+   * ドメインとエンティティを読み込みます。
+   * 
+   * @return 読み込んだドメインとエンティティ
+   * @throws IOException
+   */
+  ParsedWorkbook load() throws IOException;
+
+}
@@ -1,7 +1,5 @@
 package com.melip.entitygenerator.entity;
 
-import com.google.common.base.CaseFormat;
-
 /**
  * フィールドを表すクラスです。
  */
@@ -17,6 +15,10 @@ public class Field {
   private String defaultValue = null;
   /** フィールドタイプ */
   private String fieldType = null;
+  /** キャメルケース */
+  private String camelCase = null;
+  /** パスカルケース */
+  private String pascalCase = null;
 
   /**
    * フィールド物理名のキャメルケースを取得します。
@@ -24,7 +26,7 @@ public class Field {
    * @return キャメルケース
    */
   public String getCamelCase() {
-    return CaseFormat.UPPER_UNDERSCORE.to(CaseFormat.LOWER_CAMEL, getPhysicalName());
+    return camelCase;
   }
 
   /**
@@ -33,7 +35,7 @@ public class Field {
    * @return パスカルケース
    */
   public String getPascalCase() {
-    return CaseFormat.UPPER_UNDERSCORE.to(CaseFormat.UPPER_CAMEL, getPhysicalName());
+    return pascalCase;
   }
 
   /**
@@ -64,12 +66,15 @@ public class Field {
   }
 
   /**
-   * 物理名を設定します。
+   * 物理名を設定します。<br>
+   * キャメルケース・パスカルケースも合わせて設定します。
    * 
    * @param physicalName 物理名
    */
   public void setPhysicalName(String physicalName) {
     this.physicalName = physicalName;
+    this.camelCase = NamingService.getInstance().toCamelCase(physicalName);
+    this.pascalCase = NamingService.getInstance().toPascalCase(physicalName);
   }
 
   /**
@@ -0,0 +1,371 @@
+package com.melip.entitygenerator.entity;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.melip.entitygenerator.rule.NameFilter;
+
+/**
+ * データベースのメタデータ（{@link DatabaseMetaData}）からエンティティを読み込むソースです。<br>
+ * テーブルをエンティティ、列をフィールドとし、論理名にはコメント（REMARKS）、コメントがない場合は物理名を使用します。
+ * データ型はテーブル定義書と同じくsetting/datatype.propertiesでJavaの型に変換します。<br>
+ * メタデータはテーブルごとではなく、スキーマごとに{@link DatabaseMetaData#getTables}・
+ * {@link DatabaseMetaData#getColumns}を1回ずつ呼び出してまとめて取得し、複数のスキーマはそれぞれの接続で並行して読み込みます。
+ * エンティティのシート名は「スキーマ名.テーブル名」（スキーマがないデータベースでは「カタログ名.テーブル名」、
+ * どちらもない場合はテーブル名）です。<br>
+ * JDBC URLには認証情報が含まれる場合があるため、ログや例外のメッセージには{@link #redactUrl(String)}で伏せたものを使用します。
+ */
+public class JdbcEntitySource implements EntitySource {
+
+  private static final Logger log = LoggerFactory.getLogger(JdbcEntitySource.class);
+
+  /** 読み込むテーブルの種類 */
+  private static final String[] TABLE_TYPES = {"TABLE"};
+  /** すべての名前に一致するパターン */
+  private static final String PATTERN_ALL = "%";
+  /** スキーマ名とテーブル名の区切り文字 */
+  private static final String SEPARATOR_SCHEMA = ".";
+  /** スキーマを並行して読み込む最大スレッド数 */
+  private static final int MAX_LOAD_THREADS = 4;
+  /** JDBC URLのパラメータの開始文字 */
+  private static final String URL_PARAMETER_STARTS = "?;";
+  /** JDBC URLのホストの前の認証情報の終わりの文字 */
+  private static final char URL_USER_INFO_END = '@';
+  /** JDBC URLの伏せた部分 */
+  private static final String URL_REDACTED = "***";
+
+  /** JDBC URL */
+  private final String url;
+  /** ログに出力するJDBC URL（認証情報を伏せたもの） */
+  private final String displayUrl;
+  /** ユーザー */
+  private final String user;
+  /** パスワード */
+  private final String password;
+  /** スキーマ名（すべてのスキーマを読み込む場合は空） */
+  private final List<String> schemaNames;
+  /** フィールド論理名のフィルター */
+  private final NameFilter fieldFilter;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param url JDBC URL
+   * @param user ユーザー
+   * @param password パスワード
+   * @param schemaNames スキーマ名（すべてのスキーマを読み込む場合は空）
+   * @param fieldFilter フィールド論理名のフィルター
+   */
+  public JdbcEntitySource(String url, String user, String password, List<String> schemaNames,
+      NameFilter fieldFilter) {
+
+    this.url = url;
+    this.displayUrl = redactUrl(url);
+    this.user = user;
+    this.password = password;
+    this.schemaNames = schemaNames;
+    this.fieldFilter = fieldFilter;
+  }
+
+  /**
+   * @see com.melip.entitygenerator.entity.EntitySource#load()
+   */
+  @Override
+  public ParsedWorkbook load() throws IOException {
+
+    Domain domain = new Domain();
+    domain.setDomainMap(new HashMap<String, String>());
+    domain.setJavaTypeMap(new HashMap<String, String>());
+    ParsedWorkbook parsedWorkbook = new ParsedWorkbook(domain);
+
+    if (schemaNames.size() <= 1) {
+      String schemaName = schemaNames.isEmpty() ? null : schemaNames.get(0);
+      addEntities(parsedWorkbook, loadSchema(schemaName));
+      return parsedWorkbook;
+    }
+
+    // 接続はスレッド間で共有できないため、スキーマごとに接続して読み込む
+    ExecutorService executor =
+        Executors.newFixedThreadPool(Math.min(schemaNames.size(), MAX_LOAD_THREADS));
+    try {
+      List<Future<Map<String, Entity>>> futures = new ArrayList<Future<Map<String, Entity>>>();
+      for (final String schemaName : schemaNames) {
+        futures.add(executor.submit(new Callable<Map<String, Entity>>() {
+          @Override
+          public Map<String, Entity> call() throws Exception {
+            return loadSchema(schemaName);
+          }
+        }));
+      }
+      for (Future<Map<String, Entity>> future : futures) {
+        addEntities(parsedWorkbook, getResult(future));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return parsedWorkbook;
+  }
+
+  /**
+   * スキーマのテーブルと列を読み込みます。
+   * 
+   * @param schemaName スキーマ名（すべてのスキーマを読み込む場合はnull）
+   * @return シート名ごとのエンティティ（テーブルの順）
+   * @throws IOException メタデータを読み込めなかった場合
+   */
+  private Map<String, Entity> loadSchema(String schemaName) throws IOException {
+
+    log.info("データベース[" + displayUrl + "]スキーマ[" + StringUtils.defaultString(schemaName)
+        + "]のメタデータの読み込みを開始します。");
+    Map<String, Entity> entityMap = new LinkedHashMap<String, Entity>();
+    Connection connection = null;
+    try {
+      connection = DriverManager.getConnection(url, user, password);
+      DatabaseMetaData metaData = connection.getMetaData();
+      String schemaPattern =
+          null == schemaName ? null : escapePattern(schemaName, metaData.getSearchStringEscape());
+
+      ResultSet tables = metaData.getTables(null, schemaPattern, PATTERN_ALL, TABLE_TYPES);
+      try {
+        while (tables.next()) {
+          String tableName = tables.getString("TABLE_NAME");
+          Entity entity = new Entity();
+          entity.setLogicalName(StringUtils.defaultIfEmpty(tables.getString("REMARKS"), tableName));
+          entity.setPhysicalName(tableName);
+          entity.setFieldList(new ArrayList<Field>());
+          entity.setDomainNames(new TreeSet<String>());
+          entityMap.put(
+              toSheetName(tables.getString("TABLE_CAT"), tables.getString("TABLE_SCHEM"), tableName),
+              entity);
+        }
+      } finally {
+        tables.close();
+      }
+
+      // 列はテーブル名・列の順序の順に返されるため、スキーマの全列を1回で読み込んでテーブルに振り分ける
+      ResultSet columns = metaData.getColumns(null, schemaPattern, PATTERN_ALL, PATTERN_ALL);
+      try {
+        while (columns.next()) {
+          Entity entity =
+              entityMap.get(toSheetName(columns.getString("TABLE_CAT"),
+                  columns.getString("TABLE_SCHEM"), columns.getString("TABLE_NAME")));
+          if (null != entity) {
+            addField(entity, columns);
+          }
+        }
+      } finally {
+        columns.close();
+      }
+    } catch (SQLException e) {
+      throw new IOException("データベース[" + displayUrl + "]スキーマ[" + StringUtils.defaultString(schemaName)
+          + "]のメタデータを読み込めませんでした。", redact(e));
+    } finally {
+      if (null != connection) {
+        try {
+          connection.close();
+        } catch (SQLException e) {
+          log.warn("データベース[" + displayUrl + "]の接続をクローズできませんでした。", redact(e));
+        }
+      }
+    }
+
+    log.info("データベース[" + displayUrl + "]スキーマ[" + StringUtils.defaultString(schemaName)
+        + "]のメタデータの読み込みが終了しました。テーブル[" + entityMap.size() + "]件");
+    return entityMap;
+  }
+
+  /**
+   * 列をフィールドとしてエンティティに追加します。
+   * 
+   * @param entity エンティティ
+   * @param columns 列のメタデータ
+   * @throws SQLException
+   */
+  private void addField(Entity entity, ResultSet columns) throws SQLException {
+
+    String columnName = columns.getString("COLUMN_NAME");
+    String fieldLogicalName = StringUtils.defaultIfEmpty(columns.getString("REMARKS"), columnName);
+    if (null != fieldFilter && fieldFilter.isIgnored(fieldLogicalName)) {
+      return;
+    }
+
+    String dataType = columns.getString("TYPE_NAME");
+    String fieldType = DataTypeRegistry.getInstance().convert(dataType);
+    if (StringUtils.isEmpty(fieldType)) {
+      log.error("データ型をJavaの型に変換できませんでした。テーブル[" + entity.getPhysicalName() + "]列[" + columnName
+          + "]データ型[" + dataType + "]");
+      throw new IllegalStateException();
+    }
+
+    Field field = new Field();
+    field.setLogicalName(fieldLogicalName);
+    field.setPhysicalName(columnName);
+    field.setDataType(dataType);
+    field.setDefaultValue(columns.getString("COLUMN_DEF"));
+    field.setFieldType(fieldType);
+    entity.getFieldList().add(field);
+  }
+
+  /**
+   * スキーマごとに読み込んだエンティティを追加します。
+   * 
+   * @param parsedWorkbook 追加先
+   * @param entityMap シート名ごとのエンティティ
+   */
+  private static void addEntities(ParsedWorkbook parsedWorkbook, Map<String, Entity> entityMap) {
+
+    for (Map.Entry<String, Entity> e : entityMap.entrySet()) {
+      parsedWorkbook.addEntity(e.getKey(), e.getValue());
+    }
+  }
+
+  /**
+   * スキーマの読み込み結果を取得します。<br>
+   * 読み込み中の例外は、直列に読み込んだ場合と同じ例外として投げ直します。
+   * 
+   * @param future スキーマの読み込み
+   * @return シート名ごとのエンティティ
+   * @throws IOException
+   */
+  private static Map<String, Entity> getResult(Future<Map<String, Entity>> future)
+      throws IOException {
+
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("メタデータの読み込み中に割り込まれました。");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  /**
+   * テーブルのシート名を作成します。<br>
+   * スキーマがないデータベース（MySQLなど）では、カタログの異なる同名のテーブルを区別するためカタログ名を使用します。
+   * 
+   * @param catalogName カタログ名
+   * @param schemaName スキーマ名
+   * @param tableName テーブル名
+   * @return シート名（スキーマ・カタログがない場合はテーブル名）
+   */
+  private static String toSheetName(String catalogName, String schemaName, String tableName) {
+
+    String qualifier = StringUtils.isEmpty(schemaName) ? catalogName : schemaName;
+    return StringUtils.isEmpty(qualifier) ? tableName : qualifier + SEPARATOR_SCHEMA + tableName;
+  }
+
+  /**
+   * 例外のメッセージに含まれるJDBC URLを、認証情報を伏せたものに置き換えます。<br>
+   * ドライバーによっては接続時の例外のメッセージにJDBC URLをそのまま含めるため、ログに出力する前に置き換えます。
+   * 
+   * @param e 例外
+   * @return メッセージにJDBC URLを含まない例外
+   */
+  private SQLException redact(SQLException e) {
+
+    if (null == e.getMessage() || !e.getMessage().contains(url)) {
+      return e;
+    }
+    SQLException redacted =
+        new SQLException(e.getMessage().replace(url, displayUrl), e.getSQLState(),
+            e.getErrorCode(), e.getCause());
+    redacted.setStackTrace(e.getStackTrace());
+    return redacted;
+  }
+
+  /**
+   * JDBC URLから認証情報を伏せます。<br>
+   * パラメータ（「?」「;」以降）を除き、ホストの前の認証情報（「user:password@」「user/password@」）を伏せます。
+   * 
+   * @param url JDBC URL
+   * @return 認証情報を伏せたJDBC URL
+   */
+  public static String redactUrl(String url) {
+
+    if (null == url) {
+      return null;
+    }
+
+    String redacted = url;
+    int end = StringUtils.indexOfAny(redacted, URL_PARAMETER_STARTS);
+    if (0 <= end) {
+      redacted = redacted.substring(0, end);
+    }
+    int userInfoEnd = redacted.lastIndexOf(URL_USER_INFO_END);
+    if (0 <= userInfoEnd) {
+      int hostStart = redacted.indexOf("//");
+      int userInfoStart =
+          0 <= hostStart && hostStart < userInfoEnd ? hostStart + 2 : redacted.lastIndexOf(':',
+              userInfoEnd) + 1;
+      if (userInfoStart < userInfoEnd) {
+        redacted =
+            redacted.substring(0, userInfoStart) + URL_REDACTED + redacted.substring(userInfoEnd);
+      }
+    }
+    return redacted;
+  }
+
+  /**
+   * 名前のパターンに使用される文字（「_」「%」）をエスケープします。
+   * 
+   * @param name 名前
+   * @param escape エスケープ文字
+   * @return パターン
+   */
+  private static String escapePattern(String name, String escape) {
+
+    if (StringUtils.isEmpty(escape)) {
+      return name;
+    }
+    return name.replace(escape, escape + escape).replace("_", escape + "_")
+        .replace("%", escape + "%");
+  }
+
+  /**
+   * スキーマ名を取得します。
+   * 
+   * @return スキーマ名（すべてのスキーマを読み込む場合は空）
+   */
+  public List<String> getSchemaNames() {
+    return Collections.unmodifiableList(schemaNames);
+  }
+
+  /**
+   * JDBC URLを取得します。
+   * 
+   * @return JDBC URL
+   */
+  public String getUrl() {
+    return url;
+  }
+
+}
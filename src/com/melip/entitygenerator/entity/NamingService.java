@@ -0,0 +1,135 @@
+package com.melip.entitygenerator.entity;
+
+import java.util.Locale;
+
+import com.google.common.base.CaseFormat;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * 物理名からクラス名・フィールド名への変換を行うクラスです。<br>
+ * 登録日時・更新者のような共通の列は多くのテーブルで繰り返し現れるため、物理名ごとの変換結果を上限付きのキャッシュに保持し、
+ * 同じ物理名は一度だけ変換します。複数のスレッドから同時に使用できます。
+ */
+public class NamingService {
+
+  /** テーブル名プレフィックス（マスタ） */
+  private static final String PREFIX_MASTER = "M";
+  /** テーブル名プレフィックス（トランザクション） */
+  private static final String PREFIX_TRANSACTION = "T";
+  /** キャッシュする物理名の最大数 */
+  private static final int CACHE_SIZE = 10000;
+
+  /** インスタンス */
+  private static final NamingService INSTANCE = new NamingService();
+
+  /** 物理名ごとの変換結果 */
+  private final LoadingCache<String, Names> cache = CacheBuilder.newBuilder()
+      .maximumSize(CACHE_SIZE).build(new CacheLoader<String, Names>() {
+        @Override
+        public Names load(String physicalName) {
+          return new Names(CaseFormat.UPPER_UNDERSCORE.to(CaseFormat.LOWER_CAMEL, physicalName),
+              CaseFormat.UPPER_UNDERSCORE.to(CaseFormat.UPPER_CAMEL, physicalName));
+        }
+      });
+
+  /**
+   * プライベートコンストラクタ
+   */
+  private NamingService() {}
+
+  /**
+   * インスタンスを取得します。
+   * 
+   * @return インスタンス
+   */
+  public static NamingService getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * 物理名のキャメルケースを取得します。
+   * 
+   * @param physicalName 物理名（大文字のスネークケース）
+   * @return キャメルケース、物理名がnullの場合はnull
+   */
+  public String toCamelCase(String physicalName) {
+    return null == physicalName ? null : cache.getUnchecked(physicalName).getCamelCase();
+  }
+
+  /**
+   * 物理名のパスカルケースを取得します。
+   * 
+   * @param physicalName 物理名（大文字のスネークケース）
+   * @return パスカルケース、物理名がnullの場合はnull
+   */
+  public String toPascalCase(String physicalName) {
+    return null == physicalName ? null : cache.getUnchecked(physicalName).getPascalCase();
+  }
+
+  /**
+   * テーブル物理名からクラス名を取得します。<br>
+   * 先頭のマスタ・トランザクションのプレフィックスを除いた物理名のパスカルケースになります。
+   * データベースから読み込んだ物理名は小文字の場合があるため、大文字にしてからプレフィックスを判定します。
+   * 
+   * @param physicalName テーブル物理名
+   * @return クラス名、物理名がnullの場合はnull
+   */
+  public String toClassName(String physicalName) {
+
+    if (null == physicalName) {
+      return null;
+    }
+
+    String tmpPhysicalName = physicalName.toUpperCase(Locale.ENGLISH);
+    if (tmpPhysicalName.startsWith(PREFIX_MASTER)) {
+      tmpPhysicalName = tmpPhysicalName.substring(PREFIX_MASTER.length());
+    } else if (tmpPhysicalName.startsWith(PREFIX_TRANSACTION)) {
+      tmpPhysicalName = tmpPhysicalName.substring(PREFIX_TRANSACTION.length());
+    }
+
+    return toPascalCase(tmpPhysicalName);
+  }
+
+  /**
+   * 物理名の変換結果を表すクラスです。
+   */
+  private static class Names {
+
+    /** キャメルケース */
+    private final String camelCase;
+    /** パスカルケース */
+    private final String pascalCase;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param camelCase キャメルケース
+     * @param pascalCase パスカルケース
+     */
+    public Names(String camelCase, String pascalCase) {
+      this.camelCase = camelCase;
+      this.pascalCase = pascalCase;
+    }
+
+    /**
+     * キャメルケースを取得します。
+     * 
+     * @return キャメルケース
+     */
+    public String getCamelCase() {
+      return camelCase;
+    }
+
+    /**
+     * パスカルケースを取得します。
+     * 
+     * @return パスカルケース
+     */
+    public String getPascalCase() {
+      return pascalCase;
+    }
+  }
+
+}
@@ -0,0 +1,69 @@
+package com.melip.entitygenerator.entity;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 解析済みのテーブル定義書を表すクラスです。<br>
+ * ドメインと、シートごとのエンティティをブック内の順に保持します。
+ */
+public class ParsedWorkbook {
+
+  /** ドメイン */
+  private Domain domain = null;
+  /** シート名ごとのエンティティ（ブック内の順） */
+  private final Map<String, Entity> entityMap = new LinkedHashMap<String, Entity>();
+
+  /**
+   * コンストラクタ
+   */
+  public ParsedWorkbook() {}
+
+  /**
+   * コンストラクタ
+   * 
+   * @param domain ドメイン
+   */
+  public ParsedWorkbook(Domain domain) {
+    this.domain = domain;
+  }
+
+  /**
+   * エンティティを追加します。
+   * 
+   * @param sheetName シート名
+   * @param entity エンティティ
+   */
+  public void addEntity(String sheetName, Entity entity) {
+    entityMap.put(sheetName, entity);
+  }
+
+  /**
+   * シート名ごとのエンティティを取得します。
+   * 
+   * @return シート名ごとのエンティティ（ブック内の順、変更不可）
+   */
+  public Map<String, Entity> getEntityMap() {
+    return Collections.unmodifiableMap(entityMap);
+  }
+
+  /**
+   * ドメインを取得します。
+   * 
+   * @return ドメイン
+   */
+  public Domain getDomain() {
+    return domain;
+  }
+
+  /**
+   * ドメインを設定します。
+   * 
+   * @param domain ドメイン
+   */
+  public void setDomain(Domain domain) {
+    this.domain = domain;
+  }
+
+}
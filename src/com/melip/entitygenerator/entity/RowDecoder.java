@@ -0,0 +1,104 @@
+package com.melip.entitygenerator.entity;
+
+/**
+ * シートの行を{@link SheetLayout}に従って見出し項目・レコードに変換するクラスです。<br>
+ * 行は行番号の昇順に1回ずつ受け取り、必要な列のセルだけを1回ずつ読み込みます。
+ * レコードは開始行から連続する行で、行番号が連続しなくなった（空行があった）時点で終了とします。
+ * 読み込んだ値は{@link StringPool}で重複を取り除きます。
+ */
+public class RowDecoder {
+
+  /** レイアウト */
+  private final SheetLayout layout;
+  /** 文字列のプール */
+  private final StringPool stringPool;
+  /** 見出し項目の値 */
+  private final String[] headers;
+  /** 次に読み込むレコードの行番号 */
+  private int nextRecordRow;
+  /** レコードの読み込みが終了したか */
+  private boolean finished;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param layout レイアウト
+   * @param stringPool 文字列のプール
+   */
+  public RowDecoder(SheetLayout layout, StringPool stringPool) {
+
+    this.layout = layout;
+    this.stringPool = stringPool;
+    this.headers = new String[layout.getHeaderCount()];
+    reset();
+  }
+
+  /**
+   * 読み込み状態を初期化します。シートの読み込み開始時に呼び出します。
+   */
+  public void reset() {
+
+    for (int i = 0; i < headers.length; i++) {
+      headers[i] = null;
+    }
+    nextRecordRow = layout.getRecordStartRow();
+    finished = false;
+  }
+
+  /**
+   * 行を変換します。<br>
+   * 見出し項目を含む行の場合は見出し項目の値を保持し、レコードの行の場合はレコードの項目の値を返します。
+   * 
+   * @param rowNum 行番号
+   * @param cells セルの値
+   * @return レコードの項目の値（レコードの項目のインデックス順）、レコードの行でない場合はnull
+   */
+  public String[] decode(int rowNum, String[] cells) {
+
+    if (rowNum < layout.getRecordStartRow()) {
+      for (int i = 0; i < headers.length; i++) {
+        if (layout.getHeaderRow(i) == rowNum) {
+          headers[i] = getCellValue(cells, layout.getHeaderColumn(i));
+        }
+      }
+      return null;
+    }
+    if (finished) {
+      return null;
+    }
+    if (rowNum != nextRecordRow) {
+      finished = true;
+      return null;
+    }
+    nextRecordRow++;
+
+    String[] record = new String[layout.getRecordColumnCount()];
+    for (int i = 0; i < record.length; i++) {
+      record[i] = getCellValue(cells, layout.getRecordColumn(i));
+    }
+
+    return record;
+  }
+
+  /**
+   * 見出し項目の値を取得します。
+   * 
+   * @param item 見出し項目のインデックス
+   * @return 見出し項目の値、セルが存在しない場合はnull
+   */
+  public String getHeader(int item) {
+    return headers[item];
+  }
+
+  /**
+   * セルの値を取得します。
+   * 
+   * @param cells セルの値
+   * @param col 列番号
+   * @return プールされたセルの値、セルが存在しない場合はnull
+   */
+  private String getCellValue(String[] cells, int col) {
+    return col < cells.length ? stringPool.intern(cells[col]) : null;
+  }
+
+}
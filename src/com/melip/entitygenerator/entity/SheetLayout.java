@@ -0,0 +1,96 @@
+package com.melip.entitygenerator.entity;
+
+/**
+ * テーブル定義書のシートのレイアウトを表すクラスです。<br>
+ * シートは、決まった位置のセルにある見出し項目と、開始行から空行までの各行にあるレコードからなります。
+ * 見出し項目はレコードの開始行より上にあるものとし、見出し項目・レコードの項目はそれぞれ定義順のインデックスで参照します。
+ */
+public class SheetLayout {
+
+  /** 見出し項目の行番号（見出し項目のインデックス順） */
+  private final int[] headerRows;
+  /** 見出し項目の列番号（見出し項目のインデックス順） */
+  private final int[] headerColumns;
+  /** レコードの開始行番号 */
+  private final int recordStartRow;
+  /** レコードの項目の列番号（レコードの項目のインデックス順） */
+  private final int[] recordColumns;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param headerRows 見出し項目の行番号（見出し項目のインデックス順）
+   * @param headerColumns 見出し項目の列番号（見出し項目のインデックス順）
+   * @param recordStartRow レコードの開始行番号
+   * @param recordColumns レコードの項目の列番号（レコードの項目のインデックス順）
+   */
+  public SheetLayout(int[] headerRows, int[] headerColumns, int recordStartRow,
+      int[] recordColumns) {
+
+    if (headerRows.length != headerColumns.length) {
+      throw new IllegalArgumentException("見出し項目の行番号と列番号の数が一致しません。");
+    }
+    this.headerRows = headerRows.clone();
+    this.headerColumns = headerColumns.clone();
+    this.recordStartRow = recordStartRow;
+    this.recordColumns = recordColumns.clone();
+  }
+
+  /**
+   * 見出し項目の数を取得します。
+   * 
+   * @return 見出し項目の数
+   */
+  public int getHeaderCount() {
+    return headerRows.length;
+  }
+
+  /**
+   * 見出し項目の行番号を取得します。
+   * 
+   * @param item 見出し項目のインデックス
+   * @return 行番号
+   */
+  public int getHeaderRow(int item) {
+    return headerRows[item];
+  }
+
+  /**
+   * 見出し項目の列番号を取得します。
+   * 
+   * @param item 見出し項目のインデックス
+   * @return 列番号
+   */
+  public int getHeaderColumn(int item) {
+    return headerColumns[item];
+  }
+
+  /**
+   * レコードの開始行番号を取得します。
+   * 
+   * @return レコードの開始行番号
+   */
+  public int getRecordStartRow() {
+    return recordStartRow;
+  }
+
+  /**
+   * レコードの項目の数を取得します。
+   * 
+   * @return レコードの項目の数
+   */
+  public int getRecordColumnCount() {
+    return recordColumns.length;
+  }
+
+  /**
+   * レコードの項目の列番号を取得します。
+   * 
+   * @param item レコードの項目のインデックス
+   * @return 列番号
+   */
+  public int getRecordColumn(int item) {
+    return recordColumns[item];
+  }
+
+}
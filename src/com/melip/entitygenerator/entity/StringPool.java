@@ -0,0 +1,44 @@
+package com.melip.entitygenerator.entity;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * テーブル定義書から読み込んだ文字列の重複を取り除くプールです。<br>
+ * データ型・ドメイン名・共通の列名のように繰り返し現れる値を同じインスタンスにまとめ、
+ * エンティティ・フィールドが保持する文字列のメモリ使用量を抑えます。
+ * {@link String#intern()}と異なり、プールは生成処理の実行ごとに作成し、実行が終われば破棄されます。
+ * 複数のスレッドから同時に使用できます。
+ */
+public class StringPool {
+
+  /** 文字列ごとのプールされたインスタンス */
+  private final ConcurrentMap<String, String> poolMap = new ConcurrentHashMap<String, String>();
+
+  /**
+   * 文字列と等しい、プールされたインスタンスを取得します。<br>
+   * プールにない場合は、渡された文字列をプールに追加して返します。
+   * 
+   * @param value 文字列
+   * @return プールされたインスタンス、文字列がnullの場合はnull
+   */
+  public String intern(String value) {
+
+    if (null == value) {
+      return null;
+    }
+    String pooled = poolMap.putIfAbsent(value, value);
+
+    return null == pooled ? value : pooled;
+  }
+
+  /**
+   * プールされている文字列の数を取得します。
+   * 
+   * @return プールされている文字列の数
+   */
+  public int size() {
+    return poolMap.size();
+  }
+
+}
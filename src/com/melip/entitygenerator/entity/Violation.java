@@ -0,0 +1,135 @@
+package com.melip.entitygenerator.entity;
+
+import org.apache.poi.ss.util.CellReference;
+
+/**
+ * テーブル定義書の不備を表すクラスです。<br>
+ * 行番号・列番号はExcelの表示と同じく1から始まり、特定の行・列に対応しない場合は0です。
+ */
+public class Violation {
+
+  /** 種類：エンティティ論理名が未入力 */
+  public static final String ENTITY_LOGICAL_NAME_REQUIRED = "ENTITY_LOGICAL_NAME_REQUIRED";
+  /** 種類：エンティティ物理名が未入力 */
+  public static final String ENTITY_PHYSICAL_NAME_REQUIRED = "ENTITY_PHYSICAL_NAME_REQUIRED";
+  /** 種類：フィールド論理名が未入力 */
+  public static final String FIELD_LOGICAL_NAME_REQUIRED = "FIELD_LOGICAL_NAME_REQUIRED";
+  /** 種類：フィールド物理名が未入力 */
+  public static final String FIELD_PHYSICAL_NAME_REQUIRED = "FIELD_PHYSICAL_NAME_REQUIRED";
+  /** 種類：フィールドデータ型が未入力 */
+  public static final String FIELD_DATA_TYPE_REQUIRED = "FIELD_DATA_TYPE_REQUIRED";
+  /** 種類：ドメイン定義シートが存在しない */
+  public static final String DOMAIN_NOT_DEFINED = "DOMAIN_NOT_DEFINED";
+  /** 種類：ドメインに存在しないデータ型 */
+  public static final String UNKNOWN_DOMAIN = "UNKNOWN_DOMAIN";
+  /** 種類：Javaの型に変換できないデータ型 */
+  public static final String UNKNOWN_DATA_TYPE = "UNKNOWN_DATA_TYPE";
+  /** 種類：ドメイン名が未入力 */
+  public static final String DOMAIN_NAME_REQUIRED = "DOMAIN_NAME_REQUIRED";
+  /** 種類：ドメインのデータ型が未入力 */
+  public static final String DOMAIN_DATA_TYPE_REQUIRED = "DOMAIN_DATA_TYPE_REQUIRED";
+  /** 種類：他のシートとクラス名が重複 */
+  public static final String DUPLICATE_CLASS_NAME = "DUPLICATE_CLASS_NAME";
+
+  /** 種類 */
+  private final String code;
+  /** シート名 */
+  private final String sheetName;
+  /** 行番号 */
+  private final int row;
+  /** 列番号 */
+  private final int column;
+  /** セルの値 */
+  private final String value;
+  /** メッセージ */
+  private final String message;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param code 種類
+   * @param sheetName シート名
+   * @param row 行番号（1から、対応しない場合は0）
+   * @param column 列番号（1から、対応しない場合は0）
+   * @param value セルの値
+   * @param message メッセージ
+   */
+  public Violation(String code, String sheetName, int row, int column, String value,
+      String message) {
+
+    this.code = code;
+    this.sheetName = sheetName;
+    this.row = row;
+    this.column = column;
+    this.value = value;
+    this.message = message;
+  }
+
+  /**
+   * セル番地（A1形式）を取得します。
+   * 
+   * @return セル番地、行・列に対応しない場合はnull
+   */
+  public String getCell() {
+
+    if (row <= 0 || column <= 0) {
+      return null;
+    }
+    return CellReference.convertNumToColString(column - 1) + row;
+  }
+
+  /**
+   * 種類を取得します。
+   * 
+   * @return 種類
+   */
+  public String getCode() {
+    return code;
+  }
+
+  /**
+   * シート名を取得します。
+   * 
+   * @return シート名
+   */
+  public String getSheetName() {
+    return sheetName;
+  }
+
+  /**
+   * 行番号を取得します。
+   * 
+   * @return 行番号（1から、対応しない場合は0）
+   */
+  public int getRow() {
+    return row;
+  }
+
+  /**
+   * 列番号を取得します。
+   * 
+   * @return 列番号（1から、対応しない場合は0）
+   */
+  public int getColumn() {
+    return column;
+  }
+
+  /**
+   * セルの値を取得します。
+   * 
+   * @return セルの値
+   */
+  public String getValue() {
+    return value;
+  }
+
+  /**
+   * メッセージを取得します。
+   * 
+   * @return メッセージ
+   */
+  public String getMessage() {
+    return message;
+  }
+
+}
@@ -0,0 +1,101 @@
+package com.melip.entitygenerator.incremental;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.lang.ObjectUtils;
+
+/**
+ * ドメイン名から、そのドメインをフィールドのデータ型に指定しているシートを引く索引です。<br>
+ * マニフェストに記録したシートごとのドメイン名から作成し、ドメイン定義シートが変更された場合に再生成するシートを求めます。
+ */
+public class DomainDependencyIndex {
+
+  /** ドメイン名ごとのシート名 */
+  private final Map<String, Set<String>> sheetNamesMap = new HashMap<String, Set<String>>();
+
+  /**
+   * マニフェストからドメインの索引を作成します。<br>
+   * 使用しているドメイン名が記録されていないシートは索引に含まれません。
+   * 
+   * @param manifest マニフェスト
+   * @return ドメインの索引
+   */
+  public static DomainDependencyIndex build(GenerationManifest manifest) {
+
+    DomainDependencyIndex index = new DomainDependencyIndex();
+    for (String sheetName : manifest.getSheetNames()) {
+      Set<String> domainNames = manifest.getSheetDomainNames(sheetName);
+      if (null != domainNames) {
+        index.add(sheetName, domainNames);
+      }
+    }
+    return index;
+  }
+
+  /**
+   * 変更されたドメイン名を取得します。<br>
+   * 追加・削除されたドメインと、データ型が変更されたドメインが該当します。
+   * 
+   * @param oldDataTypeMap 変更前のドメイン名ごとのデータ型
+   * @param newDataTypeMap 変更後のドメイン名ごとのデータ型
+   * @return 変更されたドメイン名
+   */
+  public static Set<String> diff(Map<String, String> oldDataTypeMap,
+      Map<String, String> newDataTypeMap) {
+
+    Set<String> domainNames = new TreeSet<String>();
+    for (Map.Entry<String, String> e : oldDataTypeMap.entrySet()) {
+      if (!ObjectUtils.equals(e.getValue(), newDataTypeMap.get(e.getKey()))) {
+        domainNames.add(e.getKey());
+      }
+    }
+    for (String domainName : newDataTypeMap.keySet()) {
+      if (!oldDataTypeMap.containsKey(domainName)) {
+        domainNames.add(domainName);
+      }
+    }
+    return domainNames;
+  }
+
+  /**
+   * シートで使用しているドメイン名を追加します。
+   * 
+   * @param sheetName シート名
+   * @param domainNames シートで使用しているドメイン名
+   */
+  public void add(String sheetName, Collection<String> domainNames) {
+
+    for (String domainName : domainNames) {
+      Set<String> sheetNames = sheetNamesMap.get(domainName);
+      if (null == sheetNames) {
+        sheetNames = new HashSet<String>();
+        sheetNamesMap.put(domainName, sheetNames);
+      }
+      sheetNames.add(sheetName);
+    }
+  }
+
+  /**
+   * ドメインのいずれかを使用しているシート名を取得します。
+   * 
+   * @param domainNames ドメイン名
+   * @return シート名
+   */
+  public Set<String> getSheetNames(Collection<String> domainNames) {
+
+    Set<String> sheetNames = new HashSet<String>();
+    for (String domainName : domainNames) {
+      Set<String> dependents = sheetNamesMap.get(domainName);
+      if (null != dependents) {
+        sheetNames.addAll(dependents);
+      }
+    }
+    return sheetNames;
+  }
+
+}
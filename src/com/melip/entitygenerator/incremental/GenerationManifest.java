@@ -0,0 +1,304 @@
+package com.melip.entitygenerator.incremental;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.melip.entitygenerator.EntityGeneratorUtils;
+
+/**
+ * 生成結果のキャッシュディレクトリに保存する生成結果のマニフェストです。<br>
+ * 前回生成時のテンプレート・プロパティのハッシュと、シートごとのパートのフィンガープリントを保持します。
+ * ドメイン定義シートの変更時に影響するシートのみ再生成できるよう、ドメインの定義と、シートごとに使用しているドメイン名も保持します。
+ */
+public class GenerationManifest {
+
+  /** マニフェストのファイル名 */
+  public static final String FILE_NAME = ".entitygenerator.manifest";
+
+  /** キー：テンプレートのハッシュ */
+  private static final String KEY_TEMPLATES_HASH = "templates.hash";
+  /** キー：プロパティのハッシュ */
+  private static final String KEY_PROPERTIES_HASH = "properties.hash";
+  /** キー：共有文字列パートのフィンガープリント */
+  private static final String KEY_SHARED_STRINGS = "sharedStrings";
+  /** キー：スタイルパートのフィンガープリント */
+  private static final String KEY_STYLES = "styles";
+  /** キー：ドメイン定義シートのフィンガープリント */
+  private static final String KEY_DOMAIN = "domain";
+  /** キーのプレフィックス：シートのフィンガープリント */
+  private static final String KEY_PREFIX_SHEET = "sheet.";
+  /** キーのプレフィックス：シートのクラス名 */
+  private static final String KEY_PREFIX_CLASS = "class.";
+  /** キーのプレフィックス：シートで使用しているドメイン名 */
+  private static final String KEY_PREFIX_SHEET_DOMAINS = "domains.";
+  /** キーのプレフィックス：ドメインのデータ型 */
+  private static final String KEY_PREFIX_DOMAIN_DATA_TYPE = "domain.type.";
+
+  /** マニフェストの内容 */
+  private final Properties props = new Properties();
+
+  /**
+   * キャッシュディレクトリからマニフェストを読み込みます。
+   * 
+   * @param cacheDir 生成結果のキャッシュディレクトリ
+   * @return マニフェスト、存在しない場合は空のマニフェスト
+   * @throws IOException
+   */
+  public static GenerationManifest load(File cacheDir) throws IOException {
+
+    GenerationManifest manifest = new GenerationManifest();
+    File file = new File(cacheDir, FILE_NAME);
+    if (!file.isFile()) {
+      return manifest;
+    }
+
+    Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8);
+    try {
+      manifest.props.load(reader);
+    } finally {
+      reader.close();
+    }
+    return manifest;
+  }
+
+  /**
+   * キャッシュディレクトリにマニフェストを保存します。
+   * 
+   * @param cacheDir 生成結果のキャッシュディレクトリ
+   * @throws IOException
+   */
+  public void store(File cacheDir) throws IOException {
+
+    cacheDir.mkdirs();
+    Writer writer =
+        new OutputStreamWriter(new FileOutputStream(new File(cacheDir, FILE_NAME)),
+            StandardCharsets.UTF_8);
+    try {
+      props.store(writer, "MELIP Entity Generator manifest");
+    } finally {
+      writer.close();
+    }
+  }
+
+  /**
+   * シート名の一覧を取得します。
+   * 
+   * @return シート名の一覧
+   */
+  public List<String> getSheetNames() {
+
+    List<String> sheetNames = new ArrayList<String>();
+    for (String key : props.stringPropertyNames()) {
+      if (key.startsWith(KEY_PREFIX_CLASS)) {
+        sheetNames.add(key.substring(KEY_PREFIX_CLASS.length()));
+      }
+    }
+    return sheetNames;
+  }
+
+  /**
+   * テンプレートのハッシュを取得します。
+   * 
+   * @return テンプレートのハッシュ
+   */
+  public String getTemplatesHash() {
+    return props.getProperty(KEY_TEMPLATES_HASH);
+  }
+
+  /**
+   * テンプレートのハッシュを設定します。
+   * 
+   * @param templatesHash テンプレートのハッシュ
+   */
+  public void setTemplatesHash(String templatesHash) {
+    setProperty(KEY_TEMPLATES_HASH, templatesHash);
+  }
+
+  /**
+   * プロパティのハッシュを取得します。
+   * 
+   * @return プロパティのハッシュ
+   */
+  public String getPropertiesHash() {
+    return props.getProperty(KEY_PROPERTIES_HASH);
+  }
+
+  /**
+   * プロパティのハッシュを設定します。
+   * 
+   * @param propertiesHash プロパティのハッシュ
+   */
+  public void setPropertiesHash(String propertiesHash) {
+    setProperty(KEY_PROPERTIES_HASH, propertiesHash);
+  }
+
+  /**
+   * 共有文字列パートのフィンガープリントを取得します。
+   * 
+   * @return 共有文字列パートのフィンガープリント
+   */
+  public String getSharedStringsFingerprint() {
+    return props.getProperty(KEY_SHARED_STRINGS);
+  }
+
+  /**
+   * 共有文字列パートのフィンガープリントを設定します。
+   * 
+   * @param fingerprint 共有文字列パートのフィンガープリント
+   */
+  public void setSharedStringsFingerprint(String fingerprint) {
+    setProperty(KEY_SHARED_STRINGS, fingerprint);
+  }
+
+  /**
+   * スタイルパートのフィンガープリントを取得します。
+   * 
+   * @return スタイルパートのフィンガープリント
+   */
+  public String getStylesFingerprint() {
+    return props.getProperty(KEY_STYLES);
+  }
+
+  /**
+   * スタイルパートのフィンガープリントを設定します。
+   * 
+   * @param fingerprint スタイルパートのフィンガープリント
+   */
+  public void setStylesFingerprint(String fingerprint) {
+    setProperty(KEY_STYLES, fingerprint);
+  }
+
+  /**
+   * ドメイン定義シートのフィンガープリントを取得します。
+   * 
+   * @return ドメイン定義シートのフィンガープリント
+   */
+  public String getDomainFingerprint() {
+    return props.getProperty(KEY_DOMAIN);
+  }
+
+  /**
+   * ドメイン定義シートのフィンガープリントを設定します。
+   * 
+   * @param fingerprint ドメイン定義シートのフィンガープリント
+   */
+  public void setDomainFingerprint(String fingerprint) {
+    setProperty(KEY_DOMAIN, fingerprint);
+  }
+
+  /**
+   * シートのフィンガープリントを取得します。
+   * 
+   * @param sheetName シート名
+   * @return シートのフィンガープリント
+   */
+  public String getSheetFingerprint(String sheetName) {
+    return props.getProperty(KEY_PREFIX_SHEET + sheetName);
+  }
+
+  /**
+   * シートのクラス名を取得します。
+   * 
+   * @param sheetName シート名
+   * @return シートのクラス名
+   */
+  public String getClassName(String sheetName) {
+    return props.getProperty(KEY_PREFIX_CLASS + sheetName);
+  }
+
+  /**
+   * シートで使用しているドメイン名を取得します。
+   * 
+   * @param sheetName シート名
+   * @return ドメイン名、記録されていない場合はnull
+   */
+  public Set<String> getSheetDomainNames(String sheetName) {
+
+    String value = props.getProperty(KEY_PREFIX_SHEET_DOMAINS + sheetName);
+    if (null == value) {
+      return null;
+    }
+    return new LinkedHashSet<String>(Arrays.asList(StringUtils.split(value,
+        EntityGeneratorUtils.SEPARATOR_ITEM)));
+  }
+
+  /**
+   * シートのフィンガープリントとクラス名、使用しているドメイン名を設定します。
+   * 
+   * @param sheetName シート名
+   * @param fingerprint シートのフィンガープリント
+   * @param className シートのクラス名
+   * @param domainNames シートで使用しているドメイン名（不明な場合はnull）
+   */
+  public void setSheet(String sheetName, String fingerprint, String className,
+      Collection<String> domainNames) {
+
+    setProperty(KEY_PREFIX_SHEET + sheetName, fingerprint);
+    setProperty(KEY_PREFIX_CLASS + sheetName, className);
+    setProperty(KEY_PREFIX_SHEET_DOMAINS + sheetName, null == domainNames ? null : StringUtils.join(
+        domainNames, EntityGeneratorUtils.SEPARATOR_ITEM));
+  }
+
+  /**
+   * ドメイン名ごとのデータ型を取得します。
+   * 
+   * @return ドメイン名ごとのデータ型
+   */
+  public Map<String, String> getDomainDataTypes() {
+
+    Map<String, String> dataTypeMap = new HashMap<String, String>();
+    for (String key : props.stringPropertyNames()) {
+      if (key.startsWith(KEY_PREFIX_DOMAIN_DATA_TYPE)) {
+        dataTypeMap.put(key.substring(KEY_PREFIX_DOMAIN_DATA_TYPE.length()),
+            props.getProperty(key));
+      }
+    }
+    return dataTypeMap;
+  }
+
+  /**
+   * ドメイン名ごとのデータ型を設定します。
+   * 
+   * @param dataTypeMap ドメイン名ごとのデータ型
+   */
+  public void setDomainDataTypes(Map<String, String> dataTypeMap) {
+
+    for (Map.Entry<String, String> e : dataTypeMap.entrySet()) {
+      setProperty(KEY_PREFIX_DOMAIN_DATA_TYPE + e.getKey(), e.getValue());
+    }
+  }
+
+  /**
+   * プロパティを設定します。値がnullの場合は削除します。
+   * 
+   * @param key キー
+   * @param value 値
+   */
+  private void setProperty(String key, String value) {
+
+    if (null == value) {
+      props.remove(key);
+    } else {
+      props.setProperty(key, value);
+    }
+  }
+
+}
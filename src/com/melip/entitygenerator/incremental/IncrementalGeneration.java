@@ -0,0 +1,353 @@
+package com.melip.entitygenerator.incremental;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.lang.ObjectUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.melip.entitygenerator.EntityGeneratorUtils;
+import com.melip.entitygenerator.entity.Domain;
+
+/**
+ * 変更のないシートをスキップする差分生成を制御するクラスです。<br>
+ * 前回のマニフェストと比較し、以下の場合は全シートを再生成します。
+ * <ul>
+ * <li>テンプレートまたはプロパティが変更された場合</li>
+ * <li>ドメイン定義シートが変更され、前回のマニフェストにシートごとのドメイン名が記録されていない場合</li>
+ * </ul>
+ * シートは、セルの値（共有文字列は参照している文字列）と表示形式から作成した内容のフィンガープリントで比較します。
+ * Excelは保存のたびに共有文字列パートとインデックスを書き換えるため、パートのCRCでは変更のないシートも変更ありになります。
+ * 共有文字列パート・スタイルパート・シートのパートが前回と同じ場合は、シートのXMLを解析せずに前回の値を使用します。<br>
+ * ドメイン定義シートが変更された場合は、前回と今回のドメインの定義を比較し、変更されたドメインを使用しているシートのみ再生成します。
+ * 使い終わったら{@link #close()}してください。
+ */
+public class IncrementalGeneration implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(IncrementalGeneration.class);
+
+  /** シートのパートと内容のフィンガープリントの区切り文字 */
+  private static final String SEPARATOR_FINGERPRINT = "/";
+
+  /** テーブル定義書 */
+  private final File excelFile;
+  /** エンティティクラスの出力先 */
+  private final File outputDir;
+  /** マニフェストを保存する生成結果のキャッシュディレクトリ */
+  private final File cacheDir;
+  /** シートとパートの対応（xlsx形式でない場合はnull） */
+  private final SheetPartIndex partIndex;
+  /** 前回のマニフェスト */
+  private final GenerationManifest previous;
+  /** 今回のマニフェスト */
+  private final GenerationManifest current = new GenerationManifest();
+  /** 全シートを再生成するか */
+  private final boolean fullRegeneration;
+  /** ドメイン定義シートが変更されたか */
+  private boolean domainChanged = false;
+  /** ドメインの変更により再生成するシート名（ドメインを反映していない場合はnull） */
+  private Set<String> domainStaleSheetNames = null;
+  /** スキップしたシート数 */
+  private int skipCount = 0;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param excelFile テーブル定義書
+   * @param outputDir エンティティクラスの出力先
+   * @param cacheDir マニフェストを保存する生成結果のキャッシュディレクトリ
+   * @param domainSheetName ドメイン定義シート名
+   * @param templatesHash テンプレートのハッシュ
+   * @param propertiesHash プロパティのハッシュ
+   * @throws IOException
+   */
+  public IncrementalGeneration(File excelFile, File outputDir, File cacheDir,
+      String domainSheetName, String templatesHash, String propertiesHash) throws IOException {
+
+    this.excelFile = excelFile;
+    this.outputDir = outputDir;
+    this.cacheDir = cacheDir;
+    this.partIndex = SheetPartIndex.load(excelFile);
+    this.previous = GenerationManifest.load(cacheDir);
+
+    current.setTemplatesHash(templatesHash);
+    current.setPropertiesHash(propertiesHash);
+    if (null != partIndex) {
+      current.setSharedStringsFingerprint(partIndex.getSharedStringsFingerprint());
+      current.setStylesFingerprint(partIndex.getStylesFingerprint());
+      if (null != domainSheetName) {
+        current.setDomainFingerprint(
+            getSheetFingerprint(domainSheetName, previous.getDomainFingerprint()));
+      }
+    }
+
+    this.fullRegeneration = isFullRegeneration();
+  }
+
+  /**
+   * 全シートを再生成するか判定します。
+   * 
+   * @return 全シートを再生成する場合true
+   */
+  private boolean isFullRegeneration() {
+
+    if (null == partIndex) {
+      log.info("テーブル定義書がxlsx形式でないため、全シートを生成します。");
+      return true;
+    }
+    if (null == previous.getTemplatesHash()) {
+      log.info("前回の生成結果のマニフェストが存在しないため、全シートを生成します。");
+      return true;
+    }
+    if (!ObjectUtils.equals(previous.getTemplatesHash(), current.getTemplatesHash())) {
+      log.info("テンプレートが変更されているため、全シートを生成します。");
+      return true;
+    }
+    if (!ObjectUtils.equals(previous.getPropertiesHash(), current.getPropertiesHash())) {
+      log.info("プロパティが変更されているため、全シートを生成します。");
+      return true;
+    }
+    if (!ObjectUtils.equals(getContentFingerprint(previous.getDomainFingerprint()),
+        getContentFingerprint(current.getDomainFingerprint()))) {
+      domainChanged = true;
+    }
+    return false;
+  }
+
+  /**
+   * 読み込んだドメインを反映します。<br>
+   * ドメイン定義シートが変更されている場合は、前回のドメインの定義と比較し、変更されたドメインを使用しているシートを再生成対象とします。
+   * シートの判定より前に呼び出してください。
+   * 
+   * @param domain ドメイン（ドメイン定義シートがない場合はnull）
+   */
+  public synchronized void applyDomain(Domain domain) {
+
+    if (null != domain) {
+      current.setDomainDataTypes(domain.getDomainMap());
+    }
+    if (!domainChanged) {
+      return;
+    }
+
+    Set<String> changedDomainNames =
+        DomainDependencyIndex.diff(previous.getDomainDataTypes(), current.getDomainDataTypes());
+    domainStaleSheetNames =
+        DomainDependencyIndex.build(previous).getSheetNames(changedDomainNames);
+    log.info("ドメイン定義シートが変更されているため、変更されたドメインを使用するシートを生成します。変更されたドメイン"
+        + changedDomainNames + " 使用しているシート[" + domainStaleSheetNames.size() + "]件");
+  }
+
+  /**
+   * シートが前回生成時から変更されていないか判定します。<br>
+   * 変更されていない場合は、前回の生成結果を今回のマニフェストに引き継ぎます。
+   * 
+   * @param sheetName シート名
+   * @return 変更されておらず、生成済みのエンティティクラスが存在する場合true
+   */
+  public synchronized boolean isUpToDate(String sheetName) {
+
+    if (fullRegeneration) {
+      return false;
+    }
+    Set<String> domainNames = previous.getSheetDomainNames(sheetName);
+    if (isDomainStale(sheetName, domainNames)) {
+      return false;
+    }
+
+    String fingerprint = readSheetFingerprint(sheetName);
+    String className = previous.getClassName(sheetName);
+    if (null == fingerprint || null == className
+        || !getContentFingerprint(fingerprint).equals(
+            getContentFingerprint(previous.getSheetFingerprint(sheetName)))) {
+      return false;
+    }
+    if (!new File(outputDir, className + EntityGeneratorUtils.EXTENSION_JAVA).isFile()) {
+      return false;
+    }
+
+    current.setSheet(sheetName, fingerprint, className, domainNames);
+    skipCount++;
+    return true;
+  }
+
+  /**
+   * 読み込み済みのドメインを再利用するためのキーを取得します。<br>
+   * ドメイン定義シートと、ドメイン定義シートが参照している共有文字列・表示形式が変わらない限り、同じキーになります。
+   * 
+   * @return ドメインのキー、ドメイン定義シートのフィンガープリントを取得できない場合はnull
+   */
+  public String getDomainKey() {
+
+    if (null == current.getDomainFingerprint()) {
+      return null;
+    }
+    return excelFile.getAbsolutePath() + "|"
+        + getContentFingerprint(current.getDomainFingerprint());
+  }
+
+  /**
+   * 生成したシートを今回のマニフェストに記録します。
+   * 
+   * @param sheetName シート名
+   * @param className クラス名
+   * @param domainNames シートで使用しているドメイン名（不明な場合はnull）
+   */
+  public synchronized void recordSheet(String sheetName, String className,
+      Collection<String> domainNames) {
+
+    String fingerprint = null == partIndex ? null : readSheetFingerprint(sheetName);
+    current.setSheet(sheetName, fingerprint, className, domainNames);
+  }
+
+  /**
+   * シートのフィンガープリントを取得します。<br>
+   * シートを読み込めなかった場合は、次回も再生成するようnullを返します。
+   * 
+   * @param sheetName シート名
+   * @return フィンガープリント、シートが存在しないか読み込めなかった場合はnull
+   */
+  private String readSheetFingerprint(String sheetName) {
+
+    try {
+      return getSheetFingerprint(sheetName, previous.getSheetFingerprint(sheetName));
+    } catch (IOException e) {
+      log.warn("シート[" + sheetName + "]のフィンガープリントを取得できないため、シートを生成します。", e);
+      return null;
+    }
+  }
+
+  /**
+   * シートのフィンガープリント（シートのパートと内容のフィンガープリント）を取得します。<br>
+   * 共有文字列パートとスタイルパートが前回と同じで、シートのパートも前回と同じ場合は、内容も同じため前回の値を使用します。
+   * 
+   * @param sheetName シート名
+   * @param previousFingerprint 前回のフィンガープリント
+   * @return フィンガープリント、シートが存在しない場合はnull
+   * @throws IOException
+   */
+  private String getSheetFingerprint(String sheetName, String previousFingerprint)
+      throws IOException {
+
+    String partFingerprint = partIndex.getSheetFingerprint(sheetName);
+    if (null == partFingerprint) {
+      return null;
+    }
+    if (null != previousFingerprint
+        && previousFingerprint.startsWith(partFingerprint + SEPARATOR_FINGERPRINT)
+        && ObjectUtils.equals(previous.getSharedStringsFingerprint(),
+            current.getSharedStringsFingerprint())
+        && ObjectUtils.equals(previous.getStylesFingerprint(), current.getStylesFingerprint())) {
+      return previousFingerprint;
+    }
+    return partFingerprint + SEPARATOR_FINGERPRINT
+        + partIndex.getSheetContentFingerprint(sheetName);
+  }
+
+  /**
+   * シートのフィンガープリントから内容のフィンガープリントを取り出します。
+   * 
+   * @param fingerprint シートのフィンガープリント
+   * @return 内容のフィンガープリント、シートのフィンガープリントがnullの場合はnull
+   */
+  private static String getContentFingerprint(String fingerprint) {
+
+    if (null == fingerprint) {
+      return null;
+    }
+    return StringUtils.substringAfter(fingerprint, SEPARATOR_FINGERPRINT);
+  }
+
+  /**
+   * 今回処理しないシートについて、前回の生成結果を今回のマニフェストに引き継ぎます。<br>
+   * 生成するシートを指定して実行した場合に、指定しなかったシートのエンティティクラスが削除されないようにします。
+   * 全シートを再生成する場合や、変更されたドメインを使用している場合は、次回そのシートを再生成するようフィンガープリントを引き継ぎません。
+   * 
+   * @param sheetName シート名
+   */
+  public synchronized void keepSheet(String sheetName) {
+
+    String className = previous.getClassName(sheetName);
+    if (null == className) {
+      return;
+    }
+    Set<String> domainNames = previous.getSheetDomainNames(sheetName);
+    boolean stale = fullRegeneration || isDomainStale(sheetName, domainNames);
+    current.setSheet(sheetName, stale ? null : previous.getSheetFingerprint(sheetName),
+        className, domainNames);
+  }
+
+  /**
+   * ドメインの変更によりシートを再生成する必要があるか判定します。<br>
+   * 前回使用していたドメイン名が記録されていないシートは、ドメイン定義シートが変更された場合に再生成します。
+   * 
+   * @param sheetName シート名
+   * @param domainNames 前回シートで使用していたドメイン名
+   * @return 再生成する必要がある場合true
+   */
+  private boolean isDomainStale(String sheetName, Set<String> domainNames) {
+
+    if (!domainChanged) {
+      return false;
+    }
+    return null == domainStaleSheetNames || null == domainNames
+        || domainStaleSheetNames.contains(sheetName);
+  }
+
+  /**
+   * 前回生成したが今回は生成しなかったエンティティクラスのクラス名を取得します。<br>
+   * シートが削除された場合や、エンティティ物理名が変更された場合が該当します。
+   * 全シートの処理が終わった後に呼び出してください。
+   * 
+   * @return クラス名
+   */
+  public synchronized Set<String> getOrphanClassNames() {
+
+    Set<String> classNames = new TreeSet<String>();
+    for (String sheetName : previous.getSheetNames()) {
+      String className = previous.getClassName(sheetName);
+      if (null != className) {
+        classNames.add(className);
+      }
+    }
+    for (String sheetName : current.getSheetNames()) {
+      String className = current.getClassName(sheetName);
+      if (null != className) {
+        classNames.remove(className);
+      }
+    }
+
+    return classNames;
+  }
+
+  /**
+   * 今回のマニフェストを保存します。
+   * 
+   * @throws IOException
+   */
+  public synchronized void store() throws IOException {
+
+    current.store(cacheDir);
+    log.info("変更のないシート[" + skipCount + "]件をスキップしました。");
+  }
+
+  /**
+   * テーブル定義書を閉じます。
+   * 
+   * @see java.io.Closeable#close()
+   */
+  @Override
+  public synchronized void close() throws IOException {
+
+    if (null != partIndex) {
+      partIndex.close();
+    }
+  }
+
+}
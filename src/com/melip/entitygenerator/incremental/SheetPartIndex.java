@@ -0,0 +1,547 @@
+package com.melip.entitygenerator.incremental;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.commons.lang.StringUtils;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * xlsx形式のテーブル定義書のシートと、シートのXMLパートの対応を表すクラスです。<br>
+ * パートのフィンガープリントにはzipエントリのCRC32とサイズを使用するため、シートのXMLを展開せずに変更を検出できます。<br>
+ * 共有文字列パートとスタイルパートは、どのシートを編集しても書き換えられることが多いため、パート全体ではなく
+ * シートが参照している文字列・表示形式だけをシートの内容のフィンガープリントに含めます（{@link #getSheetContentFingerprint(String)}）。
+ * 内容のフィンガープリントは必要になったときにシートのXMLを解析して作成するため、使い終わったら{@link #close()}してください。
+ */
+public class SheetPartIndex implements Closeable {
+
+  /** パッケージのリレーションシップ */
+  private static final String PATH_PACKAGE_RELS = "_rels/.rels";
+  /** リレーションシップの名前空間 */
+  private static final String NS_RELATIONSHIPS =
+      "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+  /** リレーションシップタイプ：ブック */
+  private static final String REL_TYPE_OFFICE_DOCUMENT = NS_RELATIONSHIPS + "/officeDocument";
+  /** リレーションシップタイプ：共有文字列 */
+  private static final String REL_TYPE_SHARED_STRINGS = NS_RELATIONSHIPS + "/sharedStrings";
+  /** リレーションシップタイプ：スタイル */
+  private static final String REL_TYPE_STYLES = NS_RELATIONSHIPS + "/styles";
+  /** 組み込みの表示形式を表すプレフィックス */
+  private static final String PREFIX_BUILTIN_FORMAT = "builtin:";
+  /** 存在しない共有文字列・スタイルを参照している場合の値 */
+  private static final String MISSING = "\u0000";
+
+  /** テーブル定義書 */
+  private final ZipFile zip;
+  /** シート名ごとのパートのパス（ブック内の順） */
+  private final Map<String, String> sheetPathMap = new LinkedHashMap<String, String>();
+  /** シート名ごとのパートのフィンガープリント（ブック内の順） */
+  private final Map<String, String> sheetFingerprintMap = new LinkedHashMap<String, String>();
+  /** シート名ごとの内容のフィンガープリント（作成済みのもの） */
+  private final Map<String, String> contentFingerprintMap = new HashMap<String, String>();
+  /** 共有文字列パートのパス */
+  private String sharedStringsPath = null;
+  /** 共有文字列パートのフィンガープリント */
+  private String sharedStringsFingerprint = null;
+  /** スタイルパートのパス */
+  private String stylesPath = null;
+  /** スタイルパートのフィンガープリント */
+  private String stylesFingerprint = null;
+  /** 共有文字列（読み込んでいない場合はnull） */
+  private List<String> sharedStrings = null;
+  /** スタイルごとの表示形式（読み込んでいない場合はnull） */
+  private List<String> cellFormats = null;
+
+  /**
+   * プライベートコンストラクタ
+   * 
+   * @param zip テーブル定義書
+   */
+  private SheetPartIndex(ZipFile zip) {
+    this.zip = zip;
+  }
+
+  /**
+   * テーブル定義書からシートとパートの対応を読み込みます。<br>
+   * 戻り値のシートとパートの対応はテーブル定義書を開いたままにするため、使い終わったら{@link #close()}してください。
+   * 
+   * @param excelFile テーブル定義書
+   * @return シートとパートの対応、xlsx形式でない場合はnull
+   * @throws IOException
+   */
+  public static SheetPartIndex load(File excelFile) throws IOException {
+
+    ZipFile zip = null;
+    try {
+      zip = new ZipFile(excelFile);
+    } catch (ZipException e) {
+      // xls形式など、zipでないファイル
+      return null;
+    }
+
+    boolean loaded = false;
+    try {
+      Map<String, Relationship> packageRels = readRelationships(zip, PATH_PACKAGE_RELS);
+      String workbookPath = null;
+      for (Relationship rel : packageRels.values()) {
+        if (REL_TYPE_OFFICE_DOCUMENT.equals(rel.getType())) {
+          workbookPath = resolvePath(StringUtils.EMPTY, rel.getTarget());
+        }
+      }
+      if (null == workbookPath || null == zip.getEntry(workbookPath)) {
+        return null;
+      }
+
+      String workbookDir = workbookPath.substring(0, workbookPath.lastIndexOf('/') + 1);
+      String workbookRelsPath =
+          workbookDir + "_rels/" + workbookPath.substring(workbookDir.length()) + ".rels";
+      Map<String, Relationship> workbookRels = readRelationships(zip, workbookRelsPath);
+
+      SheetPartIndex index = new SheetPartIndex(zip);
+      for (Relationship rel : workbookRels.values()) {
+        if (REL_TYPE_SHARED_STRINGS.equals(rel.getType())) {
+          index.sharedStringsPath = resolvePath(workbookDir, rel.getTarget());
+          index.sharedStringsFingerprint = fingerprint(zip.getEntry(index.sharedStringsPath));
+        } else if (REL_TYPE_STYLES.equals(rel.getType())) {
+          index.stylesPath = resolvePath(workbookDir, rel.getTarget());
+          index.stylesFingerprint = fingerprint(zip.getEntry(index.stylesPath));
+        }
+      }
+      for (Map.Entry<String, String> sheet : readSheets(zip, workbookPath).entrySet()) {
+        Relationship rel = workbookRels.get(sheet.getValue());
+        if (null != rel) {
+          String sheetPath = resolvePath(workbookDir, rel.getTarget());
+          index.sheetPathMap.put(sheet.getKey(), sheetPath);
+          index.sheetFingerprintMap.put(sheet.getKey(), fingerprint(zip.getEntry(sheetPath)));
+        }
+      }
+
+      loaded = true;
+      return index;
+    } finally {
+      if (!loaded) {
+        zip.close();
+      }
+    }
+  }
+
+  /**
+   * テーブル定義書を閉じます。
+   * 
+   * @see java.io.Closeable#close()
+   */
+  @Override
+  public void close() throws IOException {
+    zip.close();
+  }
+
+  /**
+   * シートのパートのフィンガープリントを取得します。
+   * 
+   * @param sheetName シート名
+   * @return フィンガープリント、シートが存在しない場合はnull
+   */
+  public String getSheetFingerprint(String sheetName) {
+    return sheetFingerprintMap.get(sheetName);
+  }
+
+  /**
+   * シートの内容のフィンガープリントを取得します。<br>
+   * セルの位置・型・表示形式・値（共有文字列はインデックスではなく文字列）をセルの順にハッシュしたものです。
+   * Excelは保存のたびに共有文字列のインデックスを振り直すため、シートのパートが変わっても、
+   * このシートの読み込み結果に関係する変更がなければ同じ値になります。
+   * 
+   * @param sheetName シート名
+   * @return フィンガープリント、シートが存在しない場合はnull
+   * @throws IOException
+   */
+  public String getSheetContentFingerprint(String sheetName) throws IOException {
+
+    String fingerprint = contentFingerprintMap.get(sheetName);
+    if (null != fingerprint) {
+      return fingerprint;
+    }
+    String sheetPath = sheetPathMap.get(sheetName);
+    if (null == sheetPath) {
+      return null;
+    }
+
+    if (null == sharedStrings) {
+      sharedStrings = readSharedStrings(zip, sharedStringsPath);
+    }
+    if (null == cellFormats) {
+      cellFormats = readCellFormats(zip, stylesPath);
+    }
+    final Hasher hasher = Hashing.sha256().newHasher();
+    parse(zip, sheetPath, new DefaultHandler() {
+
+      /** セルの型 */
+      private String type = null;
+      /** ふりがなの要素の中か */
+      private boolean inPhonetic = false;
+      /** 値の要素の中か */
+      private boolean inValue = false;
+      /** 値 */
+      private final StringBuilder value = new StringBuilder();
+
+      @Override
+      public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        if ("c".equals(localName)) {
+          type = StringUtils.defaultString(attributes.getValue("t"));
+          // スタイルを指定していないセルは、先頭のスタイルを使用する
+          String style = StringUtils.defaultString(attributes.getValue("s"), "0");
+          value.setLength(0);
+          hasher.putString(StringUtils.defaultString(attributes.getValue("r")),
+              StandardCharsets.UTF_8).putChar('\t');
+          hasher.putString(type, StandardCharsets.UTF_8).putChar('\t');
+          hasher.putString(lookup(cellFormats, style), StandardCharsets.UTF_8).putChar('\t');
+        } else if ("rPh".equals(localName)) {
+          inPhonetic = true;
+        } else if (("v".equals(localName) || "t".equals(localName)) && !inPhonetic) {
+          // 値（v）とインライン文字列（is/t）
+          inValue = true;
+        }
+      }
+
+      @Override
+      public void characters(char[] ch, int start, int length) {
+        if (inValue) {
+          value.append(ch, start, length);
+        }
+      }
+
+      @Override
+      public void endElement(String uri, String localName, String qName) {
+        if ("v".equals(localName) || "t".equals(localName)) {
+          inValue = false;
+        } else if ("rPh".equals(localName)) {
+          inPhonetic = false;
+        } else if ("c".equals(localName)) {
+          String cellValue =
+              "s".equals(type) ? lookup(sharedStrings, value.toString().trim()) : value.toString();
+          hasher.putString(cellValue, StandardCharsets.UTF_8).putChar('\n');
+        }
+      }
+    });
+
+    fingerprint = hasher.hash().toString();
+    contentFingerprintMap.put(sheetName, fingerprint);
+    return fingerprint;
+  }
+
+  /**
+   * 共有文字列パートのフィンガープリントを取得します。
+   * 
+   * @return フィンガープリント、共有文字列パートが存在しない場合はnull
+   */
+  public String getSharedStringsFingerprint() {
+    return sharedStringsFingerprint;
+  }
+
+  /**
+   * スタイルパートのフィンガープリントを取得します。
+   * 
+   * @return フィンガープリント、スタイルパートが存在しない場合はnull
+   */
+  public String getStylesFingerprint() {
+    return stylesFingerprint;
+  }
+
+  /**
+   * インデックスで参照された値を取得します。
+   * 
+   * @param values 値
+   * @param index インデックス
+   * @return 値、存在しない場合は{@link #MISSING}
+   */
+  private static String lookup(List<String> values, String index) {
+
+    try {
+      int i = Integer.parseInt(index);
+      return 0 <= i && i < values.size() ? values.get(i) : MISSING;
+    } catch (NumberFormatException e) {
+      return MISSING;
+    }
+  }
+
+  /**
+   * zipエントリのフィンガープリント（CRC32:サイズ）を作成します。
+   * 
+   * @param entry zipエントリ
+   * @return フィンガープリント、エントリが存在しない場合はnull
+   */
+  private static String fingerprint(ZipEntry entry) {
+
+    if (null == entry) {
+      return null;
+    }
+    return Long.toHexString(entry.getCrc()) + ":" + entry.getSize();
+  }
+
+  /**
+   * パートのパスを解決します。
+   * 
+   * @param baseDir 基準ディレクトリ
+   * @param target リレーションシップのターゲット
+   * @return zipエントリ名
+   */
+  private static String resolvePath(String baseDir, String target) {
+
+    String path = target.startsWith("/") ? target.substring(1) : baseDir + target;
+    // 「../」を解決する
+    int index = path.indexOf("/../");
+    while (index > 0) {
+      int parent = path.lastIndexOf('/', index - 1);
+      path = path.substring(0, parent + 1) + path.substring(index + 4);
+      index = path.indexOf("/../");
+    }
+    return path;
+  }
+
+  /**
+   * リレーションシップパートを読み込みます。
+   * 
+   * @param zip テーブル定義書
+   * @param path リレーションシップパートのパス
+   * @return IDごとのリレーションシップ
+   * @throws IOException
+   */
+  private static Map<String, Relationship> readRelationships(ZipFile zip, String path)
+      throws IOException {
+
+    final Map<String, Relationship> relMap = new HashMap<String, Relationship>();
+    parse(zip, path, new DefaultHandler() {
+      @Override
+      public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        if ("Relationship".equals(localName)) {
+          relMap.put(attributes.getValue("Id"),
+              new Relationship(attributes.getValue("Type"), attributes.getValue("Target")));
+        }
+      }
+    });
+    return relMap;
+  }
+
+  /**
+   * ブックのパートからシートの一覧を読み込みます。
+   * 
+   * @param zip テーブル定義書
+   * @param path ブックのパートのパス
+   * @return シート名ごとのリレーションシップID（ブック内の順）
+   * @throws IOException
+   */
+  private static Map<String, String> readSheets(ZipFile zip, String path) throws IOException {
+
+    final Map<String, String> sheetMap = new LinkedHashMap<String, String>();
+    parse(zip, path, new DefaultHandler() {
+      @Override
+      public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        if ("sheet".equals(localName)) {
+          sheetMap.put(attributes.getValue("name"), attributes.getValue(NS_RELATIONSHIPS, "id"));
+        }
+      }
+    });
+    return sheetMap;
+  }
+
+  /**
+   * 共有文字列パートを読み込みます。<br>
+   * 書式付きの文字列は書式を除いた文字列とし、ふりがな（rPh）は含めません。
+   * 
+   * @param zip テーブル定義書
+   * @param path 共有文字列パートのパス（存在しない場合はnull）
+   * @return 共有文字列
+   * @throws IOException
+   */
+  private static List<String> readSharedStrings(ZipFile zip, String path) throws IOException {
+
+    final List<String> strings = new ArrayList<String>();
+    if (null == path) {
+      return strings;
+    }
+    parse(zip, path, new DefaultHandler() {
+
+      /** ふりがなの要素の中か */
+      private boolean inPhonetic = false;
+      /** 文字列の要素の中か */
+      private boolean inText = false;
+      /** 文字列 */
+      private final StringBuilder text = new StringBuilder();
+
+      @Override
+      public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        if ("si".equals(localName)) {
+          text.setLength(0);
+        } else if ("rPh".equals(localName)) {
+          inPhonetic = true;
+        } else if ("t".equals(localName) && !inPhonetic) {
+          inText = true;
+        }
+      }
+
+      @Override
+      public void characters(char[] ch, int start, int length) {
+        if (inText) {
+          text.append(ch, start, length);
+        }
+      }
+
+      @Override
+      public void endElement(String uri, String localName, String qName) {
+        if ("si".equals(localName)) {
+          strings.add(text.toString());
+        } else if ("rPh".equals(localName)) {
+          inPhonetic = false;
+        } else if ("t".equals(localName)) {
+          inText = false;
+        }
+      }
+    });
+    return strings;
+  }
+
+  /**
+   * スタイルパートからセルのスタイルごとの表示形式を読み込みます。<br>
+   * 日付・数値の読み込み結果は表示形式で変わるため、ユーザー定義の表示形式は書式の文字列、組み込みの表示形式はIDで表します。
+   * 
+   * @param zip テーブル定義書
+   * @param path スタイルパートのパス（存在しない場合はnull）
+   * @return セルのスタイル（cellXfs）の順の表示形式
+   * @throws IOException
+   */
+  private static List<String> readCellFormats(ZipFile zip, String path) throws IOException {
+
+    final Map<String, String> formatMap = new HashMap<String, String>();
+    final List<String> formatIds = new ArrayList<String>();
+    if (null != path) {
+      parse(zip, path, new DefaultHandler() {
+
+        /** セルのスタイルの要素の中か */
+        private boolean inCellXfs = false;
+
+        @Override
+        public void startElement(String uri, String localName, String qName,
+            Attributes attributes) {
+          if ("numFmt".equals(localName)) {
+            formatMap.put(attributes.getValue("numFmtId"), attributes.getValue("formatCode"));
+          } else if ("cellXfs".equals(localName)) {
+            inCellXfs = true;
+          } else if ("xf".equals(localName) && inCellXfs) {
+            formatIds.add(StringUtils.defaultString(attributes.getValue("numFmtId"), "0"));
+          }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+          if ("cellXfs".equals(localName)) {
+            inCellXfs = false;
+          }
+        }
+      });
+    }
+
+    List<String> formats = new ArrayList<String>(formatIds.size());
+    for (String formatId : formatIds) {
+      String formatCode = formatMap.get(formatId);
+      formats.add(null != formatCode ? formatCode : PREFIX_BUILTIN_FORMAT + formatId);
+    }
+    return formats;
+  }
+
+  /**
+   * パートをSAXで解析します。<br>
+   * テーブル定義書は外部から受け取るファイルのため、DTDと外部エンティティは読み込みません。
+   * 
+   * @param zip テーブル定義書
+   * @param path パートのパス
+   * @param handler ハンドラ
+   * @throws IOException
+   */
+  private static void parse(ZipFile zip, String path, DefaultHandler handler) throws IOException {
+
+    ZipEntry entry = zip.getEntry(path);
+    if (null == entry) {
+      return;
+    }
+
+    InputStream in = zip.getInputStream(entry);
+    try {
+      SAXParserFactory factory = SAXParserFactory.newInstance();
+      factory.setNamespaceAware(true);
+      factory.setXIncludeAware(false);
+      factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+      factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+      factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+      factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+      factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+      factory.newSAXParser().parse(in, handler);
+    } catch (ParserConfigurationException e) {
+      throw new IOException(e);
+    } catch (SAXException e) {
+      throw new IOException(e);
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * リレーションシップを表すクラスです。
+   */
+  private static class Relationship {
+
+    /** タイプ */
+    private final String type;
+    /** ターゲット */
+    private final String target;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param type タイプ
+     * @param target ターゲット
+     */
+    public Relationship(String type, String target) {
+      this.type = type;
+      this.target = target;
+    }
+
+    /**
+     * タイプを取得します。
+     * 
+     * @return タイプ
+     */
+    public String getType() {
+      return type;
+    }
+
+    /**
+     * ターゲットを取得します。
+     * 
+     * @return ターゲット
+     */
+    public String getTarget() {
+      return target;
+    }
+  }
+
+}
@@ -0,0 +1,25 @@
+package com.melip.entitygenerator.jfr;
+
+/**
+ * 開始済みのJFRイベントを表すインターフェースです。<br>
+ * JFRイベントのクラスを参照しないため、JFRが使用できないJVMでも読み込めます。
+ */
+public interface EventSpan {
+
+  /** 何もしないイベント */
+  EventSpan NOOP = new EventSpan() {
+    @Override
+    public void end(String sheetName, String className, int fieldCount, long bytes) {}
+  };
+
+  /**
+   * イベントを終了して記録します。
+   * 
+   * @param sheetName シート名
+   * @param className クラス名
+   * @param fieldCount フィールド数
+   * @param bytes バイト数
+   */
+  void end(String sheetName, String className, int fieldCount, long bytes);
+
+}
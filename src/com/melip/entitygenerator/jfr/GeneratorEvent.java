@@ -0,0 +1,30 @@
+package com.melip.entitygenerator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+
+/**
+ * エンティティクラス生成処理のJFRイベントの共通部分です。
+ */
+@Category({"MELIP", "Entity Generator"})
+abstract class GeneratorEvent extends jdk.jfr.Event {
+
+  /** シート名 */
+  @Label("Sheet Name")
+  String sheetName;
+
+  /** クラス名 */
+  @Label("Class Name")
+  String className;
+
+  /** フィールド数 */
+  @Label("Field Count")
+  int fieldCount;
+
+  /** バイト数 */
+  @Label("Bytes")
+  @DataAmount
+  long bytes;
+
+}
@@ -0,0 +1,91 @@
+package com.melip.entitygenerator.jfr;
+
+/**
+ * エンティティクラス生成処理のJFRイベントを開始するクラスです。<br>
+ * -XX:StartFlightRecordingで記録すると、シート・作成・書き込みごとのイベントがGCや入出力のイベントと並べて確認できます。
+ * JFRが使用できないJVMや、イベントの記録が無効な場合は何もしません。
+ */
+public class GeneratorEvents {
+
+  /**
+   * イベントの種類です。
+   */
+  enum Type {
+    /** シートの処理 */
+    SHEET,
+    /** エンティティクラスの作成 */
+    RENDER,
+    /** エンティティクラスファイルの書き込み */
+    WRITE
+  }
+
+  /** JFRのイベントクラス名 */
+  private static final String CLASS_NAME_JFR_EVENT = "jdk.jfr.Event";
+
+  /** JFRが使用できるか */
+  private static final boolean AVAILABLE = isJfrAvailable();
+
+  /**
+   * プライベートコンストラクタ
+   */
+  private GeneratorEvents() {}
+
+  /**
+   * シートの処理のイベントを開始します。
+   * 
+   * @return 開始したイベント
+   */
+  public static EventSpan beginSheet() {
+    return begin(Type.SHEET);
+  }
+
+  /**
+   * エンティティクラスの作成のイベントを開始します。
+   * 
+   * @return 開始したイベント
+   */
+  public static EventSpan beginRender() {
+    return begin(Type.RENDER);
+  }
+
+  /**
+   * エンティティクラスファイルの書き込みのイベントを開始します。
+   * 
+   * @return 開始したイベント
+   */
+  public static EventSpan beginWrite() {
+    return begin(Type.WRITE);
+  }
+
+  /**
+   * イベントを開始します。
+   * 
+   * @param type イベントの種類
+   * @return 開始したイベント、JFRが使用できない場合は{@link EventSpan#NOOP}
+   */
+  private static EventSpan begin(Type type) {
+
+    if (!AVAILABLE) {
+      return EventSpan.NOOP;
+    }
+    return JfrEventSpan.begin(type);
+  }
+
+  /**
+   * JFRが使用できるか判定します。
+   * 
+   * @return 使用できる場合true
+   */
+  private static boolean isJfrAvailable() {
+
+    try {
+      Class.forName(CLASS_NAME_JFR_EVENT, false, GeneratorEvents.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    } catch (LinkageError e) {
+      return false;
+    }
+  }
+
+}
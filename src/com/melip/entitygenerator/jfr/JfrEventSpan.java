@@ -0,0 +1,65 @@
+package com.melip.entitygenerator.jfr;
+
+/**
+ * JFRイベントを記録する{@link EventSpan}です。<br>
+ * JFRが使用できる場合のみ読み込まれます。
+ */
+class JfrEventSpan implements EventSpan {
+
+  /** イベント */
+  private final GeneratorEvent event;
+
+  /**
+   * コンストラクタ<br>
+   * イベントを開始します。
+   * 
+   * @param event イベント
+   */
+  JfrEventSpan(GeneratorEvent event) {
+    this.event = event;
+    event.begin();
+  }
+
+  /**
+   * イベントの種類ごとに、記録が有効な場合のみイベントを開始します。
+   * 
+   * @param type イベントの種類
+   * @return 開始したイベント、記録が無効な場合は{@link EventSpan#NOOP}
+   */
+  static EventSpan begin(GeneratorEvents.Type type) {
+
+    GeneratorEvent event;
+    switch (type) {
+      case SHEET:
+        event = new SheetEvent();
+        break;
+      case RENDER:
+        event = new RenderEvent();
+        break;
+      default:
+        event = new WriteEvent();
+        break;
+    }
+    if (!event.isEnabled()) {
+      return NOOP;
+    }
+    return new JfrEventSpan(event);
+  }
+
+  /**
+   * @see com.melip.entitygenerator.jfr.EventSpan#end(java.lang.String, java.lang.String, int, long)
+   */
+  @Override
+  public void end(String sheetName, String className, int fieldCount, long bytes) {
+
+    event.end();
+    if (event.shouldCommit()) {
+      event.sheetName = sheetName;
+      event.className = className;
+      event.fieldCount = fieldCount;
+      event.bytes = bytes;
+      event.commit();
+    }
+  }
+
+}
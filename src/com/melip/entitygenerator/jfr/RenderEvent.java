@@ -0,0 +1,13 @@
+package com.melip.entitygenerator.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * エンティティクラスの作成のJFRイベントです。<br>
+ * エンティティクラスをテンプレートから作成した処理です。バイト数は作成したUTF-8のバイト数です。
+ */
+@Name("com.melip.entitygenerator.Render")
+@Label("Entity Rendered")
+class RenderEvent extends GeneratorEvent {
+}
@@ -0,0 +1,13 @@
+package com.melip.entitygenerator.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * シートの処理のJFRイベントです。<br>
+ * テーブル定義書の1シートを解析してエンティティを作成した処理です。バイト数は常に0です。
+ */
+@Name("com.melip.entitygenerator.Sheet")
+@Label("Sheet Processed")
+class SheetEvent extends GeneratorEvent {
+}
@@ -0,0 +1,13 @@
+package com.melip.entitygenerator.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * エンティティクラスファイルの書き込みのJFRイベントです。<br>
+ * エンティティクラスファイルの書き込み処理です。バイト数は書き込んだバイト数で、内容が同じため書き込まなかった場合は0です。
+ */
+@Name("com.melip.entitygenerator.Write")
+@Label("Entity Written")
+class WriteEvent extends GeneratorEvent {
+}
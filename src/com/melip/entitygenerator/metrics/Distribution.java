@@ -0,0 +1,128 @@
+package com.melip.entitygenerator.metrics;
+
+import java.beans.ConstructorProperties;
+import java.util.Arrays;
+
+/**
+ * 計測値の分布（合計とパーセンタイル）を表すクラスです。<br>
+ * パーセンタイルは最近順位法で求めます。
+ */
+public class Distribution {
+
+  /** 合計 */
+  private final long total;
+  /** 50パーセンタイル */
+  private final long p50;
+  /** 90パーセンタイル */
+  private final long p90;
+  /** 99パーセンタイル */
+  private final long p99;
+  /** 最大値 */
+  private final long max;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param total 合計
+   * @param p50 50パーセンタイル
+   * @param p90 90パーセンタイル
+   * @param p99 99パーセンタイル
+   * @param max 最大値
+   */
+  @ConstructorProperties({"total", "p50", "p90", "p99", "max"})
+  public Distribution(long total, long p50, long p90, long p99, long max) {
+    this.total = total;
+    this.p50 = p50;
+    this.p90 = p90;
+    this.p99 = p99;
+    this.max = max;
+  }
+
+  /**
+   * 計測値から分布を作成します。<br>
+   * 計測できなかった値（{@link RunMetrics#UNAVAILABLE}）は除外します。
+   * 
+   * @param values 計測値
+   * @return 分布、有効な値がない場合は全て{@link RunMetrics#UNAVAILABLE}
+   */
+  public static Distribution of(long[] values) {
+
+    long[] sorted = new long[values.length];
+    int size = 0;
+    long total = 0L;
+    for (long value : values) {
+      if (RunMetrics.UNAVAILABLE != value) {
+        sorted[size++] = value;
+        total += value;
+      }
+    }
+    if (0 == size) {
+      return new Distribution(RunMetrics.UNAVAILABLE, RunMetrics.UNAVAILABLE,
+          RunMetrics.UNAVAILABLE, RunMetrics.UNAVAILABLE, RunMetrics.UNAVAILABLE);
+    }
+    sorted = Arrays.copyOf(sorted, size);
+    Arrays.sort(sorted);
+
+    return new Distribution(total, percentile(sorted, 50), percentile(sorted, 90),
+        percentile(sorted, 99), sorted[size - 1]);
+  }
+
+  /**
+   * パーセンタイルを求めます。
+   * 
+   * @param sorted 昇順にソートした計測値
+   * @param percent パーセント
+   * @return パーセンタイル
+   */
+  private static long percentile(long[] sorted, int percent) {
+
+    int rank = (int) Math.ceil(sorted.length * percent / 100.0);
+    return sorted[Math.max(rank, 1) - 1];
+  }
+
+  /**
+   * 合計を取得します。
+   * 
+   * @return 合計
+   */
+  public long getTotal() {
+    return total;
+  }
+
+  /**
+   * 50パーセンタイルを取得します。
+   * 
+   * @return 50パーセンタイル
+   */
+  public long getP50() {
+    return p50;
+  }
+
+  /**
+   * 90パーセンタイルを取得します。
+   * 
+   * @return 90パーセンタイル
+   */
+  public long getP90() {
+    return p90;
+  }
+
+  /**
+   * 99パーセンタイルを取得します。
+   * 
+   * @return 99パーセンタイル
+   */
+  public long getP99() {
+    return p99;
+  }
+
+  /**
+   * 最大値を取得します。
+   * 
+   * @return 最大値
+   */
+  public long getMax() {
+    return max;
+  }
+
+}
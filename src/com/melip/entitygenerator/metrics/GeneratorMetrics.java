@@ -0,0 +1,133 @@
+package com.melip.entitygenerator.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 直近のエンティティクラス生成処理の計測結果を保持し、JMXに公開するクラスです。<br>
+ * 常駐モードや監視モードで、処理時間の推移をJConsoleなどから確認できます。
+ */
+public class GeneratorMetrics implements GeneratorMetricsMXBean {
+
+  private static final Logger log = LoggerFactory.getLogger(GeneratorMetrics.class);
+
+  /** MXBeanの名前 */
+  public static final String OBJECT_NAME = "com.melip.entitygenerator:type=GeneratorMetrics";
+
+  /** インスタンス */
+  private static final GeneratorMetrics INSTANCE = new GeneratorMetrics();
+
+  /** 回数 */
+  private long runCount = 0L;
+  /** 直近の計測結果 */
+  private RunMetrics lastRun = null;
+  /** JMXに登録したか */
+  private boolean registered = false;
+
+  /**
+   * プライベートコンストラクタ
+   */
+  private GeneratorMetrics() {}
+
+  /**
+   * インスタンスを取得します。<br>
+   * 初回の取得時にJMXに登録します。
+   * 
+   * @return インスタンス
+   */
+  public static GeneratorMetrics getInstance() {
+    INSTANCE.register();
+    return INSTANCE;
+  }
+
+  /**
+   * JMXに登録します。
+   */
+  private synchronized void register() {
+
+    if (registered) {
+      return;
+    }
+    registered = true;
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName(OBJECT_NAME);
+      if (!server.isRegistered(name)) {
+        server.registerMBean(this, name);
+      }
+    } catch (JMException e) {
+      log.warn("計測結果をJMXに登録できませんでした。", e);
+    }
+  }
+
+  /**
+   * 計測結果を反映します。
+   * 
+   * @param metrics 計測結果
+   */
+  public synchronized void update(RunMetrics metrics) {
+    runCount++;
+    lastRun = metrics;
+  }
+
+  /**
+   * @see com.melip.entitygenerator.metrics.GeneratorMetricsMXBean#getRunCount()
+   */
+  @Override
+  public synchronized long getRunCount() {
+    return runCount;
+  }
+
+  /**
+   * @see com.melip.entitygenerator.metrics.GeneratorMetricsMXBean#isLastRunSuccess()
+   */
+  @Override
+  public synchronized boolean isLastRunSuccess() {
+    return null != lastRun && lastRun.isSuccess();
+  }
+
+  /**
+   * @see com.melip.entitygenerator.metrics.GeneratorMetricsMXBean#getLastRunEntityCount()
+   */
+  @Override
+  public synchronized int getLastRunEntityCount() {
+    return null == lastRun ? 0 : lastRun.getEntityCount();
+  }
+
+  /**
+   * @see com.melip.entitygenerator.metrics.GeneratorMetricsMXBean#getLastRunWallNanos()
+   */
+  @Override
+  public synchronized long getLastRunWallNanos() {
+    return null == lastRun ? RunMetrics.UNAVAILABLE : lastRun.getWallNanos();
+  }
+
+  /**
+   * @see com.melip.entitygenerator.metrics.GeneratorMetricsMXBean#getLastRunPhaseStatistics()
+   */
+  @Override
+  public synchronized List<PhaseStatistics> getLastRunPhaseStatistics() {
+
+    if (null == lastRun) {
+      return Collections.emptyList();
+    }
+    return lastRun.getPhaseStatistics();
+  }
+
+  /**
+   * @see com.melip.entitygenerator.metrics.GeneratorMetricsMXBean#getLastRunReport()
+   */
+  @Override
+  public synchronized String getLastRunReport() {
+    return null == lastRun ? null : MetricsReport.toJson(lastRun);
+  }
+
+}
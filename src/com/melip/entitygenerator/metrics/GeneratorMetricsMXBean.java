@@ -0,0 +1,52 @@
+package com.melip.entitygenerator.metrics;
+
+import java.util.List;
+
+/**
+ * 直近のエンティティクラス生成処理の計測結果を公開するMXBeanです。
+ */
+public interface GeneratorMetricsMXBean {
+
+  /**
+   * 計測したエンティティクラス生成処理の回数を取得します。
+   * 
+   * @return 回数
+   */
+  long getRunCount();
+
+  /**
+   * 直近の処理が正常終了したか判定します。
+   * 
+   * @return 正常終了した場合true
+   */
+  boolean isLastRunSuccess();
+
+  /**
+   * 直近の処理のエンティティ数を取得します。
+   * 
+   * @return エンティティ数
+   */
+  int getLastRunEntityCount();
+
+  /**
+   * 直近の処理の経過時間を取得します。
+   * 
+   * @return 経過時間（ナノ秒）
+   */
+  long getLastRunWallNanos();
+
+  /**
+   * 直近の処理のフェーズごとの統計を取得します。
+   * 
+   * @return フェーズごとの統計
+   */
+  List<PhaseStatistics> getLastRunPhaseStatistics();
+
+  /**
+   * 直近の処理のJSON形式のレポートを取得します。
+   * 
+   * @return JSON形式のレポート
+   */
+  String getLastRunReport();
+
+}
@@ -0,0 +1,98 @@
+package com.melip.entitygenerator.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import com.google.common.io.Files;
+import com.melip.entitygenerator.EntityGeneratorUtils;
+
+/**
+ * 計測結果をJSON形式のレポートにするクラスです。
+ */
+public class MetricsReport {
+
+  /**
+   * プライベートコンストラクタ
+   */
+  private MetricsReport() {}
+
+  /**
+   * 計測結果をJSON形式の文字列にします。
+   * 
+   * @param metrics 計測結果
+   * @return JSON形式の文字列
+   */
+  public static String toJson(RunMetrics metrics) {
+
+    StringBuilder sb = new StringBuilder();
+    sb.append("{\n");
+    sb.append("  \"startTimeMillis\": ").append(metrics.getStartTimeMillis()).append(",\n");
+    sb.append("  \"wallNanos\": ").append(metrics.getWallNanos()).append(",\n");
+    sb.append("  \"success\": ").append(metrics.isSuccess()).append(",\n");
+    sb.append("  \"entityCount\": ").append(metrics.getEntityCount()).append(",\n");
+
+    sb.append("  \"phases\": [");
+    String separator = "\n";
+    for (PhaseStatistics statistics : metrics.getPhaseStatistics()) {
+      sb.append(separator).append("    {\"phase\": ");
+      EntityGeneratorUtils.appendJsonString(sb, statistics.getPhase());
+      sb.append(", \"count\": ").append(statistics.getCount());
+      sb.append(", \"wallNanos\": ");
+      appendDistribution(sb, statistics.getWallNanos());
+      sb.append(", \"cpuNanos\": ");
+      appendDistribution(sb, statistics.getCpuNanos());
+      sb.append(", \"allocatedBytes\": ");
+      appendDistribution(sb, statistics.getAllocatedBytes());
+      sb.append("}");
+      separator = ",\n";
+    }
+    sb.append("\n  ],\n");
+
+    sb.append("  \"samples\": [");
+    separator = "\n";
+    for (RunMetrics.Sample sample : metrics.getSamples()) {
+      sb.append(separator).append("    {\"phase\": ");
+      EntityGeneratorUtils.appendJsonString(sb, sample.getPhase());
+      sb.append(", \"subject\": ");
+      EntityGeneratorUtils.appendJsonString(sb, sample.getSubject());
+      sb.append(", \"wallNanos\": ").append(sample.getWallNanos());
+      sb.append(", \"cpuNanos\": ").append(sample.getCpuNanos());
+      sb.append(", \"allocatedBytes\": ").append(sample.getAllocatedBytes());
+      sb.append("}");
+      separator = ",\n";
+    }
+    sb.append("\n  ]\n");
+    sb.append("}\n");
+
+    return sb.toString();
+  }
+
+  /**
+   * 計測結果をJSON形式のファイルに出力します。
+   * 
+   * @param metrics 計測結果
+   * @param file 出力先ファイル
+   * @throws IOException
+   */
+  public static void write(RunMetrics metrics, File file) throws IOException {
+    Files.write(toJson(metrics), file, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * 分布をJSON形式で追加します。
+   * 
+   * @param sb 追加先
+   * @param distribution 分布
+   */
+  private static void appendDistribution(StringBuilder sb, Distribution distribution) {
+
+    sb.append("{\"total\": ").append(distribution.getTotal());
+    sb.append(", \"p50\": ").append(distribution.getP50());
+    sb.append(", \"p90\": ").append(distribution.getP90());
+    sb.append(", \"p99\": ").append(distribution.getP99());
+    sb.append(", \"max\": ").append(distribution.getMax());
+    sb.append("}");
+  }
+
+}
@@ -0,0 +1,108 @@
+package com.melip.entitygenerator.metrics;
+
+import java.beans.ConstructorProperties;
+import java.util.List;
+
+/**
+ * フェーズごとの計測結果の統計を表すクラスです。
+ */
+public class PhaseStatistics {
+
+  /** フェーズ */
+  private final String phase;
+  /** 計測回数 */
+  private final int count;
+  /** 経過時間（ナノ秒） */
+  private final Distribution wallNanos;
+  /** CPU時間（ナノ秒） */
+  private final Distribution cpuNanos;
+  /** 割り当てたメモリ量（バイト） */
+  private final Distribution allocatedBytes;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param phase フェーズ
+   * @param count 計測回数
+   * @param wallNanos 経過時間（ナノ秒）
+   * @param cpuNanos CPU時間（ナノ秒）
+   * @param allocatedBytes 割り当てたメモリ量（バイト）
+   */
+  @ConstructorProperties({"phase", "count", "wallNanos", "cpuNanos", "allocatedBytes"})
+  public PhaseStatistics(String phase, int count, Distribution wallNanos, Distribution cpuNanos,
+      Distribution allocatedBytes) {
+    this.phase = phase;
+    this.count = count;
+    this.wallNanos = wallNanos;
+    this.cpuNanos = cpuNanos;
+    this.allocatedBytes = allocatedBytes;
+  }
+
+  /**
+   * 計測結果から統計を作成します。
+   * 
+   * @param phase フェーズ
+   * @param samples 計測結果
+   * @return 統計
+   */
+  public static PhaseStatistics of(String phase, List<RunMetrics.Sample> samples) {
+
+    long[] wall = new long[samples.size()];
+    long[] cpu = new long[samples.size()];
+    long[] allocated = new long[samples.size()];
+    for (int i = 0; i < samples.size(); i++) {
+      wall[i] = samples.get(i).getWallNanos();
+      cpu[i] = samples.get(i).getCpuNanos();
+      allocated[i] = samples.get(i).getAllocatedBytes();
+    }
+
+    return new PhaseStatistics(phase, samples.size(), Distribution.of(wall), Distribution.of(cpu),
+        Distribution.of(allocated));
+  }
+
+  /**
+   * フェーズを取得します。
+   * 
+   * @return フェーズ
+   */
+  public String getPhase() {
+    return phase;
+  }
+
+  /**
+   * 計測回数を取得します。
+   * 
+   * @return 計測回数
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * 経過時間の分布を取得します。
+   * 
+   * @return 経過時間（ナノ秒）の分布
+   */
+  public Distribution getWallNanos() {
+    return wallNanos;
+  }
+
+  /**
+   * CPU時間の分布を取得します。
+   * 
+   * @return CPU時間（ナノ秒）の分布
+   */
+  public Distribution getCpuNanos() {
+    return cpuNanos;
+  }
+
+  /**
+   * 割り当てたメモリ量の分布を取得します。
+   * 
+   * @return 割り当てたメモリ量（バイト）の分布
+   */
+  public Distribution getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+}
@@ -0,0 +1,66 @@
+package com.melip.entitygenerator.metrics;
+
+/**
+ * 1つのフェーズを計測するタイマーです。<br>
+ * 開始したスレッドで{@link #stop()}を呼び出してください。
+ */
+public class PhaseTimer {
+
+  /** 記録先 */
+  private final RunMetrics metrics;
+  /** フェーズ */
+  private final String phase;
+  /** 対象 */
+  private final String subject;
+  /** 開始時刻（ナノ秒） */
+  private final long startNanos;
+  /** 開始時のCPU時間（ナノ秒） */
+  private final long startCpuNanos;
+  /** 開始時の割り当てたメモリ量の累計（バイト） */
+  private final long startAllocatedBytes;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param metrics 記録先
+   * @param phase フェーズ
+   * @param subject 対象
+   */
+  PhaseTimer(RunMetrics metrics, String phase, String subject) {
+
+    this.metrics = metrics;
+    this.phase = phase;
+    this.subject = subject;
+    this.startAllocatedBytes = RunMetrics.currentThreadAllocatedBytes();
+    this.startCpuNanos = RunMetrics.currentThreadCpuTime();
+    this.startNanos = System.nanoTime();
+  }
+
+  /**
+   * 計測を終了し、結果を記録します。
+   */
+  public void stop() {
+
+    long wallNanos = System.nanoTime() - startNanos;
+    long cpuNanos = RunMetrics.currentThreadCpuTime();
+    long allocatedBytes = RunMetrics.currentThreadAllocatedBytes();
+    metrics.record(new RunMetrics.Sample(phase, subject, wallNanos,
+        diff(startCpuNanos, cpuNanos), diff(startAllocatedBytes, allocatedBytes)));
+  }
+
+  /**
+   * 開始時と終了時の差を計算します。
+   * 
+   * @param start 開始時の値
+   * @param end 終了時の値
+   * @return 差、どちらかが計測できない場合は{@link RunMetrics#UNAVAILABLE}
+   */
+  private static long diff(long start, long end) {
+
+    if (RunMetrics.UNAVAILABLE == start || RunMetrics.UNAVAILABLE == end) {
+      return RunMetrics.UNAVAILABLE;
+    }
+    return end - start;
+  }
+
+}
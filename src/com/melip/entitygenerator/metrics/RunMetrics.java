@@ -0,0 +1,267 @@
+package com.melip.entitygenerator.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * エンティティクラス生成処理1回分の計測結果を保持するクラスです。<br>
+ * フェーズごとに、経過時間・CPU時間・割り当てたメモリ量をスレッド単位で計測します。
+ * 複数のスレッドから同時に記録できます。
+ */
+public class RunMetrics {
+
+  /** フェーズ：プロパティファイルの読み込み */
+  public static final String PHASE_PROPERTY_LOAD = "property.load";
+  /** フェーズ：テーブル定義書のオープン */
+  public static final String PHASE_WORKBOOK_OPEN = "workbook.open";
+  /** フェーズ：解析済みのテーブル定義書のスナップショットの読み込み */
+  public static final String PHASE_SNAPSHOT_READ = "snapshot.read";
+  /** フェーズ：データベース・DDLからのエンティティ情報の読み込み */
+  public static final String PHASE_SOURCE_LOAD = "source.load";
+  /** フェーズ：ドメイン定義シートの解析 */
+  public static final String PHASE_DOMAIN_PARSE = "domain.parse";
+  /** フェーズ：エンティティシートの解析 */
+  public static final String PHASE_SHEET_PARSE = "sheet.parse";
+  /** フェーズ：エンティティクラスの作成 */
+  public static final String PHASE_RENDER = "render";
+  /** フェーズ：エンティティクラスファイルの書き込み */
+  public static final String PHASE_WRITE = "write";
+
+  /** 計測できない場合の値 */
+  public static final long UNAVAILABLE = -1L;
+
+  /** スレッドの情報 */
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+  /** 開始日時 */
+  private final long startTimeMillis = System.currentTimeMillis();
+  /** 開始時刻（ナノ秒） */
+  private final long startNanos = System.nanoTime();
+  /** 計測結果 */
+  private final List<Sample> samples = new ArrayList<Sample>();
+  /** 経過時間（ナノ秒） */
+  private long wallNanos = UNAVAILABLE;
+  /** 正常終了したか */
+  private boolean success = false;
+  /** エンティティ数 */
+  private int entityCount = 0;
+
+  /**
+   * 計測を開始します。<br>
+   * 計測は呼び出したスレッドについて行うため、{@link PhaseTimer#stop()}も同じスレッドで呼び出してください。
+   * 
+   * @param phase フェーズ
+   * @param subject 対象（シート名、クラス名など）
+   * @return タイマー
+   */
+  public PhaseTimer start(String phase, String subject) {
+    return new PhaseTimer(this, phase, subject);
+  }
+
+  /**
+   * 計測結果を記録します。
+   * 
+   * @param sample 計測結果
+   */
+  synchronized void record(Sample sample) {
+    samples.add(sample);
+  }
+
+  /**
+   * 計測を終了します。
+   * 
+   * @param success 正常終了したか
+   * @param entityCount エンティティ数
+   */
+  public synchronized void finish(boolean success, int entityCount) {
+
+    this.wallNanos = System.nanoTime() - startNanos;
+    this.success = success;
+    this.entityCount = entityCount;
+  }
+
+  /**
+   * 計測結果を取得します。
+   * 
+   * @return 計測結果（記録順）
+   */
+  public synchronized List<Sample> getSamples() {
+    return Collections.unmodifiableList(new ArrayList<Sample>(samples));
+  }
+
+  /**
+   * フェーズごとの統計を取得します。
+   * 
+   * @return フェーズごとの統計（最初に記録された順）
+   */
+  public List<PhaseStatistics> getPhaseStatistics() {
+
+    Map<String, List<Sample>> phaseMap = new LinkedHashMap<String, List<Sample>>();
+    for (Sample sample : getSamples()) {
+      List<Sample> list = phaseMap.get(sample.getPhase());
+      if (null == list) {
+        list = new ArrayList<Sample>();
+        phaseMap.put(sample.getPhase(), list);
+      }
+      list.add(sample);
+    }
+
+    List<PhaseStatistics> statistics = new ArrayList<PhaseStatistics>();
+    for (Map.Entry<String, List<Sample>> entry : phaseMap.entrySet()) {
+      statistics.add(PhaseStatistics.of(entry.getKey(), entry.getValue()));
+    }
+    return statistics;
+  }
+
+  /**
+   * 現在のスレッドのCPU時間を取得します。
+   * 
+   * @return CPU時間（ナノ秒）、計測できない場合は{@link #UNAVAILABLE}
+   */
+  static long currentThreadCpuTime() {
+
+    if (!THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()
+        || !THREAD_MX_BEAN.isThreadCpuTimeEnabled()) {
+      return UNAVAILABLE;
+    }
+    return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+  }
+
+  /**
+   * 現在のスレッドが割り当てたメモリ量の累計を取得します。
+   * 
+   * @return メモリ量（バイト）、計測できない場合は{@link #UNAVAILABLE}
+   */
+  static long currentThreadAllocatedBytes() {
+
+    if (!(THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean)) {
+      return UNAVAILABLE;
+    }
+    com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+    if (!bean.isThreadAllocatedMemorySupported() || !bean.isThreadAllocatedMemoryEnabled()) {
+      return UNAVAILABLE;
+    }
+    return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * 開始日時を取得します。
+   * 
+   * @return 開始日時（エポックミリ秒）
+   */
+  public long getStartTimeMillis() {
+    return startTimeMillis;
+  }
+
+  /**
+   * 経過時間を取得します。
+   * 
+   * @return 経過時間（ナノ秒）、終了していない場合は{@link #UNAVAILABLE}
+   */
+  public synchronized long getWallNanos() {
+    return wallNanos;
+  }
+
+  /**
+   * 正常終了したか判定します。
+   * 
+   * @return 正常終了した場合true
+   */
+  public synchronized boolean isSuccess() {
+    return success;
+  }
+
+  /**
+   * エンティティ数を取得します。
+   * 
+   * @return エンティティ数
+   */
+  public synchronized int getEntityCount() {
+    return entityCount;
+  }
+
+  /**
+   * 1回の計測結果を表すクラスです。
+   */
+  public static class Sample {
+
+    /** フェーズ */
+    private final String phase;
+    /** 対象 */
+    private final String subject;
+    /** 経過時間（ナノ秒） */
+    private final long wallNanos;
+    /** CPU時間（ナノ秒） */
+    private final long cpuNanos;
+    /** 割り当てたメモリ量（バイト） */
+    private final long allocatedBytes;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param phase フェーズ
+     * @param subject 対象
+     * @param wallNanos 経過時間（ナノ秒）
+     * @param cpuNanos CPU時間（ナノ秒）
+     * @param allocatedBytes 割り当てたメモリ量（バイト）
+     */
+    public Sample(String phase, String subject, long wallNanos, long cpuNanos, long allocatedBytes) {
+      this.phase = phase;
+      this.subject = subject;
+      this.wallNanos = wallNanos;
+      this.cpuNanos = cpuNanos;
+      this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * フェーズを取得します。
+     * 
+     * @return フェーズ
+     */
+    public String getPhase() {
+      return phase;
+    }
+
+    /**
+     * 対象を取得します。
+     * 
+     * @return 対象
+     */
+    public String getSubject() {
+      return subject;
+    }
+
+    /**
+     * 経過時間を取得します。
+     * 
+     * @return 経過時間（ナノ秒）
+     */
+    public long getWallNanos() {
+      return wallNanos;
+    }
+
+    /**
+     * CPU時間を取得します。
+     * 
+     * @return CPU時間（ナノ秒）、計測できない場合は{@link RunMetrics#UNAVAILABLE}
+     */
+    public long getCpuNanos() {
+      return cpuNanos;
+    }
+
+    /**
+     * 割り当てたメモリ量を取得します。
+     * 
+     * @return 割り当てたメモリ量（バイト）、計測できない場合は{@link RunMetrics#UNAVAILABLE}
+     */
+    public long getAllocatedBytes() {
+      return allocatedBytes;
+    }
+  }
+
+}
@@ -0,0 +1,274 @@
+package com.melip.entitygenerator.output;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.melip.entitygenerator.jfr.EventSpan;
+import com.melip.entitygenerator.jfr.GeneratorEvents;
+import com.melip.entitygenerator.metrics.PhaseTimer;
+import com.melip.entitygenerator.metrics.RunMetrics;
+
+/**
+ * ファイルを非同期に書き込むクラスです。<br>
+ * 書き込みは専用のスレッドで受け付けた順に行うため、呼び出し元がディスクの入出力を待つことはありません。
+ * 書き込み待ちが上限に達した場合のみ、空きができるまで呼び出し元を待たせます。<br>
+ * 既存のファイルと内容が同じ場合（長さ、ハッシュの順に比較）は書き込まず、更新日時を変えません。<br>
+ * 同じディレクトリの一時ファイルに書き込んでから置き換えるため、書き込み中に中断されても書きかけのファイルは残りません。
+ */
+public class AsyncFileWriter implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(AsyncFileWriter.class);
+
+  /** 書き込み中のファイル名のサフィックス */
+  private static final String SUFFIX_TEMP_FILE = ".tmp";
+
+  /** 書き込みスレッド */
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  /** 書き込み待ちの空き */
+  private final Semaphore permits;
+
+  /** 書き込んだファイル数 */
+  private final AtomicInteger writtenCount = new AtomicInteger();
+  /** 内容が同じため書き込まなかったファイル数 */
+  private final AtomicInteger unchangedCount = new AtomicInteger();
+  /** 削除したファイル数 */
+  private final AtomicInteger deletedCount = new AtomicInteger();
+  /** 失敗したファイル数 */
+  private final AtomicInteger failedCount = new AtomicInteger();
+  /** 計測結果の記録先（計測しない場合はnull） */
+  private volatile RunMetrics runMetrics = null;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param queueSize 書き込み待ちの上限
+   */
+  public AsyncFileWriter(int queueSize) {
+    this.permits = new Semaphore(queueSize);
+  }
+
+  /**
+   * ファイルの書き込みを受け付けます。<br>
+   * 内容は配列の先頭から指定した長さまでで、書き込みが終わるまで配列を変更しないでください。
+   * シート名・クラス名・フィールド数は、書き込みのJFRイベントに記録されます。
+   * 
+   * @param file ファイル
+   * @param contents 内容
+   * @param length 内容の長さ
+   * @param sheetName シート名
+   * @param className クラス名
+   * @param fieldCount フィールド数
+   * @throws InterruptedIOException
+   */
+  public void write(final File file, final byte[] contents, final int length,
+      final String sheetName, final String className, final int fieldCount)
+      throws InterruptedIOException {
+
+    submit(new Runnable() {
+      @Override
+      public void run() {
+        long bytes = 0L;
+        EventSpan span = GeneratorEvents.beginWrite();
+        PhaseTimer timer =
+            null == runMetrics ? null : runMetrics.start(RunMetrics.PHASE_WRITE, file.getName());
+        try {
+          if (isSameContents(file, contents, length)) {
+            unchangedCount.incrementAndGet();
+            return;
+          }
+          writeFile(file, contents, length);
+          bytes = length;
+          writtenCount.incrementAndGet();
+        } catch (IOException e) {
+          log.error("出力先ファイル[" + file.getPath() + "]書き込み時にエラーが発生しました。", e);
+          failedCount.incrementAndGet();
+        } finally {
+          if (null != timer) {
+            timer.stop();
+          }
+          span.end(sheetName, className, fieldCount, bytes);
+        }
+      }
+    });
+  }
+
+  /**
+   * ファイルの削除を受け付けます。<br>
+   * 先に受け付けた書き込みの後に削除されます。
+   * 
+   * @param file ファイル
+   * @throws InterruptedIOException
+   */
+  public void delete(final File file) throws InterruptedIOException {
+
+    submit(new Runnable() {
+      @Override
+      public void run() {
+        if (!file.exists()) {
+          return;
+        }
+        if (file.delete()) {
+          log.info("ファイル[" + file.getPath() + "]は生成対象でなくなったため削除しました。");
+          deletedCount.incrementAndGet();
+        } else {
+          log.error("ファイル[" + file.getPath() + "]を削除できません。");
+          failedCount.incrementAndGet();
+        }
+      }
+    });
+  }
+
+  /**
+   * 受け付けた処理の完了を待ち、書き込みスレッドを終了します。
+   * 
+   * @see java.io.Closeable#close()
+   */
+  @Override
+  public void close() throws InterruptedIOException {
+
+    executor.shutdown();
+    try {
+      while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        log.info("ファイルの書き込みの完了を待っています。");
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+  }
+
+  /**
+   * 処理を書き込みスレッドに渡します。<br>
+   * 書き込み待ちが上限に達している場合は、空きができるまで待ちます。
+   * 
+   * @param task 処理
+   * @throws InterruptedIOException
+   */
+  private void submit(final Runnable task) throws InterruptedIOException {
+
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          task.run();
+        } finally {
+          permits.release();
+        }
+      }
+    });
+  }
+
+  /**
+   * 一時ファイルに書き込んでから、ファイルを置き換えます。
+   * 
+   * @param file ファイル
+   * @param contents 内容
+   * @param length 内容の長さ
+   * @throws IOException
+   */
+  private void writeFile(File file, byte[] contents, int length) throws IOException {
+
+    File tempFile = new File(file.getParentFile(), file.getName() + SUFFIX_TEMP_FILE);
+    try {
+      OutputStream out = new FileOutputStream(tempFile);
+      try {
+        out.write(contents, 0, length);
+      } finally {
+        out.close();
+      }
+      java.nio.file.Files.move(tempFile.toPath(), file.toPath(),
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      tempFile.delete();
+      throw e;
+    }
+  }
+
+  /**
+   * 既存のファイルと内容が同じか判定します。<br>
+   * 長さが異なる場合は、ファイルを読み込まずに異なると判定します。
+   * 
+   * @param file ファイル
+   * @param contents 内容
+   * @param length 内容の長さ
+   * @return 内容が同じ場合true、異なる場合またはファイルが存在しない場合false
+   * @throws IOException
+   */
+  private boolean isSameContents(File file, byte[] contents, int length) throws IOException {
+
+    if (!file.isFile() || file.length() != length) {
+      return false;
+    }
+    return Files.hash(file, Hashing.sha256()).equals(
+        Hashing.sha256().hashBytes(contents, 0, length));
+  }
+
+  /**
+   * 計測結果の記録先を設定します。<br>
+   * 設定した場合、書き込みごとに{@link RunMetrics#PHASE_WRITE}を記録します。
+   * 
+   * @param runMetrics 計測結果の記録先
+   */
+  public void setRunMetrics(RunMetrics runMetrics) {
+    this.runMetrics = runMetrics;
+  }
+
+  /**
+   * 書き込んだファイル数を取得します。
+   * 
+   * @return 書き込んだファイル数
+   */
+  public int getWrittenCount() {
+    return writtenCount.get();
+  }
+
+  /**
+   * 内容が同じため書き込まなかったファイル数を取得します。
+   * 
+   * @return 内容が同じため書き込まなかったファイル数
+   */
+  public int getUnchangedCount() {
+    return unchangedCount.get();
+  }
+
+  /**
+   * 削除したファイル数を取得します。
+   * 
+   * @return 削除したファイル数
+   */
+  public int getDeletedCount() {
+    return deletedCount.get();
+  }
+
+  /**
+   * 失敗したファイル数を取得します。
+   * 
+   * @return 失敗したファイル数
+   */
+  public int getFailedCount() {
+    return failedCount.get();
+  }
+
+}
@@ -0,0 +1,32 @@
+package com.melip.entitygenerator.output;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * ファイルの内容を組み立てるバッファです。<br>
+ * {@link ByteArrayOutputStream#toByteArray()}は内容をコピーするため、組み立てた内容は内部の配列のまま
+ * {@link AsyncFileWriter#write(java.io.File, byte[], int, String, String, int)}に渡します。
+ * 渡した後はバッファに書き込まないでください。
+ */
+public class OutputBuffer extends ByteArrayOutputStream {
+
+  /**
+   * コンストラクタ
+   * 
+   * @param size 初期サイズ
+   */
+  public OutputBuffer(int size) {
+    super(size);
+  }
+
+  /**
+   * 内部の配列を取得します。<br>
+   * 有効な内容は先頭から{@link #size()}バイトです。
+   * 
+   * @return 内部の配列
+   */
+  public byte[] getBuffer() {
+    return buf;
+  }
+
+}
@@ -0,0 +1,511 @@
+package com.melip.entitygenerator.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FilePassRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MulBlankRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+
+import com.google.common.io.CountingInputStream;
+
+/**
+ * HSSFイベントモデルでxls形式のテーブル定義書を読み込むリーダーです。<br>
+ * 最初にブック全体の情報（シート定義・共有文字列・書式）だけを読み込んでシートの一覧を作り、
+ * ビジターが読み込むシートについてのみ、シート定義にあるシートの開始位置からレコードを処理します。
+ * 除外するシートのレコードは解析しないため、処理量は読み込むシートの大きさに比例します。
+ * 暗号化されたブックは開始位置から復号できないため、ブックのレコードを先頭から順に処理し、
+ * シートの開始（BOF）をストリーム上の位置でシート定義と対応付けます。
+ */
+public class HssfEventWorkbookReader implements WorkbookReader {
+
+  /** シート定義レコードのシートの種類の位置（ヘッダ4バイト、開始位置4バイト、表示状態1バイトの後） */
+  private static final int BOUND_SHEET_TYPE_OFFSET = 9;
+  /** シートの種類：ワークシート */
+  private static final byte BOUND_SHEET_TYPE_WORKSHEET = 0;
+
+  /** テーブル定義書 */
+  private File excelFile = null;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param excelFile テーブル定義書
+   */
+  public HssfEventWorkbookReader(File excelFile) {
+    this.excelFile = excelFile;
+  }
+
+  /**
+   * @see com.melip.entitygenerator.reader.WorkbookReader#read(com.melip.entitygenerator.reader.SheetVisitor)
+   */
+  @Override
+  public void read(SheetVisitor visitor) throws IOException {
+
+    NPOIFSFileSystem fs = new NPOIFSFileSystem(excelFile, true);
+    try {
+      String workbookName = HSSFWorkbook.getWorkbookDirEntryName(fs.getRoot());
+      RecordListener listener = new RecordListener();
+      HSSFRequest request = new HSSFRequest();
+      request.addListenerForAllRecords(listener.getFormatListener());
+
+      // ブック全体の情報の読み込み
+      processRecords(request, fs.createDocumentInputStream(workbookName));
+      if (listener.isEncrypted()) {
+        CountingInputStream in = new CountingInputStream(fs.createDocumentInputStream(workbookName));
+        listener.setVisitor(visitor, in);
+        processRecords(request, in);
+        return;
+      }
+
+      // 読み込むシートのみ、シートの開始位置から処理する
+      for (BoundSheetRecord boundSheet : listener.getOrderedSheets()) {
+        if (!isWorksheet(boundSheet)) {
+          continue;
+        }
+        String sheetName = boundSheet.getSheetname();
+        SheetRowHandler handler = visitor.beforeSheet(sheetName);
+        if (null == handler) {
+          continue;
+        }
+        handler.startSheet(sheetName);
+        listener.startSheet(sheetName, handler);
+        processRecords(request, openSheet(fs, workbookName, boundSheet));
+        handler.endSheet();
+        visitor.afterSheet(sheetName, handler);
+      }
+    } catch (VisitorIOException e) {
+      throw e.getCause();
+    } finally {
+      fs.close();
+    }
+  }
+
+  /**
+   * シート定義がワークシート（グラフ・マクロのシートなどでない）か判定します。
+   * 
+   * @param boundSheet シート定義
+   * @return ワークシートの場合true
+   */
+  private static boolean isWorksheet(BoundSheetRecord boundSheet) {
+    return BOUND_SHEET_TYPE_WORKSHEET == boundSheet.serialize()[BOUND_SHEET_TYPE_OFFSET];
+  }
+
+  /**
+   * シートの開始位置に移動したストリームを開きます。
+   * 
+   * @param fs ファイルシステム
+   * @param workbookName ブックのストリーム名
+   * @param boundSheet シート定義
+   * @return シートの開始位置に移動したストリーム
+   * @throws IOException
+   */
+  private InputStream openSheet(NPOIFSFileSystem fs, String workbookName,
+      BoundSheetRecord boundSheet) throws IOException {
+
+    InputStream in = fs.createDocumentInputStream(workbookName);
+    try {
+      long skipped = 0;
+      while (skipped < boundSheet.getPositionOfBof()) {
+        long n = in.skip(boundSheet.getPositionOfBof() - skipped);
+        if (n <= 0) {
+          throw new IOException("シート[" + boundSheet.getSheetname() + "]の開始位置が不正です。");
+        }
+        skipped += n;
+      }
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+
+    return in;
+  }
+
+  /**
+   * ストリームのレコードを処理します。<br>
+   * リスナーが処理の終了を通知した時点で処理を終えます。
+   * 
+   * @param request リクエスト
+   * @param in ストリーム
+   * @throws IOException
+   */
+  private void processRecords(HSSFRequest request, InputStream in) throws IOException {
+
+    try {
+      new HSSFEventFactory().processEvents(request, in);
+    } catch (EndOfPartException e) {
+      // 必要な範囲の処理が終了した
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * @see java.io.Closeable#close()
+   */
+  @Override
+  public void close() throws IOException {
+    // 読み込みごとにファイルを開閉するため何もしない
+  }
+
+  /**
+   * HSSFのレコードを行単位にまとめてハンドラに渡すリスナーです。<br>
+   * ビジターが設定されていない場合は、ブック全体の情報またはシート1つの終わりで処理の終了を通知します。
+   * ビジターが設定されている場合は、ブックのレコードを先頭から順に処理し、シートごとにビジターを呼び出します。
+   */
+  private static class RecordListener implements HSSFListener {
+
+    /** ビジター（シートの開始位置から処理する場合はnull） */
+    private SheetVisitor visitor = null;
+    /** 先頭から処理しているブックのストリーム（シートの開始位置から処理する場合はnull） */
+    private CountingInputStream stream = null;
+    /** 数値書式を解決するリスナー */
+    private final FormatTrackingHSSFListener formatListener;
+    /** シート定義 */
+    private final List<BoundSheetRecord> boundSheets = new ArrayList<BoundSheetRecord>();
+    /** ブック内の順に並べたシート定義 */
+    private BoundSheetRecord[] orderedSheets = null;
+    /** 共有文字列テーブル */
+    private SSTRecord sstRecord = null;
+    /** BOF/EOFのネストの深さ */
+    private int depth = 0;
+    /** 処理中のシート名 */
+    private String sheetName = null;
+    /** 処理中のシートのハンドラ */
+    private SheetRowHandler handler = null;
+    /** 処理中の行番号 */
+    private int rowNum = -1;
+    /** 処理中の行のセル */
+    private final List<String> cells = new ArrayList<String>();
+    /** 文字列の計算結果を待っている数式の列番号 */
+    private int pendingFormulaCol = -1;
+    /** ブックが暗号化されているか */
+    private boolean encrypted = false;
+
+    /**
+     * コンストラクタ
+     */
+    public RecordListener() {
+      this.formatListener = new FormatTrackingHSSFListener(this);
+    }
+
+    /**
+     * ブックのレコードを先頭から順に処理するため、ビジターを設定します。
+     * 
+     * @param visitor ビジター
+     * @param stream 先頭から処理するブックのストリーム（読み込んだバイト数でシートを対応付ける）
+     */
+    public void setVisitor(SheetVisitor visitor, CountingInputStream stream) {
+
+      this.visitor = visitor;
+      this.stream = stream;
+      boundSheets.clear();
+      orderedSheets = null;
+      depth = 0;
+    }
+
+    /**
+     * シートの開始位置からの処理を開始します。
+     * 
+     * @param sheetName シート名
+     * @param handler ハンドラ
+     */
+    public void startSheet(String sheetName, SheetRowHandler handler) {
+
+      this.sheetName = sheetName;
+      this.handler = handler;
+      depth = 0;
+      rowNum = -1;
+      cells.clear();
+      pendingFormulaCol = -1;
+    }
+
+    /**
+     * @see org.apache.poi.hssf.eventusermodel.HSSFListener#processRecord(org.apache.poi.hssf.record.Record)
+     */
+    @Override
+    public void processRecord(Record record) {
+
+      switch (record.getSid()) {
+        case BoundSheetRecord.sid:
+          boundSheets.add((BoundSheetRecord) record);
+          break;
+        case SSTRecord.sid:
+          sstRecord = (SSTRecord) record;
+          break;
+        case FilePassRecord.sid:
+          encrypted = true;
+          break;
+        case BOFRecord.sid:
+          depth++;
+          if (null != visitor && 1 == depth
+              && BOFRecord.TYPE_WORKSHEET == ((BOFRecord) record).getType()) {
+            startSheet();
+          }
+          break;
+        case EOFRecord.sid:
+          depth--;
+          if (0 != depth) {
+            break;
+          }
+          if (null == visitor) {
+            // ブック全体の情報、またはシート1つの処理が終了
+            if (null != handler) {
+              flushRow();
+              handler = null;
+              sheetName = null;
+            }
+            throw new EndOfPartException();
+          }
+          if (null != sheetName) {
+            endSheet();
+          }
+          break;
+        default:
+          if (null != handler) {
+            processCellRecord(record);
+          }
+          break;
+      }
+    }
+
+    /**
+     * セルのレコードを処理します。
+     * 
+     * @param record レコード
+     */
+    private void processCellRecord(Record record) {
+
+      switch (record.getSid()) {
+        case LabelSSTRecord.sid:
+          LabelSSTRecord labelSst = (LabelSSTRecord) record;
+          addCell(labelSst.getRow(), labelSst.getColumn(), sstRecord.getString(labelSst.getSSTIndex())
+              .getString());
+          break;
+        case LabelRecord.sid:
+          LabelRecord label = (LabelRecord) record;
+          addCell(label.getRow(), label.getColumn(), label.getValue());
+          break;
+        case NumberRecord.sid:
+          NumberRecord number = (NumberRecord) record;
+          addCell(number.getRow(), number.getColumn(), formatListener.formatNumberDateCell(number));
+          break;
+        case BoolErrRecord.sid:
+          BoolErrRecord boolErr = (BoolErrRecord) record;
+          addCell(boolErr.getRow(), boolErr.getColumn(), boolErr.isBoolean() ? String.valueOf(
+              boolErr.getBooleanValue()).toUpperCase() : StringUtils.EMPTY);
+          break;
+        case FormulaRecord.sid:
+          FormulaRecord formula = (FormulaRecord) record;
+          if (formula.hasCachedResultString()) {
+            // 文字列の計算結果は直後のStringRecordに格納されている
+            addCell(formula.getRow(), formula.getColumn(), StringUtils.EMPTY);
+            pendingFormulaCol = formula.getColumn();
+          } else {
+            addCell(formula.getRow(), formula.getColumn(), formatListener.formatNumberDateCell(formula));
+          }
+          break;
+        case StringRecord.sid:
+          if (-1 != pendingFormulaCol) {
+            cells.set(pendingFormulaCol, ((StringRecord) record).getString());
+            pendingFormulaCol = -1;
+          }
+          break;
+        case BlankRecord.sid:
+          BlankRecord blank = (BlankRecord) record;
+          addCell(blank.getRow(), blank.getColumn(), StringUtils.EMPTY);
+          break;
+        case MulBlankRecord.sid:
+          MulBlankRecord mulBlank = (MulBlankRecord) record;
+          for (int col = mulBlank.getFirstColumn(); col <= mulBlank.getLastColumn(); col++) {
+            addCell(mulBlank.getRow(), col, StringUtils.EMPTY);
+          }
+          break;
+        default:
+          break;
+      }
+    }
+
+    /**
+     * シートの処理を開始します。<br>
+     * シート定義の開始位置とストリームの位置から処理中のシートを特定し、ワークシートでない場合は処理しません。
+     */
+    private void startSheet() {
+
+      BoundSheetRecord boundSheet = findSheet(stream.getCount());
+      if (null == boundSheet || !isWorksheet(boundSheet)) {
+        return;
+      }
+      sheetName = boundSheet.getSheetname();
+      handler = visitor.beforeSheet(sheetName);
+      rowNum = -1;
+      if (null != handler) {
+        handler.startSheet(sheetName);
+      }
+    }
+
+    /**
+     * ストリームの位置にあるシートのシート定義を取得します。<br>
+     * BOFレコードを受け取った時点では、ストリームはBOFレコードの終わりまで読み込んでいるため、
+     * 開始位置が読み込んだバイト数より前にあるシートのうち、最後のシートが該当します。
+     * 
+     * @param position ストリームの読み込んだバイト数
+     * @return シート定義、該当するシートがない場合はnull
+     */
+    private BoundSheetRecord findSheet(long position) {
+
+      BoundSheetRecord found = null;
+      for (BoundSheetRecord boundSheet : getOrderedSheets()) {
+        if (position <= boundSheet.getPositionOfBof()) {
+          break;
+        }
+        found = boundSheet;
+      }
+      return found;
+    }
+
+    /**
+     * シートの処理を終了します。
+     */
+    private void endSheet() {
+
+      if (null != handler) {
+        flushRow();
+        handler.endSheet();
+        try {
+          visitor.afterSheet(sheetName, handler);
+        } catch (IOException e) {
+          throw new VisitorIOException(e);
+        }
+      }
+      sheetName = null;
+      handler = null;
+    }
+
+    /**
+     * セルを追加します。<br>
+     * 行が変わった場合は、処理中の行をハンドラに渡します。
+     * 
+     * @param row 行番号
+     * @param col 列番号
+     * @param value セルの値
+     */
+    private void addCell(int row, int col, String value) {
+
+      if (row != rowNum) {
+        flushRow();
+        rowNum = row;
+      }
+      while (cells.size() <= col) {
+        cells.add(null);
+      }
+      cells.set(col, value);
+    }
+
+    /**
+     * 処理中の行をハンドラに渡します。
+     */
+    private void flushRow() {
+
+      if (-1 != rowNum) {
+        handler.row(rowNum, cells.toArray(new String[cells.size()]));
+      }
+      rowNum = -1;
+      cells.clear();
+      pendingFormulaCol = -1;
+    }
+
+    /**
+     * ブック内の順に並べたシート定義を取得します。
+     * 
+     * @return ブック内の順に並べたシート定義
+     */
+    public BoundSheetRecord[] getOrderedSheets() {
+
+      if (null == orderedSheets) {
+        orderedSheets = BoundSheetRecord.orderByBofPosition(boundSheets);
+      }
+      return orderedSheets;
+    }
+
+    /**
+     * ブックが暗号化されているか判定します。
+     * 
+     * @return 暗号化されている場合true
+     */
+    public boolean isEncrypted() {
+      return encrypted;
+    }
+
+    /**
+     * 数値書式を解決するリスナーを取得します。
+     * 
+     * @return 数値書式を解決するリスナー
+     */
+    public FormatTrackingHSSFListener getFormatListener() {
+      return formatListener;
+    }
+  }
+
+  /**
+   * ビジターで発生した入出力エラーをイベント処理の外へ伝えるための例外です。
+   */
+  private static class VisitorIOException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param cause 入出力エラー
+     */
+    public VisitorIOException(IOException cause) {
+      super(cause);
+    }
+
+    /**
+     * @see java.lang.Throwable#getCause()
+     */
+    @Override
+    public synchronized IOException getCause() {
+      return (IOException) super.getCause();
+    }
+  }
+
+  /**
+   * 必要な範囲のレコードの処理が終了したことをイベント処理の外へ伝えるための例外です。
+   */
+  private static class EndOfPartException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * コンストラクタ
+     */
+    public EndOfPartException() {
+      super(null, null, false, false);
+    }
+  }
+
+}
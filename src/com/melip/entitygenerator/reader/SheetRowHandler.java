@@ -0,0 +1,29 @@
+package com.melip.entitygenerator.reader;
+
+/**
+ * テーブル定義書のシートを1行ずつ受け取るハンドラです。
+ */
+public interface SheetRowHandler {
+
+  /**
+   * シートの読み込み開始時に呼び出されます。
+   * 
+   * @param sheetName シート名
+   */
+  void startSheet(String sheetName);
+
+  /**
+   * 行ごとに呼び出されます。<br>
+   * 行は行番号の昇順で渡され、存在しない行（空行）は渡されません。
+   * 
+   * @param rowNum 行番号（0始まり）
+   * @param cells セルの値（列番号をインデックスとし、値のないセルはnull）
+   */
+  void row(int rowNum, String[] cells);
+
+  /**
+   * シートの読み込み終了時に呼び出されます。
+   */
+  void endSheet();
+
+}
@@ -0,0 +1,28 @@
+package com.melip.entitygenerator.reader;
+
+import java.io.IOException;
+
+/**
+ * テーブル定義書のシートを順に処理するビジターです。
+ */
+public interface SheetVisitor {
+
+  /**
+   * シートの読み込み前に呼び出されます。
+   * 
+   * @param sheetName シート名
+   * @return シートの行を受け取るハンドラ、シートを読み込まない場合はnull
+   */
+  SheetRowHandler beforeSheet(String sheetName);
+
+  /**
+   * シートの読み込み後に呼び出されます。<br>
+   * {@link #beforeSheet(String)}でnullを返したシートでは呼び出されません。
+   * 
+   * @param sheetName シート名
+   * @param handler {@link #beforeSheet(String)}で返したハンドラ
+   * @throws IOException
+   */
+  void afterSheet(String sheetName, SheetRowHandler handler) throws IOException;
+
+}
@@ -0,0 +1,109 @@
+package com.melip.entitygenerator.reader;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+
+/**
+ * ユーザーモデル（{@link WorkbookFactory}）でテーブル定義書を読み込むリーダーです。<br>
+ * ブック全体をメモリに展開します。
+ */
+public class UserModelWorkbookReader implements WorkbookReader {
+
+  /** ブック */
+  private Workbook book = null;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param excelFile テーブル定義書
+   * @throws InvalidFormatException
+   * @throws IOException
+   */
+  public UserModelWorkbookReader(File excelFile) throws InvalidFormatException, IOException {
+    this.book = WorkbookFactory.create(excelFile);
+  }
+
+  /**
+   * @see com.melip.entitygenerator.reader.WorkbookReader#read(com.melip.entitygenerator.reader.SheetVisitor)
+   */
+  @Override
+  public void read(SheetVisitor visitor) throws IOException {
+
+    DataFormatter formatter = new DataFormatter();
+    for (int i = 0; i < book.getNumberOfSheets(); i++) {
+      Sheet sheet = book.getSheetAt(i);
+      SheetRowHandler handler = visitor.beforeSheet(sheet.getSheetName());
+      if (null == handler) {
+        continue;
+      }
+      readSheet(sheet, handler, formatter);
+      visitor.afterSheet(sheet.getSheetName(), handler);
+    }
+  }
+
+  /**
+   * @see java.io.Closeable#close()
+   */
+  @Override
+  public void close() throws IOException {
+    // ユーザーモデルはファイルを保持していないため何もしない
+    book = null;
+  }
+
+  /**
+   * シートを1行ずつハンドラに渡します。
+   * 
+   * @param sheet シート
+   * @param handler ハンドラ
+   * @param formatter フォーマッタ
+   */
+  public static void readSheet(Sheet sheet, SheetRowHandler handler, DataFormatter formatter) {
+
+    handler.startSheet(sheet.getSheetName());
+    for (Row row : sheet) {
+      String[] cells = new String[Math.max(row.getLastCellNum(), 0)];
+      for (Cell cell : row) {
+        cells[cell.getColumnIndex()] = getCellValue(cell, formatter);
+      }
+      handler.row(row.getRowNum(), cells);
+    }
+    handler.endSheet();
+  }
+
+  /**
+   * セルの値を文字列で取得します。<br>
+   * 数式の場合はキャッシュされた計算結果を取得します。
+   * 
+   * @param cell セル
+   * @param formatter フォーマッタ
+   * @return セルの値
+   */
+  private static String getCellValue(Cell cell, DataFormatter formatter) {
+
+    if (Cell.CELL_TYPE_FORMULA != cell.getCellType()) {
+      return formatter.formatCellValue(cell);
+    }
+
+    switch (cell.getCachedFormulaResultType()) {
+      case Cell.CELL_TYPE_STRING:
+        return cell.getStringCellValue();
+      case Cell.CELL_TYPE_NUMERIC:
+        return formatter.formatRawCellContents(cell.getNumericCellValue(), cell.getCellStyle()
+            .getDataFormat(), cell.getCellStyle().getDataFormatString());
+      case Cell.CELL_TYPE_BOOLEAN:
+        return String.valueOf(cell.getBooleanCellValue()).toUpperCase();
+      default:
+        return StringUtils.EMPTY;
+    }
+  }
+
+}
@@ -0,0 +1,20 @@
+package com.melip.entitygenerator.reader;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * テーブル定義書を読み込むリーダーです。
+ */
+public interface WorkbookReader extends Closeable {
+
+  /**
+   * テーブル定義書のシートをブック内の順に読み込み、ビジターに渡します。<br>
+   * 同じリーダーで複数回呼び出すことができます。
+   * 
+   * @param visitor ビジター
+   * @throws IOException
+   */
+  void read(SheetVisitor visitor) throws IOException;
+
+}
@@ -0,0 +1,57 @@
+package com.melip.entitygenerator.reader;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.poi.POIXMLDocument;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+
+/**
+ * テーブル定義書のリーダーを生成するファクトリです。
+ */
+public class WorkbookReaderFactory {
+
+  /**
+   * プライベートコンストラクタ
+   */
+  private WorkbookReaderFactory() {}
+
+  /**
+   * テーブル定義書のリーダーを生成します。<br>
+   * ストリーミングの場合は、xlsxはXSSFイベントモデル、xlsはHSSFイベントモデルで読み込みます。
+   * 
+   * @param excelFile テーブル定義書
+   * @param streaming ストリーミングで読み込む場合true、ユーザーモデルで読み込む場合false
+   * @return テーブル定義書のリーダー
+   * @throws InvalidFormatException
+   * @throws IOException
+   */
+  public static WorkbookReader create(File excelFile, boolean streaming)
+      throws InvalidFormatException, IOException {
+
+    if (!streaming) {
+      return new UserModelWorkbookReader(excelFile);
+    }
+
+    InputStream in = null;
+    try {
+      in = new BufferedInputStream(new FileInputStream(excelFile));
+      if (POIFSFileSystem.hasPOIFSHeader(in)) {
+        return new HssfEventWorkbookReader(excelFile);
+      } else if (POIXMLDocument.hasOOXMLHeader(in)) {
+        return new XssfEventWorkbookReader(excelFile);
+      } else {
+        throw new InvalidFormatException("Excelファイルではありません。");
+      }
+    } finally {
+      if (null != in) {
+        in.close();
+      }
+    }
+  }
+
+}
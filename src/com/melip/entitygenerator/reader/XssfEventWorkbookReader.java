@@ -0,0 +1,217 @@
+package com.melip.entitygenerator.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * XSSFイベントモデルでxlsx形式のテーブル定義書を読み込むリーダーです。<br>
+ * シートのXMLをSAXで1行ずつ処理するため、シート数に関わらずメモリ使用量は一定です。
+ * シートの一覧はworkbook.xmlだけから作成し、シートのパートはビジターが読み込むシートのものだけを展開します。
+ * 共有文字列・スタイルのパートも、最初にシートを読み込むときまで展開しません。
+ */
+public class XssfEventWorkbookReader implements WorkbookReader {
+
+  /** パッケージ */
+  private OPCPackage pkg = null;
+  /** XSSFリーダー */
+  private XSSFReader xssfReader = null;
+  /** 共有文字列テーブル */
+  private ReadOnlySharedStringsTable sharedStrings = null;
+  /** スタイルテーブル */
+  private StylesTable styles = null;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param excelFile テーブル定義書
+   * @throws InvalidFormatException
+   * @throws IOException
+   */
+  public XssfEventWorkbookReader(File excelFile) throws InvalidFormatException, IOException {
+
+    pkg = OPCPackage.open(excelFile, PackageAccess.READ);
+    try {
+      xssfReader = new XSSFReader(pkg);
+    } catch (OpenXML4JException e) {
+      pkg.revert();
+      throw new InvalidFormatException(e.getMessage());
+    }
+  }
+
+  /**
+   * 共有文字列・スタイルのテーブルを読み込んでいない場合は読み込みます。
+   * 
+   * @throws IOException
+   */
+  private void loadSharedTablesIfNeeded() throws IOException {
+
+    if (null != sharedStrings) {
+      return;
+    }
+    try {
+      sharedStrings = new ReadOnlySharedStringsTable(pkg);
+      styles = xssfReader.getStylesTable();
+    } catch (InvalidFormatException e) {
+      throw new IOException(e);
+    } catch (SAXException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * @see com.melip.entitygenerator.reader.WorkbookReader#read(com.melip.entitygenerator.reader.SheetVisitor)
+   */
+  @Override
+  public void read(SheetVisitor visitor) throws IOException {
+
+    XSSFReader.SheetIterator sheets;
+    try {
+      sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+    } catch (InvalidFormatException e) {
+      throw new IOException(e);
+    }
+
+    DataFormatter formatter = new DataFormatter();
+    while (sheets.hasNext()) {
+      // シートのストリームは読み込むまで展開されない
+      InputStream in = sheets.next();
+      try {
+        String sheetName = sheets.getSheetName();
+        SheetRowHandler handler = visitor.beforeSheet(sheetName);
+        if (null == handler) {
+          continue;
+        }
+        loadSharedTablesIfNeeded();
+        handler.startSheet(sheetName);
+        parseSheet(in, new RowCollector(handler), formatter);
+        handler.endSheet();
+        visitor.afterSheet(sheetName, handler);
+      } finally {
+        in.close();
+      }
+    }
+  }
+
+  /**
+   * シートのXMLをSAXで解析します。
+   * 
+   * @param in シートのストリーム
+   * @param contentsHandler シート内容のハンドラ
+   * @param formatter フォーマッタ
+   * @throws IOException
+   */
+  private void parseSheet(InputStream in, SheetContentsHandler contentsHandler,
+      DataFormatter formatter) throws IOException {
+
+    try {
+      SAXParserFactory factory = SAXParserFactory.newInstance();
+      factory.setNamespaceAware(true);
+      XMLReader xmlReader = factory.newSAXParser().getXMLReader();
+      xmlReader.setContentHandler(new XSSFSheetXMLHandler(styles, sharedStrings, contentsHandler,
+          formatter, false));
+      xmlReader.parse(new InputSource(in));
+    } catch (ParserConfigurationException e) {
+      throw new IOException(e);
+    } catch (SAXException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * @see java.io.Closeable#close()
+   */
+  @Override
+  public void close() throws IOException {
+    // 読み取り専用で開いているため、保存せずに閉じる
+    if (null != pkg) {
+      pkg.revert();
+      pkg = null;
+    }
+  }
+
+  /**
+   * XSSFのセルイベントを1行分集めてハンドラに渡すクラスです。
+   */
+  private static class RowCollector implements SheetContentsHandler {
+
+    /** ハンドラ */
+    private final SheetRowHandler handler;
+    /** 処理中の行のセル */
+    private final List<String> cells = new ArrayList<String>();
+
+    /**
+     * コンストラクタ
+     * 
+     * @param handler ハンドラ
+     */
+    public RowCollector(SheetRowHandler handler) {
+      this.handler = handler;
+    }
+
+    /**
+     * @see org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler#startRow(int)
+     */
+    @Override
+    public void startRow(int rowNum) {
+      cells.clear();
+    }
+
+    /**
+     * @see org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler#endRow(int)
+     */
+    @Override
+    public void endRow(int rowNum) {
+      handler.row(rowNum, cells.toArray(new String[cells.size()]));
+    }
+
+    /**
+     * @see org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler#cell(java.lang.String,
+     *      java.lang.String, org.apache.poi.xssf.usermodel.XSSFComment)
+     */
+    @Override
+    public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+
+      // セル参照が省略されている場合は直前のセルの次の列とする
+      int col = cells.size();
+      if (null != cellReference) {
+        col = new CellReference(cellReference).getCol();
+      }
+      while (cells.size() <= col) {
+        cells.add(null);
+      }
+      cells.set(col, formattedValue);
+    }
+
+    /**
+     * @see org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler#headerFooter(java.lang.String,
+     *      boolean, java.lang.String)
+     */
+    @Override
+    public void headerFooter(String text, boolean isHeader, String tagName) {
+      // ヘッダ・フッタは使用しない
+    }
+  }
+
+}
@@ -0,0 +1,68 @@
+package com.melip.entitygenerator.rule;
+
+/**
+ * 除外ルールと対象ルールからシート・フィールドを絞り込むクラスです。<br>
+ * 除外ルールに一致する名前は除外し、対象ルールが設定されている場合はそれに一致しない名前も除外します。
+ */
+public class NameFilter {
+
+  /** 除外ルール */
+  private final NameRuleSet ignoreRules;
+  /** 対象ルール */
+  private final NameRuleSet includeRules;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param ignoreRules 除外ルール
+   * @param includeRules 対象ルール
+   */
+  public NameFilter(NameRuleSet ignoreRules, NameRuleSet includeRules) {
+    this.ignoreRules = ignoreRules;
+    this.includeRules = includeRules;
+  }
+
+  /**
+   * カンマ区切りのルールを解析して作成します。
+   * 
+   * @param ignoreProp カンマ区切りの除外ルール
+   * @param includeProp カンマ区切りの対象ルール
+   * @return 作成したフィルター
+   */
+  public static NameFilter compile(String ignoreProp, String includeProp) {
+    return new NameFilter(NameRuleSet.compile(ignoreProp), NameRuleSet.compile(includeProp));
+  }
+
+  /**
+   * 名前が除外されるか判定します。
+   * 
+   * @param name 名前
+   * @return 除外される場合true、対象の場合false
+   */
+  public boolean isIgnored(String name) {
+
+    if (null != ignoreRules.match(name)) {
+      return true;
+    }
+    return !includeRules.isEmpty() && null == includeRules.match(name);
+  }
+
+  /**
+   * 除外ルールを取得します。
+   * 
+   * @return 除外ルール
+   */
+  public NameRuleSet getIgnoreRules() {
+    return ignoreRules;
+  }
+
+  /**
+   * 対象ルールを取得します。
+   * 
+   * @return 対象ルール
+   */
+  public NameRuleSet getIncludeRules() {
+    return includeRules;
+  }
+
+}
@@ -0,0 +1,146 @@
+package com.melip.entitygenerator.rule;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * シート名・フィールド論理名に対するルールを表すクラスです。<br>
+ * ルールは完全一致する名前、「*」「?」を含むワイルドカード、「regex:」で始まる正規表現のいずれかです。
+ */
+public class NameRule {
+
+  /** 正規表現のプレフィックス */
+  public static final String PREFIX_REGEX = "regex:";
+  /** ワイルドカード（任意の文字列） */
+  private static final char WILDCARD_ANY = '*';
+  /** ワイルドカード（任意の1文字） */
+  private static final char WILDCARD_ONE = '?';
+
+  /**
+   * ルールの種類です。
+   */
+  public enum Type {
+    /** 完全一致 */
+    EXACT,
+    /** ワイルドカード */
+    GLOB,
+    /** 正規表現 */
+    REGEX
+  }
+
+  /** ルール（設定された文字列） */
+  private final String rule;
+  /** ルールの種類 */
+  private final Type type;
+  /** 完全一致の場合は名前、それ以外の場合はnull */
+  private final String name;
+  /** ワイルドカード・正規表現の場合はパターン、完全一致の場合はnull */
+  private final Pattern pattern;
+  /** 一致した回数 */
+  private final AtomicLong matchCount = new AtomicLong();
+
+  /**
+   * コンストラクタ
+   * 
+   * @param rule ルール（設定された文字列）
+   */
+  public NameRule(String rule) {
+
+    this.rule = rule;
+    if (rule.startsWith(PREFIX_REGEX)) {
+      this.type = Type.REGEX;
+      this.name = null;
+      this.pattern = Pattern.compile(rule.substring(PREFIX_REGEX.length()));
+    } else if (0 <= rule.indexOf(WILDCARD_ANY) || 0 <= rule.indexOf(WILDCARD_ONE)) {
+      this.type = Type.GLOB;
+      this.name = null;
+      this.pattern = Pattern.compile(toRegex(rule));
+    } else {
+      this.type = Type.EXACT;
+      this.name = rule;
+      this.pattern = null;
+    }
+  }
+
+  /**
+   * 名前がルールに一致するか判定します。<br>
+   * 一致した回数は数えません。
+   * 
+   * @param target 名前
+   * @return 一致する場合true、一致しない場合false
+   */
+  public boolean matches(String target) {
+    return Type.EXACT == type ? name.equals(target) : pattern.matcher(target).matches();
+  }
+
+  /**
+   * 一致した回数を加算します。
+   */
+  void countMatch() {
+    matchCount.incrementAndGet();
+  }
+
+  /**
+   * ワイルドカードを正規表現に変換します。
+   * 
+   * @param glob ワイルドカードを含む文字列
+   * @return 正規表現
+   */
+  private static String toRegex(String glob) {
+
+    StringBuilder regex = new StringBuilder(glob.length() + 16);
+    int literalStart = 0;
+    for (int i = 0; i < glob.length(); i++) {
+      char c = glob.charAt(i);
+      if (WILDCARD_ANY == c || WILDCARD_ONE == c) {
+        if (literalStart < i) {
+          regex.append(Pattern.quote(glob.substring(literalStart, i)));
+        }
+        regex.append(WILDCARD_ANY == c ? ".*" : ".");
+        literalStart = i + 1;
+      }
+    }
+    if (literalStart < glob.length()) {
+      regex.append(Pattern.quote(glob.substring(literalStart)));
+    }
+
+    return regex.toString();
+  }
+
+  /**
+   * ルール（設定された文字列）を取得します。
+   * 
+   * @return ルール
+   */
+  public String getRule() {
+    return rule;
+  }
+
+  /**
+   * ルールの種類を取得します。
+   * 
+   * @return ルールの種類
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * 完全一致の場合の名前を取得します。
+   * 
+   * @return 名前、完全一致でない場合はnull
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * 一致した回数を取得します。
+   * 
+   * @return 一致した回数
+   */
+  public long getMatchCount() {
+    return matchCount.get();
+  }
+
+}
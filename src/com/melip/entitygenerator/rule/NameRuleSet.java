@@ -0,0 +1,140 @@
+package com.melip.entitygenerator.rule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.melip.entitygenerator.EntityGeneratorUtils;
+
+/**
+ * カンマ区切りで設定されたルールを解析したものです。<br>
+ * 完全一致のルールはハッシュで検索し、ワイルドカード・正規表現のルールは解析時にコンパイルしたパターンで判定します。
+ * パターンでの判定結果は名前ごとに保持するため、同じ名前の判定は2回目以降ハッシュの検索だけで済みます。
+ * 複数のスレッドから同時に使用できます。
+ */
+public class NameRuleSet {
+
+  /** 一致するルールがないことを表す値 */
+  private static final NameRule NO_MATCH = new NameRule(StringUtils.EMPTY);
+
+  /** ルール（設定順） */
+  private final List<NameRule> rules;
+  /** 完全一致のルールの名前ごとのマップ */
+  private final Map<String, NameRule> exactMap = new HashMap<String, NameRule>();
+  /** ワイルドカード・正規表現のルール（設定順） */
+  private final List<NameRule> patternRules = new ArrayList<NameRule>();
+  /** ワイルドカード・正規表現のルールの名前ごとの判定結果 */
+  private final ConcurrentMap<String, NameRule> patternResultMap =
+      new ConcurrentHashMap<String, NameRule>();
+
+  /**
+   * コンストラクタ
+   * 
+   * @param rules ルール（設定順）
+   */
+  public NameRuleSet(List<NameRule> rules) {
+
+    this.rules = Collections.unmodifiableList(new ArrayList<NameRule>(rules));
+    for (NameRule rule : rules) {
+      if (NameRule.Type.EXACT == rule.getType()) {
+        if (!exactMap.containsKey(rule.getName())) {
+          exactMap.put(rule.getName(), rule);
+        }
+      } else {
+        patternRules.add(rule);
+      }
+    }
+  }
+
+  /**
+   * カンマ区切りのルールを解析します。
+   * 
+   * @param prop カンマ区切りのルール
+   * @return 解析したルール
+   * @throws java.util.regex.PatternSyntaxException 正規表現が不正な場合
+   */
+  public static NameRuleSet compile(String prop) {
+
+    List<NameRule> rules = new ArrayList<NameRule>();
+    if (StringUtils.isNotEmpty(prop)) {
+      for (String rule : prop.split(EntityGeneratorUtils.SEPARATOR_ITEM)) {
+        if (StringUtils.isNotEmpty(rule)) {
+          rules.add(new NameRule(rule));
+        }
+      }
+    }
+
+    return new NameRuleSet(rules);
+  }
+
+  /**
+   * 名前に一致するルールを取得し、一致した回数を加算します。<br>
+   * 完全一致のルールを優先し、ワイルドカード・正規表現のルールは設定順に最初に一致したものを返します。
+   * 
+   * @param name 名前
+   * @return 一致したルール、一致するルールがない場合はnull
+   */
+  public NameRule match(String name) {
+
+    if (null == name) {
+      return null;
+    }
+
+    NameRule rule = exactMap.get(name);
+    if (null == rule && !patternRules.isEmpty()) {
+      rule = patternResultMap.get(name);
+      if (null == rule) {
+        rule = matchPattern(name);
+        patternResultMap.putIfAbsent(name, rule);
+      }
+    }
+    if (null == rule || NO_MATCH == rule) {
+      return null;
+    }
+
+    rule.countMatch();
+    return rule;
+  }
+
+  /**
+   * 名前に一致するワイルドカード・正規表現のルールを検索します。
+   * 
+   * @param name 名前
+   * @return 一致したルール、一致するルールがない場合は{@link #NO_MATCH}
+   */
+  private NameRule matchPattern(String name) {
+
+    for (NameRule rule : patternRules) {
+      if (rule.matches(name)) {
+        return rule;
+      }
+    }
+
+    return NO_MATCH;
+  }
+
+  /**
+   * ルールが設定されていないか判定します。
+   * 
+   * @return ルールが設定されていない場合true、設定されている場合false
+   */
+  public boolean isEmpty() {
+    return rules.isEmpty();
+  }
+
+  /**
+   * ルール（設定順）を取得します。
+   * 
+   * @return ルール
+   */
+  public List<NameRule> getRules() {
+    return rules;
+  }
+
+}
@@ -0,0 +1,396 @@
+package com.melip.entitygenerator.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.melip.entitygenerator.entity.Domain;
+import com.melip.entitygenerator.entity.Entity;
+import com.melip.entitygenerator.entity.Field;
+import com.melip.entitygenerator.entity.ParsedWorkbook;
+
+/**
+ * 解析済みのテーブル定義書をバイナリ形式で保存するスナップショットです。<br>
+ * テーブル定義書の内容のハッシュと解析結果に影響する設定をキーとして保存し、キーが一致する場合はファイルをメモリにマップして読み込むため、
+ * テーブル定義書を開かずにエンティティクラスを生成できます。<br>
+ * 形式は以下のとおりです（数値はビッグエンディアン、文字列は文字列表の番号で、nullは-1）。
+ * 
+ * <pre>
+ * int     マジックナンバー（{@value #MAGIC}）
+ * int     形式のバージョン（{@value #VERSION}）
+ * string  キー（バイト数のint + UTF-8のバイト列）
+ * int     文字列表の件数、続けて文字列（バイト数のint + UTF-8のバイト列）
+ * int     ドメインの件数、続けてドメインごとに ドメイン名・データ型・Javaの型
+ * int     エンティティの件数、続けてエンティティごとに
+ *           シート名・論理名・物理名・フィールドの件数、
+ *           続けてフィールドごとに 論理名・物理名・データ型・デフォルト値・フィールドタイプ
+ * </pre>
+ */
+public class ModelSnapshot {
+
+  /** スナップショットのファイル名 */
+  public static final String FILE_NAME = ".entitygenerator.snapshot";
+  /** マジックナンバー（MESN） */
+  public static final int MAGIC = 0x4D45534E;
+  /** 形式のバージョン */
+  public static final int VERSION = 1;
+
+  /** 書き込み中のファイル名のサフィックス */
+  private static final String SUFFIX_TEMP_FILE = ".tmp";
+  /** nullを表す文字列表の番号 */
+  private static final int NULL_INDEX = -1;
+  /** 文字列の最小のバイト数（バイト数のint） */
+  private static final int BYTES_STRING = 4;
+  /** ドメインのバイト数（文字列表の番号3つ） */
+  private static final int BYTES_DOMAIN = 12;
+  /** エンティティの最小のバイト数（文字列表の番号3つとフィールドの件数） */
+  private static final int BYTES_ENTITY = 16;
+  /** フィールドのバイト数（文字列表の番号5つ） */
+  private static final int BYTES_FIELD = 20;
+
+  /** スナップショットのファイル */
+  private final File file;
+  /** キー */
+  private final String key;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param dir スナップショットを保存するディレクトリ（エンティティクラスの出力先とは別のディレクトリ）
+   * @param key キー
+   */
+  public ModelSnapshot(File dir, String key) {
+    this.file = new File(dir, FILE_NAME);
+    this.key = key;
+  }
+
+  /**
+   * スナップショットを読み込みます。<br>
+   * ヘッダのキーを確認してから、ファイル全体をメモリにマップして読み込みます。
+   * 
+   * @return 解析済みのテーブル定義書、スナップショットが存在しないかキーが一致しない場合はnull
+   * @throws IOException スナップショットが破損している場合
+   */
+  public ParsedWorkbook read() throws IOException {
+
+    if (!file.isFile() || !key.equals(readKey())) {
+      return null;
+    }
+
+    FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    try {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+      return decode(buffer);
+    } catch (BufferUnderflowException e) {
+      throw new IOException(getCorruptedMessage(), e);
+    } catch (IndexOutOfBoundsException e) {
+      throw new IOException(getCorruptedMessage(), e);
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * スナップショットを保存します。<br>
+   * 一時ファイルに書き込んでから置き換えるため、書き込み中に中断されても不完全なスナップショットは残りません。
+   * 
+   * @param parsedWorkbook 解析済みのテーブル定義書
+   * @throws IOException
+   */
+  public void write(ParsedWorkbook parsedWorkbook) throws IOException {
+
+    StringTable table = new StringTable();
+    Map<String, String> domainMap = parsedWorkbook.getDomain().getDomainMap();
+    for (Map.Entry<String, String> e : domainMap.entrySet()) {
+      table.add(e.getKey());
+      table.add(e.getValue());
+      table.add(parsedWorkbook.getDomain().getJavaType(e.getKey()));
+    }
+    for (Map.Entry<String, Entity> e : parsedWorkbook.getEntityMap().entrySet()) {
+      table.add(e.getKey());
+      table.add(e.getValue().getLogicalName());
+      table.add(e.getValue().getPhysicalName());
+      for (Field field : e.getValue().getFieldList()) {
+        table.add(field.getLogicalName());
+        table.add(field.getPhysicalName());
+        table.add(field.getDataType());
+        table.add(field.getDefaultValue());
+        table.add(field.getFieldType());
+      }
+    }
+
+    file.getParentFile().mkdirs();
+    File tempFile = new File(file.getParentFile(), FILE_NAME + SUFFIX_TEMP_FILE);
+    DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      writeString(out, key);
+      out.writeInt(table.getStrings().size());
+      for (String s : table.getStrings()) {
+        writeString(out, s);
+      }
+
+      out.writeInt(domainMap.size());
+      for (Map.Entry<String, String> e : domainMap.entrySet()) {
+        out.writeInt(table.indexOf(e.getKey()));
+        out.writeInt(table.indexOf(e.getValue()));
+        out.writeInt(table.indexOf(parsedWorkbook.getDomain().getJavaType(e.getKey())));
+      }
+
+      out.writeInt(parsedWorkbook.getEntityMap().size());
+      for (Map.Entry<String, Entity> e : parsedWorkbook.getEntityMap().entrySet()) {
+        Entity entity = e.getValue();
+        out.writeInt(table.indexOf(e.getKey()));
+        out.writeInt(table.indexOf(entity.getLogicalName()));
+        out.writeInt(table.indexOf(entity.getPhysicalName()));
+        out.writeInt(entity.getFieldList().size());
+        for (Field field : entity.getFieldList()) {
+          out.writeInt(table.indexOf(field.getLogicalName()));
+          out.writeInt(table.indexOf(field.getPhysicalName()));
+          out.writeInt(table.indexOf(field.getDataType()));
+          out.writeInt(table.indexOf(field.getDefaultValue()));
+          out.writeInt(table.indexOf(field.getFieldType()));
+        }
+      }
+    } finally {
+      out.close();
+    }
+
+    Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * ヘッダのキーを読み込みます。
+   * 
+   * @return キー、スナップショットの形式が異なる場合はnull
+   * @throws IOException
+   */
+  private String readKey() throws IOException {
+
+    DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    try {
+      if (MAGIC != in.readInt() || VERSION != in.readInt()) {
+        return null;
+      }
+      int length = in.readInt();
+      if (length < 0 || file.length() < length) {
+        return null;
+      }
+      byte[] bytes = new byte[length];
+      in.readFully(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    } catch (EOFException e) {
+      return null;
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * メモリにマップしたスナップショットから解析済みのテーブル定義書を復元します。<br>
+   * 件数・バイト数は残りのバイト数で足りるか確認してから領域を確保するため、破損したスナップショットでも大きな配列は確保しません。
+   * 
+   * @param buffer スナップショット
+   * @return 解析済みのテーブル定義書
+   * @throws IOException スナップショットが破損している場合
+   */
+  private ParsedWorkbook decode(ByteBuffer buffer) throws IOException {
+
+    buffer.getInt();
+    buffer.getInt();
+    readString(buffer);
+    String[] strings = new String[readCount(buffer, BYTES_STRING)];
+    for (int i = 0; i < strings.length; i++) {
+      strings[i] = readString(buffer);
+    }
+
+    Map<String, String> domainMap = new HashMap<String, String>();
+    Map<String, String> javaTypeMap = new HashMap<String, String>();
+    int domainCount = readCount(buffer, BYTES_DOMAIN);
+    for (int i = 0; i < domainCount; i++) {
+      String domainName = lookup(strings, buffer.getInt());
+      domainMap.put(domainName, lookup(strings, buffer.getInt()));
+      String javaType = lookup(strings, buffer.getInt());
+      if (null != javaType) {
+        javaTypeMap.put(domainName, javaType);
+      }
+    }
+    Domain domain = new Domain();
+    domain.setDomainMap(domainMap);
+    domain.setJavaTypeMap(javaTypeMap);
+
+    ParsedWorkbook parsedWorkbook = new ParsedWorkbook(domain);
+    int entityCount = readCount(buffer, BYTES_ENTITY);
+    for (int i = 0; i < entityCount; i++) {
+      String sheetName = lookup(strings, buffer.getInt());
+      Entity entity = new Entity();
+      entity.setLogicalName(lookup(strings, buffer.getInt()));
+      entity.setPhysicalName(lookup(strings, buffer.getInt()));
+      int fieldCount = readCount(buffer, BYTES_FIELD);
+      List<Field> fieldList = new ArrayList<Field>(fieldCount);
+      for (int j = 0; j < fieldCount; j++) {
+        Field field = new Field();
+        field.setLogicalName(lookup(strings, buffer.getInt()));
+        field.setPhysicalName(lookup(strings, buffer.getInt()));
+        field.setDataType(lookup(strings, buffer.getInt()));
+        field.setDefaultValue(lookup(strings, buffer.getInt()));
+        field.setFieldType(lookup(strings, buffer.getInt()));
+        fieldList.add(field);
+      }
+      entity.setFieldList(fieldList);
+      parsedWorkbook.addEntity(sheetName, entity);
+    }
+
+    return parsedWorkbook;
+  }
+
+  /**
+   * 文字列表から文字列を取得します。
+   * 
+   * @param strings 文字列表
+   * @param index 文字列表の番号
+   * @return 文字列、番号が{@link #NULL_INDEX}の場合はnull
+   */
+  private static String lookup(String[] strings, int index) {
+    return NULL_INDEX == index ? null : strings[index];
+  }
+
+  /**
+   * 文字列を書き込みます。
+   * 
+   * @param out 出力先
+   * @param s 文字列
+   * @throws IOException
+   */
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * 文字列を読み込みます。
+   * 
+   * @param buffer スナップショット
+   * @return 文字列
+   * @throws IOException バイト数が不正な場合
+   */
+  private String readString(ByteBuffer buffer) throws IOException {
+
+    byte[] bytes = new byte[readCount(buffer, 1)];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * 件数を読み込みます。
+   * 
+   * @param buffer スナップショット
+   * @param bytesPerItem 1件あたりの最小のバイト数
+   * @return 件数
+   * @throws IOException 件数が負か、残りのバイト数で足りない場合
+   */
+  private int readCount(ByteBuffer buffer, int bytesPerItem) throws IOException {
+
+    int count = buffer.getInt();
+    if (count < 0 || buffer.remaining() / bytesPerItem < count) {
+      throw new IOException(getCorruptedMessage() + "件数[" + count + "] 残りのバイト数["
+          + buffer.remaining() + "]");
+    }
+    return count;
+  }
+
+  /**
+   * スナップショットが破損している場合のメッセージを取得します。
+   * 
+   * @return メッセージ
+   */
+  private String getCorruptedMessage() {
+    return "スナップショット[" + file.getPath() + "]が破損しています。";
+  }
+
+  /**
+   * スナップショットのファイルを取得します。
+   * 
+   * @return スナップショットのファイル
+   */
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * キーを取得します。
+   * 
+   * @return キー
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * スナップショットに書き込む文字列表です。<br>
+   * 同じ文字列は一度だけ書き込みます。
+   */
+  private static class StringTable {
+
+    /** 文字列（番号の順） */
+    private final List<String> strings = new ArrayList<String>();
+    /** 文字列ごとの番号 */
+    private final Map<String, Integer> indexMap = new HashMap<String, Integer>();
+
+    /**
+     * 文字列を追加します。
+     * 
+     * @param s 文字列（nullの場合は追加しない）
+     */
+    public void add(String s) {
+
+      if (null != s && !indexMap.containsKey(s)) {
+        indexMap.put(s, strings.size());
+        strings.add(s);
+      }
+    }
+
+    /**
+     * 文字列の番号を取得します。
+     * 
+     * @param s 文字列
+     * @return 文字列の番号、nullの場合は{@link ModelSnapshot#NULL_INDEX}
+     */
+    public int indexOf(String s) {
+      return null == s ? NULL_INDEX : indexMap.get(s);
+    }
+
+    /**
+     * 文字列を番号の順に取得します。
+     * 
+     * @return 文字列
+     */
+    public List<String> getStrings() {
+      return strings;
+    }
+  }
+
+}
@@ -0,0 +1,107 @@
+package com.melip.entitygenerator.template;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 解析済みのテンプレートを表すクラスです。<br>
+ * テンプレート文字列を固定文字列と変数（${XXX}）の並びに分解して保持し、変数の値を埋め込んだ文字列を作成します。
+ * 不変なため、複数のスレッドから同時に使用できます。
+ */
+public class CompiledTemplate {
+
+  /** 変数の開始文字列 */
+  private static final String VAR_START = "${";
+  /** 変数の終了文字列 */
+  private static final String VAR_END = "}";
+
+  /** テンプレート文字列 */
+  private final String source;
+  /** 固定文字列（変数の前後。変数の数より1つ多い） */
+  private final String[] literals;
+  /** 変数 */
+  private final String[] variables;
+
+  /**
+   * コンストラクタ
+   * 
+   * @param source テンプレート文字列
+   */
+  public CompiledTemplate(String source) {
+
+    this.source = source;
+
+    List<String> literalList = new ArrayList<String>();
+    List<String> variableList = new ArrayList<String>();
+    int pos = 0;
+    int start = source.indexOf(VAR_START);
+    while (start != -1) {
+      int end = source.indexOf(VAR_END, start + VAR_START.length());
+      if (end == -1) {
+        break;
+      }
+      literalList.add(source.substring(pos, start));
+      variableList.add(source.substring(start, end + VAR_END.length()));
+      pos = end + VAR_END.length();
+      start = source.indexOf(VAR_START, pos);
+    }
+    literalList.add(source.substring(pos));
+
+    this.literals = literalList.toArray(new String[literalList.size()]);
+    this.variables = variableList.toArray(new String[variableList.size()]);
+  }
+
+  /**
+   * 変数の値を埋め込んだ文字列を出力先に書き込みます。<br>
+   * 解決できない変数は、そのまま残ります。
+   * 
+   * @param out 出力先
+   * @param resolver 変数の値の解決
+   * @throws IOException
+   */
+  public void render(Appendable out, final VariableResolver resolver) throws IOException {
+
+    render(out, new VariableWriter() {
+      @Override
+      public boolean write(String variable, Appendable out) throws IOException {
+        String value = resolver.resolve(variable);
+        if (null == value) {
+          return false;
+        }
+        out.append(value);
+        return true;
+      }
+    });
+  }
+
+  /**
+   * 変数の値を埋め込んだ文字列を出力先に書き込みます。<br>
+   * 固定文字列と変数の値を順に出力先へ書き込むため、全体の文字列は作成されません。
+   * 解決できない変数は、そのまま残ります。
+   * 
+   * @param out 出力先
+   * @param writer 変数の値の書き込み
+   * @throws IOException
+   */
+  public void render(Appendable out, VariableWriter writer) throws IOException {
+
+    for (int i = 0; i < variables.length; i++) {
+      out.append(literals[i]);
+      if (!writer.write(variables[i], out)) {
+        out.append(variables[i]);
+      }
+    }
+    out.append(literals[variables.length]);
+  }
+
+  /**
+   * テンプレート文字列を取得します。
+   * 
+   * @return テンプレート文字列
+   */
+  public String getSource() {
+    return source;
+  }
+
+}
@@ -1,6 +1,8 @@
 package com.melip.entitygenerator.template;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.melip.entitygenerator.entity.Field;
 
@@ -48,17 +50,22 @@ public class ConstantsTemplate extends Template {
   }
 
   /**
-   * @see com.melip.entitygenerator.template.Template#makeString()
+   * @see com.melip.entitygenerator.template.Template#render(java.lang.Appendable)
    */
   @Override
-  public String makeString() throws IOException {
-
-    StringBuilder sb = new StringBuilder(readTemplate());
-    replaceVariable(sb, VAR_FIELD_LOGICAL_NAME, getField().getLogicalName());
-    replaceVariable(sb, VAR_FIELD_PHYSICAL_NAME, getField().getPhysicalName());
-    replaceVariable(sb, VAR_FIELD_CAMEL_CASE, getField().getCamelCase());
-
-    return sb.toString();
+  public void render(Appendable out) throws IOException {
+
+    final Map<String, String> values = new HashMap<String, String>();
+    values.put(VAR_FIELD_LOGICAL_NAME, getField().getLogicalName());
+    values.put(VAR_FIELD_PHYSICAL_NAME, getField().getPhysicalName());
+    values.put(VAR_FIELD_CAMEL_CASE, getField().getCamelCase());
+
+    getCompiledTemplate().render(out, new VariableResolver() {
+      @Override
+      public String resolve(String variable) {
+        return values.get(variable);
+      }
+    });
   }
 
   /**
@@ -65,33 +65,41 @@ public class EntityTemplate extends Template {
   }
 
   /**
-   * @see com.melip.entitygenerator.template.Template#makeString()
+   * @see com.melip.entitygenerator.template.Template#render(java.lang.Appendable)
    */
   @Override
-  public String makeString() throws IOException {
-
-    StringBuilder sb = new StringBuilder(readTemplate());
-    replaceVariable(sb, VAR_PACKAGE_NAME, getPackageName());
-    replaceVariable(sb, VAR_PACKAGE_ENTITY_LOGICAL_NAME, getEntity().getLogicalName());
-    replaceVariable(sb, VAR_PACKAGE_CLASS_NAME, getEntity().getClassName());
-    replaceVariable(sb, VAR_PACKAGE_PARENT_CLASS_NAME, getParentClassName());
-
-    StringBuilder constantsBuilder = new StringBuilder();
-    StringBuilder fieldBuilder = new StringBuilder();
-    StringBuilder getterSetterBuilder = new StringBuilder();
-    for (Field field : getEntity().getFieldList()) {
-      Template constantsTemplate = new ConstantsTemplate(field);
-      constantsBuilder.append(constantsTemplate.makeString());
-      Template fieldTemplate = new FieldTemplate(field);
-      fieldBuilder.append(fieldTemplate.makeString());
-      Template getterSetterTemplate = new GetterSetterTemplate(field);
-      getterSetterBuilder.append(getterSetterTemplate.makeString());
-    }
-    replaceVariable(sb, VAR_PACKAGE_CONSTANTS_DEFINITION, constantsBuilder.toString());
-    replaceVariable(sb, VAR_PACKAGE_FIELD_DEFINITION, fieldBuilder.toString());
-    replaceVariable(sb, VAR_PACKAGE_GETTER_SETTER_DEFINITION, getterSetterBuilder.toString());
-
-    return sb.toString();
+  public void render(Appendable out) throws IOException {
+
+    getCompiledTemplate().render(out, new VariableWriter() {
+      @Override
+      public boolean write(String variable, Appendable out) throws IOException {
+
+        if (VAR_PACKAGE_NAME.equals(variable)) {
+          out.append(getPackageName());
+        } else if (VAR_PACKAGE_ENTITY_LOGICAL_NAME.equals(variable)) {
+          out.append(getEntity().getLogicalName());
+        } else if (VAR_PACKAGE_CLASS_NAME.equals(variable)) {
+          out.append(getEntity().getClassName());
+        } else if (VAR_PACKAGE_PARENT_CLASS_NAME.equals(variable)) {
+          out.append(getParentClassName());
+        } else if (VAR_PACKAGE_CONSTANTS_DEFINITION.equals(variable)) {
+          for (Field field : getEntity().getFieldList()) {
+            new ConstantsTemplate(field).render(out);
+          }
+        } else if (VAR_PACKAGE_FIELD_DEFINITION.equals(variable)) {
+          for (Field field : getEntity().getFieldList()) {
+            new FieldTemplate(field).render(out);
+          }
+        } else if (VAR_PACKAGE_GETTER_SETTER_DEFINITION.equals(variable)) {
+          for (Field field : getEntity().getFieldList()) {
+            new GetterSetterTemplate(field).render(out);
+          }
+        } else {
+          return false;
+        }
+        return true;
+      }
+    });
   }
 
   /**
@@ -1,6 +1,8 @@
 package com.melip.entitygenerator.template;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.melip.entitygenerator.entity.Field;
 
@@ -49,18 +51,23 @@ public class GetterSetterTemplate extends Template {
   }
 
   /**
-   * @see com.melip.entitygenerator.template.Template#makeString()
+   * @see com.melip.entitygenerator.template.Template#render(java.lang.Appendable)
    */
   @Override
-  public String makeString() throws IOException {
+  public void render(Appendable out) throws IOException {
 
-    StringBuilder sb = new StringBuilder(readTemplate());
-    replaceVariable(sb, VAR_FIELD_LOGICAL_NAME, getField().getLogicalName());
-    replaceVariable(sb, VAR_FIELD_TYPE, getField().getFieldType());
-    replaceVariable(sb, VAR_FIELD_PASCAL_CASE, getField().getPascalCase());
-    replaceVariable(sb, VAR_FIELD_CAMEL_CASE, getField().getCamelCase());
+    final Map<String, String> values = new HashMap<String, String>();
+    values.put(VAR_FIELD_LOGICAL_NAME, getField().getLogicalName());
+    values.put(VAR_FIELD_TYPE, getField().getFieldType());
+    values.put(VAR_FIELD_PASCAL_CASE, getField().getPascalCase());
+    values.put(VAR_FIELD_CAMEL_CASE, getField().getCamelCase());
 
-    return sb.toString();
+    getCompiledTemplate().render(out, new VariableResolver() {
+      @Override
+      public String resolve(String variable) {
+        return values.get(variable);
+      }
+    });
   }
 
   /**
@@ -59,7 +59,19 @@ public abstract class Template {
   }
 
   /**
-   * テンプレート内の変数を指定の文字列で置き換えます。
+   * 解析済みのテンプレートを取得します。<br>
+   * テンプレートファイルは{@link TemplateCache}によりプロセス内で一度だけ読み込まれます。
+   * 
+   * @return 解析済みのテンプレート
+   * @throws IOException
+   */
+  public CompiledTemplate getCompiledTemplate() throws IOException {
+    return TemplateCache.getInstance().get(this);
+  }
+
+  /**
+   * テンプレート内の変数を指定の文字列で置き換えます。<br>
+   * 先頭から一度だけ走査するため、置き換え後の文字列に変数が含まれていても再度置き換えられることはありません。
    * 
    * @param template テンプレート
    * @param varName 変数名
@@ -68,10 +80,20 @@ public abstract class Template {
   public void replaceVariable(StringBuilder template, String varName, String replaceVal) {
 
     int index = template.indexOf(varName);
+    if (index == -1) {
+      return;
+    }
+
+    StringBuilder sb = new StringBuilder(template.length() + replaceVal.length());
+    int pos = 0;
     while (index != -1) {
-      template.replace(index, index + varName.length(), replaceVal);
-      index = template.indexOf(varName);
+      sb.append(template, pos, index).append(replaceVal);
+      pos = index + varName.length();
+      index = template.indexOf(varName, pos);
     }
+    sb.append(template, pos, template.length());
+    template.setLength(0);
+    template.append(sb);
   }
 
   /**
@@ -81,11 +103,26 @@ public abstract class Template {
    */
   protected abstract String getTemplateFilePath();
 
+  /**
+   * テンプレートから作成した文字列を出力先に書き込みます。
+   * 
+   * @param out 出力先
+   * @throws IOException
+   */
+  public abstract void render(Appendable out) throws IOException;
+
   /**
    * テンプレートから文字列を作成します。
    * 
    * @return テンプレートから作成された文字列
+   * @throws IOException
    */
-  public abstract String makeString() throws IOException;
+  public String makeString() throws IOException {
+
+    StringBuilder sb = new StringBuilder();
+    render(sb);
+
+    return sb.toString();
+  }
 
 }
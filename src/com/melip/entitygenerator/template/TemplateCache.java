@@ -0,0 +1,185 @@
+package com.melip.entitygenerator.template;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 解析済みのテンプレートをプロセス全体で保持するキャッシュです。<br>
+ * テンプレートファイルは最初に使用されたときに一度だけ読み込まれ、以降はメモリ上の解析結果が使われます。
+ * 更新日時の確認を有効にした場合は、テンプレートファイルが更新されていれば読み込み直します。
+ */
+public class TemplateCache {
+
+  private static final Logger log = LoggerFactory.getLogger(TemplateCache.class);
+
+  /** ファイルのプロトコル */
+  private static final String PROTOCOL_FILE = "file";
+  /** 更新日時が取得できない場合の値 */
+  private static final long UNKNOWN_LAST_MODIFIED = 0L;
+
+  /** インスタンス */
+  private static final TemplateCache INSTANCE = new TemplateCache();
+
+  /** テンプレートファイルのパスごとのキャッシュ */
+  private final ConcurrentMap<String, Entry> entryMap = new ConcurrentHashMap<String, Entry>();
+  /** 更新日時を確認するか */
+  private volatile boolean checkModified = false;
+
+  /**
+   * プライベートコンストラクタ
+   */
+  private TemplateCache() {}
+
+  /**
+   * インスタンスを取得します。
+   * 
+   * @return インスタンス
+   */
+  public static TemplateCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * 解析済みのテンプレートを取得します。<br>
+   * キャッシュにない場合は、テンプレートファイルを読み込んで解析します。
+   * 
+   * @param template テンプレート
+   * @return 解析済みのテンプレート
+   * @throws IOException
+   */
+  public CompiledTemplate get(Template template) throws IOException {
+
+    String path = template.getTemplateFilePath();
+    Entry entry = entryMap.get(path);
+    if (null == entry) {
+      entry = load(template);
+      entryMap.put(path, entry);
+    }
+
+    return entry.getCompiledTemplate();
+  }
+
+  /**
+   * 更新されたテンプレートファイルのキャッシュを破棄します。<br>
+   * 更新日時を確認しない場合は何もしません。
+   */
+  public void invalidateModified() {
+
+    if (!isCheckModified()) {
+      return;
+    }
+    for (Map.Entry<String, Entry> e : entryMap.entrySet()) {
+      if (e.getValue().getLastModified() != getLastModified(e.getKey())) {
+        log.info("テンプレートファイル[" + e.getKey() + "]が更新されたため、読み込み直します。");
+        entryMap.remove(e.getKey(), e.getValue());
+      }
+    }
+  }
+
+  /**
+   * キャッシュを全て破棄します。
+   */
+  public void clear() {
+    entryMap.clear();
+  }
+
+  /**
+   * テンプレートファイルを読み込んで解析します。
+   * 
+   * @param template テンプレート
+   * @return キャッシュ
+   * @throws IOException
+   */
+  private Entry load(Template template) throws IOException {
+
+    // 読み込み中に更新された場合に読み込み直せるよう、更新日時は先に取得する
+    long lastModified = getLastModified(template.getTemplateFilePath());
+    return new Entry(new CompiledTemplate(template.readTemplate()), lastModified);
+  }
+
+  /**
+   * テンプレートファイルの更新日時を取得します。
+   * 
+   * @param path テンプレートファイルのパス
+   * @return 更新日時、ファイルシステム上にない場合は0
+   */
+  private long getLastModified(String path) {
+
+    URL url = getClass().getClassLoader().getResource(path);
+    if (null == url || !PROTOCOL_FILE.equals(url.getProtocol())) {
+      return UNKNOWN_LAST_MODIFIED;
+    }
+    try {
+      return new File(url.toURI()).lastModified();
+    } catch (URISyntaxException e) {
+      return UNKNOWN_LAST_MODIFIED;
+    }
+  }
+
+  /**
+   * 更新日時を確認するか判定します。
+   * 
+   * @return 更新日時を確認する場合true、確認しない場合false
+   */
+  public boolean isCheckModified() {
+    return checkModified;
+  }
+
+  /**
+   * 更新日時を確認するか設定します。
+   * 
+   * @param checkModified 更新日時を確認する場合true、確認しない場合false
+   */
+  public void setCheckModified(boolean checkModified) {
+    this.checkModified = checkModified;
+  }
+
+  /**
+   * キャッシュを表すクラスです。
+   */
+  private static class Entry {
+
+    /** 解析済みのテンプレート */
+    private final CompiledTemplate compiledTemplate;
+    /** 読み込み時のテンプレートファイルの更新日時 */
+    private final long lastModified;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param compiledTemplate 解析済みのテンプレート
+     * @param lastModified 読み込み時のテンプレートファイルの更新日時
+     */
+    public Entry(CompiledTemplate compiledTemplate, long lastModified) {
+      this.compiledTemplate = compiledTemplate;
+      this.lastModified = lastModified;
+    }
+
+    /**
+     * 解析済みのテンプレートを取得します。
+     * 
+     * @return 解析済みのテンプレート
+     */
+    public CompiledTemplate getCompiledTemplate() {
+      return compiledTemplate;
+    }
+
+    /**
+     * 読み込み時のテンプレートファイルの更新日時を取得します。
+     * 
+     * @return 読み込み時のテンプレートファイルの更新日時
+     */
+    public long getLastModified() {
+      return lastModified;
+    }
+  }
+
+}
@@ -0,0 +1,16 @@
+package com.melip.entitygenerator.template;
+
+/**
+ * テンプレート内の変数の値を解決するインターフェースです。
+ */
+public interface VariableResolver {
+
+  /**
+   * 変数の値を解決します。
+   * 
+   * @param variable 変数（${XXX}）
+   * @return 変数の値、解決できない場合はnull
+   */
+  String resolve(String variable);
+
+}
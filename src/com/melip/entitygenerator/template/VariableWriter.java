@@ -0,0 +1,21 @@
+package com.melip.entitygenerator.template;
+
+import java.io.IOException;
+
+/**
+ * テンプレート内の変数の値を出力先に直接書き込むインターフェースです。<br>
+ * フィールドごとの定義のように、値を文字列として組み立てずに出力したい場合に使用します。
+ */
+public interface VariableWriter {
+
+  /**
+   * 変数の値を出力先に書き込みます。
+   * 
+   * @param variable 変数（${XXX}）
+   * @param out 出力先
+   * @return 書き込んだ場合true、解決できない変数の場合false
+   * @throws IOException
+   */
+  boolean write(String variable, Appendable out) throws IOException;
+
+}
@@ -0,0 +1,106 @@
+package com.melip.entitygenerator.validation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.io.Files;
+import com.melip.entitygenerator.EntityGeneratorUtils;
+import com.melip.entitygenerator.entity.Violation;
+
+/**
+ * テーブル定義書の検証結果です。<br>
+ * 検証したシート数と、見つかった不備をシートの順に保持し、JSON形式で出力できます。
+ */
+public class ValidationReport {
+
+  /** テーブル定義書の不備 */
+  private final List<Violation> violations = new ArrayList<Violation>();
+  /** 検証したシート数 */
+  private int sheetCount = 0;
+
+  /**
+   * 不備がないか判定します。
+   * 
+   * @return 不備がない場合true
+   */
+  public boolean isValid() {
+    return violations.isEmpty();
+  }
+
+  /**
+   * 検証結果をJSON形式の文字列にします。
+   * 
+   * @return JSON形式の文字列
+   */
+  public String toJson() {
+
+    StringBuilder sb = new StringBuilder();
+    sb.append("{\n");
+    sb.append("  \"valid\": ").append(isValid()).append(",\n");
+    sb.append("  \"sheetCount\": ").append(getSheetCount()).append(",\n");
+    sb.append("  \"violationCount\": ").append(violations.size()).append(",\n");
+
+    sb.append("  \"violations\": [");
+    String separator = "\n";
+    for (Violation violation : violations) {
+      sb.append(separator).append("    {\"code\": ");
+      EntityGeneratorUtils.appendJsonString(sb, violation.getCode());
+      sb.append(", \"sheet\": ");
+      EntityGeneratorUtils.appendJsonString(sb, violation.getSheetName());
+      sb.append(", \"row\": ").append(violation.getRow());
+      sb.append(", \"column\": ").append(violation.getColumn());
+      sb.append(", \"cell\": ");
+      EntityGeneratorUtils.appendJsonString(sb, violation.getCell());
+      sb.append(", \"value\": ");
+      EntityGeneratorUtils.appendJsonString(sb, violation.getValue());
+      sb.append(", \"message\": ");
+      EntityGeneratorUtils.appendJsonString(sb, violation.getMessage());
+      sb.append("}");
+      separator = ",\n";
+    }
+    sb.append("\n  ]\n");
+    sb.append("}\n");
+
+    return sb.toString();
+  }
+
+  /**
+   * 検証結果をJSON形式のファイルに出力します。
+   * 
+   * @param file 出力先ファイル
+   * @throws IOException
+   */
+  public void write(File file) throws IOException {
+    Files.write(toJson(), file, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * 検証したシート数を加算します。
+   */
+  void countSheet() {
+    sheetCount++;
+  }
+
+  /**
+   * テーブル定義書の不備を取得します。<br>
+   * シートの読み込み中は、読み込んだ不備がこのリストに追加されます。
+   * 
+   * @return テーブル定義書の不備
+   */
+  public List<Violation> getViolations() {
+    return violations;
+  }
+
+  /**
+   * 検証したシート数を取得します。
+   * 
+   * @return 検証したシート数
+   */
+  public int getSheetCount() {
+    return sheetCount;
+  }
+
+}
@@ -0,0 +1,214 @@
+package com.melip.entitygenerator.validation;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.melip.entitygenerator.entity.Domain;
+import com.melip.entitygenerator.entity.DomainCreator;
+import com.melip.entitygenerator.entity.Entity;
+import com.melip.entitygenerator.entity.EntityCreator;
+import com.melip.entitygenerator.entity.StringPool;
+import com.melip.entitygenerator.entity.Violation;
+import com.melip.entitygenerator.reader.SheetRowHandler;
+import com.melip.entitygenerator.reader.SheetVisitor;
+import com.melip.entitygenerator.reader.WorkbookReader;
+import com.melip.entitygenerator.rule.NameFilter;
+import com.melip.entitygenerator.rule.NameRuleSet;
+
+/**
+ * テーブル定義書の全シートを検証するクラスです。<br>
+ * 最初の不備で中断せず、ドメイン定義シートとエンティティシートを最後まで読み込んで不備をすべて記録します。
+ * シートをまたがる不備として、異なるシートのエンティティが同じクラス名になる場合（M_USERとT_USERなど）も検出します。
+ */
+public class WorkbookValidator {
+
+  private static final Logger log = LoggerFactory.getLogger(WorkbookValidator.class);
+
+  /** ドメイン定義シート名 */
+  private final String domainSheetName;
+  /** シート名のフィルター */
+  private final NameFilter sheetFilter;
+  /** フィールド論理名のフィルター */
+  private final NameFilter fieldFilter;
+  /** 検証するシートのルール（すべて検証する場合は空） */
+  private final NameRuleSet sheetSelection;
+  /** 読み込んだ文字列のプール */
+  private final StringPool stringPool = new StringPool();
+
+  /**
+   * コンストラクタ
+   * 
+   * @param domainSheetName ドメイン定義シート名
+   * @param sheetFilter シート名のフィルター
+   * @param fieldFilter フィールド論理名のフィルター
+   * @param sheetSelection 検証するシートのルール（すべて検証する場合は空）
+   */
+  public WorkbookValidator(String domainSheetName, NameFilter sheetFilter,
+      NameFilter fieldFilter, NameRuleSet sheetSelection) {
+
+    this.domainSheetName = domainSheetName;
+    this.sheetFilter = sheetFilter;
+    this.fieldFilter = fieldFilter;
+    this.sheetSelection = sheetSelection;
+  }
+
+  /**
+   * テーブル定義書を検証します。
+   * 
+   * @param reader テーブル定義書のリーダー
+   * @return 検証結果
+   * @throws IOException
+   */
+  public ValidationReport validate(WorkbookReader reader) throws IOException {
+
+    ValidationReport report = new ValidationReport();
+
+    DomainSheetVisitor domainVisitor = new DomainSheetVisitor(report);
+    reader.read(domainVisitor);
+    reader.read(new EntitySheetVisitor(domainVisitor.getDomain(), report));
+
+    return report;
+  }
+
+  /**
+   * シートが検証対象か判定します。
+   * 
+   * @param sheetName シート名
+   * @return 検証対象の場合true
+   */
+  private boolean isTargetSheet(String sheetName) {
+
+    if (sheetFilter.isIgnored(sheetName)) {
+      return false;
+    }
+    return sheetSelection.isEmpty() || null != sheetSelection.match(sheetName);
+  }
+
+  /**
+   * ドメイン定義シートを検証するビジターです。
+   */
+  private class DomainSheetVisitor implements SheetVisitor {
+
+    /** 検証結果 */
+    private final ValidationReport report;
+    /** ドメイン */
+    private Domain domain = null;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param report 検証結果
+     */
+    public DomainSheetVisitor(ValidationReport report) {
+      this.report = report;
+    }
+
+    /**
+     * @see com.melip.entitygenerator.reader.SheetVisitor#beforeSheet(java.lang.String)
+     */
+    @Override
+    public SheetRowHandler beforeSheet(String sheetName) {
+
+      if (!sheetName.equals(domainSheetName)) {
+        return null;
+      }
+      DomainCreator creator = new DomainCreator();
+      creator.setStringPool(stringPool);
+      creator.setViolations(report.getViolations());
+      return creator;
+    }
+
+    /**
+     * @see com.melip.entitygenerator.reader.SheetVisitor#afterSheet(java.lang.String,
+     *      com.melip.entitygenerator.reader.SheetRowHandler)
+     */
+    @Override
+    public void afterSheet(String sheetName, SheetRowHandler handler) {
+
+      domain = ((DomainCreator) handler).createDomain();
+      report.countSheet();
+    }
+
+    /**
+     * ドメインを取得します。
+     * 
+     * @return ドメイン、ドメイン定義シートが存在しない場合はnull
+     */
+    public Domain getDomain() {
+      return domain;
+    }
+  }
+
+  /**
+   * エンティティシートを検証するビジターです。<br>
+   * シートごとの不備はエンティティの読み込み時に記録し、クラス名の重複はシートの順に検出します。
+   */
+  private class EntitySheetVisitor implements SheetVisitor {
+
+    /** ドメイン */
+    private final Domain domain;
+    /** 検証結果 */
+    private final ValidationReport report;
+    /** クラス名ごとの最初のシート名 */
+    private final Map<String, String> classSheetMap = new HashMap<String, String>();
+
+    /**
+     * コンストラクタ
+     * 
+     * @param domain ドメイン
+     * @param report 検証結果
+     */
+    public EntitySheetVisitor(Domain domain, ValidationReport report) {
+      this.domain = domain;
+      this.report = report;
+    }
+
+    /**
+     * @see com.melip.entitygenerator.reader.SheetVisitor#beforeSheet(java.lang.String)
+     */
+    @Override
+    public SheetRowHandler beforeSheet(String sheetName) {
+
+      if (!isTargetSheet(sheetName)) {
+        return null;
+      }
+      log.debug("シート[" + sheetName + "]を検証します。");
+      EntityCreator creator = new EntityCreator(fieldFilter, domain);
+      creator.setStringPool(stringPool);
+      creator.setViolations(report.getViolations());
+      return creator;
+    }
+
+    /**
+     * @see com.melip.entitygenerator.reader.SheetVisitor#afterSheet(java.lang.String,
+     *      com.melip.entitygenerator.reader.SheetRowHandler)
+     */
+    @Override
+    public void afterSheet(String sheetName, SheetRowHandler handler) {
+
+      EntityCreator creator = (EntityCreator) handler;
+      Entity entity = creator.createEntity();
+      report.countSheet();
+      if (null == entity.getClassName()) {
+        return;
+      }
+
+      String firstSheetName = classSheetMap.get(entity.getClassName());
+      if (null == firstSheetName) {
+        classSheetMap.put(entity.getClassName(), sheetName);
+        return;
+      }
+      int item = EntityCreator.HEADER_ENTITY_PHYSICAL_NAME;
+      report.getViolations().add(
+          new Violation(Violation.DUPLICATE_CLASS_NAME, sheetName, creator.getLayout()
+              .getHeaderRow(item) + 1, creator.getLayout().getHeaderColumn(item) + 1, entity
+              .getPhysicalName(), "クラス名[" + entity.getClassName() + "]がシート[" + firstSheetName
+              + "]と重複しています。"));
+    }
+  }
+
+}